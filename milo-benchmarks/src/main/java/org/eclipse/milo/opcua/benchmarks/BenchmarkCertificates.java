@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2019 the Eclipse Milo Authors
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.milo.opcua.benchmarks;
+
+import java.security.KeyPair;
+import java.security.Security;
+import java.security.cert.X509Certificate;
+
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.eclipse.milo.opcua.stack.core.util.SelfSignedCertificateBuilder;
+import org.eclipse.milo.opcua.stack.core.util.SelfSignedCertificateGenerator;
+
+/**
+ * Self-signed client and server certificates shared by the benchmarks that need a secured channel.
+ * <p>
+ * The certificates are generated the first time this class is used so the benchmarks never depend on a keystore
+ * whose certificates may have expired.
+ */
+public final class BenchmarkCertificates {
+
+    static {
+        Security.addProvider(new BouncyCastleProvider());
+    }
+
+    public static final String CLIENT_APPLICATION_URI = "urn:eclipse:milo:benchmarks:client";
+    public static final String SERVER_APPLICATION_URI = "urn:eclipse:milo:benchmarks:server";
+
+    private static final BenchmarkCertificates CLIENT = generate("Milo Benchmark Client", CLIENT_APPLICATION_URI);
+    private static final BenchmarkCertificates SERVER = generate("Milo Benchmark Server", SERVER_APPLICATION_URI);
+
+    private final KeyPair keyPair;
+    private final X509Certificate certificate;
+
+    private BenchmarkCertificates(KeyPair keyPair, X509Certificate certificate) {
+        this.keyPair = keyPair;
+        this.certificate = certificate;
+    }
+
+    public KeyPair getKeyPair() {
+        return keyPair;
+    }
+
+    public X509Certificate getCertificate() {
+        return certificate;
+    }
+
+    public static BenchmarkCertificates client() {
+        return CLIENT;
+    }
+
+    public static BenchmarkCertificates server() {
+        return SERVER;
+    }
+
+    private static BenchmarkCertificates generate(String commonName, String applicationUri) {
+        try {
+            KeyPair keyPair = SelfSignedCertificateGenerator.generateRsaKeyPair(2048);
+
+            X509Certificate certificate = new SelfSignedCertificateBuilder(keyPair)
+                .setCommonName(commonName)
+                .setApplicationUri(applicationUri)
+                .addDnsName("localhost")
+                .addIpAddress("127.0.0.1")
+                .build();
+
+            return new BenchmarkCertificates(keyPair, certificate);
+        } catch (Exception e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+}
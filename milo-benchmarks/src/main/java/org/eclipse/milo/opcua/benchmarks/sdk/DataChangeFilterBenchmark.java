@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2019 the Eclipse Milo Authors
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.milo.opcua.benchmarks.sdk;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.milo.opcua.sdk.core.ValueRanks;
+import org.eclipse.milo.opcua.sdk.server.util.DataChangeMonitoringFilter;
+import org.eclipse.milo.opcua.sdk.server.util.DeadbandComparator;
+import org.eclipse.milo.opcua.stack.core.BuiltinDataType;
+import org.eclipse.milo.opcua.stack.core.Identifiers;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.Variant;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.DataChangeTrigger;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.DeadbandType;
+import org.eclipse.milo.opcua.stack.core.types.structured.DataChangeFilter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.uint;
+
+/**
+ * A sampled value passed through the DataChangeFilter of a monitored item with an absolute deadband. The values
+ * change, but by less than the deadband, so every element is compared and nothing is reported.
+ * <p>
+ * Each sample is wrapped in a new Variant, as a sampled value would be, so boxing a primitive array isn't amortized.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DataChangeFilterBenchmark {
+
+    private static final double DEADBAND = 1.0;
+
+    private static final DataChangeFilter FILTER = new DataChangeFilter(
+        DataChangeTrigger.StatusValue,
+        uint(DeadbandType.Absolute.getValue()),
+        DEADBAND
+    );
+
+    /**
+     * The type of the sampled value: a scalar Double, a scalar Int32 or a 4096 element Float array.
+     */
+    @Param({"double", "int32", "float4k"})
+    public String type;
+
+    private DeadbandComparator comparator;
+
+    private Object[] samples;
+    private DataValue last;
+    private int index = 0;
+
+    @Setup
+    public void setup() {
+        NodeId dataType;
+        int valueRank;
+
+        switch (type) {
+            case "double":
+                dataType = Identifiers.Double;
+                valueRank = ValueRanks.Scalar;
+                samples = new Object[]{1.0, 1.5};
+                break;
+            case "int32":
+                dataType = Identifiers.Int32;
+                valueRank = ValueRanks.Scalar;
+                samples = new Object[]{1, 2};
+                break;
+            case "float4k":
+                dataType = Identifiers.Float;
+                valueRank = ValueRanks.OneDimension;
+                samples = new Object[]{new float[4096], new float[4096]};
+                Arrays.fill((float[]) samples[1], 0.5f);
+                break;
+            default:
+                throw new IllegalArgumentException("type: " + type);
+        }
+
+        comparator = DeadbandComparator.of(dataType, valueRank);
+
+        last = sample();
+    }
+
+    /**
+     * Filter using a comparator chosen from the value's DataType and ValueRank.
+     */
+    @Benchmark
+    public boolean filter() {
+        return DataChangeMonitoringFilter.filter(
+            last,
+            sample(),
+            DataChangeTrigger.StatusValue,
+            comparator,
+            DEADBAND
+        );
+    }
+
+    /**
+     * Filter using only the {@link DataChangeFilter}, checking what kind of value it is on every sample.
+     */
+    @Benchmark
+    public boolean filterGeneric() {
+        return DataChangeMonitoringFilter.filter(last, sample(), FILTER);
+    }
+
+    private DataValue sample() {
+        Object value = samples[index++ & 1];
+
+        if (value instanceof float[]) {
+            return new DataValue(Variant.ofPrimitiveArray(BuiltinDataType.Float, value));
+        } else {
+            return new DataValue(new Variant(value));
+        }
+    }
+
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2019 the Eclipse Milo Authors
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.milo.opcua.benchmarks.sdk;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.eclipse.milo.opcua.sdk.server.OpcUaServer;
+import org.eclipse.milo.opcua.sdk.server.UaNodeManager;
+import org.eclipse.milo.opcua.sdk.server.api.NodeManager;
+import org.eclipse.milo.opcua.sdk.server.historian.EmbeddedHistorian;
+import org.eclipse.milo.opcua.sdk.server.historian.HistorianConfig;
+import org.eclipse.milo.opcua.sdk.server.nodes.UaNode;
+import org.eclipse.milo.opcua.sdk.server.nodes.UaNodeContext;
+import org.eclipse.milo.opcua.sdk.server.nodes.UaVariableNode;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DateTime;
+import org.eclipse.milo.opcua.stack.core.types.builtin.LocalizedText;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.QualifiedName;
+import org.eclipse.milo.opcua.stack.core.types.builtin.StatusCode;
+import org.eclipse.milo.opcua.stack.core.types.builtin.Variant;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Values of a single Node recorded by an {@link EmbeddedHistorian}, at increasing source timestamps, including the
+ * compression and segment writes done by the historian's flush thread.
+ * <p>
+ * {@link #record()} calls the historian directly; {@link #setValue()} sets the value of a historizing variable in a
+ * NodeManager the historian was attached to, the way a server records values.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HistorianIngestBenchmark {
+
+    private static final NodeId NODE_ID = new NodeId(2, "ingest");
+
+    private Path directory;
+    private EmbeddedHistorian historian;
+    private UaVariableNode node;
+
+    private long time = DateTime.now().getUtcTime();
+
+    @Setup
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("historian");
+
+        historian = new EmbeddedHistorian(() -> directory);
+        historian.startup();
+
+        UaNodeManager nodeManager = new UaNodeManager();
+
+        node = new UaVariableNode(
+            new UaNodeContext() {
+                @Override
+                public OpcUaServer getServer() {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public NodeManager<UaNode> getNodeManager() {
+                    return nodeManager;
+                }
+            },
+            NODE_ID,
+            new QualifiedName(2, "ingest"),
+            LocalizedText.english("ingest")
+        );
+        node.setHistorizing(true);
+
+        nodeManager.addNode(node);
+
+        historian.historize(nodeManager);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        historian.shutdown();
+
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Benchmark
+    public void record() {
+        historian.record(NODE_ID, sample());
+    }
+
+    @Benchmark
+    public void setValue() {
+        node.setValue(sample());
+    }
+
+    private DataValue sample() {
+        DateTime sourceTime = new DateTime(time++);
+
+        return new DataValue(new Variant((double) (time & 0xFFFF)), StatusCode.GOOD, sourceTime, sourceTime);
+    }
+
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2019 the Eclipse Milo Authors
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.milo.opcua.benchmarks.sdk;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.milo.opcua.sdk.server.OpcUaServer;
+import org.eclipse.milo.opcua.sdk.server.UaNodeManager;
+import org.eclipse.milo.opcua.sdk.server.api.NodeManager;
+import org.eclipse.milo.opcua.sdk.server.namespaces.loader.UaNodeLoader;
+import org.eclipse.milo.opcua.sdk.server.nodes.UaNode;
+import org.eclipse.milo.opcua.sdk.server.nodes.UaNodeContext;
+import org.eclipse.milo.opcua.stack.core.NamespaceTable;
+import org.eclipse.milo.opcua.stack.core.Stack;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Loading the namespace 0 address space into a new {@link UaNodeManager}, as {@code OpcUaNamespace} does when a
+ * server starts up.
+ * <p>
+ * Each fork loads it once, so the times include class loading and run in the interpreter, like a server starting in
+ * a new JVM.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+@State(Scope.Benchmark)
+public class NamespaceLoadBenchmark {
+
+    /**
+     * Whether the loaders run one after another on the calling thread or in parallel on the shared stack executor.
+     */
+    @Param({"sequential", "parallel"})
+    public String mode;
+
+    @Benchmark
+    public NodeManager<UaNode> loadNodes() throws Exception {
+        UaNodeManager nodeManager = new UaNodeManager();
+        NamespaceTable namespaceTable = new NamespaceTable();
+
+        UaNodeContext context = new UaNodeContext() {
+            @Override
+            public OpcUaServer getServer() {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public NodeManager<UaNode> getNodeManager() {
+                return nodeManager;
+            }
+
+            @Override
+            public NamespaceTable getNamespaceTable() {
+                return namespaceTable;
+            }
+        };
+
+        UaNodeLoader loader = new UaNodeLoader(context, nodeManager);
+
+        if ("parallel".equals(mode)) {
+            ExecutorService executor = Stack.sharedExecutor();
+
+            loader.loadNodes(executor);
+        } else {
+            loader.loadNodes();
+        }
+
+        return nodeManager;
+    }
+
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2019 the Eclipse Milo Authors
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.milo.opcua.benchmarks.sdk;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.collect.ImmutableSet;
+import org.eclipse.milo.opcua.sdk.core.Reference;
+import org.eclipse.milo.opcua.sdk.server.UaNodeManager;
+import org.eclipse.milo.opcua.sdk.server.api.AbstractNodeManager;
+import org.eclipse.milo.opcua.stack.core.Identifiers;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Reference lookups on an {@link AbstractNodeManager}, the work done for each node visited by a Browse.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NodeManagerBrowseBenchmark {
+
+    private static final NodeId[] REFERENCE_TYPES = new NodeId[]{
+        Identifiers.HasComponent,
+        Identifiers.HasProperty,
+        Identifiers.Organizes,
+        Identifiers.HasTypeDefinition,
+        Identifiers.HasModellingRule,
+        Identifiers.HasNotifier
+    };
+
+    private static final Set<NodeId> HIERARCHICAL = ImmutableSet.of(
+        Identifiers.HasComponent,
+        Identifiers.Organizes
+    );
+
+    /**
+     * The number of nodes with references.
+     */
+    @Param({"10000", "100000"})
+    public int nodeCount;
+
+    /**
+     * The number of references from each node.
+     */
+    @Param({"8", "64"})
+    public int referencesPerNode;
+
+    private final UaNodeManager nodeManager = new UaNodeManager();
+
+    private NodeId[] nodeIds;
+
+    @Setup
+    public void setup() {
+        nodeIds = new NodeId[nodeCount];
+
+        for (int i = 0; i < nodeCount; i++) {
+            nodeIds[i] = new NodeId(2, i);
+        }
+
+        for (int i = 0; i < nodeCount; i++) {
+            for (int j = 0; j < referencesPerNode; j++) {
+                NodeId target = nodeIds[(i + j + 1) % nodeCount];
+
+                nodeManager.addReference(new Reference(
+                    nodeIds[i],
+                    REFERENCE_TYPES[j % REFERENCE_TYPES.length],
+                    target.expanded(),
+                    Reference.Direction.FORWARD
+                ));
+            }
+        }
+    }
+
+    /**
+     * All references of a node, as for a Browse of every reference type.
+     */
+    @Benchmark
+    public List<Reference> getReferences() {
+        return nodeManager.getReferences(randomNodeId());
+    }
+
+    /**
+     * References of a node with one of a set of types, as for a Browse with a reference type filter.
+     */
+    @Benchmark
+    public List<Reference> getReferencesByType() {
+        return nodeManager.getReferences(randomNodeId(), HIERARCHICAL);
+    }
+
+    /**
+     * References of a node with one of a set of types, filtered by testing every reference.
+     */
+    @Benchmark
+    public List<Reference> getReferencesByPredicate() {
+        return nodeManager.getReferences(
+            randomNodeId(),
+            reference -> HIERARCHICAL.contains(reference.getReferenceTypeId())
+        );
+    }
+
+    private NodeId randomNodeId() {
+        return nodeIds[ThreadLocalRandom.current().nextInt(nodeCount)];
+    }
+
+}
@@ -0,0 +1,233 @@
+/*
+ * Copyright (c) 2019 the Eclipse Milo Authors
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.milo.opcua.benchmarks.sdk;
+
+import java.io.File;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.common.io.Files;
+import com.google.common.util.concurrent.MoreExecutors;
+import org.eclipse.milo.opcua.sdk.server.OpcUaServer;
+import org.eclipse.milo.opcua.sdk.server.api.config.OpcUaServerConfig;
+import org.eclipse.milo.opcua.sdk.server.api.config.OpcUaServerConfigLimits;
+import org.eclipse.milo.opcua.sdk.server.identity.AnonymousIdentityValidator;
+import org.eclipse.milo.opcua.sdk.server.subscriptions.PublishQueue;
+import org.eclipse.milo.opcua.sdk.server.subscriptions.PublishingScheduler;
+import org.eclipse.milo.opcua.sdk.server.subscriptions.Subscription;
+import org.eclipse.milo.opcua.sdk.server.subscriptions.SubscriptionManager;
+import org.eclipse.milo.opcua.stack.core.security.DefaultCertificateManager;
+import org.eclipse.milo.opcua.stack.core.security.DefaultCertificateValidator;
+import org.eclipse.milo.opcua.stack.core.security.DefaultTrustListManager;
+import org.eclipse.milo.opcua.stack.core.serialization.UaResponseMessage;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DateTime;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.structured.BuildInfo;
+import org.eclipse.milo.opcua.stack.core.types.structured.PublishRequest;
+import org.eclipse.milo.opcua.stack.core.types.structured.RequestHeader;
+import org.eclipse.milo.opcua.stack.core.types.structured.SubscriptionAcknowledgement;
+import org.eclipse.milo.opcua.stack.server.services.ServiceRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.uint;
+
+/**
+ * The latency of a Publish request through a {@link PublishQueue} shared by several Subscriptions: each thread
+ * elapses the publishing timer of its idle Subscription, which wait-lists it to send a keep-alive, adds a Publish
+ * request, and elapses the timer again until a keep-alive has been returned for the request.
+ * <p>
+ * Each thread's Subscription has its own {@link PublishingScheduler}, whose tick the thread runs itself. Requests are
+ * matched with whichever Subscriptions are waiting, highest priority first, so the sampled times include waiting for
+ * other threads' requests; the percentiles show how that wait is spread.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class PublishQueueBenchmark {
+
+    private static final ExecutorService DIRECT_EXECUTOR = MoreExecutors.newDirectExecutorService();
+
+    @State(Scope.Benchmark)
+    public static class Server {
+
+        private final AtomicInteger subscriptionIds = new AtomicInteger(0);
+
+        private ManualScheduler scheduler;
+        private OpcUaServer server;
+        private SubscriptionManager subscriptionManager;
+
+        @Setup
+        public void setup() throws Exception {
+            File securityDir = Files.createTempDir();
+            DefaultTrustListManager trustListManager = new DefaultTrustListManager(securityDir);
+
+            OpcUaServerConfig config = OpcUaServerConfig.builder()
+                .setCertificateManager(new DefaultCertificateManager())
+                .setTrustListManager(trustListManager)
+                .setCertificateValidator(new DefaultCertificateValidator(trustListManager))
+                .setIdentityValidator(AnonymousIdentityValidator.INSTANCE)
+                .setBuildInfo(new BuildInfo("", "", "", "", "", DateTime.MIN_VALUE))
+                .setLimits(new OpcUaServerConfigLimits() {})
+                .build();
+
+            scheduler = new ManualScheduler();
+
+            server = new OpcUaServer(config) {
+                @Override
+                public ScheduledExecutorService getScheduledExecutorService() {
+                    return scheduler;
+                }
+
+                @Override
+                public ExecutorService getExecutorService() {
+                    return DIRECT_EXECUTOR;
+                }
+            };
+
+            subscriptionManager = new SubscriptionManager(null, server);
+        }
+
+        @TearDown
+        public void tearDown() {
+            scheduler.shutdownNow();
+        }
+
+        /**
+         * Start the publishing timer of {@code subscription} on a scheduler of its own.
+         *
+         * @return the tick of the timer, which elapses it on the calling thread.
+         */
+        private synchronized Runnable startPublishingTimer(PublishingScheduler publishingScheduler,
+                                                           Subscription subscription) {
+
+            publishingScheduler.add(subscription);
+
+            return scheduler.periodic;
+        }
+
+    }
+
+    @State(Scope.Thread)
+    public static class Client {
+
+        private Subscription subscription;
+        private PublishingScheduler publishingScheduler;
+        private Runnable publishingTick;
+        private Server server;
+
+        private long requestHandle = 0L;
+
+        @Setup
+        public void setup(Server server) {
+            this.server = server;
+
+            int id = server.subscriptionIds.incrementAndGet();
+
+            // every other thread's Subscription has a higher priority; a keep-alive is due every time the publishing
+            // timer elapses
+            subscription = new Subscription(
+                server.subscriptionManager, uint(id), 100.0, 1, 10_000, 0, true, (id % 2) * 100);
+
+            publishingScheduler = new PublishingScheduler(server.server, 1L);
+            publishingTick = server.startPublishingTimer(publishingScheduler, subscription);
+        }
+
+        @TearDown
+        public void tearDown() {
+            publishingScheduler.remove(subscription);
+            subscription.deleteSubscription();
+        }
+
+    }
+
+    @Benchmark
+    public UaResponseMessage publish(Client client) {
+        RequestHeader header = new RequestHeader(
+            NodeId.NULL_VALUE,
+            DateTime.now(),
+            uint(++client.requestHandle),
+            uint(0),
+            null,
+            uint(0),
+            null
+        );
+
+        PublishRequest request = new PublishRequest(header, new SubscriptionAcknowledgement[0]);
+
+        ServiceRequest service = new ServiceRequest(
+            client.server.server.getStackServer(), request, null, 0L, null, null);
+
+        PublishQueue publishQueue = client.server.subscriptionManager.getPublishQueue();
+
+        // an idle Subscription is wait-listed; one still waiting from an earlier tick stays on the wait list
+        client.publishingTick.run();
+        publishQueue.addRequest(service);
+
+        while (!service.getFuture().isDone()) {
+            Thread.yield();
+
+            // the timer keeps elapsing while the request waits, so a request queued because no Subscription was
+            // waiting is answered with the next keep-alive that's due
+            client.publishingTick.run();
+        }
+
+        return service.getFuture().getNow(null);
+    }
+
+    /**
+     * A scheduler that never runs anything, so the threads alone decide when the publishing timers elapse. It
+     * remembers the last periodic task it was given, which is the tick of the publishing timer started last.
+     */
+    private static final class ManualScheduler extends ScheduledThreadPoolExecutor {
+
+        private volatile Runnable periodic;
+
+        ManualScheduler() {
+            super(1);
+
+            setRemoveOnCancelPolicy(true);
+        }
+
+        @Override
+        public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+            ScheduledFuture<?> future = super.schedule(command, 1, TimeUnit.DAYS);
+            future.cancel(false);
+            return future;
+        }
+
+        @Override
+        public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period, TimeUnit unit) {
+            periodic = command;
+
+            return schedule(command, initialDelay, unit);
+        }
+
+    }
+
+}
@@ -0,0 +1,269 @@
+/*
+ * Copyright (c) 2019 the Eclipse Milo Authors
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.milo.opcua.benchmarks.sdk;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.io.Files;
+import com.google.common.util.concurrent.MoreExecutors;
+import org.eclipse.milo.opcua.sdk.server.OpcUaServer;
+import org.eclipse.milo.opcua.sdk.server.api.config.OpcUaServerConfig;
+import org.eclipse.milo.opcua.sdk.server.api.config.OpcUaServerConfigLimits;
+import org.eclipse.milo.opcua.sdk.server.identity.AnonymousIdentityValidator;
+import org.eclipse.milo.opcua.sdk.server.items.BaseMonitoredItem;
+import org.eclipse.milo.opcua.sdk.server.items.MonitoredDataItem;
+import org.eclipse.milo.opcua.sdk.server.subscriptions.PublishingScheduler;
+import org.eclipse.milo.opcua.sdk.server.subscriptions.Subscription;
+import org.eclipse.milo.opcua.sdk.server.subscriptions.SubscriptionManager;
+import org.eclipse.milo.opcua.stack.core.AttributeId;
+import org.eclipse.milo.opcua.stack.core.security.DefaultCertificateManager;
+import org.eclipse.milo.opcua.stack.core.security.DefaultCertificateValidator;
+import org.eclipse.milo.opcua.stack.core.security.DefaultTrustListManager;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DateTime;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.QualifiedName;
+import org.eclipse.milo.opcua.stack.core.types.builtin.StatusCode;
+import org.eclipse.milo.opcua.stack.core.types.builtin.Variant;
+import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UInteger;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.MonitoringMode;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.TimestampsToReturn;
+import org.eclipse.milo.opcua.stack.core.types.structured.BuildInfo;
+import org.eclipse.milo.opcua.stack.core.types.structured.PublishRequest;
+import org.eclipse.milo.opcua.stack.core.types.structured.PublishResponse;
+import org.eclipse.milo.opcua.stack.core.types.structured.ReadValueId;
+import org.eclipse.milo.opcua.stack.core.types.structured.RequestHeader;
+import org.eclipse.milo.opcua.stack.core.types.structured.SubscriptionAcknowledgement;
+import org.eclipse.milo.opcua.stack.server.services.ServiceRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.uint;
+
+/**
+ * One publishing cycle of a {@link Subscription}: new values are sampled for some of its items, a Publish request
+ * arrives, and the publishing timer elapses and returns the notifications.
+ * <p>
+ * The server's scheduler never runs anything; the benchmark runs the tick the server's {@link PublishingScheduler}
+ * scheduled for the Subscription itself, and the tick elapses the publishing timer on the calling thread, instead of
+ * waiting for it to be scheduled.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SubscriptionPublishBenchmark {
+
+    private static final ExecutorService DIRECT_EXECUTOR = MoreExecutors.newDirectExecutorService();
+
+    /**
+     * The number of MonitoredItems in the Subscription.
+     */
+    @Param({"100", "1000", "10000"})
+    public int itemCount;
+
+    /**
+     * The percentage of MonitoredItems with a new value in each publishing cycle.
+     */
+    @Param({"1", "100"})
+    public int changedPercent;
+
+    private ManualScheduler scheduler;
+    private OpcUaServer server;
+    private SubscriptionManager subscriptionManager;
+    private Subscription subscription;
+    private Runnable publishingTick;
+
+    private MonitoredDataItem[] items;
+    private int changedCount;
+    private int nextItem = 0;
+
+    private long cycle = 0L;
+
+    @Setup
+    public void setup() throws Exception {
+        File securityDir = Files.createTempDir();
+        DefaultTrustListManager trustListManager = new DefaultTrustListManager(securityDir);
+
+        OpcUaServerConfig config = OpcUaServerConfig.builder()
+            .setCertificateManager(new DefaultCertificateManager())
+            .setTrustListManager(trustListManager)
+            .setCertificateValidator(new DefaultCertificateValidator(trustListManager))
+            .setIdentityValidator(AnonymousIdentityValidator.INSTANCE)
+            .setBuildInfo(new BuildInfo("", "", "", "", "", DateTime.MIN_VALUE))
+            .setLimits(new OpcUaServerConfigLimits() {})
+            .build();
+
+        scheduler = new ManualScheduler();
+
+        server = new OpcUaServer(config) {
+            @Override
+            public ScheduledExecutorService getScheduledExecutorService() {
+                return scheduler;
+            }
+
+            @Override
+            public ExecutorService getExecutorService() {
+                return DIRECT_EXECUTOR;
+            }
+        };
+
+        subscriptionManager = new SubscriptionManager(null, server);
+
+        subscription = new Subscription(
+            subscriptionManager,
+            uint(1),
+            100.0,
+            10,
+            1000,
+            0,
+            true,
+            0
+        );
+
+        items = new MonitoredDataItem[itemCount];
+
+        List<BaseMonitoredItem<?>> created = new ArrayList<>(itemCount);
+
+        for (int i = 0; i < itemCount; i++) {
+            ReadValueId readValueId = new ReadValueId(
+                new NodeId(2, i),
+                uint(AttributeId.Value.id()),
+                null,
+                QualifiedName.NULL_VALUE
+            );
+
+            items[i] = new MonitoredDataItem(
+                server,
+                null,
+                uint(i + 1),
+                subscription.getId(),
+                readValueId,
+                MonitoringMode.Reporting,
+                TimestampsToReturn.Both,
+                uint(i),
+                100.0,
+                null,
+                uint(1),
+                true
+            );
+
+            created.add(items[i]);
+        }
+
+        subscription.addMonitoredItems(created);
+
+        changedCount = Math.max(1, itemCount * changedPercent / 100);
+
+        server.getPublishingScheduler().add(subscription);
+
+        publishingTick = scheduler.periodic;
+    }
+
+    @TearDown
+    public void tearDown() {
+        server.getPublishingScheduler().remove(subscription);
+        subscription.deleteSubscription();
+        scheduler.shutdownNow();
+    }
+
+    @Benchmark
+    public PublishResponse publish() {
+        cycle++;
+
+        DataValue value = new DataValue(new Variant(cycle), StatusCode.GOOD, DateTime.now(), DateTime.now());
+
+        for (int i = 0; i < changedCount; i++) {
+            items[nextItem].setValue(value);
+            nextItem = (nextItem + 1) % itemCount;
+        }
+
+        RequestHeader header = new RequestHeader(
+            NodeId.NULL_VALUE,
+            DateTime.now(),
+            uint(cycle),
+            uint(0),
+            null,
+            uint(60000),
+            null
+        );
+
+        PublishRequest request = new PublishRequest(header, new SubscriptionAcknowledgement[0]);
+
+        ServiceRequest service = new ServiceRequest(null, request, null, 0L, null, null);
+
+        subscriptionManager.getPublishQueue().addRequest(service);
+
+        publishingTick.run();
+
+        PublishResponse response = (PublishResponse) service.getFuture().getNow(null);
+
+        if (response == null) {
+            throw new IllegalStateException("no PublishResponse after publishing timer elapsed");
+        }
+
+        // a client acknowledges each notification message in its next Publish request
+        UInteger sequenceNumber = response.getNotificationMessage().getSequenceNumber();
+        subscription.acknowledge(sequenceNumber);
+
+        return response;
+    }
+
+    /**
+     * A scheduler that never runs anything, so the benchmark alone decides when the publishing timer elapses. It
+     * remembers the last periodic task it was given, which is the tick of the Subscription's publishing timer.
+     */
+    private static final class ManualScheduler extends ScheduledThreadPoolExecutor {
+
+        private volatile Runnable periodic;
+
+        ManualScheduler() {
+            super(1);
+
+            setRemoveOnCancelPolicy(true);
+        }
+
+        @Override
+        public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+            ScheduledFuture<?> future = super.schedule(command, 1, TimeUnit.DAYS);
+            future.cancel(false);
+            return future;
+        }
+
+        @Override
+        public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period, TimeUnit unit) {
+            periodic = command;
+
+            return schedule(command, initialDelay, unit);
+        }
+
+    }
+
+}
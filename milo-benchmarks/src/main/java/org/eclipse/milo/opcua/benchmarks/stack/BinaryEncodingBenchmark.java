@@ -0,0 +1,314 @@
+/*
+ * Copyright (c) 2019 the Eclipse Milo Authors
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.milo.opcua.benchmarks.stack;
+
+import java.util.concurrent.TimeUnit;
+
+import io.netty.buffer.ByteBuf;
+import org.eclipse.milo.opcua.stack.core.AttributeId;
+import org.eclipse.milo.opcua.stack.core.serialization.EncodingLimits;
+import org.eclipse.milo.opcua.stack.core.serialization.OpcUaBinaryStreamDecoder;
+import org.eclipse.milo.opcua.stack.core.serialization.OpcUaBinaryStreamEncoder;
+import org.eclipse.milo.opcua.stack.core.serialization.UaMessage;
+import org.eclipse.milo.opcua.stack.core.types.OpcUaDataTypeManager;
+import org.eclipse.milo.opcua.stack.core.types.OpcUaDefaultBinaryEncoding;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DateTime;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DiagnosticInfo;
+import org.eclipse.milo.opcua.stack.core.types.builtin.ExtensionObject;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.QualifiedName;
+import org.eclipse.milo.opcua.stack.core.types.builtin.StatusCode;
+import org.eclipse.milo.opcua.stack.core.types.builtin.Variant;
+import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UInteger;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.MonitoringMode;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.TimestampsToReturn;
+import org.eclipse.milo.opcua.stack.core.types.structured.CreateMonitoredItemsRequest;
+import org.eclipse.milo.opcua.stack.core.types.structured.DataChangeNotification;
+import org.eclipse.milo.opcua.stack.core.types.structured.MonitoredItemCreateRequest;
+import org.eclipse.milo.opcua.stack.core.types.structured.MonitoredItemNotification;
+import org.eclipse.milo.opcua.stack.core.types.structured.MonitoringParameters;
+import org.eclipse.milo.opcua.stack.core.types.structured.NotificationMessage;
+import org.eclipse.milo.opcua.stack.core.types.structured.PublishResponse;
+import org.eclipse.milo.opcua.stack.core.types.structured.ReadRequest;
+import org.eclipse.milo.opcua.stack.core.types.structured.ReadValueId;
+import org.eclipse.milo.opcua.stack.core.types.structured.RequestHeader;
+import org.eclipse.milo.opcua.stack.core.types.structured.ResponseHeader;
+import org.eclipse.milo.opcua.stack.core.types.structured.WriteRequest;
+import org.eclipse.milo.opcua.stack.core.types.structured.WriteValue;
+import org.eclipse.milo.opcua.stack.core.util.BufferUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.uint;
+
+/**
+ * Binary encoding and decoding of the service messages that dominate the traffic of a typical client: Read, Write,
+ * CreateMonitoredItems and Publish.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BinaryEncodingBenchmark {
+
+    /**
+     * The number of operations (nodes to read, values to write, items to create, notifications) in each message.
+     */
+    @Param({"1", "100", "1000"})
+    public int size;
+
+    private ReadRequest readRequest;
+    private WriteRequest writeRequest;
+    private CreateMonitoredItemsRequest createMonitoredItemsRequest;
+    private PublishResponse publishResponse;
+    private DataChangeNotification dataChangeNotification;
+
+    private ByteBuf encodeBuffer;
+    private OpcUaBinaryStreamEncoder encoder;
+
+    private ByteBuf readRequestBytes;
+    private ByteBuf writeRequestBytes;
+    private ByteBuf createMonitoredItemsRequestBytes;
+    private ByteBuf publishResponseBytes;
+    private OpcUaBinaryStreamDecoder decoder;
+
+    @Setup
+    public void setup() {
+        readRequest = readRequest(size);
+        writeRequest = writeRequest(size);
+        createMonitoredItemsRequest = createMonitoredItemsRequest(size);
+        publishResponse = publishResponse(size);
+        dataChangeNotification = dataChangeNotification(size);
+
+        encodeBuffer = BufferUtil.pooledBuffer();
+        encoder = new OpcUaBinaryStreamEncoder(encodeBuffer);
+
+        readRequestBytes = encoded(readRequest);
+        writeRequestBytes = encoded(writeRequest);
+        createMonitoredItemsRequestBytes = encoded(createMonitoredItemsRequest);
+        publishResponseBytes = encoded(publishResponse);
+        decoder = new OpcUaBinaryStreamDecoder();
+    }
+
+    @TearDown
+    public void tearDown() {
+        encodeBuffer.release();
+        readRequestBytes.release();
+        writeRequestBytes.release();
+        createMonitoredItemsRequestBytes.release();
+        publishResponseBytes.release();
+    }
+
+    @Benchmark
+    public int encodeReadRequest() {
+        return encode(readRequest);
+    }
+
+    @Benchmark
+    public UaMessage decodeReadRequest() {
+        return decode(readRequestBytes);
+    }
+
+    @Benchmark
+    public int encodeWriteRequest() {
+        return encode(writeRequest);
+    }
+
+    @Benchmark
+    public UaMessage decodeWriteRequest() {
+        return decode(writeRequestBytes);
+    }
+
+    @Benchmark
+    public int encodeCreateMonitoredItemsRequest() {
+        return encode(createMonitoredItemsRequest);
+    }
+
+    @Benchmark
+    public UaMessage decodeCreateMonitoredItemsRequest() {
+        return decode(createMonitoredItemsRequestBytes);
+    }
+
+    @Benchmark
+    public int encodePublishResponse() {
+        return encode(publishResponse);
+    }
+
+    /**
+     * Encode a DataChangeNotification into an ExtensionObject body and then a PublishResponse, as a Subscription
+     * publishing notifications did before ExtensionObject bodies could be deferred.
+     */
+    @Benchmark
+    public int encodePublishNotifications() {
+        return encode(publishResponse(ExtensionObject.encode(
+            dataChangeNotification,
+            dataChangeNotification.getBinaryEncodingId(),
+            OpcUaDefaultBinaryEncoding.getInstance(),
+            EncodingLimits.DEFAULT,
+            OpcUaDataTypeManager.getInstance()
+        )));
+    }
+
+    /**
+     * Encode a DataChangeNotification directly into a PublishResponse using a deferred ExtensionObject body.
+     */
+    @Benchmark
+    public int encodePublishNotificationsDeferred() {
+        return encode(publishResponse(ExtensionObject.encodeDeferred(
+            dataChangeNotification,
+            dataChangeNotification.getBinaryEncodingId(),
+            EncodingLimits.DEFAULT,
+            OpcUaDataTypeManager.getInstance()
+        )));
+    }
+
+    @Benchmark
+    public UaMessage decodePublishResponse() {
+        return decode(publishResponseBytes);
+    }
+
+    private int encode(UaMessage message) {
+        encodeBuffer.clear();
+        encoder.writeMessage(null, message);
+        return encodeBuffer.writerIndex();
+    }
+
+    private UaMessage decode(ByteBuf bytes) {
+        return decoder.setBuffer(bytes.readerIndex(0)).readMessage(null);
+    }
+
+    private static ByteBuf encoded(UaMessage message) {
+        ByteBuf buffer = BufferUtil.pooledBuffer();
+        new OpcUaBinaryStreamEncoder(buffer).writeMessage(null, message);
+        return buffer;
+    }
+
+    private static RequestHeader requestHeader() {
+        return new RequestHeader(
+            NodeId.NULL_VALUE,
+            DateTime.now(),
+            uint(1),
+            uint(0),
+            null,
+            uint(60000),
+            null
+        );
+    }
+
+    private static ResponseHeader responseHeader() {
+        return new ResponseHeader(
+            DateTime.now(),
+            uint(1),
+            StatusCode.GOOD,
+            null,
+            null,
+            null
+        );
+    }
+
+    private static ReadValueId readValueId(int i) {
+        return new ReadValueId(
+            new NodeId(2, "Device/Tag" + i),
+            uint(AttributeId.Value.id()),
+            null,
+            QualifiedName.NULL_VALUE
+        );
+    }
+
+    private static DataValue dataValue(int i) {
+        return new DataValue(new Variant(i * 1.5d), StatusCode.GOOD, DateTime.now(), DateTime.now());
+    }
+
+    static ReadRequest readRequest(int size) {
+        ReadValueId[] nodesToRead = new ReadValueId[size];
+
+        for (int i = 0; i < size; i++) {
+            nodesToRead[i] = readValueId(i);
+        }
+
+        return new ReadRequest(requestHeader(), 0.0, TimestampsToReturn.Both, nodesToRead);
+    }
+
+    static WriteRequest writeRequest(int size) {
+        WriteValue[] nodesToWrite = new WriteValue[size];
+
+        for (int i = 0; i < size; i++) {
+            nodesToWrite[i] = new WriteValue(
+                new NodeId(2, "Device/Tag" + i),
+                uint(AttributeId.Value.id()),
+                null,
+                new DataValue(new Variant(i * 1.5d), null, null)
+            );
+        }
+
+        return new WriteRequest(requestHeader(), nodesToWrite);
+    }
+
+    static CreateMonitoredItemsRequest createMonitoredItemsRequest(int size) {
+        MonitoredItemCreateRequest[] itemsToCreate = new MonitoredItemCreateRequest[size];
+
+        for (int i = 0; i < size; i++) {
+            itemsToCreate[i] = new MonitoredItemCreateRequest(
+                readValueId(i),
+                MonitoringMode.Reporting,
+                new MonitoringParameters(uint(i), 100.0, null, uint(10), true)
+            );
+        }
+
+        return new CreateMonitoredItemsRequest(requestHeader(), uint(1), TimestampsToReturn.Both, itemsToCreate);
+    }
+
+    static DataChangeNotification dataChangeNotification(int size) {
+        MonitoredItemNotification[] notifications = new MonitoredItemNotification[size];
+
+        for (int i = 0; i < size; i++) {
+            notifications[i] = new MonitoredItemNotification(uint(i), dataValue(i));
+        }
+
+        return new DataChangeNotification(notifications, new DiagnosticInfo[0]);
+    }
+
+    static PublishResponse publishResponse(int size) {
+        return publishResponse(ExtensionObject.encode(dataChangeNotification(size)));
+    }
+
+    private static PublishResponse publishResponse(ExtensionObject notificationData) {
+        NotificationMessage notificationMessage = new NotificationMessage(
+            uint(1),
+            DateTime.now(),
+            new ExtensionObject[]{notificationData}
+        );
+
+        return new PublishResponse(
+            responseHeader(),
+            uint(1),
+            new UInteger[]{uint(1)},
+            false,
+            notificationMessage,
+            new StatusCode[0],
+            new DiagnosticInfo[0]
+        );
+    }
+
+}
@@ -0,0 +1,265 @@
+/*
+ * Copyright (c) 2019 the Eclipse Milo Authors
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.milo.opcua.benchmarks.stack;
+
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.util.ReferenceCountUtil;
+import org.eclipse.milo.opcua.benchmarks.BenchmarkCertificates;
+import org.eclipse.milo.opcua.stack.client.transport.uasc.ClientSecureChannel;
+import org.eclipse.milo.opcua.stack.core.UaException;
+import org.eclipse.milo.opcua.stack.core.channel.ChannelParameters;
+import org.eclipse.milo.opcua.stack.core.channel.ChannelSecurity;
+import org.eclipse.milo.opcua.stack.core.channel.ChunkDecoder;
+import org.eclipse.milo.opcua.stack.core.channel.ChunkEncoder;
+import org.eclipse.milo.opcua.stack.core.channel.MessageAbortedException;
+import org.eclipse.milo.opcua.stack.core.channel.ServerSecureChannel;
+import org.eclipse.milo.opcua.stack.core.channel.messages.MessageType;
+import org.eclipse.milo.opcua.stack.core.security.SecurityPolicy;
+import org.eclipse.milo.opcua.stack.core.serialization.EncodingLimits;
+import org.eclipse.milo.opcua.stack.core.types.builtin.ByteString;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DateTime;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.MessageSecurityMode;
+import org.eclipse.milo.opcua.stack.core.types.structured.ChannelSecurityToken;
+import org.eclipse.milo.opcua.stack.core.util.BufferUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static org.eclipse.milo.opcua.stack.core.channel.MessageLimits.DEFAULT_MAX_CHUNK_SIZE;
+import static org.eclipse.milo.opcua.stack.core.channel.MessageLimits.DEFAULT_MAX_MESSAGE_SIZE;
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.uint;
+import static org.eclipse.milo.opcua.stack.core.util.NonceUtil.generateNonce;
+
+/**
+ * Symmetric chunk encoding and decoding of a message body under each {@link SecurityPolicy} and
+ * {@link MessageSecurityMode}, i.e. the per-message signing and encryption cost of an established channel.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ChunkEncodingBenchmark {
+
+    /**
+     * The {@link SecurityPolicy} and {@link MessageSecurityMode} of the channel, separated by a colon.
+     */
+    @Param({"None:None", "Basic128Rsa15:Sign", "Basic128Rsa15:SignAndEncrypt", "Basic256:Sign",
+        "Basic256:SignAndEncrypt", "Basic256Sha256:Sign", "Basic256Sha256:SignAndEncrypt"})
+    public String security;
+
+    /**
+     * The size of the message body, in bytes.
+     */
+    @Param({"1024", "65536", "1048576"})
+    public int messageSize;
+
+    private final ChannelParameters parameters = new ChannelParameters(
+        DEFAULT_MAX_MESSAGE_SIZE,
+        DEFAULT_MAX_CHUNK_SIZE,
+        DEFAULT_MAX_CHUNK_SIZE,
+        0,
+        DEFAULT_MAX_MESSAGE_SIZE,
+        DEFAULT_MAX_CHUNK_SIZE,
+        DEFAULT_MAX_CHUNK_SIZE,
+        0
+    );
+
+    private final ChunkEncoder encoder = new ChunkEncoder(parameters);
+
+    private final ChunkDecoder decoder = new ChunkDecoder(
+        parameters,
+        EncodingLimits.DEFAULT_MAX_ARRAY_LENGTH,
+        EncodingLimits.DEFAULT_MAX_STRING_LENGTH
+    );
+
+    private final List<ByteBuf> chunks = new ArrayList<>();
+    private final Callback callback = new Callback();
+
+    private ClientSecureChannel clientChannel;
+    private ServerSecureChannel serverChannel;
+
+    private ByteBuf messageBuffer;
+
+    private long requestId = 1L;
+
+    @Setup
+    public void setup() throws Exception {
+        String[] ss = security.split(":");
+        SecurityPolicy securityPolicy = SecurityPolicy.valueOf(ss[0]);
+        MessageSecurityMode messageSecurityMode = MessageSecurityMode.valueOf(ss[1]);
+
+        BenchmarkCertificates client = BenchmarkCertificates.client();
+        BenchmarkCertificates server = BenchmarkCertificates.server();
+
+        boolean secure = securityPolicy != SecurityPolicy.None;
+
+        ByteString clientNonce = generateNonce(securityPolicy);
+        ByteString serverNonce = generateNonce(securityPolicy);
+
+        clientChannel = new ClientSecureChannel(
+            secure ? client.getKeyPair() : null,
+            secure ? client.getCertificate() : null,
+            secure ? newArrayList(client.getCertificate()) : null,
+            secure ? server.getCertificate() : null,
+            secure ? newArrayList(server.getCertificate()) : null,
+            securityPolicy,
+            messageSecurityMode
+        );
+        clientChannel.setLocalNonce(clientNonce);
+        clientChannel.setRemoteNonce(serverNonce);
+
+        serverChannel = new ServerSecureChannel();
+        serverChannel.setSecurityPolicy(securityPolicy);
+        serverChannel.setMessageSecurityMode(messageSecurityMode);
+        serverChannel.setLocalNonce(serverNonce);
+        serverChannel.setRemoteNonce(clientNonce);
+
+        if (secure) {
+            serverChannel.setKeyPair(server.getKeyPair());
+            serverChannel.setLocalCertificate(server.getCertificate());
+            serverChannel.setLocalCertificateChain(new X509Certificate[]{server.getCertificate()});
+            serverChannel.setRemoteCertificate(client.getCertificate().getEncoded());
+
+            ChannelSecurity.SecurityKeys clientKeys = ChannelSecurity.generateKeyPair(
+                clientChannel,
+                clientChannel.getLocalNonce(),
+                clientChannel.getRemoteNonce()
+            );
+
+            clientChannel.setChannelSecurity(new ChannelSecurity(clientKeys, newToken()));
+
+            ChannelSecurity.SecurityKeys serverKeys = ChannelSecurity.generateKeyPair(
+                serverChannel,
+                serverChannel.getRemoteNonce(),
+                serverChannel.getLocalNonce()
+            );
+
+            serverChannel.setChannelSecurity(new ChannelSecurity(serverKeys, newToken()));
+        }
+
+        byte[] messageBytes = new byte[messageSize];
+        for (int i = 0; i < messageBytes.length; i++) {
+            messageBytes[i] = (byte) i;
+        }
+
+        messageBuffer = BufferUtil.pooledBuffer(messageSize).writeBytes(messageBytes);
+    }
+
+    @TearDown
+    public void tearDown() {
+        messageBuffer.release();
+    }
+
+    /**
+     * Encode the message into signed and/or encrypted chunks.
+     */
+    @Benchmark
+    public int encode() {
+        List<ByteBuf> encoded = encodeMessage();
+
+        int size = 0;
+        for (ByteBuf chunk : encoded) {
+            size += chunk.readableBytes();
+            chunk.release();
+        }
+        encoded.clear();
+
+        return size;
+    }
+
+    /**
+     * Encode the message on the client side of the channel and then verify, decrypt, and reassemble it on the server
+     * side.
+     */
+    @Benchmark
+    public int encodeAndDecode() {
+        List<ByteBuf> encoded = encodeMessage();
+
+        decoder.decodeSymmetric(serverChannel, new ArrayList<>(encoded), callback);
+        encoded.clear();
+
+        ByteBuf decoded = callback.decoded;
+        callback.decoded = null;
+
+        int size = decoded.readableBytes();
+        decoded.release();
+
+        return size;
+    }
+
+    private List<ByteBuf> encodeMessage() {
+        messageBuffer.readerIndex(0);
+
+        encoder.encodeSymmetric(
+            clientChannel,
+            requestId++,
+            messageBuffer,
+            MessageType.SecureMessage,
+            callback
+        );
+
+        return chunks;
+    }
+
+    private static ChannelSecurityToken newToken() {
+        return new ChannelSecurityToken(uint(0), uint(1), DateTime.now(), uint(60000));
+    }
+
+    private class Callback implements ChunkEncoder.Callback, ChunkDecoder.Callback {
+
+        private ByteBuf decoded;
+
+        @Override
+        public void onEncodingError(UaException ex) {
+            throw new IllegalStateException("encoding failed", ex);
+        }
+
+        @Override
+        public void onMessageEncoded(List<ByteBuf> messageChunks, long requestId) {
+            chunks.addAll(messageChunks);
+        }
+
+        @Override
+        public void onDecodingError(UaException ex) {
+            throw new IllegalStateException("decoding failed", ex);
+        }
+
+        @Override
+        public void onMessageAborted(MessageAbortedException ex) {
+            throw new IllegalStateException("message aborted", ex);
+        }
+
+        @Override
+        public void onMessageDecoded(ByteBuf message, long requestId) {
+            ReferenceCountUtil.release(decoded);
+            decoded = message;
+        }
+
+    }
+
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2019 the Eclipse Milo Authors
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.milo.opcua.benchmarks.stack;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.milo.opcua.stack.core.Stack;
+import org.eclipse.milo.opcua.stack.core.util.ExecutionQueue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Tasks submitted to an {@link ExecutionQueue} on the shared stack executor by several threads, the way a channel's
+ * SerializationQueue or a client's delivery queue is used: each invocation submits a batch of tasks and waits until
+ * they've run.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class ExecutionQueueBenchmark {
+
+    private static final int BATCH_SIZE = 1000;
+
+    /**
+     * The concurrency limit of the queue.
+     */
+    @Param({"1", "4"})
+    public int concurrencyLimit;
+
+    private ExecutionQueue queue;
+
+    @Setup
+    public void setup() {
+        ExecutorService executor = Stack.sharedExecutor();
+
+        queue = new ExecutionQueue(executor, concurrencyLimit);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public int submit() {
+        AtomicInteger remaining = new AtomicInteger(BATCH_SIZE);
+
+        Runnable task = remaining::decrementAndGet;
+
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            queue.submit(task);
+        }
+
+        int r;
+        while ((r = remaining.get()) > 0) {
+            Thread.yield();
+        }
+
+        return r;
+    }
+
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright (c) 2019 the Eclipse Milo Authors
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.milo.opcua.benchmarks.stack;
+
+import java.security.cert.X509Certificate;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.collect.Sets;
+import org.eclipse.milo.opcua.benchmarks.BenchmarkCertificates;
+import org.eclipse.milo.opcua.stack.client.UaStackClient;
+import org.eclipse.milo.opcua.stack.client.UaStackClientConfig;
+import org.eclipse.milo.opcua.stack.core.security.DefaultCertificateManager;
+import org.eclipse.milo.opcua.stack.core.security.InsecureCertificateValidator;
+import org.eclipse.milo.opcua.stack.core.security.SecurityPolicy;
+import org.eclipse.milo.opcua.stack.core.serialization.UaResponseMessage;
+import org.eclipse.milo.opcua.stack.core.transport.TransportProfile;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DateTime;
+import org.eclipse.milo.opcua.stack.core.types.builtin.StatusCode;
+import org.eclipse.milo.opcua.stack.core.types.builtin.Variant;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.MessageSecurityMode;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.TimestampsToReturn;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.UserTokenType;
+import org.eclipse.milo.opcua.stack.core.types.structured.EndpointDescription;
+import org.eclipse.milo.opcua.stack.core.types.structured.ReadRequest;
+import org.eclipse.milo.opcua.stack.core.types.structured.ReadResponse;
+import org.eclipse.milo.opcua.stack.core.types.structured.ReadValueId;
+import org.eclipse.milo.opcua.stack.core.types.structured.ResponseHeader;
+import org.eclipse.milo.opcua.stack.core.types.structured.UserTokenPolicy;
+import org.eclipse.milo.opcua.stack.server.EndpointConfiguration;
+import org.eclipse.milo.opcua.stack.server.UaStackServer;
+import org.eclipse.milo.opcua.stack.server.UaStackServerConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static org.eclipse.milo.opcua.stack.core.util.ConversionUtil.a;
+
+/**
+ * End-to-end Read round trips between a {@link UaStackClient} and a {@link UaStackServer} connected over loopback
+ * TCP, measuring both the latency of a single outstanding request and the throughput of many pipelined requests.
+ */
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoopbackReadBenchmark {
+
+    private static final int BIND_PORT = 12686;
+
+    private static final String PATH = "/benchmark";
+
+    private static final int PIPELINE_DEPTH = 64;
+
+    /**
+     * The {@link SecurityPolicy} and {@link MessageSecurityMode} of the channel, separated by a colon.
+     */
+    @Param({"None:None", "Basic256Sha256:SignAndEncrypt"})
+    public String security;
+
+    /**
+     * The number of nodes to read in each request.
+     */
+    @Param({"1", "100"})
+    public int size;
+
+    /**
+     * Whether the client and server decode symmetric messages in parallel.
+     */
+    @Param({"false", "true"})
+    public boolean parallelDecoding;
+
+    private UaStackServer server;
+    private UaStackClient client;
+
+    private ReadRequest request;
+    private ReadRequest[] pipelinedRequests;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        String[] ss = security.split(":");
+        SecurityPolicy securityPolicy = SecurityPolicy.valueOf(ss[0]);
+        MessageSecurityMode messageSecurityMode = MessageSecurityMode.valueOf(ss[1]);
+
+        BenchmarkCertificates serverCertificates = BenchmarkCertificates.server();
+        BenchmarkCertificates clientCertificates = BenchmarkCertificates.client();
+
+        EndpointConfiguration endpointConfiguration = EndpointConfiguration.newBuilder()
+            .setBindAddress("localhost")
+            .setBindPort(BIND_PORT)
+            .setHostname("localhost")
+            .setPath(PATH)
+            .setCertificate(serverCertificates.getCertificate())
+            .setSecurityPolicy(securityPolicy)
+            .setSecurityMode(messageSecurityMode)
+            .setTransportProfile(TransportProfile.TCP_UASC_UABINARY)
+            .addTokenPolicies(new UserTokenPolicy("anonymous", UserTokenType.Anonymous, null, null, null))
+            .build();
+
+        UaStackServerConfig serverConfig = UaStackServerConfig.builder()
+            .setApplicationUri(BenchmarkCertificates.SERVER_APPLICATION_URI)
+            .setCertificateManager(new DefaultCertificateManager(
+                serverCertificates.getKeyPair(),
+                serverCertificates.getCertificate()
+            ))
+            .setCertificateValidator(new InsecureCertificateValidator())
+            .setEndpoints(Sets.newHashSet(endpointConfiguration))
+            .setParallelDecodingEnabled(parallelDecoding)
+            .build();
+
+        server = new UaStackServer(serverConfig);
+
+        DataValue value = new DataValue(new Variant(42.0), StatusCode.GOOD, DateTime.now(), DateTime.now());
+
+        server.addServiceHandler(PATH, ReadRequest.class, service -> {
+            ReadRequest request = (ReadRequest) service.getRequest();
+
+            ResponseHeader header = new ResponseHeader(
+                DateTime.now(),
+                request.getRequestHeader().getRequestHandle(),
+                StatusCode.GOOD,
+                null,
+                null,
+                null
+            );
+
+            List<DataValue> results = Collections.nCopies(request.getNodesToRead().length, value);
+
+            service.setResponse(new ReadResponse(header, a(results, DataValue.class), null));
+        });
+
+        server.startup().get();
+
+        EndpointDescription endpoint = server.getEndpointDescriptions().stream()
+            .filter(e -> e.getSecurityPolicyUri().equals(securityPolicy.getUri()))
+            .filter(e -> e.getSecurityMode() == messageSecurityMode)
+            .findFirst()
+            .orElseThrow(() -> new IllegalStateException("no endpoint for " + security));
+
+        UaStackClientConfig clientConfig = UaStackClientConfig.builder()
+            .setEndpoint(endpoint)
+            .setKeyPair(clientCertificates.getKeyPair())
+            .setCertificate(clientCertificates.getCertificate())
+            .setCertificateValidator(new InsecureCertificateValidator() {
+                @Override
+                public void validate(X509Certificate certificate) {}
+
+                @Override
+                public void verifyTrustChain(List<X509Certificate> certificateChain) {}
+            })
+            .setParallelDecodingEnabled(parallelDecoding)
+            .build();
+
+        client = UaStackClient.create(clientConfig);
+        client.connect().get();
+
+        ReadValueId[] nodesToRead = BinaryEncodingBenchmark.readRequest(size).getNodesToRead();
+
+        request = new ReadRequest(client.newRequestHeader(), 0.0, TimestampsToReturn.Both, nodesToRead);
+
+        // each outstanding request needs its own handle
+        pipelinedRequests = new ReadRequest[PIPELINE_DEPTH];
+        for (int i = 0; i < PIPELINE_DEPTH; i++) {
+            pipelinedRequests[i] = new ReadRequest(
+                client.newRequestHeader(), 0.0, TimestampsToReturn.Both, nodesToRead);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        client.disconnect().get();
+        server.shutdown().get();
+    }
+
+    /**
+     * The latency of a Read with no other requests outstanding.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public UaResponseMessage read() throws Exception {
+        return client.sendRequest(request).get();
+    }
+
+    /**
+     * The throughput of Reads sent without waiting for the previous response, {@value #PIPELINE_DEPTH} at a time.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @OperationsPerInvocation(PIPELINE_DEPTH)
+    public void pipelinedRead() throws Exception {
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[PIPELINE_DEPTH];
+
+        for (int i = 0; i < PIPELINE_DEPTH; i++) {
+            futures[i] = client.sendRequest(pipelinedRequests[i]);
+        }
+
+        CompletableFuture.allOf(futures).get();
+    }
+
+}
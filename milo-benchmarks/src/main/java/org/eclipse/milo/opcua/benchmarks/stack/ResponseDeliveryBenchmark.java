@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2019 the Eclipse Milo Authors
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.milo.opcua.benchmarks.stack;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.milo.opcua.stack.client.ResponseDeliveryMode;
+import org.eclipse.milo.opcua.stack.client.UaStackClient;
+import org.eclipse.milo.opcua.stack.client.UaStackClientConfig;
+import org.eclipse.milo.opcua.stack.client.transport.UaTransport;
+import org.eclipse.milo.opcua.stack.core.Stack;
+import org.eclipse.milo.opcua.stack.core.serialization.UaRequestMessage;
+import org.eclipse.milo.opcua.stack.core.serialization.UaResponseMessage;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DateTime;
+import org.eclipse.milo.opcua.stack.core.types.builtin.StatusCode;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.TimestampsToReturn;
+import org.eclipse.milo.opcua.stack.core.types.structured.ReadRequest;
+import org.eclipse.milo.opcua.stack.core.types.structured.ReadResponse;
+import org.eclipse.milo.opcua.stack.core.types.structured.ResponseHeader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Responses delivered by a {@link UaStackClient} to callbacks that do a little work each, in each
+ * {@link ResponseDeliveryMode}. The transport responds to every request immediately, so only delivery is measured.
+ * <p>
+ * Each thread keys its requests by its own index, so {@link ResponseDeliveryMode#ORDERED_BY_KEY} delivers each
+ * thread's responses in order.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class ResponseDeliveryBenchmark {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final Logger logger = LoggerFactory.getLogger(ResponseDeliveryBenchmark.class);
+
+    @Param({"ORDERED", "ORDERED_BY_REQUEST_TYPE", "ORDERED_BY_KEY", "UNORDERED"})
+    public ResponseDeliveryMode mode;
+
+    /**
+     * How much work, in {@link Blackhole#consumeCPU(long)} tokens, each callback does.
+     */
+    @Param({"100"})
+    public long callbackWork;
+
+    private final AtomicInteger threadIndex = new AtomicInteger(0);
+
+    private UaStackClient client;
+
+    @Setup
+    public void setup() {
+        UaStackClientConfig config = UaStackClientConfig.builder()
+            .setExecutor(Stack.sharedExecutor())
+            .setResponseDeliveryMode(mode)
+            .build();
+
+        client = new UaStackClient(config, new ImmediateTransport());
+    }
+
+    @TearDown
+    public void tearDown() {
+        logger.info("mode={} delivery lag: {}", mode, client.getDeliveryLag());
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+
+        Integer key;
+
+        @Setup
+        public void setup(ResponseDeliveryBenchmark benchmark) {
+            key = benchmark.threadIndex.getAndIncrement();
+        }
+
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public int deliver(ThreadState state) throws Exception {
+        AtomicInteger remaining = new AtomicInteger(BATCH_SIZE);
+        CompletableFuture<Void> done = new CompletableFuture<>();
+
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            ReadRequest request = new ReadRequest(client.newRequestHeader(), 0.0, TimestampsToReturn.Both, null);
+
+            client.sendRequest(request, state.key).thenAccept(r -> {
+                Blackhole.consumeCPU(callbackWork);
+
+                if (remaining.decrementAndGet() == 0) {
+                    done.complete(null);
+                }
+            });
+        }
+
+        done.get();
+
+        return remaining.get();
+    }
+
+    private static class ImmediateTransport implements UaTransport {
+
+        @Override
+        public CompletableFuture<UaTransport> connect() {
+            return CompletableFuture.completedFuture(this);
+        }
+
+        @Override
+        public CompletableFuture<UaTransport> disconnect() {
+            return CompletableFuture.completedFuture(this);
+        }
+
+        @Override
+        public CompletableFuture<UaResponseMessage> sendRequest(UaRequestMessage request) {
+            ResponseHeader header = new ResponseHeader(
+                DateTime.now(),
+                request.getRequestHeader().getRequestHandle(),
+                StatusCode.GOOD,
+                null,
+                null,
+                null
+            );
+
+            return CompletableFuture.completedFuture(new ReadResponse(header, null, null));
+        }
+
+    }
+
+}
@@ -0,0 +1,402 @@
+/*
+ * Copyright (c) 2019 the Eclipse Milo Authors
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.milo.opcua.sdk.client;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import com.google.common.collect.Lists;
+import org.eclipse.milo.opcua.stack.core.AttributeId;
+import org.eclipse.milo.opcua.stack.core.Identifiers;
+import org.eclipse.milo.opcua.stack.core.Stack;
+import org.eclipse.milo.opcua.stack.core.StatusCodes;
+import org.eclipse.milo.opcua.stack.core.UaException;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.QualifiedName;
+import org.eclipse.milo.opcua.stack.core.types.builtin.StatusCode;
+import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UInteger;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.TimestampsToReturn;
+import org.eclipse.milo.opcua.stack.core.types.structured.BrowseDescription;
+import org.eclipse.milo.opcua.stack.core.types.structured.BrowseResult;
+import org.eclipse.milo.opcua.stack.core.types.structured.CallMethodRequest;
+import org.eclipse.milo.opcua.stack.core.types.structured.CallMethodResult;
+import org.eclipse.milo.opcua.stack.core.types.structured.MonitoredItemCreateRequest;
+import org.eclipse.milo.opcua.stack.core.types.structured.MonitoredItemCreateResult;
+import org.eclipse.milo.opcua.stack.core.types.structured.ReadValueId;
+import org.eclipse.milo.opcua.stack.core.types.structured.ViewDescription;
+import org.eclipse.milo.opcua.stack.core.types.structured.WriteValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static org.eclipse.milo.opcua.stack.core.util.ConversionUtil.l;
+
+/**
+ * Read, Write, Browse, Call and CreateMonitoredItems for lists of any size.
+ * <p>
+ * The server's {@link OperationLimits} are read once per session. Lists longer than the limit for a service are split
+ * into requests no larger than the limit, up to {@link #getMaxRequestsInFlight()} of which are outstanding at once,
+ * and the results are returned in the same order as the list they came from.
+ * <p>
+ * A request that fails with {@code Bad_TooManyOperations} is split in half and the halves are sent one after the other
+ * instead; the halved size is then used for the rest of the operation's requests too.
+ * <p>
+ * A request the server refused without processing ({@code Bad_TcpServerTooBusy}) is retried up to
+ * {@link #MAX_RETRIES} times, with a growing delay between attempts. Read and Browse, which have no side effects, are
+ * also retried after errors that leave it unknown whether the server processed the request ({@code Bad_Timeout},
+ * {@code Bad_RequestTimeout}, {@code Bad_ResourceUnavailable}, {@code Bad_ConnectionClosed}); Write, Call and
+ * CreateMonitoredItems are not, since retrying them could apply them twice. Any other failure fails the whole
+ * operation. Diagnostic infos are not returned.
+ */
+public class BulkServices {
+
+    /**
+     * The maximum number of times a failed request is retried.
+     */
+    public static final int MAX_RETRIES = 3;
+
+    /**
+     * The delay before the first retry, in milliseconds; it doubles with each further retry.
+     */
+    static final long RETRY_DELAY_MILLIS = 100L;
+
+    static final String OPERATION_LIMITS_KEY = "bulkServices.operationLimits";
+
+    private static final NodeId[] OPERATION_LIMITS_NODES = new NodeId[]{
+        Identifiers.Server_ServerCapabilities_OperationLimits_MaxNodesPerRead,
+        Identifiers.Server_ServerCapabilities_OperationLimits_MaxNodesPerWrite,
+        Identifiers.Server_ServerCapabilities_OperationLimits_MaxNodesPerBrowse,
+        Identifiers.Server_ServerCapabilities_OperationLimits_MaxNodesPerMethodCall,
+        Identifiers.Server_ServerCapabilities_OperationLimits_MaxMonitoredItemsPerCall
+    };
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final OpcUaClient client;
+
+    public BulkServices(OpcUaClient client) {
+        this.client = client;
+    }
+
+    /**
+     * @return the maximum number of requests one bulk operation has outstanding at once.
+     */
+    public int getMaxRequestsInFlight() {
+        return Math.max(1, client.getConfig().getMaxBulkRequestsInFlight().intValue());
+    }
+
+    /**
+     * Get the {@link OperationLimits} of the server, reading them if they haven't been read in the current session.
+     * <p>
+     * If they can't be read, {@link OperationLimits#UNLIMITED} is used for the rest of the session.
+     *
+     * @return the {@link OperationLimits} of the server.
+     */
+    @SuppressWarnings("unchecked")
+    public CompletableFuture<OperationLimits> getOperationLimits() {
+        return client.getSession().thenCompose(session ->
+            (CompletableFuture<OperationLimits>) session.computeIfAbsent(
+                OPERATION_LIMITS_KEY,
+                k -> readOperationLimits()
+            )
+        );
+    }
+
+    public CompletableFuture<List<DataValue>> read(
+        double maxAge,
+        TimestampsToReturn timestampsToReturn,
+        List<ReadValueId> readValueIds) {
+
+        return getOperationLimits().thenCompose(limits ->
+            execute(
+                readValueIds,
+                limits.getMaxNodesPerRead(),
+                true,
+                chunk -> client.read(maxAge, timestampsToReturn, chunk)
+                    .thenApply(response -> l(response.getResults()))
+            )
+        );
+    }
+
+    public CompletableFuture<List<StatusCode>> write(List<WriteValue> writeValues) {
+        return getOperationLimits().thenCompose(limits ->
+            execute(
+                writeValues,
+                limits.getMaxNodesPerWrite(),
+                false,
+                chunk -> client.write(chunk)
+                    .thenApply(response -> l(response.getResults()))
+            )
+        );
+    }
+
+    public CompletableFuture<List<BrowseResult>> browse(
+        ViewDescription viewDescription,
+        UInteger maxReferencesPerNode,
+        List<BrowseDescription> nodesToBrowse) {
+
+        return getOperationLimits().thenCompose(limits ->
+            execute(
+                nodesToBrowse,
+                limits.getMaxNodesPerBrowse(),
+                true,
+                chunk -> client.browse(viewDescription, maxReferencesPerNode, chunk)
+                    .thenApply(response -> l(response.getResults()))
+            )
+        );
+    }
+
+    public CompletableFuture<List<CallMethodResult>> call(List<CallMethodRequest> methodsToCall) {
+        return getOperationLimits().thenCompose(limits ->
+            execute(
+                methodsToCall,
+                limits.getMaxNodesPerMethodCall(),
+                false,
+                chunk -> client.call(chunk)
+                    .thenApply(response -> l(response.getResults()))
+            )
+        );
+    }
+
+    public CompletableFuture<List<MonitoredItemCreateResult>> createMonitoredItems(
+        UInteger subscriptionId,
+        TimestampsToReturn timestampsToReturn,
+        List<MonitoredItemCreateRequest> itemsToCreate) {
+
+        return getOperationLimits().thenCompose(limits ->
+            execute(
+                itemsToCreate,
+                limits.getMaxMonitoredItemsPerCall(),
+                false,
+                chunk -> client.createMonitoredItems(subscriptionId, timestampsToReturn, chunk)
+                    .thenApply(response -> l(response.getResults()))
+            )
+        );
+    }
+
+    private CompletableFuture<OperationLimits> readOperationLimits() {
+        List<ReadValueId> readValueIds = new ArrayList<>();
+
+        for (NodeId nodeId : OPERATION_LIMITS_NODES) {
+            readValueIds.add(new ReadValueId(nodeId, AttributeId.Value.uid(), null, QualifiedName.NULL_VALUE));
+        }
+
+        return client.read(0.0, TimestampsToReturn.Neither, readValueIds)
+            .thenApply(response -> {
+                List<DataValue> results = l(response.getResults());
+
+                OperationLimits limits = new OperationLimits(
+                    limit(results, 0),
+                    limit(results, 1),
+                    limit(results, 2),
+                    limit(results, 3),
+                    limit(results, 4)
+                );
+
+                logger.debug("Read {}", limits);
+
+                return limits;
+            })
+            .exceptionally(ex -> {
+                logger.debug("Failed to read OperationLimits; assuming none: {}", ex.getMessage(), ex);
+
+                return OperationLimits.UNLIMITED;
+            });
+    }
+
+    private static int limit(List<DataValue> results, int index) {
+        if (index < results.size()) {
+            Object value = results.get(index).getValue().getValue();
+
+            if (value instanceof UInteger) {
+                long limit = ((UInteger) value).longValue();
+
+                return (int) Math.min(limit, Integer.MAX_VALUE);
+            }
+        }
+
+        return 0;
+    }
+
+    private <T, R> CompletableFuture<List<R>> execute(
+        List<T> items,
+        int limit,
+        boolean idempotent,
+        Function<List<T>, CompletableFuture<List<R>>> service) {
+
+        if (items.isEmpty()) {
+            return CompletableFuture.completedFuture(Collections.emptyList());
+        }
+
+        int chunkSize = limit > 0 ? limit : items.size();
+
+        return new BulkOperation<>(items, chunkSize, idempotent, service).start(getMaxRequestsInFlight());
+    }
+
+    /**
+     * @return {@code true} if a request that failed with {@code status} was never processed by the server.
+     */
+    private static boolean isUnprocessed(long status) {
+        return status == StatusCodes.Bad_TcpServerTooBusy;
+    }
+
+    /**
+     * @return {@code true} if a request that failed with {@code status} may succeed if sent again, but may also have
+     * been processed already.
+     */
+    private static boolean isTransient(long status) {
+        return status == StatusCodes.Bad_Timeout ||
+            status == StatusCodes.Bad_RequestTimeout ||
+            status == StatusCodes.Bad_ResourceUnavailable ||
+            status == StatusCodes.Bad_ConnectionClosed;
+    }
+
+    private static CompletableFuture<Void> delay(long millis) {
+        CompletableFuture<Void> f = new CompletableFuture<>();
+
+        Stack.sharedScheduledExecutor().schedule(() -> f.complete(null), millis, TimeUnit.MILLISECONDS);
+
+        return f;
+    }
+
+    /**
+     * Sends the chunks of one list, no more than a fixed number at a time, and collects their results.
+     */
+    private static class BulkOperation<T, R> {
+
+        private final CompletableFuture<List<R>> future = new CompletableFuture<>();
+
+        private final AtomicInteger nextChunk = new AtomicInteger(0);
+        private final AtomicInteger remainingChunks;
+
+        private final Object[] results;
+
+        /**
+         * The largest request the server has accepted after rejecting a larger one with Bad_TooManyOperations.
+         */
+        private final AtomicInteger learnedLimit = new AtomicInteger(Integer.MAX_VALUE);
+
+        private final List<List<T>> chunks;
+        private final int chunkSize;
+        private final boolean idempotent;
+        private final Function<List<T>, CompletableFuture<List<R>>> service;
+
+        BulkOperation(
+            List<T> items,
+            int chunkSize,
+            boolean idempotent,
+            Function<List<T>, CompletableFuture<List<R>>> service) {
+
+            this.chunkSize = chunkSize;
+            this.idempotent = idempotent;
+            this.service = service;
+
+            chunks = Lists.partition(items, chunkSize);
+            remainingChunks = new AtomicInteger(chunks.size());
+            results = new Object[items.size()];
+        }
+
+        CompletableFuture<List<R>> start(int maxInFlight) {
+            for (int i = 0; i < Math.min(maxInFlight, chunks.size()); i++) {
+                sendNext();
+            }
+
+            return future;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void sendNext() {
+            int index = nextChunk.getAndIncrement();
+
+            if (index >= chunks.size() || future.isDone()) return;
+
+            send(chunks.get(index), 0).whenComplete((chunkResults, ex) -> {
+                if (chunkResults != null) {
+                    for (int i = 0; i < chunkResults.size(); i++) {
+                        results[index * chunkSize + i] = chunkResults.get(i);
+                    }
+
+                    if (remainingChunks.decrementAndGet() == 0) {
+                        future.complete((List<R>) Arrays.asList(results));
+                    } else {
+                        sendNext();
+                    }
+                } else {
+                    future.completeExceptionally(ex);
+                }
+            });
+        }
+
+        private CompletableFuture<List<R>> send(List<T> chunk, int attempt) {
+            int limit = learnedLimit.get();
+
+            if (chunk.size() > limit) {
+                return sendInPieces(chunk, limit);
+            }
+
+            return service.apply(chunk).handle((chunkResults, ex) -> {
+                if (ex == null) {
+                    if (chunkResults.size() == chunk.size()) {
+                        return CompletableFuture.completedFuture(chunkResults);
+                    } else {
+                        CompletableFuture<List<R>> f = new CompletableFuture<>();
+                        f.completeExceptionally(new UaException(
+                            StatusCodes.Bad_UnexpectedError,
+                            String.format("expected %d results, got %d", chunk.size(), chunkResults.size())
+                        ));
+                        return f;
+                    }
+                }
+
+                long status = UaException.extractStatusCode(ex)
+                    .map(StatusCode::getValue)
+                    .orElse(StatusCodes.Bad_UnexpectedError);
+
+                if (status == StatusCodes.Bad_TooManyOperations && chunk.size() > 1) {
+                    learnedLimit.accumulateAndGet(chunk.size() / 2, Math::min);
+
+                    return send(chunk, attempt);
+                } else if ((isUnprocessed(status) || (idempotent && isTransient(status))) && attempt < MAX_RETRIES) {
+                    return delay(RETRY_DELAY_MILLIS << attempt).thenCompose(v -> send(chunk, attempt + 1));
+                } else {
+                    CompletableFuture<List<R>> f = new CompletableFuture<>();
+                    f.completeExceptionally(ex);
+                    return f;
+                }
+            }).thenCompose(Function.identity());
+        }
+
+        /**
+         * Send {@code chunk} as consecutive requests of no more than {@code size} items, one at a time so the
+         * operation still has no more requests outstanding than it started with.
+         */
+        private CompletableFuture<List<R>> sendInPieces(List<T> chunk, int size) {
+            CompletableFuture<List<R>> combined = CompletableFuture.completedFuture(new ArrayList<>(chunk.size()));
+
+            for (List<T> piece : Lists.partition(chunk, size)) {
+                combined = combined.thenCompose(acc -> send(piece, 0).thenApply(pieceResults -> {
+                    acc.addAll(pieceResults);
+                    return acc;
+                }));
+            }
+
+            return combined;
+        }
+
+    }
+
+}
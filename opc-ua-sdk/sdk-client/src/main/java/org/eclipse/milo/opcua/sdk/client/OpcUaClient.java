@@ -154,6 +154,8 @@ public class OpcUaClient implements UaClient {
 
     private final OpcUaSubscriptionManager subscriptionManager;
 
+    private final BulkServices bulkServices;
+
     private final SessionFsm sessionFsm;
 
     private final OpcUaClientConfig config;
@@ -231,6 +233,7 @@ public class OpcUaClient implements UaClient {
 
         addressSpace = new DefaultAddressSpace(this);
         subscriptionManager = new OpcUaSubscriptionManager(this);
+        bulkServices = new BulkServices(this);
 
         TypeRegistryInitializer.initialize(typeRegistry);
     }
@@ -254,6 +257,14 @@ public class OpcUaClient implements UaClient {
         return addressSpace;
     }
 
+    /**
+     * @return the {@link BulkServices} for this client, which split lists of any size into requests that respect the
+     * server's operation limits.
+     */
+    public BulkServices getBulkServices() {
+        return bulkServices;
+    }
+
     public DataTypeManager getDataTypeManager() {
         return dataTypeManager;
     }
@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2019 the Eclipse Milo Authors
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.milo.opcua.sdk.client;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ * The operation limits a server advertises in {@code Server/ServerCapabilities/OperationLimits}.
+ * <p>
+ * A limit of 0 means the server doesn't impose one.
+ */
+public class OperationLimits {
+
+    /**
+     * No limits on any operation.
+     */
+    public static final OperationLimits UNLIMITED = new OperationLimits(0, 0, 0, 0, 0);
+
+    private final int maxNodesPerRead;
+    private final int maxNodesPerWrite;
+    private final int maxNodesPerBrowse;
+    private final int maxNodesPerMethodCall;
+    private final int maxMonitoredItemsPerCall;
+
+    public OperationLimits(
+        int maxNodesPerRead,
+        int maxNodesPerWrite,
+        int maxNodesPerBrowse,
+        int maxNodesPerMethodCall,
+        int maxMonitoredItemsPerCall) {
+
+        this.maxNodesPerRead = maxNodesPerRead;
+        this.maxNodesPerWrite = maxNodesPerWrite;
+        this.maxNodesPerBrowse = maxNodesPerBrowse;
+        this.maxNodesPerMethodCall = maxNodesPerMethodCall;
+        this.maxMonitoredItemsPerCall = maxMonitoredItemsPerCall;
+    }
+
+    public int getMaxNodesPerRead() {
+        return maxNodesPerRead;
+    }
+
+    public int getMaxNodesPerWrite() {
+        return maxNodesPerWrite;
+    }
+
+    public int getMaxNodesPerBrowse() {
+        return maxNodesPerBrowse;
+    }
+
+    public int getMaxNodesPerMethodCall() {
+        return maxNodesPerMethodCall;
+    }
+
+    public int getMaxMonitoredItemsPerCall() {
+        return maxMonitoredItemsPerCall;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+            .add("maxNodesPerRead", maxNodesPerRead)
+            .add("maxNodesPerWrite", maxNodesPerWrite)
+            .add("maxNodesPerBrowse", maxNodesPerBrowse)
+            .add("maxNodesPerMethodCall", maxNodesPerMethodCall)
+            .add("maxMonitoredItemsPerCall", maxMonitoredItemsPerCall)
+            .toString();
+    }
+
+}
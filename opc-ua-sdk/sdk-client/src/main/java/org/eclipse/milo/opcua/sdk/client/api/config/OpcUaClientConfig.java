@@ -15,6 +15,7 @@ import java.util.function.Supplier;
 
 import org.eclipse.milo.opcua.binaryschema.parser.BsdParser;
 import org.eclipse.milo.opcua.sdk.client.api.identity.IdentityProvider;
+import org.eclipse.milo.opcua.sdk.client.api.subscriptions.NotificationOverflowPolicy;
 import org.eclipse.milo.opcua.stack.client.UaStackClientConfig;
 import org.eclipse.milo.opcua.stack.core.types.builtin.LocalizedText;
 import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UInteger;
@@ -84,6 +85,31 @@ public interface OpcUaClientConfig extends UaStackClientConfig {
      */
     UInteger getKeepAliveTimeout();
 
+    /**
+     * @return the maximum number of requests a single {@link org.eclipse.milo.opcua.sdk.client.BulkServices}
+     * operation has outstanding at once.
+     */
+    UInteger getMaxBulkRequestsInFlight();
+
+    /**
+     * @return the number of NotificationMessages each subscription may have waiting to be delivered before
+     * {@link #getNotificationOverflowPolicy()} applies.
+     */
+    UInteger getNotificationBacklogCapacity();
+
+    /**
+     * @return the {@link NotificationOverflowPolicy} applied when a subscription's backlog of NotificationMessages
+     * waiting to be delivered is full.
+     */
+    NotificationOverflowPolicy getNotificationOverflowPolicy();
+
+    /**
+     * @return {@code true} if the number of outstanding {@link PublishRequest}s is adjusted to the rate and round trip
+     * time of PublishResponses, up to {@link #getMaxPendingPublishRequests()}, rather than fixed at one more than the
+     * number of subscriptions.
+     */
+    boolean isAdaptivePublishWindowEnabled();
+
     /**
      * @return a new {@link OpcUaClientConfigBuilder}.
      */
@@ -119,6 +145,8 @@ public interface OpcUaClientConfig extends UaStackClientConfig {
         builder.setConnectTimeout(config.getConnectTimeout());
         builder.setAcknowledgeTimeout(config.getAcknowledgeTimeout());
         builder.setRequestTimeout(config.getRequestTimeout());
+        builder.setParallelDecodingEnabled(config.isParallelDecodingEnabled());
+        builder.setResponseDeliveryMode(config.getResponseDeliveryMode());
 
         // OpcUaClientConfig values
         builder.setSessionName(config.getSessionName());
@@ -131,6 +159,10 @@ public interface OpcUaClientConfig extends UaStackClientConfig {
         builder.setKeepAliveFailuresAllowed(config.getKeepAliveFailuresAllowed());
         builder.setKeepAliveInterval(config.getKeepAliveInterval());
         builder.setKeepAliveTimeout(config.getKeepAliveTimeout());
+        builder.setMaxBulkRequestsInFlight(config.getMaxBulkRequestsInFlight());
+        builder.setNotificationBacklogCapacity(config.getNotificationBacklogCapacity());
+        builder.setNotificationOverflowPolicy(config.getNotificationOverflowPolicy());
+        builder.setAdaptivePublishWindowEnabled(config.isAdaptivePublishWindowEnabled());
 
         return builder;
     }
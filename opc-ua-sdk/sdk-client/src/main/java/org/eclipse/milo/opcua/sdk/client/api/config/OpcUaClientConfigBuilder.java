@@ -22,6 +22,8 @@ import org.eclipse.milo.opcua.binaryschema.GenericBsdParser;
 import org.eclipse.milo.opcua.binaryschema.parser.BsdParser;
 import org.eclipse.milo.opcua.sdk.client.api.identity.AnonymousProvider;
 import org.eclipse.milo.opcua.sdk.client.api.identity.IdentityProvider;
+import org.eclipse.milo.opcua.sdk.client.api.subscriptions.NotificationOverflowPolicy;
+import org.eclipse.milo.opcua.stack.client.ResponseDeliveryMode;
 import org.eclipse.milo.opcua.stack.client.UaStackClientConfig;
 import org.eclipse.milo.opcua.stack.client.UaStackClientConfigBuilder;
 import org.eclipse.milo.opcua.stack.core.channel.MessageLimits;
@@ -50,6 +52,10 @@ public class OpcUaClientConfigBuilder extends UaStackClientConfigBuilder {
     private UInteger keepAliveFailuresAllowed = uint(1);
     private UInteger keepAliveInterval = uint(5000);
     private UInteger keepAliveTimeout = uint(5000);
+    private UInteger maxBulkRequestsInFlight = uint(4);
+    private UInteger notificationBacklogCapacity = uint(16);
+    private NotificationOverflowPolicy notificationOverflowPolicy = NotificationOverflowPolicy.BLOCK;
+    private boolean adaptivePublishWindowEnabled = false;
 
 
     public OpcUaClientConfigBuilder setApplicationName(LocalizedText applicationName) {
@@ -112,6 +118,28 @@ public class OpcUaClientConfigBuilder extends UaStackClientConfigBuilder {
         return this;
     }
 
+    public OpcUaClientConfigBuilder setMaxBulkRequestsInFlight(UInteger maxBulkRequestsInFlight) {
+        this.maxBulkRequestsInFlight = maxBulkRequestsInFlight;
+        return this;
+    }
+
+    public OpcUaClientConfigBuilder setNotificationBacklogCapacity(UInteger notificationBacklogCapacity) {
+        this.notificationBacklogCapacity = notificationBacklogCapacity;
+        return this;
+    }
+
+    public OpcUaClientConfigBuilder setNotificationOverflowPolicy(
+        NotificationOverflowPolicy notificationOverflowPolicy) {
+
+        this.notificationOverflowPolicy = notificationOverflowPolicy;
+        return this;
+    }
+
+    public OpcUaClientConfigBuilder setAdaptivePublishWindowEnabled(boolean adaptivePublishWindowEnabled) {
+        this.adaptivePublishWindowEnabled = adaptivePublishWindowEnabled;
+        return this;
+    }
+
     @Override
     public OpcUaClientConfigBuilder setEndpoint(EndpointDescription endpoint) {
         super.setEndpoint(endpoint);
@@ -154,6 +182,18 @@ public class OpcUaClientConfigBuilder extends UaStackClientConfigBuilder {
         return this;
     }
 
+    @Override
+    public OpcUaClientConfigBuilder setParallelDecodingEnabled(boolean parallelDecodingEnabled) {
+        super.setParallelDecodingEnabled(parallelDecodingEnabled);
+        return this;
+    }
+
+    @Override
+    public OpcUaClientConfigBuilder setResponseDeliveryMode(ResponseDeliveryMode responseDeliveryMode) {
+        super.setResponseDeliveryMode(responseDeliveryMode);
+        return this;
+    }
+
     @Override
     public OpcUaClientConfigBuilder setExecutor(ExecutorService executor) {
         super.setExecutor(executor);
@@ -219,7 +259,11 @@ public class OpcUaClientConfigBuilder extends UaStackClientConfigBuilder {
             bsdParser,
             keepAliveFailuresAllowed,
             keepAliveInterval,
-            keepAliveTimeout
+            keepAliveTimeout,
+            maxBulkRequestsInFlight,
+            notificationBacklogCapacity,
+            notificationOverflowPolicy,
+            adaptivePublishWindowEnabled
         );
     }
 
@@ -238,6 +282,10 @@ public class OpcUaClientConfigBuilder extends UaStackClientConfigBuilder {
         private final UInteger keepAliveFailuresAllowed;
         private final UInteger keepAliveInterval;
         private final UInteger keepAliveTimeout;
+        private final UInteger maxBulkRequestsInFlight;
+        private final UInteger notificationBacklogCapacity;
+        private final NotificationOverflowPolicy notificationOverflowPolicy;
+        private final boolean adaptivePublishWindowEnabled;
 
         OpcUaClientConfigImpl(
             UaStackClientConfig stackClientConfig,
@@ -252,7 +300,11 @@ public class OpcUaClientConfigBuilder extends UaStackClientConfigBuilder {
             BsdParser bsdParser,
             UInteger keepAliveFailuresAllowed,
             UInteger keepAliveInterval,
-            UInteger keepAliveTimeout) {
+            UInteger keepAliveTimeout,
+            UInteger maxBulkRequestsInFlight,
+            UInteger notificationBacklogCapacity,
+            NotificationOverflowPolicy notificationOverflowPolicy,
+            boolean adaptivePublishWindowEnabled) {
 
             this.stackClientConfig = stackClientConfig;
             this.applicationName = applicationName;
@@ -267,6 +319,10 @@ public class OpcUaClientConfigBuilder extends UaStackClientConfigBuilder {
             this.keepAliveFailuresAllowed = keepAliveFailuresAllowed;
             this.keepAliveInterval = keepAliveInterval;
             this.keepAliveTimeout = keepAliveTimeout;
+            this.maxBulkRequestsInFlight = maxBulkRequestsInFlight;
+            this.notificationBacklogCapacity = notificationBacklogCapacity;
+            this.notificationOverflowPolicy = notificationOverflowPolicy;
+            this.adaptivePublishWindowEnabled = adaptivePublishWindowEnabled;
         }
 
         @Override
@@ -329,6 +385,26 @@ public class OpcUaClientConfigBuilder extends UaStackClientConfigBuilder {
             return keepAliveTimeout;
         }
 
+        @Override
+        public UInteger getMaxBulkRequestsInFlight() {
+            return maxBulkRequestsInFlight;
+        }
+
+        @Override
+        public UInteger getNotificationBacklogCapacity() {
+            return notificationBacklogCapacity;
+        }
+
+        @Override
+        public NotificationOverflowPolicy getNotificationOverflowPolicy() {
+            return notificationOverflowPolicy;
+        }
+
+        @Override
+        public boolean isAdaptivePublishWindowEnabled() {
+            return adaptivePublishWindowEnabled;
+        }
+
         @Override
         public EndpointDescription getEndpoint() {
             return stackClientConfig.getEndpoint();
@@ -399,6 +475,16 @@ public class OpcUaClientConfigBuilder extends UaStackClientConfigBuilder {
             return stackClientConfig.getRequestTimeout();
         }
 
+        @Override
+        public boolean isParallelDecodingEnabled() {
+            return stackClientConfig.isParallelDecodingEnabled();
+        }
+
+        @Override
+        public ResponseDeliveryMode getResponseDeliveryMode() {
+            return stackClientConfig.getResponseDeliveryMode();
+        }
+
     }
 
 }
@@ -0,0 +1,36 @@
+/*
+ * Copyright (c) 2019 the Eclipse Milo Authors
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.milo.opcua.sdk.client.api.subscriptions;
+
+/**
+ * What a subscription manager does with a NotificationMessage that arrives while a subscription's backlog of
+ * messages waiting to be delivered is full.
+ */
+public enum NotificationOverflowPolicy {
+
+    /**
+     * Queue the message anyway, but don't send another PublishRequest in its place until it has been delivered.
+     * <p>
+     * Nothing is lost, but a slow subscription eventually slows publishing for every subscription in the session.
+     */
+    BLOCK,
+
+    /**
+     * Drop the oldest message waiting to be delivered and queue the new one.
+     */
+    DROP_OLDEST,
+
+    /**
+     * Drop the new message.
+     */
+    DROP_NEWEST
+
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2019 the Eclipse Milo Authors
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.milo.opcua.sdk.client.subscriptions;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+
+import org.eclipse.milo.opcua.sdk.client.api.subscriptions.NotificationOverflowPolicy;
+import org.eclipse.milo.opcua.stack.core.types.structured.NotificationMessage;
+import org.eclipse.milo.opcua.stack.core.util.Unit;
+
+/**
+ * The NotificationMessages a subscription has received but not yet delivered, in the order they were received.
+ */
+class NotificationBacklog {
+
+    private final ArrayDeque<PendingNotification> queue = new ArrayDeque<>();
+
+    /**
+     * Queue {@code pending}, applying {@code policy} if there are already {@code capacity} messages waiting.
+     * <p>
+     * {@link PendingNotification#getAdmitted()} completes immediately unless the backlog is full and the policy is
+     * {@link NotificationOverflowPolicy#BLOCK}, in which case it completes once the message has been delivered.
+     *
+     * @param pending  the {@link PendingNotification} to queue.
+     * @param capacity the number of messages that may wait before {@code policy} applies.
+     * @param policy   the {@link NotificationOverflowPolicy} to apply when the backlog is full.
+     * @return the message that was dropped, which is {@code pending}'s own message if it wasn't queued, or
+     * {@code null} if nothing was dropped.
+     */
+    NotificationMessage offer(PendingNotification pending, int capacity, NotificationOverflowPolicy policy) {
+        PendingNotification dropped = null;
+
+        synchronized (queue) {
+            if (queue.size() < capacity || policy == NotificationOverflowPolicy.BLOCK) {
+                queue.addLast(pending);
+            } else if (policy == NotificationOverflowPolicy.DROP_OLDEST) {
+                dropped = queue.pollFirst();
+                queue.addLast(pending);
+            } else {
+                dropped = pending;
+            }
+
+            if (queue.size() <= capacity || policy != NotificationOverflowPolicy.BLOCK) {
+                pending.admitted.complete(Unit.VALUE);
+            }
+        }
+
+        if (dropped != null) {
+            dropped.admitted.complete(Unit.VALUE);
+
+            return dropped.message;
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * @return the oldest message waiting to be delivered, or {@code null} if there are none.
+     */
+    PendingNotification poll() {
+        synchronized (queue) {
+            return queue.pollFirst();
+        }
+    }
+
+    /**
+     * @return the number of messages waiting to be delivered.
+     */
+    int size() {
+        synchronized (queue) {
+            return queue.size();
+        }
+    }
+
+    static class PendingNotification {
+
+        private final CompletableFuture<Unit> admitted = new CompletableFuture<>();
+
+        private final NotificationMessage message;
+
+        PendingNotification(NotificationMessage message) {
+            this.message = message;
+        }
+
+        NotificationMessage getMessage() {
+            return message;
+        }
+
+        /**
+         * @return a future that completes once this message no longer counts against the backlog it was offered to,
+         * either because it was admitted within capacity, or dropped, or delivered.
+         */
+        CompletableFuture<Unit> getAdmitted() {
+            return admitted;
+        }
+
+        void delivered() {
+            admitted.complete(Unit.VALUE);
+        }
+
+    }
+
+}
@@ -49,6 +49,8 @@ public class OpcUaSubscription implements UaSubscription {
 
     private final AsyncSemaphore notificationSemaphore = new AsyncSemaphore(1);
 
+    private final NotificationBacklog notificationBacklog = new NotificationBacklog();
+
     private volatile long lastSequenceNumber = 0L;
 
     private volatile double requestedPublishingInterval = 0.0;
@@ -333,6 +335,10 @@ public class OpcUaSubscription implements UaSubscription {
         return notificationSemaphore;
     }
 
+    NotificationBacklog getNotificationBacklog() {
+        return notificationBacklog;
+    }
+
     Map<UInteger, OpcUaMonitoredItem> getItemsByClientHandle() {
         return itemsByClientHandle;
     }
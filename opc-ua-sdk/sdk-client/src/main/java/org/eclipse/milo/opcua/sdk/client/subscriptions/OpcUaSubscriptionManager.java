@@ -21,6 +21,7 @@ import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 
@@ -30,9 +31,11 @@ import com.google.common.collect.Maps;
 import org.eclipse.milo.opcua.sdk.client.OpcUaClient;
 import org.eclipse.milo.opcua.sdk.client.SessionActivityListener;
 import org.eclipse.milo.opcua.sdk.client.api.UaSession;
+import org.eclipse.milo.opcua.sdk.client.api.subscriptions.NotificationOverflowPolicy;
 import org.eclipse.milo.opcua.sdk.client.api.subscriptions.UaMonitoredItem;
 import org.eclipse.milo.opcua.sdk.client.api.subscriptions.UaSubscription;
 import org.eclipse.milo.opcua.sdk.client.api.subscriptions.UaSubscriptionManager;
+import org.eclipse.milo.opcua.sdk.client.subscriptions.NotificationBacklog.PendingNotification;
 import org.eclipse.milo.opcua.stack.core.StatusCodes;
 import org.eclipse.milo.opcua.stack.core.UaException;
 import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
@@ -65,13 +68,18 @@ import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Lists.newLinkedList;
 import static java.util.concurrent.CompletableFuture.completedFuture;
 import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.uint;
-import static org.eclipse.milo.opcua.stack.core.util.ConversionUtil.l;
 import static org.eclipse.milo.opcua.stack.core.util.FutureUtils.failedUaFuture;
 
 public class OpcUaSubscriptionManager implements UaSubscriptionManager {
 
     public static final UInteger DEFAULT_MAX_NOTIFICATIONS_PER_PUBLISH = uint(65535);
 
+    /**
+     * The number of queues NotificationMessages are delivered on. Each subscription's messages are always delivered on
+     * the same queue.
+     */
+    static final int DELIVERY_STRIPES = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+
     private final Logger logger = LoggerFactory.getLogger(getClass());
 
     private final Map<UInteger, OpcUaSubscription> subscriptions = Maps.newConcurrentMap();
@@ -82,7 +90,11 @@ public class OpcUaSubscriptionManager implements UaSubscriptionManager {
 
     private final LinkedList<SubscriptionAcknowledgement> acknowledgements = newLinkedList();
 
-    private final ExecutionQueue deliveryQueue;
+    private final LongAdder droppedNotificationMessages = new LongAdder();
+
+    private final PublishWindow publishWindow = new PublishWindow();
+
+    private final ExecutionQueue[] deliveryQueues;
     private final ExecutionQueue processingQueue;
 
     private final OpcUaClient client;
@@ -90,7 +102,10 @@ public class OpcUaSubscriptionManager implements UaSubscriptionManager {
     public OpcUaSubscriptionManager(OpcUaClient client) {
         this.client = client;
 
-        deliveryQueue = new ExecutionQueue(client.getConfig().getExecutor());
+        deliveryQueues = new ExecutionQueue[DELIVERY_STRIPES];
+        for (int i = 0; i < deliveryQueues.length; i++) {
+            deliveryQueues[i] = new ExecutionQueue(client.getConfig().getExecutor());
+        }
         processingQueue = new ExecutionQueue(client.getConfig().getExecutor());
 
         client.addSessionActivityListener(new SessionActivityListener() {
@@ -100,6 +115,8 @@ public class OpcUaSubscriptionManager implements UaSubscriptionManager {
                 // publishing again instead of waiting for outstanding PublishRequests
                 // from before the re-activation to expire/timeout.
                 pendingCountMap.replace(session.getSessionId(), new AtomicLong(0));
+
+                publishWindow.reset();
             }
 
             @Override
@@ -388,10 +405,19 @@ public class OpcUaSubscriptionManager implements UaSubscriptionManager {
     }
 
     private long getMaxPendingPublishes() {
-        long maxPendingPublishRequests = client.getConfig().getMaxPendingPublishRequests().longValue();
+        if (subscriptions.isEmpty()) return 0;
+
+        if (client.getConfig().isAdaptivePublishWindowEnabled()) {
+            return publishWindow.getSize(subscriptions.size(), getMaxPublishWindowSize());
+        } else {
+            long maxPendingPublishRequests = client.getConfig().getMaxPendingPublishRequests().longValue();
+
+            return Math.min(subscriptions.size() + 1, maxPendingPublishRequests);
+        }
+    }
 
-        return subscriptions.isEmpty() ?
-            0 : Math.min(subscriptions.size() + 1, maxPendingPublishRequests);
+    private int getMaxPublishWindowSize() {
+        return (int) Math.min(client.getConfig().getMaxPendingPublishRequests().longValue(), Integer.MAX_VALUE);
     }
 
     private UInteger getTimeoutHint() {
@@ -478,11 +504,21 @@ public class OpcUaSubscriptionManager implements UaSubscriptionManager {
                 requestHandle, Arrays.toString(ackStrings));
         }
 
+        long sentNanos = System.nanoTime();
+
         client.<PublishResponse>sendRequest(request).whenComplete((response, ex) -> {
             if (response != null) {
                 logger.debug("Received PublishResponse, sequenceNumber={}",
                     response.getNotificationMessage().getSequenceNumber());
 
+                if (client.getConfig().isAdaptivePublishWindowEnabled()) {
+                    publishWindow.onPublishResponse(
+                        System.nanoTime() - sentNanos,
+                        Boolean.TRUE.equals(response.getMoreNotifications()),
+                        getMaxPublishWindowSize()
+                    );
+                }
+
                 processingQueue.submit(() -> onPublishComplete(response, pendingCount));
             } else {
                 StatusCode statusCode = UaException.extract(ex)
@@ -491,6 +527,12 @@ public class OpcUaSubscriptionManager implements UaSubscriptionManager {
 
                 logger.debug("Publish service failure (requestHandle={}): {}", requestHandle, statusCode, ex);
 
+                if (statusCode.getValue() == StatusCodes.Bad_TooManyPublishRequests &&
+                    client.getConfig().isAdaptivePublishWindowEnabled()) {
+
+                    publishWindow.onTooManyPublishRequests(pendingCount.get());
+                }
+
                 pendingCount.getAndUpdate(p -> (p > 0) ? p - 1 : 0);
 
                 if (statusCode.getValue() != StatusCodes.Bad_NoSubscription &&
@@ -659,141 +701,201 @@ public class OpcUaSubscriptionManager implements UaSubscriptionManager {
         }
     }
 
+    /**
+     * Add {@code notificationMessage} to {@code subscription}'s backlog and schedule its delivery.
+     * <p>
+     * Messages for the same subscription are delivered one at a time, in the order they were received. Messages for
+     * different subscriptions may be delivered concurrently.
+     *
+     * @return a future that completes when another PublishRequest may be sent in place of the one that returned
+     * {@code notificationMessage}.
+     */
     private CompletableFuture<Unit> deliverNotificationMessage(
         OpcUaSubscription subscription, NotificationMessage notificationMessage) {
 
-        CompletableFuture<Unit> delivered = new CompletableFuture<>();
+        NotificationOverflowPolicy policy = client.getConfig().getNotificationOverflowPolicy();
+        int capacity = client.getConfig().getNotificationBacklogCapacity().intValue();
 
-        subscription.getNotificationSemaphore().acquire().thenAccept(permit -> deliveryQueue.submit(() -> {
-            try {
-                Map<UInteger, OpcUaMonitoredItem> items = subscription.getItemsByClientHandle();
-                List<ExtensionObject> notificationData = l(notificationMessage.getNotificationData());
+        if (policy != NotificationOverflowPolicy.BLOCK) {
+            capacity = Math.max(1, capacity);
+        }
 
-                if (notificationData.isEmpty()) {
-                    subscriptionListeners.forEach(
-                        listener -> listener.onKeepAlive(subscription, notificationMessage.getPublishTime())
-                    );
+        PendingNotification pending = new PendingNotification(notificationMessage);
 
-                    subscription.getNotificationListeners().forEach(
-                        listener -> listener.onKeepAliveNotification(
-                            subscription, notificationMessage.getPublishTime())
-                    );
+        NotificationMessage dropped = subscription.getNotificationBacklog().offer(pending, capacity, policy);
+
+        if (dropped != null) {
+            onNotificationMessageDropped(subscription, dropped);
+        }
+
+        if (dropped != notificationMessage) {
+            ExecutionQueue deliveryQueue = deliveryQueue(subscription.getSubscriptionId());
+
+            subscription.getNotificationSemaphore().acquire().thenAccept(permit -> deliveryQueue.submit(() -> {
+                // messages are delivered in the order they were queued, which may not be the order their
+                // deliveries were scheduled in if one was dropped from the head of the backlog.
+                PendingNotification next = subscription.getNotificationBacklog().poll();
+
+                try {
+                    if (next != null) {
+                        dispatchNotificationMessage(subscription, next.getMessage());
+                    }
+                } finally {
+                    permit.release();
+
+                    if (next != null) next.delivered();
                 }
+            }));
+        }
+
+        return pending.getAdmitted();
+    }
 
-                for (ExtensionObject xo : notificationData) {
-                    Object o = xo.decode(client.getConfig().getEncodingLimits(), client.getDataTypeManager());
+    private void dispatchNotificationMessage(OpcUaSubscription subscription, NotificationMessage notificationMessage) {
+        Map<UInteger, OpcUaMonitoredItem> items = subscription.getItemsByClientHandle();
+        List<UaSubscription.NotificationListener> notificationListeners = subscription.getNotificationListeners();
+        DateTime publishTime = notificationMessage.getPublishTime();
+        ExtensionObject[] notificationData = notificationMessage.getNotificationData();
 
-                    if (o instanceof DataChangeNotification) {
-                        DataChangeNotification dcn = (DataChangeNotification) o;
-                        List<MonitoredItemNotification> monitoredItemNotifications = l(dcn.getMonitoredItems());
-                        int notificationCount = monitoredItemNotifications.size();
+        if (notificationData == null || notificationData.length == 0) {
+            onKeepAlive(subscription, publishTime);
+            return;
+        }
 
-                        logger.debug("Received {} MonitoredItemNotifications", notificationCount);
+        for (ExtensionObject xo : notificationData) {
+            Object o = xo.decode(client.getConfig().getEncodingLimits(), client.getDataTypeManager());
 
-                        for (MonitoredItemNotification min : monitoredItemNotifications) {
-                            logger.trace("MonitoredItemNotification: clientHandle={}, value={}",
-                                min.getClientHandle(), min.getValue());
+            if (o instanceof DataChangeNotification) {
+                DataChangeNotification dcn = (DataChangeNotification) o;
+                MonitoredItemNotification[] monitoredItemNotifications = dcn.getMonitoredItems();
+                int notificationCount = monitoredItemNotifications != null ? monitoredItemNotifications.length : 0;
 
-                            OpcUaMonitoredItem item = items.get(min.getClientHandle());
-                            if (item != null) item.onValueArrived(min.getValue());
-                            else logger.warn("no item for clientHandle=" + min.getClientHandle());
-                        }
+                logger.debug("Received {} MonitoredItemNotifications", notificationCount);
 
-                        if (notificationCount == 0) {
-                            subscriptionListeners.forEach(
-                                listener -> listener.onKeepAlive(subscription, notificationMessage.getPublishTime())
-                            );
-
-                            subscription.getNotificationListeners().forEach(
-                                listener -> listener.onKeepAliveNotification(
-                                    subscription, notificationMessage.getPublishTime())
-                            );
-                        } else {
-                            if (!subscription.getNotificationListeners().isEmpty()) {
-                                List<UaMonitoredItem> monitoredItems = new ArrayList<>();
-                                List<DataValue> dataValues = new ArrayList<>();
-
-                                for (MonitoredItemNotification n : monitoredItemNotifications) {
-                                    UaMonitoredItem item = subscription
-                                        .getItemsByClientHandle().get(n.getClientHandle());
-
-                                    if (item != null) {
-                                        monitoredItems.add(item);
-                                        dataValues.add(n.getValue());
-                                    }
-                                }
-
-                                subscription.getNotificationListeners().forEach(
-                                    listener -> listener.onDataChangeNotification(
-                                        subscription,
-                                        monitoredItems,
-                                        dataValues,
-                                        notificationMessage.getPublishTime()
-                                    )
-                                );
-                            }
-                        }
-                    } else if (o instanceof EventNotificationList) {
-                        EventNotificationList enl = (EventNotificationList) o;
-                        List<EventFieldList> eventFieldLists = l(enl.getEvents());
+                if (notificationCount == 0) {
+                    onKeepAlive(subscription, publishTime);
+                    continue;
+                }
 
-                        for (EventFieldList efl : eventFieldLists) {
-                            logger.trace("EventFieldList: clientHandle={}, values={}",
-                                efl.getClientHandle(), Arrays.toString(efl.getEventFields()));
+                // only collect what the NotificationListeners need if there are any
+                boolean collect = !notificationListeners.isEmpty();
+                List<UaMonitoredItem> monitoredItems = collect ? new ArrayList<>(notificationCount) : null;
+                List<DataValue> dataValues = collect ? new ArrayList<>(notificationCount) : null;
 
-                            OpcUaMonitoredItem item = items.get(efl.getClientHandle());
-                            if (item != null) item.onEventArrived(efl.getEventFields());
-                        }
+                for (MonitoredItemNotification min : monitoredItemNotifications) {
+                    logger.trace("MonitoredItemNotification: clientHandle={}, value={}",
+                        min.getClientHandle(), min.getValue());
+
+                    OpcUaMonitoredItem item = items.get(min.getClientHandle());
 
-                        if (!subscription.getNotificationListeners().isEmpty()) {
-                            List<UaMonitoredItem> monitoredItems = new ArrayList<>();
-                            List<Variant[]> eventFields = new ArrayList<>();
-
-                            for (EventFieldList efl : eventFieldLists) {
-                                UaMonitoredItem item = subscription
-                                    .getItemsByClientHandle().get(efl.getClientHandle());
-
-                                if (item != null) {
-                                    monitoredItems.add(item);
-                                    eventFields.add(efl.getEventFields());
-                                }
-                            }
-
-                            subscription.getNotificationListeners().forEach(
-                                listener -> listener.onEventNotification(
-                                    subscription,
-                                    monitoredItems,
-                                    eventFields,
-                                    notificationMessage.getPublishTime()
-                                )
-                            );
+                    if (item != null) {
+                        item.onValueArrived(min.getValue());
+
+                        if (collect) {
+                            monitoredItems.add(item);
+                            dataValues.add(min.getValue());
                         }
-                    } else if (o instanceof StatusChangeNotification) {
-                        StatusChangeNotification scn = (StatusChangeNotification) o;
+                    } else {
+                        logger.warn("no item for clientHandle=" + min.getClientHandle());
+                    }
+                }
+
+                if (collect) {
+                    notificationListeners.forEach(
+                        listener -> listener.onDataChangeNotification(
+                            subscription,
+                            monitoredItems,
+                            dataValues,
+                            publishTime
+                        )
+                    );
+                }
+            } else if (o instanceof EventNotificationList) {
+                EventNotificationList enl = (EventNotificationList) o;
+                EventFieldList[] eventFieldLists = enl.getEvents();
+                int eventCount = eventFieldLists != null ? eventFieldLists.length : 0;
 
-                        logger.debug("StatusChangeNotification: {}", scn.getStatus());
+                boolean collect = !notificationListeners.isEmpty();
+                List<UaMonitoredItem> monitoredItems = collect ? new ArrayList<>(eventCount) : null;
+                List<Variant[]> eventFields = collect ? new ArrayList<>(eventCount) : null;
 
-                        subscriptionListeners.forEach(
-                            listener -> listener.onStatusChanged(subscription, scn.getStatus())
-                        );
+                for (int i = 0; i < eventCount; i++) {
+                    EventFieldList efl = eventFieldLists[i];
 
-                        subscription.getNotificationListeners().forEach(
-                            listener -> listener.onStatusChangedNotification(subscription, scn.getStatus())
-                        );
+                    logger.trace("EventFieldList: clientHandle={}, values={}",
+                        efl.getClientHandle(), Arrays.toString(efl.getEventFields()));
 
-                        if (scn.getStatus().getValue() == StatusCodes.Bad_Timeout) {
-                            subscriptions.remove(subscription.getSubscriptionId());
+                    OpcUaMonitoredItem item = items.get(efl.getClientHandle());
+
+                    if (item != null) {
+                        item.onEventArrived(efl.getEventFields());
+
+                        if (collect) {
+                            monitoredItems.add(item);
+                            eventFields.add(efl.getEventFields());
                         }
                     }
                 }
-            } finally {
-                permit.release();
 
-                delivered.complete(Unit.VALUE);
+                if (collect) {
+                    notificationListeners.forEach(
+                        listener -> listener.onEventNotification(
+                            subscription,
+                            monitoredItems,
+                            eventFields,
+                            publishTime
+                        )
+                    );
+                }
+            } else if (o instanceof StatusChangeNotification) {
+                StatusChangeNotification scn = (StatusChangeNotification) o;
+
+                logger.debug("StatusChangeNotification: {}", scn.getStatus());
+
+                subscriptionListeners.forEach(
+                    listener -> listener.onStatusChanged(subscription, scn.getStatus())
+                );
+
+                notificationListeners.forEach(
+                    listener -> listener.onStatusChangedNotification(subscription, scn.getStatus())
+                );
+
+                if (scn.getStatus().getValue() == StatusCodes.Bad_Timeout) {
+                    subscriptions.remove(subscription.getSubscriptionId());
+                }
             }
-        }));
+        }
+    }
+
+    private void onKeepAlive(OpcUaSubscription subscription, DateTime publishTime) {
+        subscriptionListeners.forEach(
+            listener -> listener.onKeepAlive(subscription, publishTime)
+        );
 
-        return delivered;
+        subscription.getNotificationListeners().forEach(
+            listener -> listener.onKeepAliveNotification(subscription, publishTime)
+        );
+    }
+
+    private void onNotificationMessageDropped(OpcUaSubscription subscription, NotificationMessage dropped) {
+        ExtensionObject[] notificationData = dropped.getNotificationData();
+
+        // a dropped keep-alive loses nothing
+        if (notificationData != null && notificationData.length > 0) {
+            droppedNotificationMessages.increment();
+
+            logger.debug("[id={}] Dropped NotificationMessage sequence={}, backlog full",
+                subscription.getSubscriptionId(), dropped.getSequenceNumber());
+
+            subscriptionListeners.forEach(l -> l.onNotificationDataLost(subscription));
+        }
+    }
+
+    private ExecutionQueue deliveryQueue(UInteger subscriptionId) {
+        int h = subscriptionId.hashCode();
+        h ^= (h >>> 16);
+
+        return deliveryQueues[(h & Integer.MAX_VALUE) % deliveryQueues.length];
     }
 
     public void startPublishing() {
@@ -805,11 +907,41 @@ public class OpcUaSubscriptionManager implements UaSubscriptionManager {
     }
 
     public void pauseDelivery() {
-        deliveryQueue.pause();
+        for (ExecutionQueue deliveryQueue : deliveryQueues) {
+            deliveryQueue.pause();
+        }
     }
 
     public void resumeDelivery() {
-        deliveryQueue.resume();
+        for (ExecutionQueue deliveryQueue : deliveryQueues) {
+            deliveryQueue.resume();
+        }
+    }
+
+    /**
+     * @return the number of NotificationMessages received but not yet delivered, across all subscriptions.
+     */
+    public int getQueuedNotificationMessageCount() {
+        int queued = 0;
+        for (OpcUaSubscription subscription : subscriptions.values()) {
+            queued += subscription.getNotificationBacklog().size();
+        }
+        return queued;
+    }
+
+    /**
+     * @return the {@link PublishWindow} that sizes the number of outstanding PublishRequests when
+     * {@link org.eclipse.milo.opcua.sdk.client.api.config.OpcUaClientConfig#isAdaptivePublishWindowEnabled()} is set.
+     */
+    public PublishWindow getPublishWindow() {
+        return publishWindow;
+    }
+
+    /**
+     * @return the number of NotificationMessages dropped because a subscription's backlog was full.
+     */
+    public long getDroppedNotificationMessageCount() {
+        return droppedNotificationMessages.sum();
     }
 
 }
@@ -0,0 +1,265 @@
+/*
+ * Copyright (c) 2019 the Eclipse Milo Authors
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.milo.opcua.sdk.client.subscriptions;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.google.common.base.MoreObjects;
+import org.eclipse.milo.opcua.stack.core.util.LatencyHistogram;
+
+/**
+ * Decides how many PublishRequests to keep outstanding when the publish window is adaptive.
+ * <p>
+ * To keep the server from ever waiting for a PublishRequest, about as many need to be outstanding as responses arrive
+ * during one round trip. The target size is therefore the shortest recent round trip divided by the mean time between
+ * responses, plus one. The window grows to the target right away, but by no more than double at a time. It shrinks
+ * towards the target by one after a window's worth of responses in a row without {@code moreNotifications}, but
+ * never below the number of Subscriptions, so each Subscription can always have a PublishRequest waiting for it.
+ * <p>
+ * A response with {@code moreNotifications} set means the server has notifications queued that it couldn't send, so
+ * the window grows by one beyond the target. {@code Bad_TooManyPublishRequests} caps the window below the number of
+ * requests that were outstanding when the server rejected one, for the rest of the session.
+ */
+public class PublishWindow {
+
+    /**
+     * The number of round trips the shortest round trip is taken over.
+     */
+    private static final int MIN_RTT_SAMPLES = 64;
+
+    private final LatencyHistogram roundTripTime = new LatencyHistogram();
+
+    private final LongAdder increases = new LongAdder();
+    private final LongAdder decreases = new LongAdder();
+    private final LongAdder throttles = new LongAdder();
+
+    private int size = 0;
+    private int minSize = 0;
+    private int targetSize = 0;
+    private int serverLimit = Integer.MAX_VALUE;
+    private int responsesSinceMoreNotifications = 0;
+
+    private long minRtt = Long.MAX_VALUE;
+    private long sampleMinRtt = Long.MAX_VALUE;
+    private int samples = 0;
+
+    private long lastResponseTime = 0L;
+    private double meanInterval = 0.0;
+
+    /**
+     * Get the current size of the window, bounded by {@code maxSize} and by what the server has allowed.
+     * <p>
+     * The window starts at one more than {@code minSize}, like the window used when it isn't adaptive, and grows to
+     * {@code minSize} right away when Subscriptions are added.
+     *
+     * @param minSize the number of Subscriptions; the window doesn't shrink below this.
+     * @param maxSize the configured maximum number of outstanding PublishRequests.
+     * @return the number of PublishRequests to keep outstanding.
+     */
+    synchronized int getSize(int minSize, int maxSize) {
+        this.minSize = minSize;
+
+        if (size == 0) {
+            size = targetSize = clamp(minSize + 1, maxSize);
+        } else {
+            targetSize = clamp(targetSize, maxSize);
+
+            resize(size, maxSize);
+        }
+
+        return size;
+    }
+
+    /**
+     * Adjust the window after a PublishResponse was received.
+     *
+     * @param roundTripNanos    the time between sending the PublishRequest and receiving its response.
+     * @param moreNotifications the {@code moreNotifications} flag of the response.
+     * @param maxSize           the configured maximum number of outstanding PublishRequests.
+     */
+    synchronized void onPublishResponse(long roundTripNanos, boolean moreNotifications, int maxSize) {
+        roundTripTime.record(roundTripNanos);
+
+        long now = System.nanoTime();
+
+        if (lastResponseTime != 0L) {
+            long interval = now - lastResponseTime;
+
+            meanInterval = meanInterval == 0.0 ? interval : meanInterval + (interval - meanInterval) / 8.0;
+        }
+        lastResponseTime = now;
+
+        sampleMinRtt = Math.min(sampleMinRtt, roundTripNanos);
+        minRtt = Math.min(minRtt, roundTripNanos);
+
+        if (++samples >= MIN_RTT_SAMPLES) {
+            // forget round trips older than the last MIN_RTT_SAMPLES
+            minRtt = sampleMinRtt;
+            sampleMinRtt = Long.MAX_VALUE;
+            samples = 0;
+        }
+
+        if (size == 0) return;
+
+        if (meanInterval > 0.0) {
+            targetSize = clamp((int) Math.min(Integer.MAX_VALUE, Math.ceil(minRtt / meanInterval) + 1), maxSize);
+        }
+
+        if (moreNotifications) {
+            responsesSinceMoreNotifications = 0;
+
+            resize(Math.max(size, Math.min(targetSize, size * 2)) + 1, maxSize);
+        } else if (targetSize > size) {
+            responsesSinceMoreNotifications = 0;
+
+            resize(Math.min(targetSize, size * 2), maxSize);
+        } else if (targetSize < size && ++responsesSinceMoreNotifications >= size) {
+            responsesSinceMoreNotifications = 0;
+
+            resize(size - 1, maxSize);
+        }
+    }
+
+    /**
+     * Cap the window after the server rejected a PublishRequest with {@code Bad_TooManyPublishRequests}.
+     *
+     * @param outstanding the number of PublishRequests outstanding, including the one rejected.
+     */
+    synchronized void onTooManyPublishRequests(long outstanding) {
+        throttles.increment();
+
+        serverLimit = (int) Math.max(1L, Math.min(Integer.MAX_VALUE, outstanding - 1));
+
+        if (size > serverLimit) {
+            size = serverLimit;
+            decreases.increment();
+        }
+    }
+
+    /**
+     * Forget everything learned, e.g. because the session changed.
+     */
+    synchronized void reset() {
+        size = 0;
+        minSize = 0;
+        targetSize = 0;
+        serverLimit = Integer.MAX_VALUE;
+        responsesSinceMoreNotifications = 0;
+        minRtt = Long.MAX_VALUE;
+        sampleMinRtt = Long.MAX_VALUE;
+        samples = 0;
+        lastResponseTime = 0L;
+        meanInterval = 0.0;
+    }
+
+    /**
+     * @return the number of PublishRequests currently kept outstanding, or 0 if the window hasn't been used yet.
+     */
+    public synchronized int getSize() {
+        return size;
+    }
+
+    /**
+     * @return the size the window doesn't shrink below: the number of Subscriptions when it was last sized.
+     */
+    public synchronized int getMinSize() {
+        return minSize;
+    }
+
+    /**
+     * @return the size the window is moving towards.
+     */
+    public synchronized int getTargetSize() {
+        return targetSize;
+    }
+
+    /**
+     * @return the most PublishRequests the server has allowed, or {@link Integer#MAX_VALUE} if it hasn't refused any.
+     */
+    public synchronized int getServerLimit() {
+        return serverLimit;
+    }
+
+    /**
+     * @return the shortest recent PublishRequest round trip, in milliseconds, or 0 if there haven't been any.
+     */
+    public synchronized double getMinRoundTripMillis() {
+        return minRtt == Long.MAX_VALUE ? 0.0 : minRtt / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * @return the mean time between PublishResponses, in milliseconds, or 0 if there haven't been enough.
+     */
+    public synchronized double getMeanResponseIntervalMillis() {
+        return meanInterval / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * @return the round trip times of PublishRequests, including the time the server held them.
+     */
+    public LatencyHistogram getRoundTripTime() {
+        return roundTripTime;
+    }
+
+    /**
+     * @return the number of times the window grew.
+     */
+    public long getIncreaseCount() {
+        return increases.sum();
+    }
+
+    /**
+     * @return the number of times the window shrank.
+     */
+    public long getDecreaseCount() {
+        return decreases.sum();
+    }
+
+    /**
+     * @return the number of PublishRequests the server rejected with {@code Bad_TooManyPublishRequests}.
+     */
+    public long getThrottleCount() {
+        return throttles.sum();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return MoreObjects.toStringHelper(this)
+            .add("size", size)
+            .add("minSize", minSize)
+            .add("targetSize", targetSize)
+            .add("serverLimit", serverLimit)
+            .add("minRoundTripMillis", getMinRoundTripMillis())
+            .add("meanResponseIntervalMillis", getMeanResponseIntervalMillis())
+            .add("increases", getIncreaseCount())
+            .add("decreases", getDecreaseCount())
+            .add("throttles", getThrottleCount())
+            .toString();
+    }
+
+    private void resize(int newSize, int maxSize) {
+        newSize = clamp(newSize, maxSize);
+
+        if (newSize > size) {
+            increases.increment();
+        } else if (newSize < size) {
+            decreases.increment();
+        }
+
+        size = newSize;
+    }
+
+    private int clamp(int value, int maxSize) {
+        return Math.max(1, Math.min(Math.max(value, minSize), Math.min(maxSize, serverLimit)));
+    }
+
+}
@@ -0,0 +1,558 @@
+/*
+ * Copyright (c) 2019 the Eclipse Milo Authors
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.milo.opcua.sdk.server.historian;
+
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+import javax.annotation.Nullable;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.eclipse.milo.opcua.stack.core.serialization.OpcUaBinaryStreamDecoder;
+import org.eclipse.milo.opcua.stack.core.serialization.OpcUaBinaryStreamEncoder;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DateTime;
+import org.eclipse.milo.opcua.stack.core.types.builtin.StatusCode;
+import org.eclipse.milo.opcua.stack.core.types.builtin.Variant;
+import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.ULong;
+import org.eclipse.milo.opcua.stack.core.util.TypeUtil;
+
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.ubyte;
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.uint;
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.ulong;
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.ushort;
+
+/**
+ * Encodes a run of samples, sorted by time, into a compressed block, and decodes it again.
+ * <p>
+ * A block is a fixed size header followed by a payload:
+ * <ul>
+ * <li>source timestamps as zig-zag varint delta-of-deltas</li>
+ * <li>server timestamps as zig-zag varint offsets from the source timestamp</li>
+ * <li>status codes, run-length encoded</li>
+ * <li>values: integer types as zig-zag varint deltas, Float and Double XORed with the previous value and stripped of
+ * leading and trailing zero bytes, anything else in the OPC UA binary encoding</li>
+ * </ul>
+ * Picoseconds aren't stored.
+ */
+final class BlockCodec {
+
+    static final int MAGIC = 0x4D484231;
+
+    static final int HEADER_SIZE = 36;
+
+    private static final byte VALUES_VARIANT = 0;
+    private static final byte VALUES_INTEGER = 1;
+    private static final byte VALUES_FLOATING = 2;
+
+    private static final byte TIMESTAMPS_BOTH = 0;
+    private static final byte TIMESTAMPS_MIXED = 1;
+
+    private static final int SOURCE_PRESENT = 1;
+    private static final int SERVER_PRESENT = 2;
+
+    private static final int XOR_ZERO = 0xFF;
+
+    private BlockCodec() {}
+
+    /**
+     * @param value a {@link DataValue}.
+     * @return the time {@code value} is historized at: its source timestamp if it has one, otherwise its server
+     * timestamp, otherwise 0.
+     */
+    static long timeOf(DataValue value) {
+        DateTime time = value.getSourceTime();
+        if (time == null) time = value.getServerTime();
+        return time != null ? time.getUtcTime() : 0L;
+    }
+
+    /**
+     * Encode the first {@code count} of {@code samples}, which must be sorted by {@link #timeOf(DataValue)}.
+     *
+     * @param samples the samples to encode.
+     * @param count   the number of samples to encode.
+     * @return a buffer containing the encoded block.
+     */
+    static ByteBuf encode(DataValue[] samples, int count) {
+        ByteBuf buffer = Unpooled.buffer(HEADER_SIZE + count * 8);
+        buffer.writerIndex(HEADER_SIZE);
+
+        encodeTimestamps(buffer, samples, count);
+        encodeStatusCodes(buffer, samples, count);
+
+        int typeId = numericTypeId(samples, count);
+        byte valueEncoding;
+
+        if (typeId == 10 || typeId == 11) {
+            valueEncoding = VALUES_FLOATING;
+            encodeFloatingValues(buffer, samples, count, typeId);
+        } else if (typeId > 0) {
+            valueEncoding = VALUES_INTEGER;
+            encodeIntegerValues(buffer, samples, count);
+        } else {
+            valueEncoding = VALUES_VARIANT;
+            encodeVariantValues(buffer, samples, count);
+        }
+
+        int payloadLength = buffer.writerIndex() - HEADER_SIZE;
+
+        CRC32 crc = new CRC32();
+        crc.update(buffer.nioBuffer(HEADER_SIZE, payloadLength));
+
+        buffer.setInt(0, MAGIC);
+        buffer.setInt(4, payloadLength);
+        buffer.setInt(8, count);
+        buffer.setInt(12, (int) crc.getValue());
+        buffer.setLong(16, count > 0 ? timeOf(samples[0]) : 0L);
+        buffer.setLong(24, count > 0 ? timeOf(samples[count - 1]) : 0L);
+        buffer.setByte(32, valueEncoding);
+        buffer.setByte(33, Math.max(typeId, 0));
+        buffer.setShort(34, 0);
+
+        return buffer;
+    }
+
+    /**
+     * Read the header of the block at {@code offset} in {@code buffer}.
+     *
+     * @param buffer the buffer to read from.
+     * @param offset the offset of the block.
+     * @param limit  the offset the block must end by.
+     * @return the {@link Header}, or {@code null} if there is no valid block at {@code offset}.
+     */
+    @Nullable
+    static Header readHeader(ByteBuffer buffer, int offset, int limit) {
+        if (limit - offset < HEADER_SIZE || buffer.getInt(offset) != MAGIC) {
+            return null;
+        }
+
+        int payloadLength = buffer.getInt(offset + 4);
+        int count = buffer.getInt(offset + 8);
+
+        if (payloadLength < 0 || count < 0 || payloadLength > limit - offset - HEADER_SIZE) {
+            return null;
+        }
+
+        return new Header(
+            payloadLength,
+            count,
+            buffer.getInt(offset + 12),
+            buffer.getLong(offset + 16),
+            buffer.getLong(offset + 24)
+        );
+    }
+
+    /**
+     * @param buffer the buffer containing the block.
+     * @param offset the offset of the block.
+     * @param header the block's {@link Header}.
+     * @return {@code true} if the block's payload matches the checksum in its header.
+     */
+    static boolean verify(ByteBuffer buffer, int offset, Header header) {
+        ByteBuffer payload = buffer.duplicate();
+        payload.limit(offset + HEADER_SIZE + header.payloadLength);
+        payload.position(offset + HEADER_SIZE);
+
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+
+        return (int) crc.getValue() == header.checksum;
+    }
+
+    /**
+     * Decode the block at the current position of {@code block}.
+     *
+     * @param block a buffer positioned at the start of a block.
+     * @return the decoded samples.
+     */
+    static DataValue[] decode(ByteBuf block) {
+        int start = block.readerIndex();
+        int payloadLength = block.getInt(start + 4);
+        int count = block.getInt(start + 8);
+        byte valueEncoding = block.getByte(start + 32);
+        int typeId = block.getUnsignedByte(start + 33);
+
+        ByteBuf payload = block.slice(start + HEADER_SIZE, payloadLength);
+
+        DateTime[] sourceTimes = new DateTime[count];
+        DateTime[] serverTimes = new DateTime[count];
+        decodeTimestamps(payload, count, sourceTimes, serverTimes);
+
+        StatusCode[] statusCodes = decodeStatusCodes(payload, count);
+
+        Variant[] values;
+        switch (valueEncoding) {
+            case VALUES_INTEGER:
+                values = decodeIntegerValues(payload, count, typeId);
+                break;
+            case VALUES_FLOATING:
+                values = decodeFloatingValues(payload, count, typeId);
+                break;
+            default:
+                values = decodeVariantValues(payload, count);
+                break;
+        }
+
+        DataValue[] samples = new DataValue[count];
+        for (int i = 0; i < count; i++) {
+            samples[i] = new DataValue(values[i], statusCodes[i], sourceTimes[i], serverTimes[i]);
+        }
+
+        block.readerIndex(start + HEADER_SIZE + payloadLength);
+
+        return samples;
+    }
+
+    private static void encodeTimestamps(ByteBuf buffer, DataValue[] samples, int count) {
+        boolean allPresent = true;
+        for (int i = 0; i < count && allPresent; i++) {
+            allPresent = samples[i].getSourceTime() != null && samples[i].getServerTime() != null;
+        }
+
+        if (allPresent) {
+            buffer.writeByte(TIMESTAMPS_BOTH);
+        } else {
+            buffer.writeByte(TIMESTAMPS_MIXED);
+            for (int i = 0; i < count; i++) {
+                int flags = 0;
+                if (samples[i].getSourceTime() != null) flags |= SOURCE_PRESENT;
+                if (samples[i].getServerTime() != null) flags |= SERVER_PRESENT;
+                buffer.writeByte(flags);
+            }
+        }
+
+        long previousTime = 0L;
+        long previousDelta = 0L;
+
+        for (int i = 0; i < count; i++) {
+            DateTime sourceTime = samples[i].getSourceTime();
+
+            if (sourceTime != null) {
+                long time = sourceTime.getUtcTime();
+                long delta = time - previousTime;
+                writeSignedVarint(buffer, delta - previousDelta);
+                previousTime = time;
+                previousDelta = delta;
+            }
+        }
+
+        long previousServerTime = 0L;
+
+        for (int i = 0; i < count; i++) {
+            DateTime serverTime = samples[i].getServerTime();
+
+            if (serverTime != null) {
+                DateTime sourceTime = samples[i].getSourceTime();
+                long reference = sourceTime != null ? sourceTime.getUtcTime() : previousServerTime;
+                writeSignedVarint(buffer, serverTime.getUtcTime() - reference);
+                previousServerTime = serverTime.getUtcTime();
+            }
+        }
+    }
+
+    private static void decodeTimestamps(ByteBuf buffer, int count, DateTime[] sourceTimes, DateTime[] serverTimes) {
+        byte[] flags = new byte[count];
+
+        if (buffer.readByte() == TIMESTAMPS_BOTH) {
+            for (int i = 0; i < count; i++) {
+                flags[i] = SOURCE_PRESENT | SERVER_PRESENT;
+            }
+        } else {
+            buffer.readBytes(flags);
+        }
+
+        long previousTime = 0L;
+        long previousDelta = 0L;
+
+        for (int i = 0; i < count; i++) {
+            if ((flags[i] & SOURCE_PRESENT) != 0) {
+                long delta = previousDelta + readSignedVarint(buffer);
+                long time = previousTime + delta;
+                sourceTimes[i] = new DateTime(time);
+                previousTime = time;
+                previousDelta = delta;
+            }
+        }
+
+        long previousServerTime = 0L;
+
+        for (int i = 0; i < count; i++) {
+            if ((flags[i] & SERVER_PRESENT) != 0) {
+                long reference = sourceTimes[i] != null ? sourceTimes[i].getUtcTime() : previousServerTime;
+                long time = reference + readSignedVarint(buffer);
+                serverTimes[i] = new DateTime(time);
+                previousServerTime = time;
+            }
+        }
+    }
+
+    private static void encodeStatusCodes(ByteBuf buffer, DataValue[] samples, int count) {
+        int i = 0;
+
+        while (i < count) {
+            long status = statusOf(samples[i]);
+            int run = 1;
+
+            while (i + run < count && statusOf(samples[i + run]) == status) {
+                run++;
+            }
+
+            writeVarint(buffer, run);
+            buffer.writeInt((int) status);
+
+            i += run;
+        }
+    }
+
+    private static StatusCode[] decodeStatusCodes(ByteBuf buffer, int count) {
+        StatusCode[] statusCodes = new StatusCode[count];
+
+        int i = 0;
+
+        while (i < count) {
+            int run = (int) readVarint(buffer);
+            long value = buffer.readUnsignedInt();
+            StatusCode status = value == 0L ? StatusCode.GOOD : new StatusCode(value);
+
+            for (int j = 0; j < run && i < count; j++) {
+                statusCodes[i++] = status;
+            }
+        }
+
+        return statusCodes;
+    }
+
+    private static void encodeIntegerValues(ByteBuf buffer, DataValue[] samples, int count) {
+        long previous = 0L;
+
+        for (int i = 0; i < count; i++) {
+            long value = longValue(samples[i].getValue().getValue());
+            writeSignedVarint(buffer, value - previous);
+            previous = value;
+        }
+    }
+
+    private static Variant[] decodeIntegerValues(ByteBuf buffer, int count, int typeId) {
+        Variant[] values = new Variant[count];
+
+        long previous = 0L;
+
+        for (int i = 0; i < count; i++) {
+            long value = previous + readSignedVarint(buffer);
+            values[i] = new Variant(integerValue(typeId, value));
+            previous = value;
+        }
+
+        return values;
+    }
+
+    private static void encodeFloatingValues(ByteBuf buffer, DataValue[] samples, int count, int typeId) {
+        long previous = 0L;
+
+        for (int i = 0; i < count; i++) {
+            Object value = samples[i].getValue().getValue();
+
+            long bits = typeId == 10 ?
+                Float.floatToRawIntBits((Float) value) & 0xFFFFFFFFL :
+                Double.doubleToRawLongBits((Double) value);
+
+            long xor = bits ^ previous;
+
+            if (xor == 0L) {
+                buffer.writeByte(XOR_ZERO);
+            } else {
+                int leading = Long.numberOfLeadingZeros(xor) / 8;
+                int trailing = Long.numberOfTrailingZeros(xor) / 8;
+                int length = 8 - leading - trailing;
+
+                buffer.writeByte((leading << 4) | trailing);
+
+                long meaningful = xor >>> (trailing * 8);
+                for (int j = length - 1; j >= 0; j--) {
+                    buffer.writeByte((int) (meaningful >>> (j * 8)));
+                }
+            }
+
+            previous = bits;
+        }
+    }
+
+    private static Variant[] decodeFloatingValues(ByteBuf buffer, int count, int typeId) {
+        Variant[] values = new Variant[count];
+
+        long previous = 0L;
+
+        for (int i = 0; i < count; i++) {
+            int control = buffer.readUnsignedByte();
+
+            long bits = previous;
+
+            if (control != XOR_ZERO) {
+                int leading = control >>> 4;
+                int trailing = control & 0x0F;
+                int length = 8 - leading - trailing;
+
+                long meaningful = 0L;
+                for (int j = 0; j < length; j++) {
+                    meaningful = (meaningful << 8) | buffer.readUnsignedByte();
+                }
+
+                bits = previous ^ (meaningful << (trailing * 8));
+            }
+
+            values[i] = typeId == 10 ?
+                new Variant(Float.intBitsToFloat((int) bits)) :
+                new Variant(Double.longBitsToDouble(bits));
+
+            previous = bits;
+        }
+
+        return values;
+    }
+
+    private static void encodeVariantValues(ByteBuf buffer, DataValue[] samples, int count) {
+        OpcUaBinaryStreamEncoder encoder = new OpcUaBinaryStreamEncoder(buffer);
+
+        for (int i = 0; i < count; i++) {
+            Variant value = samples[i].getValue();
+            encoder.writeVariant(value != null ? value : Variant.NULL_VALUE);
+        }
+    }
+
+    private static Variant[] decodeVariantValues(ByteBuf buffer, int count) {
+        OpcUaBinaryStreamDecoder decoder = new OpcUaBinaryStreamDecoder(buffer);
+
+        Variant[] values = new Variant[count];
+
+        for (int i = 0; i < count; i++) {
+            values[i] = decoder.readVariant();
+        }
+
+        return values;
+    }
+
+    /**
+     * @return the builtin type id shared by every value if they're all non-null numeric or Boolean scalars, otherwise
+     * -1.
+     */
+    private static int numericTypeId(DataValue[] samples, int count) {
+        Class<?> clazz = null;
+
+        for (int i = 0; i < count; i++) {
+            Variant variant = samples[i].getValue();
+            Object value = variant != null ? variant.getValue() : null;
+
+            if (value == null) return -1;
+
+            if (clazz == null) {
+                clazz = value.getClass();
+            } else if (clazz != value.getClass()) {
+                return -1;
+            }
+        }
+
+        int typeId = clazz != null ? TypeUtil.getBuiltinTypeId(clazz) : -1;
+
+        return typeId >= 1 && typeId <= 11 ? typeId : -1;
+    }
+
+    private static long statusOf(DataValue value) {
+        StatusCode status = value.getStatusCode();
+        return status != null ? status.getValue() : 0L;
+    }
+
+    private static long longValue(Object value) {
+        if (value instanceof Boolean) {
+            return (Boolean) value ? 1L : 0L;
+        } else if (value instanceof ULong) {
+            return ((ULong) value).longValue();
+        } else {
+            return ((Number) value).longValue();
+        }
+    }
+
+    private static Object integerValue(int typeId, long value) {
+        switch (typeId) {
+            case 1:
+                return value != 0L;
+            case 2:
+                return (byte) value;
+            case 3:
+                return ubyte(value);
+            case 4:
+                return (short) value;
+            case 5:
+                return ushort((int) value);
+            case 6:
+                return (int) value;
+            case 7:
+                return uint(value);
+            case 8:
+                return value;
+            case 9:
+                return ulong(value);
+            default:
+                throw new IllegalArgumentException("typeId: " + typeId);
+        }
+    }
+
+    private static void writeSignedVarint(ByteBuf buffer, long value) {
+        writeVarint(buffer, (value << 1) ^ (value >> 63));
+    }
+
+    private static long readSignedVarint(ByteBuf buffer) {
+        long value = readVarint(buffer);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarint(ByteBuf buffer, long value) {
+        while ((value & ~0x7FL) != 0L) {
+            buffer.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.writeByte((int) value);
+    }
+
+    private static long readVarint(ByteBuf buffer) {
+        long value = 0L;
+        int shift = 0;
+
+        while (true) {
+            byte b = buffer.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+            shift += 7;
+        }
+    }
+
+    static final class Header {
+
+        final int payloadLength;
+        final int count;
+        final int checksum;
+        final long minTime;
+        final long maxTime;
+
+        Header(int payloadLength, int count, int checksum, long minTime, long maxTime) {
+            this.payloadLength = payloadLength;
+            this.count = count;
+            this.checksum = checksum;
+            this.minTime = minTime;
+            this.maxTime = maxTime;
+        }
+
+        int getBlockLength() {
+            return HEADER_SIZE + payloadLength;
+        }
+
+    }
+
+}
@@ -0,0 +1,397 @@
+/*
+ * Copyright (c) 2019 the Eclipse Milo Authors
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.milo.opcua.sdk.server.historian;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+
+import org.eclipse.milo.opcua.sdk.server.AbstractLifecycle;
+import org.eclipse.milo.opcua.sdk.server.api.AbstractNodeManager;
+import org.eclipse.milo.opcua.sdk.server.api.NodeLifecycleListener;
+import org.eclipse.milo.opcua.sdk.server.api.services.AttributeHistoryServices;
+import org.eclipse.milo.opcua.sdk.server.nodes.AttributeObserver;
+import org.eclipse.milo.opcua.sdk.server.nodes.UaNode;
+import org.eclipse.milo.opcua.sdk.server.nodes.UaVariableNode;
+import org.eclipse.milo.opcua.stack.core.AttributeId;
+import org.eclipse.milo.opcua.stack.core.StatusCodes;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DateTime;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.StatusCode;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.PerformUpdateType;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.TimestampsToReturn;
+import org.eclipse.milo.opcua.stack.core.types.structured.HistoryReadDetails;
+import org.eclipse.milo.opcua.stack.core.types.structured.HistoryReadResult;
+import org.eclipse.milo.opcua.stack.core.types.structured.HistoryReadValueId;
+import org.eclipse.milo.opcua.stack.core.types.structured.HistoryUpdateDetails;
+import org.eclipse.milo.opcua.stack.core.types.structured.HistoryUpdateResult;
+import org.eclipse.milo.opcua.stack.core.types.structured.ReadAtTimeDetails;
+import org.eclipse.milo.opcua.stack.core.types.structured.ReadProcessedDetails;
+import org.eclipse.milo.opcua.stack.core.types.structured.ReadRawModifiedDetails;
+import org.eclipse.milo.opcua.stack.core.types.structured.UpdateDataDetails;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static org.eclipse.milo.opcua.sdk.server.historian.BlockCodec.timeOf;
+
+/**
+ * An embedded time-series store that records the values of historizing variables and serves them to HistoryRead.
+ * <p>
+ * Each Node's history is kept in its own directory of append-only, memory-mapped segment files. Samples are buffered
+ * in memory per Node, compressed into blocks of up to {@link HistorianConfig#getBlockSize()} samples, and written by a
+ * dedicated flush thread, so recording a value never blocks on I/O or competes with the server's executor. A block is
+ * written once it's full, or once it has been open for {@link HistorianConfig#getMaxBlockAge()}.
+ * <p>
+ * Use {@link #historize(AbstractNodeManager)} to record the value changes of every variable in a NodeManager whose
+ * Historizing attribute is {@code true}, including variables added later, or {@link #record(NodeId, DataValue)} to
+ * record values directly. To serve history, delegate an address space's {@link AttributeHistoryServices} to this
+ * historian.
+ * <p>
+ * Supported HistoryRead details are {@link ReadRawModifiedDetails} (raw only), {@link ReadProcessedDetails} (the
+ * aggregates in {@link HistoryQueries.Aggregate}), and {@link ReadAtTimeDetails}. The only supported HistoryUpdate is
+ * inserting with {@link UpdateDataDetails}.
+ */
+public class EmbeddedHistorian extends AbstractLifecycle implements AttributeHistoryServices {
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final ConcurrentMap<NodeId, Series> series = new ConcurrentHashMap<>();
+
+    // nodes only hold weak references to their observers
+    private final AttributeObserver observer = this::attributeChanged;
+
+    private final NodeLifecycleListener<UaNode> lifecycleListener = new NodeLifecycleListener<UaNode>() {
+        @Override
+        public void onNodeAdded(UaNode node) {
+            if (node instanceof UaVariableNode) {
+                node.addAttributeObserver(observer);
+            }
+        }
+
+        @Override
+        public void onNodeRemoved(UaNode node) {
+            if (node instanceof UaVariableNode) {
+                node.removeAttributeObserver(observer);
+            }
+        }
+    };
+
+    private final ScheduledExecutorService flushExecutor;
+
+    private final HistorianConfig config;
+
+    public EmbeddedHistorian(HistorianConfig config) {
+        this.config = config;
+
+        flushExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "milo-historian-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public HistorianConfig getConfig() {
+        return config;
+    }
+
+    @Override
+    protected void onStartup() {
+        Path directory = config.getDirectory();
+
+        try {
+            Files.createDirectories(directory);
+
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, Files::isDirectory)) {
+                for (Path path : stream) {
+                    NodeId nodeId = nodeIdOf(path);
+
+                    if (nodeId != null) {
+                        series.put(
+                            nodeId,
+                            Series.open(nodeId, path, config.getBlockSize(), config.getSegmentSize())
+                        );
+                    } else {
+                        logger.warn("Ignoring unrecognized directory: {}", path);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        logger.debug("Opened history for {} nodes in {}", series.size(), directory);
+
+        flushExecutor.scheduleWithFixedDelay(
+            this::flushAged,
+            config.getFlushInterval(),
+            config.getFlushInterval(),
+            TimeUnit.MILLISECONDS
+        );
+    }
+
+    @Override
+    protected void onShutdown() {
+        try {
+            flushExecutor.submit(() -> {
+                flushAll();
+                series.values().forEach(Series::force);
+            }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            logger.error("Error flushing history on shutdown", e.getCause());
+        }
+
+        flushExecutor.shutdown();
+    }
+
+    /**
+     * Record the value changes of the variables in {@code nodeManager} while their Historizing attribute is
+     * {@code true}, including variables added to it later.
+     *
+     * @param nodeManager the {@link AbstractNodeManager} whose variables to historize.
+     */
+    public void historize(AbstractNodeManager<UaNode> nodeManager) {
+        nodeManager.addNodeLifecycleListener(lifecycleListener);
+        nodeManager.getNodes().forEach(lifecycleListener::onNodeAdded);
+    }
+
+    /**
+     * Stop recording the value changes of the variables in {@code nodeManager}.
+     *
+     * @param nodeManager the {@link AbstractNodeManager} to stop historizing.
+     */
+    public void stopHistorizing(AbstractNodeManager<UaNode> nodeManager) {
+        nodeManager.removeNodeLifecycleListener(lifecycleListener);
+        nodeManager.getNodes().forEach(lifecycleListener::onNodeRemoved);
+    }
+
+    /**
+     * Record a value of the Node identified by {@code nodeId}.
+     * <p>
+     * Values are historized at their source timestamp, or their server timestamp if they have no source timestamp.
+     * A value with neither is given a server timestamp of the current time.
+     *
+     * @param nodeId the {@link NodeId} of the Node the value belongs to.
+     * @param value  the value to record.
+     */
+    public void record(NodeId nodeId, DataValue value) {
+        if (!isRunning()) return;
+
+        if (value.getSourceTime() == null && value.getServerTime() == null) {
+            value = new DataValue(value.getValue(), value.getStatusCode(), null, DateTime.now());
+        }
+
+        Series s = series.computeIfAbsent(
+            nodeId,
+            id -> new Series(id, directoryOf(id), config.getBlockSize(), config.getSegmentSize())
+        );
+
+        if (s.append(value)) {
+            try {
+                flushExecutor.execute(() -> flush(s));
+            } catch (RejectedExecutionException e) {
+                logger.debug("Flush rejected; historian shutting down");
+            }
+        }
+    }
+
+    /**
+     * Write every value recorded so far to its segment, and wait for the writes to complete.
+     */
+    public void flush() throws InterruptedException, ExecutionException {
+        flushExecutor.submit(this::flushAll).get();
+    }
+
+    @Override
+    public void historyRead(
+        HistoryReadContext context,
+        HistoryReadDetails readDetails,
+        TimestampsToReturn timestamps,
+        List<HistoryReadValueId> readValueIds) {
+
+        List<HistoryReadResult> results = new ArrayList<>(readValueIds.size());
+
+        if (readDetails instanceof ReadProcessedDetails) {
+            ReadProcessedDetails details = (ReadProcessedDetails) readDetails;
+            NodeId[] aggregateTypes = details.getAggregateType();
+
+            for (int i = 0; i < readValueIds.size(); i++) {
+                HistoryReadValueId readValueId = readValueIds.get(i);
+                NodeId aggregateType = aggregateType(aggregateTypes, i, readValueIds.size());
+
+                if (aggregateType != null) {
+                    results.add(HistoryQueries.readProcessed(
+                        series.get(readValueId.getNodeId()),
+                        details,
+                        aggregateType,
+                        timestamps,
+                        readValueId.getContinuationPoint(),
+                        config.getMaxValuesPerRead()
+                    ));
+                } else {
+                    results.add(HistoryQueries.failure(StatusCodes.Bad_AggregateListMismatch));
+                }
+            }
+        } else {
+            for (HistoryReadValueId readValueId : readValueIds) {
+                Series s = series.get(readValueId.getNodeId());
+
+                if (readDetails instanceof ReadRawModifiedDetails) {
+                    results.add(HistoryQueries.readRaw(
+                        s,
+                        (ReadRawModifiedDetails) readDetails,
+                        timestamps,
+                        readValueId.getContinuationPoint(),
+                        config.getMaxValuesPerRead()
+                    ));
+                } else if (readDetails instanceof ReadAtTimeDetails) {
+                    results.add(HistoryQueries.readAtTime(s, (ReadAtTimeDetails) readDetails, timestamps));
+                } else {
+                    results.add(HistoryQueries.failure(StatusCodes.Bad_HistoryOperationUnsupported));
+                }
+            }
+        }
+
+        context.success(results);
+    }
+
+    @Override
+    public void historyUpdate(HistoryUpdateContext context, List<HistoryUpdateDetails> updateDetails) {
+        List<HistoryUpdateResult> results = new ArrayList<>(updateDetails.size());
+
+        for (HistoryUpdateDetails details : updateDetails) {
+            if (details instanceof UpdateDataDetails &&
+                ((UpdateDataDetails) details).getPerformInsertReplace() == PerformUpdateType.Insert) {
+
+                results.add(insert((UpdateDataDetails) details));
+            } else {
+                results.add(new HistoryUpdateResult(
+                    new StatusCode(StatusCodes.Bad_HistoryOperationUnsupported),
+                    null,
+                    null
+                ));
+            }
+        }
+
+        context.success(results);
+    }
+
+    private HistoryUpdateResult insert(UpdateDataDetails details) {
+        DataValue[] values = details.getUpdateValues();
+
+        if (values == null) values = new DataValue[0];
+
+        StatusCode[] operationResults = new StatusCode[values.length];
+
+        for (int i = 0; i < values.length; i++) {
+            DataValue value = values[i];
+            Series s = series.get(details.getNodeId());
+
+            if (s != null && !s.read(timeOf(value), timeOf(value), false, 1).isEmpty()) {
+                operationResults[i] = new StatusCode(StatusCodes.Bad_EntryExists);
+            } else {
+                record(details.getNodeId(), value);
+                operationResults[i] = new StatusCode(StatusCodes.Good_EntryInserted);
+            }
+        }
+
+        return new HistoryUpdateResult(StatusCode.GOOD, operationResults, null);
+    }
+
+    /**
+     * Find the aggregate for the {@code index}th of {@code count} values being read.
+     * <p>
+     * When a request spans more than one address space each only sees its own share of the values, but the full list
+     * of aggregates, so a list that doesn't match {@code count} can only be used if every aggregate in it is the same.
+     */
+    @Nullable
+    private static NodeId aggregateType(@Nullable NodeId[] aggregateTypes, int index, int count) {
+        if (aggregateTypes == null || aggregateTypes.length == 0) {
+            return null;
+        } else if (aggregateTypes.length == count) {
+            return aggregateTypes[index];
+        } else {
+            for (NodeId aggregateType : aggregateTypes) {
+                if (!aggregateType.equals(aggregateTypes[0])) return null;
+            }
+            return aggregateTypes[0];
+        }
+    }
+
+    private void attributeChanged(UaNode node, AttributeId attributeId, Object value) {
+        if (attributeId == AttributeId.Value &&
+            node instanceof UaVariableNode &&
+            Boolean.TRUE.equals(((UaVariableNode) node).getHistorizing())) {
+
+            record(node.getNodeId(), (DataValue) value);
+        }
+    }
+
+    private void flushAll() {
+        for (Series s : series.values()) {
+            s.seal();
+            flush(s);
+        }
+    }
+
+    private void flushAged() {
+        long openedBefore = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(config.getMaxBlockAge());
+
+        for (Series s : series.values()) {
+            if (s.sealIfOpenedBefore(openedBefore)) {
+                flush(s);
+            }
+        }
+    }
+
+    private void flush(Series s) {
+        try {
+            s.flush();
+        } catch (Throwable t) {
+            logger.error("Error writing history for {}", s.getNodeId(), t);
+        }
+    }
+
+    private Path directoryOf(NodeId nodeId) {
+        try {
+            return config.getDirectory().resolve(URLEncoder.encode(nodeId.toParseableString(), "UTF-8"));
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Nullable
+    private static NodeId nodeIdOf(Path directory) {
+        try {
+            return NodeId.parseSafe(URLDecoder.decode(directory.getFileName().toString(), "UTF-8")).orElse(null);
+        } catch (UnsupportedEncodingException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2019 the Eclipse Milo Authors
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.milo.opcua.sdk.server.historian;
+
+import java.nio.file.Path;
+
+public interface HistorianConfig {
+
+    /**
+     * Get the directory history is stored in. Each historized Node gets its own subdirectory of segment files.
+     *
+     * @return the directory history is stored in.
+     */
+    Path getDirectory();
+
+    /**
+     * Get the size, in bytes, of each memory-mapped segment file.
+     * <p>
+     * A segment is created larger than this if a single block doesn't fit in it.
+     *
+     * @return the size, in bytes, of each memory-mapped segment file.
+     */
+    default int getSegmentSize() {
+        return 4 * 1024 * 1024;
+    }
+
+    /**
+     * Get the maximum number of samples buffered in memory per Node before they're compressed into a block and
+     * written to a segment.
+     *
+     * @return the maximum number of samples per block.
+     */
+    default int getBlockSize() {
+        return 1024;
+    }
+
+    /**
+     * Get the interval, in milliseconds, at which blocks are checked against {@link #getMaxBlockAge()}.
+     *
+     * @return the interval, in milliseconds, at which blocks are checked against {@link #getMaxBlockAge()}.
+     */
+    default long getFlushInterval() {
+        return 1000L;
+    }
+
+    /**
+     * Get the time, in milliseconds, a block is kept open in memory before it's written to a segment even though
+     * it isn't full.
+     * <p>
+     * Longer times give Nodes that change slowly fuller, better compressed blocks, but more recent history is lost
+     * if the process terminates without shutting the historian down.
+     *
+     * @return the time, in milliseconds, a partially filled block is kept open.
+     */
+    default long getMaxBlockAge() {
+        return 60_000L;
+    }
+
+    /**
+     * Get the maximum number of values returned per Node by a single HistoryRead before a continuation point is
+     * returned.
+     *
+     * @return the maximum number of values returned per Node by a single HistoryRead.
+     */
+    default int getMaxValuesPerRead() {
+        return 10_000;
+    }
+
+}
@@ -0,0 +1,496 @@
+/*
+ * Copyright (c) 2019 the Eclipse Milo Authors
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.milo.opcua.sdk.server.historian;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import javax.annotation.Nullable;
+
+import org.eclipse.milo.opcua.stack.core.Identifiers;
+import org.eclipse.milo.opcua.stack.core.StatusCodes;
+import org.eclipse.milo.opcua.stack.core.types.builtin.ByteString;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DateTime;
+import org.eclipse.milo.opcua.stack.core.types.builtin.ExtensionObject;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.StatusCode;
+import org.eclipse.milo.opcua.stack.core.types.builtin.Variant;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.TimestampsToReturn;
+import org.eclipse.milo.opcua.stack.core.types.structured.HistoryData;
+import org.eclipse.milo.opcua.stack.core.types.structured.HistoryReadResult;
+import org.eclipse.milo.opcua.stack.core.types.structured.ReadAtTimeDetails;
+import org.eclipse.milo.opcua.stack.core.types.structured.ReadProcessedDetails;
+import org.eclipse.milo.opcua.stack.core.types.structured.ReadRawModifiedDetails;
+
+import static org.eclipse.milo.opcua.sdk.server.historian.BlockCodec.timeOf;
+
+/**
+ * Answers HistoryRead requests against a {@link Series}.
+ * <p>
+ * Continuation points are stateless: they encode where the next read resumes, so there's nothing to release if a
+ * client abandons one.
+ */
+final class HistoryQueries {
+
+    /**
+     * InfoType DataValue with HistorianBits Calculated, see OPC UA Part 4, 7.34.
+     */
+    static final long CALCULATED = 0x0401L;
+
+    /**
+     * InfoType DataValue with HistorianBits Interpolated, see OPC UA Part 4, 7.34.
+     */
+    static final long INTERPOLATED = 0x0402L;
+
+    private static final long TICKS_PER_MILLISECOND = 10_000L;
+
+    private static final byte CONTINUATION_RAW = 1;
+    private static final byte CONTINUATION_PROCESSED = 2;
+
+    private HistoryQueries() {}
+
+    static HistoryReadResult readRaw(
+        @Nullable Series series,
+        ReadRawModifiedDetails details,
+        TimestampsToReturn timestamps,
+        @Nullable ByteString continuationPoint,
+        int maxValues) {
+
+        if (Boolean.TRUE.equals(details.getIsReadModified())) {
+            return failure(StatusCodes.Bad_HistoryOperationUnsupported);
+        }
+
+        boolean hasStart = isSet(details.getStartTime());
+        boolean hasEnd = isSet(details.getEndTime());
+        long numValues = details.getNumValuesPerNode() != null ? details.getNumValuesPerNode().longValue() : 0L;
+
+        if ((!hasStart && !hasEnd) || ((!hasStart || !hasEnd) && numValues == 0L)) {
+            return failure(StatusCodes.Bad_InvalidTimestampArgument);
+        }
+
+        long start = hasStart ? details.getStartTime().getUtcTime() : Long.MIN_VALUE;
+        long end = hasEnd ? details.getEndTime().getUtcTime() : Long.MAX_VALUE;
+
+        boolean reverse = !hasStart || (hasEnd && end < start);
+
+        // the end time is exclusive unless it's the same as the start time
+        long from;
+        long to;
+        if (!reverse) {
+            from = start;
+            to = !hasEnd || end == start ? end : end - 1;
+        } else {
+            from = hasStart ? end + 1 : Long.MIN_VALUE;
+            to = hasStart ? start : end;
+        }
+
+        int limit = numValues > 0L ? (int) Math.min(numValues, maxValues) : maxValues;
+        int skip = 0;
+
+        if (continuationPoint != null) {
+            ByteBuffer cp = parseContinuationPoint(continuationPoint, CONTINUATION_RAW);
+            if (cp == null) return failure(StatusCodes.Bad_ContinuationPointInvalid);
+
+            long resumeTime = cp.getLong();
+            skip = cp.getInt();
+
+            if (!reverse) from = resumeTime;
+            else to = resumeTime;
+        }
+
+        List<DataValue> values = series != null ?
+            series.read(from, to, reverse, skip + limit + 1) :
+            new ArrayList<>();
+
+        values = values.subList(Math.min(skip, values.size()), values.size());
+
+        ByteString nextContinuationPoint = null;
+
+        if (values.size() > limit) {
+            values = values.subList(0, limit);
+
+            long lastTime = timeOf(values.get(limit - 1));
+            int nextSkip = 0;
+            for (int i = limit - 1; i >= 0 && timeOf(values.get(i)) == lastTime; i--) {
+                nextSkip++;
+            }
+            if (continuationPoint != null && nextSkip == limit && (reverse ? to : from) == lastTime) {
+                nextSkip += skip;
+            }
+
+            nextContinuationPoint = continuationPoint(CONTINUATION_RAW, lastTime, nextSkip);
+        }
+
+        List<DataValue> results = new ArrayList<>(values.size() + 2);
+
+        if (Boolean.TRUE.equals(details.getReturnBounds()) && series != null) {
+            if (continuationPoint == null && hasStart) {
+                DataValue first = values.isEmpty() ? null : values.get(0);
+
+                if (first == null || timeOf(first) != start) {
+                    results.add(bound(series, start, !reverse));
+                }
+            }
+
+            results.addAll(values);
+
+            if (nextContinuationPoint == null && hasEnd && hasStart) {
+                results.add(bound(series, end, reverse));
+            }
+        } else {
+            results.addAll(values);
+        }
+
+        return success(results, timestamps, nextContinuationPoint);
+    }
+
+    static HistoryReadResult readAtTime(
+        @Nullable Series series,
+        ReadAtTimeDetails details,
+        TimestampsToReturn timestamps) {
+
+        DateTime[] reqTimes = details.getReqTimes();
+
+        if (reqTimes == null || reqTimes.length == 0) {
+            return failure(StatusCodes.Bad_InvalidTimestampArgument);
+        }
+
+        List<DataValue> results = new ArrayList<>(reqTimes.length);
+
+        for (DateTime reqTime : reqTimes) {
+            results.add(valueAtTime(series, reqTime.getUtcTime()));
+        }
+
+        return success(results, timestamps, null);
+    }
+
+    static HistoryReadResult readProcessed(
+        @Nullable Series series,
+        ReadProcessedDetails details,
+        NodeId aggregateType,
+        TimestampsToReturn timestamps,
+        @Nullable ByteString continuationPoint,
+        int maxValues) {
+
+        Aggregate aggregate = Aggregate.from(aggregateType);
+
+        if (aggregate == null) {
+            return failure(StatusCodes.Bad_AggregateNotSupported);
+        }
+
+        if (!isSet(details.getStartTime()) || !isSet(details.getEndTime())) {
+            return failure(StatusCodes.Bad_InvalidTimestampArgument);
+        }
+
+        long start = details.getStartTime().getUtcTime();
+        long end = details.getEndTime().getUtcTime();
+
+        if (start == end) {
+            return failure(StatusCodes.Bad_InvalidTimestampArgument);
+        }
+
+        // intervals are aligned to the earlier of the two times and returned in the requested direction
+        boolean reverse = end < start;
+        long low = Math.min(start, end);
+        long high = Math.max(start, end);
+
+        double processingInterval = details.getProcessingInterval() != null ? details.getProcessingInterval() : 0d;
+        long interval = processingInterval > 0d ?
+            Math.max(1L, (long) (processingInterval * TICKS_PER_MILLISECOND)) :
+            high - low;
+
+        long intervalCount = (high - low + interval - 1) / interval;
+
+        long first = 0L;
+
+        if (continuationPoint != null) {
+            ByteBuffer cp = parseContinuationPoint(continuationPoint, CONTINUATION_PROCESSED);
+            if (cp == null) return failure(StatusCodes.Bad_ContinuationPointInvalid);
+
+            first = cp.getLong();
+            if (first < 0L || first >= intervalCount) return failure(StatusCodes.Bad_ContinuationPointInvalid);
+        }
+
+        long last = Math.min(intervalCount, first + maxValues);
+
+        // with reverse order the first page holds the latest intervals
+        long pageFirst = reverse ? intervalCount - last : first;
+        long pageLast = reverse ? intervalCount - first : last;
+
+        long pageStart = low + pageFirst * interval;
+        long pageEnd = Math.min(high, low + pageLast * interval);
+
+        List<DataValue> samples = series != null ?
+            series.read(pageStart, pageEnd - 1, false, Integer.MAX_VALUE) :
+            Collections.emptyList();
+
+        List<DataValue> results = new ArrayList<>((int) (pageLast - pageFirst));
+
+        int index = 0;
+
+        for (long i = pageFirst; i < pageLast; i++) {
+            long intervalStart = low + i * interval;
+            long intervalEnd = Math.min(high, intervalStart + interval);
+
+            int intervalFirst = index;
+            while (index < samples.size() && timeOf(samples.get(index)) < intervalEnd) {
+                index++;
+            }
+
+            results.add(aggregate.compute(samples.subList(intervalFirst, index), intervalStart, intervalEnd));
+        }
+
+        if (reverse) Collections.reverse(results);
+
+        ByteString nextContinuationPoint = last < intervalCount ?
+            continuationPoint(CONTINUATION_PROCESSED, last, 0) : null;
+
+        return success(results, timestamps, nextContinuationPoint);
+    }
+
+    private static DataValue valueAtTime(@Nullable Series series, long time) {
+        List<DataValue> before = series != null ?
+            series.read(Long.MIN_VALUE, time, true, 1) :
+            Collections.emptyList();
+
+        if (before.isEmpty()) {
+            return new DataValue(Variant.NULL_VALUE, new StatusCode(StatusCodes.Bad_NoData), new DateTime(time));
+        }
+
+        DataValue previous = before.get(0);
+
+        if (timeOf(previous) == time) {
+            return previous;
+        }
+
+        List<DataValue> after = series.read(time, Long.MAX_VALUE, false, 1);
+        DataValue next = after.isEmpty() ? null : after.get(0);
+
+        boolean good = isGood(previous) && next != null && isGood(next);
+
+        Variant value = previous.getValue();
+
+        if (good) {
+            Object v0 = previous.getValue().getValue();
+            Object v1 = next.getValue().getValue();
+
+            if ((v0 instanceof Double || v0 instanceof Float) && v0.getClass() == v1.getClass()) {
+                long t0 = timeOf(previous);
+                long t1 = timeOf(next);
+                double fraction = (double) (time - t0) / (t1 - t0);
+                double d0 = ((Number) v0).doubleValue();
+                double interpolated = d0 + (((Number) v1).doubleValue() - d0) * fraction;
+
+                value = v0 instanceof Float ?
+                    new Variant((float) interpolated) :
+                    new Variant(interpolated);
+            }
+        }
+
+        long status = (good ? 0L : StatusCodes.Uncertain_DataSubNormal) | INTERPOLATED;
+
+        return new DataValue(value, new StatusCode(status), new DateTime(time));
+    }
+
+    private static DataValue bound(Series series, long time, boolean before) {
+        List<DataValue> values = before ?
+            series.read(Long.MIN_VALUE, time, true, 1) :
+            series.read(time, Long.MAX_VALUE, false, 1);
+
+        if (values.isEmpty()) {
+            return new DataValue(Variant.NULL_VALUE, new StatusCode(StatusCodes.Bad_BoundNotFound), new DateTime(time));
+        } else {
+            return values.get(0);
+        }
+    }
+
+    static boolean isGood(DataValue value) {
+        StatusCode status = value.getStatusCode();
+        return status == null || status.isGood();
+    }
+
+    private static boolean isSet(@Nullable DateTime time) {
+        return time != null && time.getUtcTime() > 0L;
+    }
+
+    static HistoryReadResult failure(long statusCode) {
+        return new HistoryReadResult(new StatusCode(statusCode), null, null);
+    }
+
+    private static HistoryReadResult success(
+        List<DataValue> values,
+        TimestampsToReturn timestamps,
+        @Nullable ByteString continuationPoint) {
+
+        DataValue[] dataValues = new DataValue[values.size()];
+        for (int i = 0; i < dataValues.length; i++) {
+            dataValues[i] = withTimestamps(values.get(i), timestamps);
+        }
+
+        StatusCode status = dataValues.length > 0 || continuationPoint != null ?
+            StatusCode.GOOD : new StatusCode(StatusCodes.Good_NoData);
+
+        return new HistoryReadResult(
+            status,
+            continuationPoint,
+            ExtensionObject.encode(new HistoryData(dataValues))
+        );
+    }
+
+    private static DataValue withTimestamps(DataValue value, TimestampsToReturn timestamps) {
+        switch (timestamps) {
+            case Source:
+                return new DataValue(value.getValue(), value.getStatusCode(), value.getSourceTime(), null);
+            case Server:
+                return new DataValue(value.getValue(), value.getStatusCode(), null, value.getServerTime());
+            case Neither:
+                return new DataValue(value.getValue(), value.getStatusCode(), null, null);
+            default:
+                return value;
+        }
+    }
+
+    private static ByteString continuationPoint(byte type, long position, int skip) {
+        ByteBuffer buffer = ByteBuffer.allocate(13);
+        buffer.put(type);
+        buffer.putLong(position);
+        buffer.putInt(skip);
+        return ByteString.of(buffer.array());
+    }
+
+    @Nullable
+    private static ByteBuffer parseContinuationPoint(ByteString continuationPoint, byte type) {
+        byte[] bs = continuationPoint.bytesOrEmpty();
+
+        if (bs.length != 13 || bs[0] != type) return null;
+
+        ByteBuffer buffer = ByteBuffer.wrap(bs, 1, 12);
+
+        return buffer.getInt(9) >= 0 ? buffer : null;
+    }
+
+    /**
+     * The aggregates {@link HistoryQueries#readProcessed} supports. Only samples with a Good status contribute.
+     */
+    enum Aggregate {
+
+        Count(Identifiers.AggregateFunction_Count),
+        Minimum(Identifiers.AggregateFunction_Minimum),
+        Maximum(Identifiers.AggregateFunction_Maximum),
+        Average(Identifiers.AggregateFunction_Average),
+        Total(Identifiers.AggregateFunction_Total),
+        Range(Identifiers.AggregateFunction_Range),
+        Start(Identifiers.AggregateFunction_Start),
+        End(Identifiers.AggregateFunction_End);
+
+        private final NodeId nodeId;
+
+        Aggregate(NodeId nodeId) {
+            this.nodeId = nodeId;
+        }
+
+        public NodeId getNodeId() {
+            return nodeId;
+        }
+
+        DataValue compute(List<DataValue> samples, long intervalStart, long intervalEnd) {
+            DataValue first = null;
+            DataValue last = null;
+            DataValue min = null;
+            DataValue max = null;
+            int count = 0;
+            int numericCount = 0;
+            double sum = 0d;
+            double integral = 0d;
+
+            for (int i = 0; i < samples.size(); i++) {
+                DataValue sample = samples.get(i);
+                if (!isGood(sample)) continue;
+
+                count++;
+                if (first == null) first = sample;
+                last = sample;
+
+                Object value = sample.getValue().getValue();
+                if (!(value instanceof Number)) continue;
+
+                double d = ((Number) value).doubleValue();
+
+                numericCount++;
+                sum += d;
+                if (min == null || d < number(min)) min = sample;
+                if (max == null || d > number(max)) max = sample;
+
+                // stepped: each value holds until the next sample or the end of the interval
+                long until = i + 1 < samples.size() ? timeOf(samples.get(i + 1)) : intervalEnd;
+                integral += d * (until - timeOf(sample)) / (TICKS_PER_MILLISECOND * 1000d);
+            }
+
+            DateTime timestamp = new DateTime(intervalStart);
+            StatusCode calculated = new StatusCode(CALCULATED);
+
+            if (this == Count) {
+                return new DataValue(new Variant(count), calculated, timestamp);
+            }
+
+            Variant result;
+
+            switch (this) {
+                case Start:
+                    result = first != null ? first.getValue() : null;
+                    break;
+                case End:
+                    result = last != null ? last.getValue() : null;
+                    break;
+                case Minimum:
+                    result = min != null ? min.getValue() : null;
+                    break;
+                case Maximum:
+                    result = max != null ? max.getValue() : null;
+                    break;
+                case Average:
+                    result = numericCount > 0 ? new Variant(sum / numericCount) : null;
+                    break;
+                case Total:
+                    result = numericCount > 0 ? new Variant(integral) : null;
+                    break;
+                case Range:
+                    result = numericCount > 0 ? new Variant(number(max) - number(min)) : null;
+                    break;
+                default:
+                    result = null;
+                    break;
+            }
+
+            if (result != null) {
+                return new DataValue(result, calculated, timestamp);
+            } else {
+                return new DataValue(Variant.NULL_VALUE, new StatusCode(StatusCodes.Bad_NoData), timestamp);
+            }
+        }
+
+        private static double number(DataValue value) {
+            return ((Number) value.getValue().getValue()).doubleValue();
+        }
+
+        @Nullable
+        static Aggregate from(@Nullable NodeId nodeId) {
+            for (Aggregate aggregate : values()) {
+                if (aggregate.nodeId.equals(nodeId)) return aggregate;
+            }
+            return null;
+        }
+
+    }
+
+}
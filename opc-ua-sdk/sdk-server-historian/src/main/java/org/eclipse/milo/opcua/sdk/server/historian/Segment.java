@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2019 the Eclipse Milo Authors
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.milo.opcua.sdk.server.historian;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+/**
+ * An append-only, memory-mapped file of blocks encoded by {@link BlockCodec}.
+ * <p>
+ * Only a single thread may append to a segment, but blocks that have already been appended may be read from any
+ * thread once their offset has been safely published.
+ */
+final class Segment {
+
+    private static final int FILE_MAGIC = 0x4D485331;
+    private static final int FILE_HEADER_SIZE = 16;
+
+    private final MappedByteBuffer mapped;
+
+    private int position;
+
+    private final Path path;
+
+    private Segment(Path path, MappedByteBuffer mapped, int position) {
+        this.path = path;
+        this.mapped = mapped;
+        this.position = position;
+    }
+
+    Path getPath() {
+        return path;
+    }
+
+    /**
+     * Append an encoded block to this segment.
+     *
+     * @param block the encoded block.
+     * @return the offset the block was written at, or -1 if there isn't enough room left in this segment.
+     */
+    int append(ByteBuf block) {
+        int length = block.readableBytes();
+
+        if (length > mapped.capacity() - position) {
+            return -1;
+        }
+
+        int offset = position;
+
+        ByteBuffer target = mapped.duplicate();
+        target.position(offset);
+        target.put(block.nioBuffer());
+
+        position += length;
+
+        return offset;
+    }
+
+    /**
+     * @param offset the offset of a block previously appended to this segment.
+     * @return a buffer positioned at the start of the block.
+     */
+    ByteBuf read(int offset) {
+        return Unpooled.wrappedBuffer(mapped.duplicate()).readerIndex(offset);
+    }
+
+    /**
+     * Write any changes to the underlying storage device.
+     * <p>
+     * The file itself isn't held open; the mapping remains valid until the segment is garbage collected.
+     */
+    void force() {
+        mapped.force();
+    }
+
+    /**
+     * Create a new, empty segment at {@code path}.
+     *
+     * @param path the path of the segment file.
+     * @param size the size of the segment, in bytes.
+     * @return the new {@link Segment}.
+     */
+    static Segment create(Path path, int size) throws IOException {
+        try (FileChannel channel = FileChannel.open(
+            path,
+            StandardOpenOption.CREATE_NEW,
+            StandardOpenOption.READ,
+            StandardOpenOption.WRITE)) {
+
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, FILE_HEADER_SIZE + size);
+            mapped.putInt(0, FILE_MAGIC);
+
+            return new Segment(path, mapped, FILE_HEADER_SIZE);
+        }
+    }
+
+    /**
+     * Open an existing segment and replay the blocks in it.
+     * <p>
+     * Replay stops at the first block that is incomplete or fails verification, e.g. one that was being written when
+     * the process terminated; the next append will overwrite it.
+     *
+     * @param path     the path of the segment file.
+     * @param verify   {@code true} if each block's checksum should be verified.
+     * @param consumer receives a {@link BlockRef} for each valid block.
+     * @return the opened {@link Segment}.
+     */
+    static Segment open(Path path, boolean verify, Consumer<BlockRef> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = channel.size();
+
+            if (size < FILE_HEADER_SIZE || size > Integer.MAX_VALUE) {
+                throw new IOException("invalid segment size: " + size);
+            }
+
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+
+            if (mapped.getInt(0) != FILE_MAGIC) {
+                throw new IOException("not a segment: " + path);
+            }
+
+            Segment segment = new Segment(path, mapped, FILE_HEADER_SIZE);
+
+            int offset = FILE_HEADER_SIZE;
+            int limit = mapped.capacity();
+
+            while (true) {
+                BlockCodec.Header header = BlockCodec.readHeader(mapped, offset, limit);
+
+                if (header == null || (verify && !BlockCodec.verify(mapped, offset, header))) break;
+
+                consumer.accept(new BlockRef(segment, offset, header.count, header.minTime, header.maxTime));
+
+                offset += header.getBlockLength();
+            }
+
+            segment.position = offset;
+
+            return segment;
+        }
+    }
+
+    /**
+     * The location and time range of a block in a {@link Segment}.
+     */
+    static final class BlockRef {
+
+        final Segment segment;
+        final int offset;
+        final int count;
+        final long minTime;
+        final long maxTime;
+
+        BlockRef(Segment segment, int offset, int count, long minTime, long maxTime) {
+            this.segment = segment;
+            this.offset = offset;
+            this.count = count;
+            this.minTime = minTime;
+            this.maxTime = maxTime;
+        }
+
+    }
+
+}
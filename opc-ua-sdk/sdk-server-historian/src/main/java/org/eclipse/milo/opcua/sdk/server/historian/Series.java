@@ -0,0 +1,516 @@
+/*
+ * Copyright (c) 2019 the Eclipse Milo Authors
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.milo.opcua.sdk.server.historian;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import io.netty.buffer.ByteBuf;
+import org.eclipse.milo.opcua.sdk.server.historian.Segment.BlockRef;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+
+import static org.eclipse.milo.opcua.sdk.server.historian.BlockCodec.timeOf;
+
+/**
+ * The history of a single Node: samples buffered in memory, sealed blocks waiting to be written, and blocks already
+ * written to the Node's segment files.
+ * <p>
+ * Samples are sorted when their block is sealed, so samples that arrive out of order within a block cost nothing
+ * when reading. Blocks are kept in runs of consecutive blocks whose time ranges ascend without overlapping; a block
+ * that starts before the previous one ends starts a new run. Reads binary search each run, so history that is mostly
+ * in order is read almost as fast as history that is entirely in order.
+ * <p>
+ * {@link #append(DataValue)}, {@link #seal()} and {@link #read(long, long, boolean, int)} may be called from any
+ * thread. {@link #flush()} and {@link #force()} must only be called from the historian's flush thread.
+ */
+final class Series {
+
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    private static final BlockRef[] NO_BLOCKS = new BlockRef[0];
+
+    private static final Comparator<DataValue> BY_TIME = Comparator.comparingLong(BlockCodec::timeOf);
+
+    private DataValue[] current;
+    private int currentCount = 0;
+    private boolean currentSorted = true;
+    private long currentLastTime = Long.MIN_VALUE;
+    private long currentOpenedNanos = 0L;
+
+    private final ArrayDeque<DataValue[]> sealed = new ArrayDeque<>();
+
+    private BlockRef[] blocks = NO_BLOCKS;
+    private int blockCount = 0;
+
+    // the index of the first block of each run, counting written blocks followed by sealed blocks
+    private int[] runStarts = {0};
+    private int runCount = 1;
+
+    private int sequenceLength = 0;
+    private long sequenceMaxTime = Long.MIN_VALUE;
+
+    private boolean flushPending = false;
+
+    // only accessed by the flush thread
+    private Segment head;
+    private long nextSegmentId = 0L;
+
+    private final NodeId nodeId;
+    private final Path directory;
+    private final int blockSize;
+    private final int segmentSize;
+
+    Series(NodeId nodeId, Path directory, int blockSize, int segmentSize) {
+        this.nodeId = nodeId;
+        this.directory = directory;
+        this.blockSize = blockSize;
+        this.segmentSize = segmentSize;
+
+        current = new DataValue[blockSize];
+    }
+
+    NodeId getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Append a sample to the in-memory block.
+     *
+     * @param value the sample to append.
+     * @return {@code true} if a block was sealed and the caller should schedule a {@link #flush()}.
+     */
+    synchronized boolean append(DataValue value) {
+        long time = timeOf(value);
+
+        if (currentCount == 0) {
+            currentOpenedNanos = System.nanoTime();
+        }
+
+        if (time < currentLastTime) {
+            currentSorted = false;
+        } else {
+            currentLastTime = time;
+        }
+
+        current[currentCount++] = value;
+
+        if (currentCount == blockSize) {
+            sealCurrent();
+
+            return requestFlush();
+        } else {
+            return false;
+        }
+    }
+
+    /**
+     * Seal the in-memory block, even if it isn't full.
+     *
+     * @return {@code true} if a block was sealed and the caller should schedule a {@link #flush()}.
+     */
+    synchronized boolean seal() {
+        if (currentCount > 0) {
+            sealCurrent();
+            return requestFlush();
+        } else {
+            return false;
+        }
+    }
+
+    /**
+     * Seal the in-memory block if its first sample was appended at or before {@code nanos}, even if it isn't full.
+     *
+     * @param nanos a {@link System#nanoTime()} value.
+     * @return {@code true} if a block was sealed and the caller should schedule a {@link #flush()}.
+     */
+    synchronized boolean sealIfOpenedBefore(long nanos) {
+        if (currentCount > 0 && currentOpenedNanos - nanos <= 0) {
+            sealCurrent();
+            return requestFlush();
+        } else {
+            return false;
+        }
+    }
+
+    private void sealCurrent() {
+        DataValue[] samples;
+
+        if (currentCount == current.length) {
+            samples = current;
+            current = new DataValue[blockSize];
+        } else {
+            samples = Arrays.copyOf(current, currentCount);
+            Arrays.fill(current, 0, currentCount, null);
+        }
+
+        if (!currentSorted) {
+            Arrays.sort(samples, BY_TIME);
+        }
+
+        sealed.addLast(samples);
+        addToSequence(timeOf(samples[0]), timeOf(samples[samples.length - 1]));
+
+        currentCount = 0;
+        currentSorted = true;
+        currentLastTime = Long.MIN_VALUE;
+    }
+
+    /**
+     * Account for a block appended to the sequence of written and sealed blocks, starting a new run if it overlaps
+     * the block before it.
+     */
+    private void addToSequence(long minTime, long maxTime) {
+        if (sequenceLength > 0 && minTime < sequenceMaxTime) {
+            if (runCount == runStarts.length) {
+                // readers hold on to the old array; they only ever look at the prefix that existed when they read it
+                runStarts = Arrays.copyOf(runStarts, runStarts.length * 2);
+            }
+
+            runStarts[runCount++] = sequenceLength;
+        }
+
+        sequenceLength++;
+        sequenceMaxTime = maxTime;
+    }
+
+    private boolean requestFlush() {
+        if (flushPending) {
+            return false;
+        } else {
+            flushPending = true;
+            return true;
+        }
+    }
+
+    /**
+     * Encode and write every sealed block to a segment.
+     */
+    void flush() throws IOException {
+        while (true) {
+            DataValue[] samples;
+
+            synchronized (this) {
+                samples = sealed.peekFirst();
+
+                if (samples == null) {
+                    flushPending = false;
+                    return;
+                }
+            }
+
+            ByteBuf block = BlockCodec.encode(samples, samples.length);
+            BlockRef ref = write(block, samples.length);
+
+            synchronized (this) {
+                addBlock(ref);
+                sealed.pollFirst();
+            }
+        }
+    }
+
+    /**
+     * Write any changes to the segment currently being appended to the underlying storage device.
+     */
+    void force() {
+        if (head != null) head.force();
+    }
+
+    private BlockRef write(ByteBuf block, int count) throws IOException {
+        int offset = head != null ? head.append(block) : -1;
+
+        if (offset < 0) {
+            Files.createDirectories(directory);
+
+            Path path = directory.resolve(String.format("%016x%s", nextSegmentId++, SEGMENT_SUFFIX));
+            Segment segment = Segment.create(path, Math.max(segmentSize, block.readableBytes()));
+
+            if (head != null) head.force();
+            head = segment;
+
+            offset = head.append(block);
+        }
+
+        return new BlockRef(
+            head,
+            offset,
+            count,
+            block.getLong(16),
+            block.getLong(24)
+        );
+    }
+
+    private void addBlock(BlockRef ref) {
+        if (blockCount == blocks.length) {
+            // readers hold on to the old array; they only ever look at the prefix that existed when they read it
+            blocks = Arrays.copyOf(blocks, Math.max(16, blocks.length * 2));
+        }
+
+        blocks[blockCount++] = ref;
+    }
+
+    /**
+     * Read the samples with times in {@code [from, to]}.
+     *
+     * @param from    the earliest time to return, inclusive.
+     * @param to      the latest time to return, inclusive.
+     * @param reverse {@code true} to return samples in descending order of time, otherwise ascending.
+     * @param limit   the maximum number of samples to return.
+     * @return the samples, in the requested order.
+     */
+    List<DataValue> read(long from, long to, boolean reverse, int limit) {
+        View view = view();
+
+        if (from > to || limit <= 0) return new ArrayList<>();
+
+        if (view.runCount == 1) {
+            return readRun(view, 0, view.size(), from, to, reverse, limit);
+        }
+
+        List<DataValue> values = new ArrayList<>();
+
+        for (int r = 0; r < view.runCount; r++) {
+            int runEnd = r + 1 < view.runCount ? view.runStarts[r + 1] : view.size();
+
+            values.addAll(readRun(view, view.runStarts[r], runEnd, from, to, reverse, limit));
+        }
+
+        values.sort(BY_TIME);
+        if (reverse) Collections.reverse(values);
+
+        if (values.size() > limit) {
+            values = new ArrayList<>(values.subList(0, limit));
+        }
+
+        return values;
+    }
+
+    /**
+     * Read the samples with times in {@code [from, to]} from the run of blocks {@code [start, end)} of {@code view}.
+     */
+    private List<DataValue> readRun(View view, int start, int end, long from, long to, boolean reverse, int limit) {
+        List<DataValue> values = new ArrayList<>(Math.min(limit, blockSize));
+
+        if (!reverse) {
+            int i = view.firstEndingAtOrAfter(from, start, end);
+
+            for (; i < end && values.size() < limit && view.minTime(i) <= to; i++) {
+                DataValue[] samples = view.samples(i);
+
+                for (int j = lowerBound(samples, from); j < samples.length && values.size() < limit; j++) {
+                    if (timeOf(samples[j]) > to) break;
+                    values.add(samples[j]);
+                }
+            }
+        } else {
+            int i = view.lastStartingAtOrBefore(to, start, end);
+
+            for (; i >= start && values.size() < limit && view.maxTime(i) >= from; i--) {
+                DataValue[] samples = view.samples(i);
+
+                for (int j = upperBound(samples, to) - 1; j >= 0 && values.size() < limit; j--) {
+                    if (timeOf(samples[j]) < from) break;
+                    values.add(samples[j]);
+                }
+            }
+        }
+
+        return values;
+    }
+
+    private synchronized View view() {
+        DataValue[][] memory = new DataValue[sealed.size() + 1][];
+
+        int i = 0;
+        for (DataValue[] samples : sealed) {
+            memory[i++] = samples;
+        }
+
+        DataValue[] samples = Arrays.copyOf(current, currentCount);
+        if (!currentSorted) Arrays.sort(samples, BY_TIME);
+        memory[i] = samples;
+
+        int[] starts = runStarts;
+        int count = runCount;
+
+        if (samples.length > 0 && sequenceLength > 0 && timeOf(samples[0]) < sequenceMaxTime) {
+            // the in-memory block starts a run of its own
+            starts = Arrays.copyOf(runStarts, runCount + 1);
+            starts[count++] = sequenceLength;
+        }
+
+        return new View(blocks, blockCount, memory, starts, count);
+    }
+
+    /**
+     * @return the index of the first sample with a time {@code >= time}.
+     */
+    private static int lowerBound(DataValue[] samples, long time) {
+        int low = 0;
+        int high = samples.length;
+
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (timeOf(samples[mid]) < time) low = mid + 1;
+            else high = mid;
+        }
+
+        return low;
+    }
+
+    /**
+     * @return the index of the first sample with a time {@code > time}.
+     */
+    private static int upperBound(DataValue[] samples, long time) {
+        int low = 0;
+        int high = samples.length;
+
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (timeOf(samples[mid]) <= time) low = mid + 1;
+            else high = mid;
+        }
+
+        return low;
+    }
+
+    /**
+     * Open the history of {@code nodeId} in {@code directory}, replaying any blocks already written to it.
+     */
+    static Series open(NodeId nodeId, Path directory, int blockSize, int segmentSize) throws IOException {
+        Series series = new Series(nodeId, directory, blockSize, segmentSize);
+
+        List<Path> paths = new ArrayList<>();
+
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+            stream.forEach(paths::add);
+        }
+
+        Collections.sort(paths);
+
+        for (int i = 0; i < paths.size(); i++) {
+            Path path = paths.get(i);
+            boolean last = i == paths.size() - 1;
+
+            // only the last segment can contain a partially written block
+            Segment segment = Segment.open(path, last, ref -> {
+                series.addBlock(ref);
+                series.addToSequence(ref.minTime, ref.maxTime);
+            });
+
+            String name = path.getFileName().toString();
+            long id = Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()), 16);
+
+            series.nextSegmentId = Math.max(series.nextSegmentId, id + 1);
+            series.head = segment;
+        }
+
+        return series;
+    }
+
+    /**
+     * A consistent snapshot of a {@link Series}: the written blocks followed by the blocks still in memory, and the
+     * runs they form.
+     */
+    private static final class View {
+
+        private final BlockRef[] blocks;
+        private final int blockCount;
+        private final DataValue[][] memory;
+        private final int size;
+        private final int[] runStarts;
+        private final int runCount;
+
+        View(BlockRef[] blocks, int blockCount, DataValue[][] memory, int[] runStarts, int runCount) {
+            this.blocks = blocks;
+            this.blockCount = blockCount;
+            this.runStarts = runStarts;
+            this.runCount = runCount;
+
+            // drop the in-memory block if it's empty so every element of the view has a time range
+            int memoryCount = memory.length;
+            if (memoryCount > 0 && memory[memoryCount - 1].length == 0) memoryCount--;
+
+            this.memory = memory;
+            this.size = blockCount + memoryCount;
+        }
+
+        int size() {
+            return size;
+        }
+
+        long minTime(int i) {
+            return i < blockCount ? blocks[i].minTime : timeOf(memory[i - blockCount][0]);
+        }
+
+        long maxTime(int i) {
+            if (i < blockCount) {
+                return blocks[i].maxTime;
+            } else {
+                DataValue[] samples = memory[i - blockCount];
+                return timeOf(samples[samples.length - 1]);
+            }
+        }
+
+        DataValue[] samples(int i) {
+            if (i < blockCount) {
+                BlockRef ref = blocks[i];
+                return BlockCodec.decode(ref.segment.read(ref.offset));
+            } else {
+                return memory[i - blockCount];
+            }
+        }
+
+        /**
+         * @return the index of the first element in {@code [start, end)} whose max time is {@code >= time}, or
+         * {@code end} if there is none.
+         */
+        int firstEndingAtOrAfter(long time, int start, int end) {
+            int low = start;
+            int high = end;
+
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (maxTime(mid) < time) low = mid + 1;
+                else high = mid;
+            }
+
+            return low;
+        }
+
+        /**
+         * @return the index of the last element in {@code [start, end)} whose min time is {@code <= time}, or
+         * {@code start - 1} if there is none.
+         */
+        int lastStartingAtOrBefore(long time, int start, int end) {
+            int low = start;
+            int high = end;
+
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (minTime(mid) <= time) low = mid + 1;
+                else high = mid;
+            }
+
+            return low - 1;
+        }
+
+    }
+
+}
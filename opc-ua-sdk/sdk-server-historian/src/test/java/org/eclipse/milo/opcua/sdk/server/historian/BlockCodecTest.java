@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2019 the Eclipse Milo Authors
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.milo.opcua.sdk.server.historian;
+
+import java.util.function.IntFunction;
+
+import io.netty.buffer.ByteBuf;
+import org.eclipse.milo.opcua.stack.core.StatusCodes;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DateTime;
+import org.eclipse.milo.opcua.stack.core.types.builtin.LocalizedText;
+import org.eclipse.milo.opcua.stack.core.types.builtin.StatusCode;
+import org.eclipse.milo.opcua.stack.core.types.builtin.Variant;
+import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.ULong;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.ubyte;
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.uint;
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.ulong;
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.ushort;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class BlockCodecTest {
+
+    private static final long EPOCH = DateTime.now().getUtcTime();
+
+    @DataProvider
+    public Object[][] getValues() {
+        return new Object[][]{
+            {(IntFunction<Object>) i -> i % 3 == 0},
+            {(IntFunction<Object>) i -> (byte) i},
+            {(IntFunction<Object>) i -> ubyte(i % 256)},
+            {(IntFunction<Object>) i -> (short) (i * 100)},
+            {(IntFunction<Object>) i -> ushort(i % 65536)},
+            {(IntFunction<Object>) i -> i * 1000 - 500_000},
+            {(IntFunction<Object>) i -> uint(0xFFFFFFFFL - i)},
+            {(IntFunction<Object>) i -> Long.MIN_VALUE + i},
+            {(IntFunction<Object>) i -> i % 2 == 0 ? ULong.MAX : ulong(i)},
+            {(IntFunction<Object>) i -> (float) Math.sin(i)},
+            {(IntFunction<Object>) i -> i % 10 == 0 ? Double.NaN : i * 0.25},
+            {(IntFunction<Object>) i -> "value" + i},
+            {(IntFunction<Object>) i -> i % 2 == 0 ? i : "mixed"},
+            {(IntFunction<Object>) i -> i % 7 == 0 ? null : LocalizedText.english("text" + i)}
+        };
+    }
+
+    @Test(dataProvider = "getValues")
+    public void testRoundTrip(IntFunction<Object> valueFunction) {
+        DataValue[] samples = new DataValue[500];
+
+        for (int i = 0; i < samples.length; i++) {
+            DateTime sourceTime = new DateTime(EPOCH + i * 10_000L);
+            DateTime serverTime = new DateTime(EPOCH + i * 10_000L + (i % 5));
+            StatusCode status = i % 50 == 0 ? new StatusCode(StatusCodes.Bad_NoCommunication) : StatusCode.GOOD;
+
+            samples[i] = new DataValue(new Variant(valueFunction.apply(i)), status, sourceTime, serverTime);
+        }
+
+        assertRoundTrip(samples);
+    }
+
+    @Test
+    public void testMissingTimestamps() {
+        DataValue[] samples = new DataValue[]{
+            new DataValue(new Variant(1.0), StatusCode.GOOD, new DateTime(EPOCH), null),
+            new DataValue(new Variant(2.0), StatusCode.GOOD, null, new DateTime(EPOCH + 1)),
+            new DataValue(new Variant(3.0), StatusCode.GOOD, new DateTime(EPOCH + 2), new DateTime(EPOCH + 3)),
+            new DataValue(new Variant(4.0), StatusCode.GOOD, null, null)
+        };
+
+        assertRoundTrip(samples);
+    }
+
+    @Test
+    public void testRegularSamplesAreCompressed() {
+        DataValue[] samples = new DataValue[1000];
+
+        for (int i = 0; i < samples.length; i++) {
+            DateTime time = new DateTime(EPOCH + i * 10_000_000L);
+
+            samples[i] = new DataValue(new Variant(20.0 + (i % 4) * 0.5), StatusCode.GOOD, time, time);
+        }
+
+        ByteBuf block = BlockCodec.encode(samples, samples.length);
+
+        // uncompressed, each sample would be 8 bytes of value and 16 bytes of timestamps
+        assertTrue(block.readableBytes() < samples.length * 6, "block size: " + block.readableBytes());
+
+        assertRoundTrip(samples);
+    }
+
+    private static void assertRoundTrip(DataValue[] samples) {
+        ByteBuf block = BlockCodec.encode(samples, samples.length);
+
+        DataValue[] decoded = BlockCodec.decode(block);
+
+        assertEquals(decoded.length, samples.length);
+        assertEquals(block.readableBytes(), 0);
+
+        for (int i = 0; i < samples.length; i++) {
+            assertEquals(decoded[i].getValue(), samples[i].getValue(), "value " + i);
+            assertEquals(decoded[i].getStatusCode(), samples[i].getStatusCode(), "status " + i);
+            assertEquals(decoded[i].getSourceTime(), samples[i].getSourceTime(), "sourceTime " + i);
+            assertEquals(decoded[i].getServerTime(), samples[i].getServerTime(), "serverTime " + i);
+        }
+    }
+
+}
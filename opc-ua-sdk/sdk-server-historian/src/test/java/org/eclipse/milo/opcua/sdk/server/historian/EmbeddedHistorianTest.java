@@ -0,0 +1,537 @@
+/*
+ * Copyright (c) 2019 the Eclipse Milo Authors
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.milo.opcua.sdk.server.historian;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.eclipse.milo.opcua.sdk.server.OpcUaServer;
+import org.eclipse.milo.opcua.sdk.server.UaNodeManager;
+import org.eclipse.milo.opcua.sdk.server.api.services.AttributeHistoryServices.HistoryReadContext;
+import org.eclipse.milo.opcua.sdk.server.api.services.AttributeHistoryServices.HistoryUpdateContext;
+import org.eclipse.milo.opcua.sdk.server.nodes.UaNodeContext;
+import org.eclipse.milo.opcua.sdk.server.nodes.UaVariableNode;
+import org.eclipse.milo.opcua.stack.core.Identifiers;
+import org.eclipse.milo.opcua.stack.core.StatusCodes;
+import org.eclipse.milo.opcua.stack.core.types.builtin.ByteString;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DateTime;
+import org.eclipse.milo.opcua.stack.core.types.builtin.LocalizedText;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.QualifiedName;
+import org.eclipse.milo.opcua.stack.core.types.builtin.StatusCode;
+import org.eclipse.milo.opcua.stack.core.types.builtin.Variant;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.PerformUpdateType;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.TimestampsToReturn;
+import org.eclipse.milo.opcua.stack.core.types.structured.HistoryData;
+import org.eclipse.milo.opcua.stack.core.types.structured.HistoryReadDetails;
+import org.eclipse.milo.opcua.stack.core.types.structured.HistoryReadResult;
+import org.eclipse.milo.opcua.stack.core.types.structured.HistoryReadValueId;
+import org.eclipse.milo.opcua.stack.core.types.structured.HistoryUpdateResult;
+import org.eclipse.milo.opcua.stack.core.types.structured.ReadAtTimeDetails;
+import org.eclipse.milo.opcua.stack.core.types.structured.ReadProcessedDetails;
+import org.eclipse.milo.opcua.stack.core.types.structured.ReadRawModifiedDetails;
+import org.eclipse.milo.opcua.stack.core.types.structured.UpdateDataDetails;
+import org.mockito.Mockito;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.uint;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+public class EmbeddedHistorianTest {
+
+    private static final long SECOND = 10_000_000L;
+
+    private static final NodeId NODE_ID = new NodeId(2, "foo/bar");
+
+    private final long t0 = DateTime.now().getUtcTime() - 3600 * SECOND;
+
+    private final OpcUaServer server = Mockito.mock(OpcUaServer.class);
+
+    private Path directory;
+    private EmbeddedHistorian historian;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("historian");
+        historian = newHistorian();
+        historian.startup();
+    }
+
+    @AfterMethod
+    public void tearDown() throws IOException {
+        if (historian.isRunning()) {
+            historian.shutdown();
+        }
+
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Test
+    public void testReadRawWithContinuationPoints() throws Exception {
+        recordValues(1000);
+
+        ReadRawModifiedDetails details = new ReadRawModifiedDetails(
+            false, new DateTime(t0), new DateTime(t0 + 1000 * SECOND), uint(0), false);
+
+        List<DataValue> values = new ArrayList<>();
+        ByteString continuationPoint = null;
+        int reads = 0;
+
+        do {
+            HistoryReadResult result = read(details, continuationPoint);
+            values.addAll(values(result));
+            continuationPoint = result.getContinuationPoint();
+            reads++;
+        } while (continuationPoint != null && continuationPoint.isNotNull());
+
+        assertEquals(reads, 4);
+        assertEquals(values.size(), 1000);
+
+        for (int i = 0; i < values.size(); i++) {
+            assertEquals(values.get(i).getValue(), new Variant((double) i));
+            assertEquals(values.get(i).getSourceTime(), new DateTime(t0 + i * SECOND));
+        }
+    }
+
+    @Test
+    public void testContinuationPointWithinEqualTimestamps() throws Exception {
+        for (int i = 0; i < 600; i++) {
+            DateTime time = new DateTime(t0 + (i / 300) * SECOND);
+            historian.record(NODE_ID, new DataValue(new Variant(i), StatusCode.GOOD, time, time));
+        }
+
+        ReadRawModifiedDetails details = new ReadRawModifiedDetails(
+            false, new DateTime(t0), new DateTime(t0 + 10 * SECOND), uint(100), false);
+
+        List<DataValue> values = new ArrayList<>();
+        ByteString continuationPoint = null;
+
+        do {
+            HistoryReadResult result = read(details, continuationPoint);
+            values.addAll(values(result));
+            continuationPoint = result.getContinuationPoint();
+        } while (continuationPoint != null && continuationPoint.isNotNull());
+
+        assertEquals(values.size(), 600);
+
+        for (int i = 0; i < values.size(); i++) {
+            assertEquals(values.get(i).getValue(), new Variant(i));
+        }
+    }
+
+    @Test
+    public void testReadRawReverse() throws Exception {
+        recordValues(1000);
+
+        ReadRawModifiedDetails details = new ReadRawModifiedDetails(
+            false, new DateTime(t0 + 1000 * SECOND), new DateTime(t0), uint(100), false);
+
+        HistoryReadResult result = read(details, null);
+        List<DataValue> values = values(result);
+
+        assertEquals(values.size(), 100);
+        assertNotNull(result.getContinuationPoint());
+
+        for (int i = 0; i < values.size(); i++) {
+            assertEquals(values.get(i).getValue(), new Variant((double) (999 - i)));
+        }
+    }
+
+    @Test
+    public void testReadRawWithBounds() throws Exception {
+        recordValues(100);
+
+        ReadRawModifiedDetails details = new ReadRawModifiedDetails(
+            false, new DateTime(t0 + 10 * SECOND + 1), new DateTime(t0 + 20 * SECOND + 1), uint(0), true);
+
+        List<DataValue> values = values(read(details, null));
+
+        assertEquals(values.size(), 12);
+
+        for (int i = 0; i < values.size(); i++) {
+            assertEquals(values.get(i).getValue(), new Variant((double) (10 + i)));
+        }
+
+        ReadRawModifiedDetails outOfRange = new ReadRawModifiedDetails(
+            false, new DateTime(t0 + 95 * SECOND), new DateTime(t0 + 200 * SECOND), uint(0), true);
+
+        values = values(read(outOfRange, null));
+
+        assertEquals(values.get(values.size() - 1).getStatusCode(), new StatusCode(StatusCodes.Bad_BoundNotFound));
+    }
+
+    @Test
+    public void testReadAtTime() throws Exception {
+        recordValues(100);
+
+        ReadAtTimeDetails details = new ReadAtTimeDetails(
+            new DateTime[]{
+                new DateTime(t0 + 10 * SECOND),
+                new DateTime(t0 + 10 * SECOND + SECOND / 2),
+                new DateTime(t0 - SECOND)
+            },
+            true
+        );
+
+        List<DataValue> values = values(read(details, null));
+
+        assertEquals(values.get(0).getValue(), new Variant(10.0));
+        assertEquals(values.get(0).getStatusCode(), StatusCode.GOOD);
+
+        assertEquals(values.get(1).getValue(), new Variant(10.5));
+        assertEquals(values.get(1).getStatusCode(), new StatusCode(HistoryQueries.INTERPOLATED));
+
+        assertEquals(values.get(2).getStatusCode(), new StatusCode(StatusCodes.Bad_NoData));
+    }
+
+    @Test
+    public void testReadProcessed() throws Exception {
+        recordValues(100);
+
+        DateTime start = new DateTime(t0);
+        DateTime end = new DateTime(t0 + 100 * SECOND);
+
+        List<DataValue> averages = values(read(new ReadProcessedDetails(
+            start, end, 10_000.0, new NodeId[]{Identifiers.AggregateFunction_Average}, null), null));
+
+        List<DataValue> counts = values(read(new ReadProcessedDetails(
+            start, end, 10_000.0, new NodeId[]{Identifiers.AggregateFunction_Count}, null), null));
+
+        List<DataValue> maximums = values(read(new ReadProcessedDetails(
+            start, end, 10_000.0, new NodeId[]{Identifiers.AggregateFunction_Maximum}, null), null));
+
+        assertEquals(averages.size(), 10);
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(averages.get(i).getValue(), new Variant(i * 10 + 4.5));
+            assertEquals(averages.get(i).getStatusCode(), new StatusCode(HistoryQueries.CALCULATED));
+            assertEquals(averages.get(i).getSourceTime(), new DateTime(t0 + i * 10 * SECOND));
+            assertEquals(counts.get(i).getValue(), new Variant(10));
+            assertEquals(maximums.get(i).getValue(), new Variant(i * 10 + 9.0));
+        }
+
+        HistoryReadResult unsupported = read(new ReadProcessedDetails(
+            start, end, 10_000.0, new NodeId[]{Identifiers.AggregateFunction_Interpolative}, null), null);
+
+        assertEquals(unsupported.getStatusCode(), new StatusCode(StatusCodes.Bad_AggregateNotSupported));
+    }
+
+    @Test
+    public void testOutOfOrderValues() throws Exception {
+        for (int i = 299; i >= 0; i--) {
+            DateTime time = new DateTime(t0 + i * SECOND);
+            historian.record(NODE_ID, new DataValue(new Variant((double) i), StatusCode.GOOD, time, time));
+        }
+
+        historian.flush();
+
+        ReadRawModifiedDetails details = new ReadRawModifiedDetails(
+            false, new DateTime(t0), new DateTime(t0 + 300 * SECOND), uint(0), false);
+
+        List<DataValue> values = values(read(details, null));
+
+        assertEquals(values.size(), 250);
+
+        for (int i = 0; i < values.size(); i++) {
+            assertEquals(values.get(i).getValue(), new Variant((double) i));
+        }
+    }
+
+    @Test
+    public void testHistoryPersistedAcrossRestart() throws Exception {
+        recordValues(1234);
+
+        historian.shutdown();
+
+        historian = newHistorian();
+        historian.startup();
+
+        ReadRawModifiedDetails details = new ReadRawModifiedDetails(
+            false, new DateTime(t0 + 1200 * SECOND), new DateTime(t0 + 2000 * SECOND), uint(0), false);
+
+        List<DataValue> values = values(read(details, null));
+
+        assertEquals(values.size(), 34);
+        assertEquals(values.get(33).getValue(), new Variant(1233.0));
+
+        // appending after a restart continues the existing history
+        recordValues(1234, 10);
+        historian.flush();
+
+        values = values(read(details, null));
+
+        assertEquals(values.size(), 44);
+    }
+
+    @Test
+    public void testHistorizeNodeManager() throws Exception {
+        UaNodeManager nodeManager = new UaNodeManager();
+
+        UaVariableNode existing = newVariableNode(new NodeId(2, "existing"));
+        existing.setHistorizing(true);
+        nodeManager.addNode(existing);
+
+        historian.historize(nodeManager);
+
+        // variables added after the historian was attached are recorded too
+        UaVariableNode node = newVariableNode(NODE_ID);
+        nodeManager.addNode(node);
+
+        existing.setValue(new DataValue(new Variant(-1.0), StatusCode.GOOD, new DateTime(t0)));
+        node.setValue(new DataValue(new Variant(0.0), StatusCode.GOOD, new DateTime(t0)));
+
+        node.setHistorizing(true);
+        node.setValue(new DataValue(new Variant(1.0), StatusCode.GOOD, new DateTime(t0 + SECOND)));
+        node.setValue(new DataValue(new Variant(2.0), StatusCode.GOOD, new DateTime(t0 + 2 * SECOND)));
+
+        node.setHistorizing(false);
+        node.setValue(new DataValue(new Variant(3.0), StatusCode.GOOD, new DateTime(t0 + 3 * SECOND)));
+
+        node.setHistorizing(true);
+        nodeManager.removeNode(node);
+        node.setValue(new DataValue(new Variant(4.0), StatusCode.GOOD, new DateTime(t0 + 4 * SECOND)));
+
+        ReadRawModifiedDetails details = new ReadRawModifiedDetails(
+            false, new DateTime(t0), new DateTime(t0 + 10 * SECOND), uint(0), false);
+
+        List<DataValue> values = values(read(details, null));
+
+        assertEquals(values.size(), 2);
+        assertEquals(values.get(0).getValue(), new Variant(1.0));
+        assertEquals(values.get(1).getValue(), new Variant(2.0));
+
+        List<DataValue> existingValues = values(read(new NodeId(2, "existing"), details, null));
+
+        assertEquals(existingValues.size(), 1);
+        assertEquals(existingValues.get(0).getValue(), new Variant(-1.0));
+    }
+
+    @Test
+    public void testOpenBlockKeptUntilFullOrMaxBlockAge() throws Exception {
+        historian.shutdown();
+        historian = newHistorian(10L, 60_000L);
+        historian.startup();
+
+        recordValues(10);
+
+        // several flush intervals pass, but the block is neither full nor old enough to be written
+        Thread.sleep(100);
+        assertEquals(segmentCount(), 0L);
+
+        recordValues(10, 90);
+        historian.flush();
+        assertEquals(segmentCount(), 1L);
+
+        historian.shutdown();
+        historian = newHistorian(10L, 0L);
+        historian.startup();
+
+        // a Node of its own, so the block isn't appended to the segment written above
+        for (int i = 0; i < 10; i++) {
+            DateTime time = new DateTime(t0 + i * SECOND);
+            historian.record(new NodeId(2, "aged"), new DataValue(new Variant(i), StatusCode.GOOD, time, time));
+        }
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (segmentCount() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(segmentCount(), 2L);
+    }
+
+    @Test
+    public void testReadAroundLateBlock() throws Exception {
+        recordValues(300);
+        historian.flush();
+
+        // a late block overlapping the history written so far, followed by more history in order
+        for (int i = 0; i < 5; i++) {
+            DateTime time = new DateTime(t0 + (50 + 10 * i) * SECOND + SECOND / 2);
+            historian.record(NODE_ID, new DataValue(new Variant(50.5 + 10 * i), StatusCode.GOOD, time, time));
+        }
+        historian.flush();
+        recordValues(300, 10);
+
+        ReadRawModifiedDetails forward = new ReadRawModifiedDetails(
+            false, new DateTime(t0 + 49 * SECOND), new DateTime(t0 + 400 * SECOND), uint(5), false);
+
+        List<DataValue> values = values(read(forward, null));
+
+        assertEquals(values.size(), 5);
+        assertEquals(values.get(0).getValue(), new Variant(49.0));
+        assertEquals(values.get(1).getValue(), new Variant(50.0));
+        assertEquals(values.get(2).getValue(), new Variant(50.5));
+        assertEquals(values.get(3).getValue(), new Variant(51.0));
+        assertEquals(values.get(4).getValue(), new Variant(52.0));
+
+        ReadRawModifiedDetails reverse = new ReadRawModifiedDetails(
+            false, new DateTime(t0 + 400 * SECOND), new DateTime(t0), uint(0), false);
+
+        List<DataValue> all = values(read(reverse, null));
+
+        assertEquals(all.size(), 250);
+        assertEquals(all.get(0).getValue(), new Variant(309.0));
+
+        for (int i = 1; i < all.size(); i++) {
+            assertTrue(all.get(i).getSourceTime().getUtcTime() < all.get(i - 1).getSourceTime().getUtcTime());
+        }
+    }
+
+    @Test
+    public void testHistoryUpdateInsert() throws Exception {
+        DataValue value = new DataValue(new Variant(42), StatusCode.GOOD, new DateTime(t0));
+
+        HistoryUpdateResult inserted = update(new UpdateDataDetails(
+            NODE_ID, PerformUpdateType.Insert, new DataValue[]{value}));
+
+        assertEquals(inserted.getOperationResults()[0], new StatusCode(StatusCodes.Good_EntryInserted));
+
+        HistoryUpdateResult exists = update(new UpdateDataDetails(
+            NODE_ID, PerformUpdateType.Insert, new DataValue[]{value}));
+
+        assertEquals(exists.getOperationResults()[0], new StatusCode(StatusCodes.Bad_EntryExists));
+
+        HistoryUpdateResult replaced = update(new UpdateDataDetails(
+            NODE_ID, PerformUpdateType.Replace, new DataValue[]{value}));
+
+        assertEquals(replaced.getStatusCode(), new StatusCode(StatusCodes.Bad_HistoryOperationUnsupported));
+    }
+
+    @Test
+    public void testUnknownNodeHasNoData() throws Exception {
+        ReadRawModifiedDetails details = new ReadRawModifiedDetails(
+            false, new DateTime(t0), new DateTime(t0 + SECOND), uint(0), false);
+
+        HistoryReadResult result = read(details, null);
+
+        assertEquals(result.getStatusCode(), new StatusCode(StatusCodes.Good_NoData));
+        assertNull(result.getContinuationPoint());
+    }
+
+    private EmbeddedHistorian newHistorian() {
+        return newHistorian(1000L, 60_000L);
+    }
+
+    private EmbeddedHistorian newHistorian(long flushInterval, long maxBlockAge) {
+        return new EmbeddedHistorian(new HistorianConfig() {
+            @Override
+            public Path getDirectory() {
+                return directory;
+            }
+
+            @Override
+            public long getFlushInterval() {
+                return flushInterval;
+            }
+
+            @Override
+            public long getMaxBlockAge() {
+                return maxBlockAge;
+            }
+
+            @Override
+            public int getSegmentSize() {
+                return 4096;
+            }
+
+            @Override
+            public int getBlockSize() {
+                return 100;
+            }
+
+            @Override
+            public int getMaxValuesPerRead() {
+                return 250;
+            }
+        });
+    }
+
+    private void recordValues(int count) throws Exception {
+        recordValues(0, count);
+    }
+
+    private void recordValues(int first, int count) {
+        for (int i = first; i < first + count; i++) {
+            DateTime time = new DateTime(t0 + i * SECOND);
+            historian.record(NODE_ID, new DataValue(new Variant((double) i), StatusCode.GOOD, time, time));
+        }
+    }
+
+    private UaVariableNode newVariableNode(NodeId nodeId) {
+        return new UaVariableNode(
+            Mockito.mock(UaNodeContext.class),
+            nodeId,
+            new QualifiedName(2, nodeId.getIdentifier().toString()),
+            LocalizedText.english(nodeId.getIdentifier().toString())
+        );
+    }
+
+    private long segmentCount() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            return paths.filter(p -> p.toString().endsWith(".seg")).count();
+        }
+    }
+
+    private HistoryReadResult read(HistoryReadDetails details, ByteString continuationPoint) throws Exception {
+        return read(NODE_ID, details, continuationPoint);
+    }
+
+    private HistoryReadResult read(
+        NodeId nodeId,
+        HistoryReadDetails details,
+        ByteString continuationPoint) throws Exception {
+
+        HistoryReadContext context = new HistoryReadContext(server, null);
+
+        historian.historyRead(
+            context,
+            details,
+            TimestampsToReturn.Both,
+            Collections.singletonList(new HistoryReadValueId(nodeId, null, QualifiedName.NULL_VALUE, continuationPoint))
+        );
+
+        return context.getFuture().get().get(0);
+    }
+
+    private HistoryUpdateResult update(UpdateDataDetails details) throws Exception {
+        HistoryUpdateContext context = new HistoryUpdateContext(server, null);
+
+        historian.historyUpdate(context, Collections.singletonList(details));
+
+        return context.getFuture().get().get(0);
+    }
+
+    private static List<DataValue> values(HistoryReadResult result) {
+        HistoryData historyData = (HistoryData) result.getHistoryData().decode();
+
+        DataValue[] dataValues = historyData.getDataValues();
+
+        List<DataValue> values = new ArrayList<>();
+        if (dataValues != null) Collections.addAll(values, dataValues);
+        return values;
+    }
+
+}
@@ -10,6 +10,7 @@
 
 package org.eclipse.milo.opcua.sdk.server;
 
+import java.math.RoundingMode;
 import java.security.KeyPair;
 import java.security.cert.X509Certificate;
 import java.util.Map;
@@ -17,11 +18,13 @@ import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Maps;
 import com.google.common.eventbus.EventBus;
+import com.google.common.math.DoubleMath;
 import org.eclipse.milo.opcua.sdk.core.ServerTable;
 import org.eclipse.milo.opcua.sdk.server.api.AddressSpaceManager;
 import org.eclipse.milo.opcua.sdk.server.api.config.OpcUaServerConfig;
@@ -31,6 +34,8 @@ import org.eclipse.milo.opcua.sdk.server.namespaces.OpcUaNamespace;
 import org.eclipse.milo.opcua.sdk.server.namespaces.ServerNamespace;
 import org.eclipse.milo.opcua.sdk.server.nodes.factories.EventFactory;
 import org.eclipse.milo.opcua.sdk.server.services.helpers.BrowseHelper.BrowseContinuationPoint;
+import org.eclipse.milo.opcua.sdk.server.subscriptions.PublishingScheduler;
+import org.eclipse.milo.opcua.sdk.server.subscriptions.RetransmissionBudget;
 import org.eclipse.milo.opcua.sdk.server.subscriptions.Subscription;
 import org.eclipse.milo.opcua.stack.core.BuiltinReferenceType;
 import org.eclipse.milo.opcua.stack.core.NamespaceTable;
@@ -93,9 +98,22 @@ public class OpcUaServer {
 
     private final OpcUaServerConfig config;
 
+    private final RetransmissionBudget retransmissionBudget;
+    private final PublishingScheduler publishingScheduler;
+
     public OpcUaServer(OpcUaServerConfig config) {
         this.config = config;
 
+        retransmissionBudget = new RetransmissionBudget(config.getLimits().getMaxRetransmissionQueueBytes());
+
+        publishingScheduler = new PublishingScheduler(
+            this,
+            TimeUnit.NANOSECONDS.convert(
+                DoubleMath.roundToLong(config.getLimits().getPublishingTimerResolution(), RoundingMode.UP),
+                TimeUnit.MILLISECONDS
+            )
+        );
+
         stackServer = new UaStackServer(config);
 
         Stream<String> paths = stackServer.getConfig().getEndpoints()
@@ -208,6 +226,21 @@ public class OpcUaServer {
         return variableTypeManager;
     }
 
+    /**
+     * @return the {@link RetransmissionBudget} shared by all {@link Subscription}s to keep unacknowledged
+     * NotificationMessages for Republish.
+     */
+    public RetransmissionBudget getRetransmissionBudget() {
+        return retransmissionBudget;
+    }
+
+    /**
+     * @return the {@link PublishingScheduler} that elapses the publishing timers of all {@link Subscription}s.
+     */
+    public PublishingScheduler getPublishingScheduler() {
+        return publishingScheduler;
+    }
+
     public Map<UInteger, Subscription> getSubscriptions() {
         return subscriptions;
     }
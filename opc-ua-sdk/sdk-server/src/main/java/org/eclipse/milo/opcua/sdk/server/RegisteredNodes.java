@@ -0,0 +1,814 @@
+/*
+ * Copyright (c) 2019 the Eclipse Milo Authors
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.milo.opcua.sdk.server;
+
+import java.nio.ByteBuffer;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+import java.util.function.UnaryOperator;
+import javax.annotation.Nullable;
+
+import com.google.common.collect.Maps;
+import org.eclipse.milo.opcua.sdk.server.api.AbstractNodeManager;
+import org.eclipse.milo.opcua.sdk.server.api.AddressSpace;
+import org.eclipse.milo.opcua.sdk.server.api.AddressSpaceManager;
+import org.eclipse.milo.opcua.sdk.server.api.NodeManager;
+import org.eclipse.milo.opcua.sdk.server.api.services.AttributeServices.ReadContext;
+import org.eclipse.milo.opcua.sdk.server.api.services.AttributeServices.WriteContext;
+import org.eclipse.milo.opcua.sdk.server.nodes.UaNode;
+import org.eclipse.milo.opcua.sdk.server.nodes.UaServerNode;
+import org.eclipse.milo.opcua.stack.core.serialization.UaRequestMessage;
+import org.eclipse.milo.opcua.stack.core.types.builtin.ByteString;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
+import org.eclipse.milo.opcua.stack.core.types.builtin.ExpandedNodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.StatusCode;
+import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UShort;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.TimestampsToReturn;
+import org.eclipse.milo.opcua.stack.core.types.structured.AddNodesItem;
+import org.eclipse.milo.opcua.stack.core.types.structured.AddNodesRequest;
+import org.eclipse.milo.opcua.stack.core.types.structured.AddReferencesItem;
+import org.eclipse.milo.opcua.stack.core.types.structured.AddReferencesRequest;
+import org.eclipse.milo.opcua.stack.core.types.structured.BrowseDescription;
+import org.eclipse.milo.opcua.stack.core.types.structured.BrowsePath;
+import org.eclipse.milo.opcua.stack.core.types.structured.BrowseRequest;
+import org.eclipse.milo.opcua.stack.core.types.structured.CallMethodRequest;
+import org.eclipse.milo.opcua.stack.core.types.structured.CallRequest;
+import org.eclipse.milo.opcua.stack.core.types.structured.DeleteAtTimeDetails;
+import org.eclipse.milo.opcua.stack.core.types.structured.DeleteEventDetails;
+import org.eclipse.milo.opcua.stack.core.types.structured.DeleteNodesItem;
+import org.eclipse.milo.opcua.stack.core.types.structured.DeleteNodesRequest;
+import org.eclipse.milo.opcua.stack.core.types.structured.DeleteRawModifiedDetails;
+import org.eclipse.milo.opcua.stack.core.types.structured.DeleteReferencesItem;
+import org.eclipse.milo.opcua.stack.core.types.structured.DeleteReferencesRequest;
+import org.eclipse.milo.opcua.stack.core.types.structured.HistoryReadRequest;
+import org.eclipse.milo.opcua.stack.core.types.structured.HistoryReadValueId;
+import org.eclipse.milo.opcua.stack.core.types.structured.HistoryUpdateDetails;
+import org.eclipse.milo.opcua.stack.core.types.structured.ReadValueId;
+import org.eclipse.milo.opcua.stack.core.types.structured.TranslateBrowsePathsToNodeIdsRequest;
+import org.eclipse.milo.opcua.stack.core.types.structured.UpdateDataDetails;
+import org.eclipse.milo.opcua.stack.core.types.structured.UpdateEventDetails;
+import org.eclipse.milo.opcua.stack.core.types.structured.UpdateStructureDataDetails;
+import org.eclipse.milo.opcua.stack.core.types.structured.WriteValue;
+
+import static org.eclipse.milo.opcua.sdk.server.util.GroupMapCollate.groupMapCollate;
+
+/**
+ * The nodes a {@link Session} has registered with the RegisterNodes service.
+ * <p>
+ * Each registered node is given an alias: an opaque {@link NodeId} that is only valid within the Session. Its
+ * identifier is a random per-Session prefix followed by a counter, so it can't be mistaken for a NodeId a server would
+ * assign. The alias is bound to the {@link AddressSpace} that operations on the node are routed to and, for managed
+ * nodes, to the {@link UaNode} itself, so Read and Write operations on an alias neither route through the
+ * {@link AddressSpaceManager} nor look the node up again. Both are only resolved again once AddressSpaces or
+ * NodeManagers are registered or unregistered, or the node's NodeManager adds or removes nodes.
+ * <p>
+ * Other services see the registered NodeIds in place of aliases by way of {@link #resolve(UaRequestMessage)}.
+ */
+public class RegisteredNodes {
+
+    private final ConcurrentMap<NodeId, RegisteredNode> byAlias = Maps.newConcurrentMap();
+    private final ConcurrentMap<NodeId, RegisteredNode> byNodeId = Maps.newConcurrentMap();
+
+    private final AtomicLong nextAliasId = new AtomicLong(1L);
+    private final long aliasPrefix = new SecureRandom().nextLong();
+
+    private final OpcUaServer server;
+    private final UShort aliasNamespaceIndex;
+    private final int maxRegisteredNodes;
+
+    /**
+     * @param server              the {@link OpcUaServer}.
+     * @param aliasNamespaceIndex the index of the namespace aliases are issued in.
+     * @param maxRegisteredNodes  the maximum number of nodes that can be registered at any given time.
+     */
+    public RegisteredNodes(OpcUaServer server, UShort aliasNamespaceIndex, int maxRegisteredNodes) {
+        this.server = server;
+        this.aliasNamespaceIndex = aliasNamespaceIndex;
+        this.maxRegisteredNodes = maxRegisteredNodes;
+    }
+
+    /**
+     * Register the node identified by {@code nodeId}.
+     * <p>
+     * Registering a node that is already registered returns the same alias. Nodes that no AddressSpace claims are not
+     * registered, and neither are nodes once the maximum number of nodes is registered; {@code nodeId} itself is
+     * returned for them.
+     *
+     * @param nodeId the {@link NodeId} of the node to register.
+     * @return the alias to use for the node for the rest of the Session, or {@code nodeId} if it wasn't registered.
+     */
+    public NodeId register(NodeId nodeId) {
+        if (nodeId == null || nodeId.isNull()) return nodeId;
+
+        RegisteredNode existing = byNodeId.get(nodeId);
+        if (existing != null) return existing.getAlias();
+
+        AddressSpaceManager addressSpaceManager = server.getAddressSpaceManager();
+
+        if (!addressSpaceManager.findAddressSpace(nodeId).isPresent()) return nodeId;
+
+        synchronized (this) {
+            existing = byNodeId.get(nodeId);
+            if (existing != null) return existing.getAlias();
+
+            if (byNodeId.size() >= maxRegisteredNodes) return nodeId;
+
+            NodeId alias = nextAlias();
+
+            RegisteredNode registered = new RegisteredNode(alias, nodeId, addressSpaceManager);
+
+            byNodeId.put(nodeId, registered);
+            byAlias.put(alias, registered);
+
+            return alias;
+        }
+    }
+
+    /**
+     * Unregister the node whose alias is {@code alias}.
+     * <p>
+     * NodeIds that aren't aliases are ignored.
+     *
+     * @param alias the alias returned when the node was registered.
+     */
+    public void unregister(NodeId alias) {
+        RegisteredNode registered = byAlias.remove(alias);
+
+        if (registered != null) {
+            byNodeId.remove(registered.getNodeId(), registered);
+        }
+    }
+
+    /**
+     * Unregister all nodes.
+     */
+    public void clear() {
+        byAlias.clear();
+        byNodeId.clear();
+    }
+
+    /**
+     * @return the number of registered nodes.
+     */
+    public int size() {
+        return byAlias.size();
+    }
+
+    /**
+     * Get the {@link RegisteredNode} whose alias is {@code nodeId}, if {@code nodeId} is an alias.
+     *
+     * @param nodeId a {@link NodeId} that may be an alias.
+     * @return the {@link RegisteredNode} whose alias is {@code nodeId}, or {@code null} if it isn't an alias.
+     */
+    @Nullable
+    public RegisteredNode get(NodeId nodeId) {
+        if (byAlias.isEmpty() ||
+            nodeId == null ||
+            !(nodeId.getIdentifier() instanceof ByteString) ||
+            !aliasNamespaceIndex.equals(nodeId.getNamespaceIndex())) {
+
+            return null;
+        }
+
+        return byAlias.get(nodeId);
+    }
+
+    /**
+     * Get the {@link NodeId} of the node whose alias is {@code nodeId}.
+     *
+     * @param nodeId a {@link NodeId} that may be an alias.
+     * @return the {@link NodeId} of the registered node if {@code nodeId} is an alias, otherwise {@code nodeId}.
+     */
+    public NodeId resolve(NodeId nodeId) {
+        RegisteredNode registered = get(nodeId);
+
+        return registered != null ? registered.getNodeId() : nodeId;
+    }
+
+    /**
+     * Get the {@link ExpandedNodeId} of the node whose alias is {@code nodeId}.
+     *
+     * @param nodeId an {@link ExpandedNodeId} that may be an alias.
+     * @return the {@link ExpandedNodeId} of the registered node if {@code nodeId} is an alias, otherwise
+     * {@code nodeId}.
+     */
+    public ExpandedNodeId resolve(ExpandedNodeId nodeId) {
+        if (byAlias.isEmpty() || nodeId == null) return nodeId;
+
+        RegisteredNode registered = nodeId.local(server.getNamespaceTable()).map(this::get).orElse(null);
+
+        return registered != null ? registered.getNodeId().expanded() : nodeId;
+    }
+
+    /**
+     * Replace the alias in {@code details} with the {@link NodeId} of the registered node.
+     * <p>
+     * HistoryUpdate requests carry their details encoded, so they are resolved once the details have been decoded
+     * rather than by {@link #resolve(UaRequestMessage)}.
+     *
+     * @param details the {@link HistoryUpdateDetails} to resolve.
+     * @return a copy of {@code details} with its alias replaced, or {@code details} itself if it isn't an alias.
+     */
+    public HistoryUpdateDetails resolve(HistoryUpdateDetails details) {
+        NodeId nodeId = resolve(details.getNodeId());
+
+        if (nodeId == details.getNodeId()) {
+            return details;
+        } else if (details instanceof UpdateDataDetails) {
+            UpdateDataDetails d = (UpdateDataDetails) details;
+
+            return new UpdateDataDetails(nodeId, d.getPerformInsertReplace(), d.getUpdateValues());
+        } else if (details instanceof UpdateStructureDataDetails) {
+            UpdateStructureDataDetails d = (UpdateStructureDataDetails) details;
+
+            return new UpdateStructureDataDetails(nodeId, d.getPerformInsertReplace(), d.getUpdateValues());
+        } else if (details instanceof UpdateEventDetails) {
+            UpdateEventDetails d = (UpdateEventDetails) details;
+
+            return new UpdateEventDetails(nodeId, d.getPerformInsertReplace(), d.getFilter(), d.getEventData());
+        } else if (details instanceof DeleteRawModifiedDetails) {
+            DeleteRawModifiedDetails d = (DeleteRawModifiedDetails) details;
+
+            return new DeleteRawModifiedDetails(nodeId, d.getIsDeleteModified(), d.getStartTime(), d.getEndTime());
+        } else if (details instanceof DeleteAtTimeDetails) {
+            DeleteAtTimeDetails d = (DeleteAtTimeDetails) details;
+
+            return new DeleteAtTimeDetails(nodeId, d.getReqTimes());
+        } else if (details instanceof DeleteEventDetails) {
+            DeleteEventDetails d = (DeleteEventDetails) details;
+
+            return new DeleteEventDetails(nodeId, d.getEventIds());
+        } else {
+            return details;
+        }
+    }
+
+    /**
+     * Replace every alias in {@code request} with the {@link NodeId} of the registered node.
+     * <p>
+     * Browse, TranslateBrowsePathsToNodeIds, Call, HistoryRead, AddNodes, AddReferences, DeleteNodes and
+     * DeleteReferences requests are resolved. Read, Write and CreateMonitoredItems use {@link #read} and
+     * {@link #write} instead so they can skip routing, and HistoryUpdate uses
+     * {@link #resolve(HistoryUpdateDetails)}. Other requests are returned unchanged: the remaining Subscription and
+     * MonitoredItem services, SetTriggering among them, refer to items by id rather than by NodeId.
+     *
+     * @param request the {@link UaRequestMessage} to resolve.
+     * @return a copy of {@code request} with aliases replaced, or {@code request} itself if it contained none.
+     */
+    public UaRequestMessage resolve(UaRequestMessage request) {
+        if (byAlias.isEmpty()) return request;
+
+        if (request instanceof BrowseRequest) {
+            BrowseRequest browseRequest = (BrowseRequest) request;
+
+            BrowseDescription[] nodesToBrowse = resolveEach(
+                browseRequest.getNodesToBrowse(),
+                BrowseDescription[]::new,
+                d -> {
+                    NodeId nodeId = resolve(d.getNodeId());
+
+                    return nodeId == d.getNodeId() ? d : new BrowseDescription(
+                        nodeId,
+                        d.getBrowseDirection(),
+                        d.getReferenceTypeId(),
+                        d.getIncludeSubtypes(),
+                        d.getNodeClassMask(),
+                        d.getResultMask()
+                    );
+                }
+            );
+
+            return nodesToBrowse == browseRequest.getNodesToBrowse() ? request : new BrowseRequest(
+                browseRequest.getRequestHeader(),
+                browseRequest.getView(),
+                browseRequest.getRequestedMaxReferencesPerNode(),
+                nodesToBrowse
+            );
+        } else if (request instanceof TranslateBrowsePathsToNodeIdsRequest) {
+            TranslateBrowsePathsToNodeIdsRequest translateRequest = (TranslateBrowsePathsToNodeIdsRequest) request;
+
+            BrowsePath[] browsePaths = resolveEach(
+                translateRequest.getBrowsePaths(),
+                BrowsePath[]::new,
+                p -> {
+                    NodeId startingNode = resolve(p.getStartingNode());
+
+                    return startingNode == p.getStartingNode() ? p : new BrowsePath(
+                        startingNode,
+                        p.getRelativePath()
+                    );
+                }
+            );
+
+            return browsePaths == translateRequest.getBrowsePaths() ? request :
+                new TranslateBrowsePathsToNodeIdsRequest(translateRequest.getRequestHeader(), browsePaths);
+        } else if (request instanceof CallRequest) {
+            CallRequest callRequest = (CallRequest) request;
+
+            CallMethodRequest[] methodsToCall = resolveEach(
+                callRequest.getMethodsToCall(),
+                CallMethodRequest[]::new,
+                m -> {
+                    NodeId objectId = resolve(m.getObjectId());
+                    NodeId methodId = resolve(m.getMethodId());
+
+                    return objectId == m.getObjectId() && methodId == m.getMethodId() ? m : new CallMethodRequest(
+                        objectId,
+                        methodId,
+                        m.getInputArguments()
+                    );
+                }
+            );
+
+            return methodsToCall == callRequest.getMethodsToCall() ? request :
+                new CallRequest(callRequest.getRequestHeader(), methodsToCall);
+        } else if (request instanceof HistoryReadRequest) {
+            HistoryReadRequest historyReadRequest = (HistoryReadRequest) request;
+
+            HistoryReadValueId[] nodesToRead = resolveEach(
+                historyReadRequest.getNodesToRead(),
+                HistoryReadValueId[]::new,
+                v -> {
+                    NodeId nodeId = resolve(v.getNodeId());
+
+                    return nodeId == v.getNodeId() ? v : new HistoryReadValueId(
+                        nodeId,
+                        v.getIndexRange(),
+                        v.getDataEncoding(),
+                        v.getContinuationPoint()
+                    );
+                }
+            );
+
+            return nodesToRead == historyReadRequest.getNodesToRead() ? request : new HistoryReadRequest(
+                historyReadRequest.getRequestHeader(),
+                historyReadRequest.getHistoryReadDetails(),
+                historyReadRequest.getTimestampsToReturn(),
+                historyReadRequest.getReleaseContinuationPoints(),
+                nodesToRead
+            );
+        } else if (request instanceof AddNodesRequest) {
+            AddNodesRequest addNodesRequest = (AddNodesRequest) request;
+
+            AddNodesItem[] nodesToAdd = resolveEach(
+                addNodesRequest.getNodesToAdd(),
+                AddNodesItem[]::new,
+                item -> {
+                    ExpandedNodeId parentNodeId = resolve(item.getParentNodeId());
+                    ExpandedNodeId typeDefinition = resolve(item.getTypeDefinition());
+
+                    if (parentNodeId == item.getParentNodeId() && typeDefinition == item.getTypeDefinition()) {
+                        return item;
+                    }
+
+                    return new AddNodesItem(
+                        parentNodeId,
+                        item.getReferenceTypeId(),
+                        item.getRequestedNewNodeId(),
+                        item.getBrowseName(),
+                        item.getNodeClass(),
+                        item.getNodeAttributes(),
+                        typeDefinition
+                    );
+                }
+            );
+
+            return nodesToAdd == addNodesRequest.getNodesToAdd() ? request :
+                new AddNodesRequest(addNodesRequest.getRequestHeader(), nodesToAdd);
+        } else if (request instanceof AddReferencesRequest) {
+            AddReferencesRequest addReferencesRequest = (AddReferencesRequest) request;
+
+            AddReferencesItem[] referencesToAdd = resolveEach(
+                addReferencesRequest.getReferencesToAdd(),
+                AddReferencesItem[]::new,
+                item -> {
+                    NodeId sourceNodeId = resolve(item.getSourceNodeId());
+                    ExpandedNodeId targetNodeId = resolve(item.getTargetNodeId());
+
+                    if (sourceNodeId == item.getSourceNodeId() && targetNodeId == item.getTargetNodeId()) {
+                        return item;
+                    }
+
+                    return new AddReferencesItem(
+                        sourceNodeId,
+                        item.getReferenceTypeId(),
+                        item.getIsForward(),
+                        item.getTargetServerUri(),
+                        targetNodeId,
+                        item.getTargetNodeClass()
+                    );
+                }
+            );
+
+            return referencesToAdd == addReferencesRequest.getReferencesToAdd() ? request :
+                new AddReferencesRequest(addReferencesRequest.getRequestHeader(), referencesToAdd);
+        } else if (request instanceof DeleteNodesRequest) {
+            DeleteNodesRequest deleteNodesRequest = (DeleteNodesRequest) request;
+
+            DeleteNodesItem[] nodesToDelete = resolveEach(
+                deleteNodesRequest.getNodesToDelete(),
+                DeleteNodesItem[]::new,
+                item -> {
+                    NodeId nodeId = resolve(item.getNodeId());
+
+                    return nodeId == item.getNodeId() ? item :
+                        new DeleteNodesItem(nodeId, item.getDeleteTargetReferences());
+                }
+            );
+
+            return nodesToDelete == deleteNodesRequest.getNodesToDelete() ? request :
+                new DeleteNodesRequest(deleteNodesRequest.getRequestHeader(), nodesToDelete);
+        } else if (request instanceof DeleteReferencesRequest) {
+            DeleteReferencesRequest deleteReferencesRequest = (DeleteReferencesRequest) request;
+
+            DeleteReferencesItem[] referencesToDelete = resolveEach(
+                deleteReferencesRequest.getReferencesToDelete(),
+                DeleteReferencesItem[]::new,
+                item -> {
+                    NodeId sourceNodeId = resolve(item.getSourceNodeId());
+                    ExpandedNodeId targetNodeId = resolve(item.getTargetNodeId());
+
+                    if (sourceNodeId == item.getSourceNodeId() && targetNodeId == item.getTargetNodeId()) {
+                        return item;
+                    }
+
+                    return new DeleteReferencesItem(
+                        sourceNodeId,
+                        item.getReferenceTypeId(),
+                        item.getIsForward(),
+                        targetNodeId,
+                        item.getDeleteBidirectional()
+                    );
+                }
+            );
+
+            return referencesToDelete == deleteReferencesRequest.getReferencesToDelete() ? request :
+                new DeleteReferencesRequest(deleteReferencesRequest.getRequestHeader(), referencesToDelete);
+        } else {
+            return request;
+        }
+    }
+
+    /**
+     * Read values, routing operations on aliases directly to their registered {@link AddressSpace} and all other
+     * operations through the {@link AddressSpaceManager}.
+     *
+     * @param context      the {@link ReadContext}.
+     * @param maxAge       requested max age.
+     * @param timestamps   requested timestamp values.
+     * @param readValueIds the values to read.
+     */
+    public void read(
+        ReadContext context,
+        Double maxAge,
+        TimestampsToReturn timestamps,
+        List<ReadValueId> readValueIds) {
+
+        AddressSpaceManager addressSpaceManager = server.getAddressSpaceManager();
+
+        List<RegisteredNode> registered = lookup(readValueIds.size(), i -> readValueIds.get(i).getNodeId());
+
+        if (registered == null) {
+            addressSpaceManager.read(context, maxAge, timestamps, readValueIds);
+            return;
+        }
+
+        CompletableFuture<List<DataValue>> values = groupMapCollate(
+            indices(readValueIds.size()),
+            i -> route(registered.get(i), addressSpaceManager),
+            (AddressSpace asx) -> group -> {
+                ReadContext ctx = new ReadContext(
+                    server,
+                    context.getSession().orElse(null),
+                    context.getDiagnosticsContext()
+                );
+
+                List<ReadValueId> readValueIdsForGroup = new ArrayList<>(group.size());
+
+                if (asx == addressSpaceManager) {
+                    group.forEach(i -> readValueIdsForGroup.add(readValueIds.get(i)));
+
+                    asx.read(ctx, maxAge, timestamps, readValueIdsForGroup);
+                } else {
+                    List<UaServerNode> nodes = new ArrayList<>(group.size());
+
+                    for (int i : group) {
+                        ReadValueId readValueId = readValueIds.get(i);
+                        RegisteredNode registeredNode = registered.get(i);
+
+                        readValueIdsForGroup.add(new ReadValueId(
+                            registeredNode.getNodeId(),
+                            readValueId.getAttributeId(),
+                            readValueId.getIndexRange(),
+                            readValueId.getDataEncoding()
+                        ));
+
+                        nodes.add(registeredNode.getNode());
+                    }
+
+                    asx.readRegistered(ctx, maxAge, timestamps, readValueIdsForGroup, nodes);
+                }
+
+                return ctx.getFuture();
+            }
+        );
+
+        values.thenAccept(context::success);
+    }
+
+    /**
+     * Write values, routing operations on aliases directly to their registered {@link AddressSpace} and all other
+     * operations through the {@link AddressSpaceManager}.
+     *
+     * @param context     the {@link WriteContext}.
+     * @param writeValues the values to write.
+     */
+    public void write(WriteContext context, List<WriteValue> writeValues) {
+        AddressSpaceManager addressSpaceManager = server.getAddressSpaceManager();
+
+        List<RegisteredNode> registered = lookup(writeValues.size(), i -> writeValues.get(i).getNodeId());
+
+        if (registered == null) {
+            addressSpaceManager.write(context, writeValues);
+            return;
+        }
+
+        CompletableFuture<List<StatusCode>> results = groupMapCollate(
+            indices(writeValues.size()),
+            i -> route(registered.get(i), addressSpaceManager),
+            (AddressSpace asx) -> group -> {
+                WriteContext ctx = new WriteContext(
+                    server,
+                    context.getSession().orElse(null),
+                    context.getDiagnosticsContext()
+                );
+
+                List<WriteValue> writeValuesForGroup = new ArrayList<>(group.size());
+
+                if (asx == addressSpaceManager) {
+                    group.forEach(i -> writeValuesForGroup.add(writeValues.get(i)));
+
+                    asx.write(ctx, writeValuesForGroup);
+                } else {
+                    List<UaServerNode> nodes = new ArrayList<>(group.size());
+
+                    for (int i : group) {
+                        WriteValue writeValue = writeValues.get(i);
+                        RegisteredNode registeredNode = registered.get(i);
+
+                        writeValuesForGroup.add(new WriteValue(
+                            registeredNode.getNodeId(),
+                            writeValue.getAttributeId(),
+                            writeValue.getIndexRange(),
+                            writeValue.getValue()
+                        ));
+
+                        nodes.add(registeredNode.getNode());
+                    }
+
+                    asx.writeRegistered(ctx, writeValuesForGroup, nodes);
+                }
+
+                return ctx.getFuture();
+            }
+        );
+
+        results.thenAccept(context::success);
+    }
+
+    /**
+     * Look up the {@link RegisteredNode} for each of {@code count} NodeIds.
+     *
+     * @return the {@link RegisteredNode}, or {@code null}, for each NodeId, or {@code null} if none are aliases.
+     */
+    @Nullable
+    private List<RegisteredNode> lookup(int count, IntFunction<NodeId> getNodeId) {
+        if (byAlias.isEmpty()) return null;
+
+        List<RegisteredNode> registered = null;
+
+        for (int i = 0; i < count; i++) {
+            RegisteredNode registeredNode = get(getNodeId.apply(i));
+
+            if (registeredNode != null) {
+                if (registered == null) {
+                    registered = new ArrayList<>(count);
+                    for (int j = 0; j < i; j++) {
+                        registered.add(null);
+                    }
+                }
+                registered.add(registeredNode);
+            } else if (registered != null) {
+                registered.add(null);
+            }
+        }
+
+        return registered;
+    }
+
+    /**
+     * @return the {@link AddressSpace} registered with {@code registeredNode}, or {@code addressSpaceManager} if
+     * {@code registeredNode} is {@code null} or no AddressSpace claims it anymore.
+     */
+    private static AddressSpace route(
+        @Nullable RegisteredNode registeredNode,
+        AddressSpaceManager addressSpaceManager) {
+
+        AddressSpace addressSpace = registeredNode != null ? registeredNode.getAddressSpace() : null;
+
+        return addressSpace != null ? addressSpace : addressSpaceManager;
+    }
+
+    private NodeId nextAlias() {
+        AddressSpaceManager addressSpaceManager = server.getAddressSpaceManager();
+
+        while (true) {
+            byte[] identifier = ByteBuffer.allocate(16)
+                .putLong(aliasPrefix)
+                .putLong(nextAliasId.getAndIncrement())
+                .array();
+
+            NodeId alias = new NodeId(aliasNamespaceIndex, ByteString.of(identifier));
+
+            // never shadow a node that really exists
+            if (!addressSpaceManager.getManagedNode(alias).isPresent()) {
+                return alias;
+            }
+        }
+    }
+
+    /**
+     * Apply {@code resolve} to each element of {@code elements}.
+     *
+     * @return {@code elements} itself if {@code resolve} returned every element unchanged, otherwise a new array.
+     */
+    @Nullable
+    private static <T> T[] resolveEach(@Nullable T[] elements, IntFunction<T[]> newArray, UnaryOperator<T> resolve) {
+        if (elements == null) return null;
+
+        T[] resolved = null;
+
+        for (int i = 0; i < elements.length; i++) {
+            T element = elements[i];
+            T resolvedElement = element != null ? resolve.apply(element) : null;
+
+            if (resolvedElement != element && resolved == null) {
+                resolved = newArray.apply(elements.length);
+                System.arraycopy(elements, 0, resolved, 0, i);
+            }
+            if (resolved != null) {
+                resolved[i] = resolvedElement;
+            }
+        }
+
+        return resolved != null ? resolved : elements;
+    }
+
+    private static List<Integer> indices(int count) {
+        List<Integer> indices = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            indices.add(i);
+        }
+        return indices;
+    }
+
+    public static final class RegisteredNode {
+
+        private volatile Resolved resolved;
+
+        private final NodeId alias;
+        private final NodeId nodeId;
+        private final AddressSpaceManager addressSpaceManager;
+
+        RegisteredNode(NodeId alias, NodeId nodeId, AddressSpaceManager addressSpaceManager) {
+            this.alias = alias;
+            this.nodeId = nodeId;
+            this.addressSpaceManager = addressSpaceManager;
+        }
+
+        /**
+         * @return the alias issued for this node.
+         */
+        public NodeId getAlias() {
+            return alias;
+        }
+
+        /**
+         * @return the {@link NodeId} of the node.
+         */
+        public NodeId getNodeId() {
+            return nodeId;
+        }
+
+        /**
+         * Get the {@link AddressSpace} operations on the node are routed to.
+         * <p>
+         * The node is only routed again if an AddressSpace or NodeManager has been registered or unregistered since
+         * the last call.
+         *
+         * @return the {@link AddressSpace} operations on the node are routed to, or {@code null} if no AddressSpace
+         * claims it anymore.
+         */
+        @Nullable
+        public AddressSpace getAddressSpace() {
+            return resolve().addressSpace;
+        }
+
+        /**
+         * Get the managed {@link UaNode}.
+         * <p>
+         * The node is only looked up again if an AddressSpace or NodeManager has been registered or unregistered, or
+         * its {@link NodeManager} has added or removed nodes, since the last call.
+         *
+         * @return the managed {@link UaNode}, or {@code null} if it isn't managed, has been removed, or its NodeManager
+         * doesn't keep a node map version to tell.
+         */
+        @Nullable
+        public UaNode getNode() {
+            return resolve().node;
+        }
+
+        private Resolved resolve() {
+            long registrationVersion = addressSpaceManager.getRegistrationVersion();
+
+            Resolved r = resolved;
+
+            if (r == null || r.registrationVersion != registrationVersion ||
+                (r.nodeManager != null && r.nodeManager.getNodeMapVersion() != r.nodeMapVersion)) {
+
+                AbstractNodeManager<UaNode> previous =
+                    r != null && r.registrationVersion == registrationVersion ? r.nodeManager : null;
+
+                // versions are read before the node, so a change in between is seen as a change on the next call
+                long previousVersion = previous != null ? previous.getNodeMapVersion() : 0L;
+
+                AddressSpace addressSpace = addressSpaceManager.findAddressSpace(nodeId).orElse(null);
+                UaNode node = addressSpaceManager.getManagedNode(nodeId).orElse(null);
+
+                NodeManager<UaNode> nodeManager = node != null ? node.getNodeManager() : null;
+
+                if (nodeManager instanceof AbstractNodeManager) {
+                    @SuppressWarnings("unchecked")
+                    AbstractNodeManager<UaNode> abstractNodeManager = (AbstractNodeManager<UaNode>) nodeManager;
+
+                    long nodeMapVersion = abstractNodeManager.getNodeMapVersion();
+
+                    if (abstractNodeManager.getNode(nodeId).orElse(null) == node) {
+                        r = new Resolved(addressSpace, node, abstractNodeManager, registrationVersion, nodeMapVersion);
+                    } else {
+                        r = new Resolved(addressSpace, null, null, registrationVersion, 0L);
+                    }
+                } else if (node == null && previous != null) {
+                    // keep watching the NodeManager the node was removed from so it's found again if it's added back
+                    r = new Resolved(addressSpace, null, previous, registrationVersion, previousVersion);
+                } else {
+                    r = new Resolved(addressSpace, null, null, registrationVersion, 0L);
+                }
+
+                resolved = r;
+            }
+
+            return r;
+        }
+
+    }
+
+    private static final class Resolved {
+
+        final AddressSpace addressSpace;
+        final UaNode node;
+        final AbstractNodeManager<UaNode> nodeManager;
+        final long registrationVersion;
+        final long nodeMapVersion;
+
+        Resolved(
+            @Nullable AddressSpace addressSpace,
+            @Nullable UaNode node,
+            @Nullable AbstractNodeManager<UaNode> nodeManager,
+            long registrationVersion,
+            long nodeMapVersion) {
+
+            this.addressSpace = addressSpace;
+            this.node = node;
+            this.nodeManager = nodeManager;
+            this.registrationVersion = registrationVersion;
+            this.nodeMapVersion = nodeMapVersion;
+        }
+
+    }
+
+}
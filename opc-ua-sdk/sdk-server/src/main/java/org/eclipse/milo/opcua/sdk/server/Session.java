@@ -50,6 +50,7 @@ public class Session implements SessionServiceSet {
     private final List<LifecycleListener> listeners = Lists.newCopyOnWriteArrayList();
 
     private final SubscriptionManager subscriptionManager;
+    private final RegisteredNodes registeredNodes;
 
     private volatile long secureChannelId;
 
@@ -96,6 +97,11 @@ public class Session implements SessionServiceSet {
         this.endpoint = endpoint;
 
         subscriptionManager = new SubscriptionManager(this, server);
+        registeredNodes = new RegisteredNodes(
+            server,
+            server.getServerNamespace().getNamespaceIndex(),
+            server.getConfig().getLimits().getMaxRegisteredNodesPerSession().intValue()
+        );
 
         attributeServiceSet = new DefaultAttributeServiceSet();
         attributeHistoryServiceSet = new DefaultAttributeHistoryServiceSet();
@@ -185,6 +191,7 @@ public class Session implements SessionServiceSet {
             logger.debug("Session id={} lifetime expired ({}ms).", sessionId, sessionTimeout.toMillis());
 
             subscriptionManager.sessionClosed(true);
+            registeredNodes.clear();
 
             listeners.forEach(listener -> listener.onSessionClosed(this, true));
         } else {
@@ -240,6 +247,15 @@ public class Session implements SessionServiceSet {
     public SubscriptionManager getSubscriptionManager() {
         return subscriptionManager;
     }
+
+    /**
+     * Get the nodes this session has registered with the RegisterNodes service.
+     *
+     * @return the {@link RegisteredNodes} of this session.
+     */
+    public RegisteredNodes getRegisteredNodes() {
+        return registeredNodes;
+    }
     //region Session Services
 
     @Override
@@ -267,6 +283,7 @@ public class Session implements SessionServiceSet {
         }
 
         subscriptionManager.sessionClosed(deleteSubscriptions);
+        registeredNodes.clear();
 
         listeners.forEach(listener -> listener.onSessionClosed(this, deleteSubscriptions));
     }
@@ -35,6 +35,7 @@ import org.eclipse.milo.opcua.stack.core.UaRuntimeException;
 import org.eclipse.milo.opcua.stack.core.security.CertificateValidator;
 import org.eclipse.milo.opcua.stack.core.security.SecurityAlgorithm;
 import org.eclipse.milo.opcua.stack.core.security.SecurityPolicy;
+import org.eclipse.milo.opcua.stack.core.serialization.UaRequestMessage;
 import org.eclipse.milo.opcua.stack.core.types.OpcUaDataTypeManager;
 import org.eclipse.milo.opcua.stack.core.types.builtin.ByteString;
 import org.eclipse.milo.opcua.stack.core.types.builtin.DiagnosticInfo;
@@ -152,6 +153,43 @@ public class SessionManager implements
         return session;
     }
 
+    /**
+     * Get a {@link ServiceRequest} for the same request as {@code service} but with any nodes {@code session} has
+     * registered referred to by their NodeIds rather than their aliases.
+     * <p>
+     * The response to the returned request completes {@code service}.
+     *
+     * @see RegisteredNodes#resolve(UaRequestMessage)
+     */
+    private ServiceRequest resolveRegisteredNodes(ServiceRequest service, Session session) {
+        UaRequestMessage request = service.getRequest();
+        UaRequestMessage resolvedRequest = session.getRegisteredNodes().resolve(request);
+
+        if (resolvedRequest == request) return service;
+
+        ServiceRequest resolved = new ServiceRequest(
+            service.getServer(),
+            resolvedRequest,
+            service.getEndpoint(),
+            service.getSecureChannelId(),
+            service.getClientAddress(),
+            service.getClientCertificateBytes()
+        );
+
+        resolved.attr(ServiceAttributes.SERVER_KEY).set(server);
+        resolved.attr(ServiceAttributes.SESSION_KEY).set(session);
+
+        resolved.getFuture().whenComplete((response, ex) -> {
+            if (response != null) {
+                service.setResponse(response);
+            } else {
+                service.getFuture().completeExceptionally(ex);
+            }
+        });
+
+        return resolved;
+    }
+
     //region Session Services
     @Override
     public void onCreateSession(ServiceRequest serviceRequest) throws UaException {
@@ -678,7 +716,7 @@ public class SessionManager implements
     public void onHistoryRead(ServiceRequest service) throws UaException {
         Session session = session(service);
 
-        session.getAttributeHistoryServiceSet().onHistoryRead(service);
+        session.getAttributeHistoryServiceSet().onHistoryRead(resolveRegisteredNodes(service, session));
     }
 
     @Override
@@ -695,7 +733,7 @@ public class SessionManager implements
     public void onBrowse(ServiceRequest service) throws UaException {
         Session session = session(service);
 
-        session.getViewServiceSet().onBrowse(service);
+        session.getViewServiceSet().onBrowse(resolveRegisteredNodes(service, session));
     }
 
     @Override
@@ -709,7 +747,7 @@ public class SessionManager implements
     public void onTranslateBrowsePaths(ServiceRequest service) throws UaException {
         Session session = session(service);
 
-        session.getViewServiceSet().onTranslateBrowsePaths(service);
+        session.getViewServiceSet().onTranslateBrowsePaths(resolveRegisteredNodes(service, session));
     }
 
     @Override
@@ -732,7 +770,7 @@ public class SessionManager implements
     public void onAddNodes(ServiceRequest service) throws UaException {
         Session session = session(service);
 
-        session.getNodeManagementServiceSet().onAddNodes(service);
+        session.getNodeManagementServiceSet().onAddNodes(resolveRegisteredNodes(service, session));
     }
 
     @Override
@@ -740,14 +778,14 @@ public class SessionManager implements
 
         Session session = session(service);
 
-        session.getNodeManagementServiceSet().onAddReferences(service);
+        session.getNodeManagementServiceSet().onAddReferences(resolveRegisteredNodes(service, session));
     }
 
     @Override
     public void onDeleteNodes(ServiceRequest service) throws UaException {
         Session session = session(service);
 
-        session.getNodeManagementServiceSet().onDeleteNodes(service);
+        session.getNodeManagementServiceSet().onDeleteNodes(resolveRegisteredNodes(service, session));
     }
 
     @Override
@@ -755,7 +793,7 @@ public class SessionManager implements
 
         Session session = session(service);
 
-        session.getNodeManagementServiceSet().onDeleteReferences(service);
+        session.getNodeManagementServiceSet().onDeleteReferences(resolveRegisteredNodes(service, session));
     }
     //endregion
 
@@ -856,7 +894,7 @@ public class SessionManager implements
     public void onCall(ServiceRequest service) throws UaException {
         Session session = session(service);
 
-        session.getMethodServiceSet().onCall(service);
+        session.getMethodServiceSet().onCall(resolveRegisteredNodes(service, session));
     }
     //endregion
 
@@ -11,17 +11,17 @@
 package org.eclipse.milo.opcua.sdk.server.api;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Predicate;
-import java.util.stream.Collectors;
 
-import com.google.common.collect.ArrayListMultimap;
-import com.google.common.collect.ListMultimap;
 import com.google.common.collect.MapMaker;
-import com.google.common.collect.Multimap;
-import com.google.common.collect.Multimaps;
 import org.eclipse.milo.opcua.sdk.core.Reference;
 import org.eclipse.milo.opcua.sdk.server.api.nodes.Node;
 import org.eclipse.milo.opcua.stack.core.NamespaceTable;
@@ -31,11 +31,19 @@ import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
 public class AbstractNodeManager<T extends Node> implements NodeManager<T> {
 
     private final ConcurrentMap<NodeId, T> nodeMap;
-    private final ListMultimap<NodeId, Reference> referenceMultimap;
+
+    /**
+     * References keyed by source NodeId. Values are immutable snapshots: writers replace them inside
+     * {@link ConcurrentMap#compute}, which serializes writes per source NodeId, and readers never lock.
+     */
+    private final ConcurrentMap<NodeId, NodeReferences> referenceMap = new ConcurrentHashMap<>();
+
+    private final AtomicLong nodeMapVersion = new AtomicLong(0L);
+
+    private final List<NodeLifecycleListener<T>> lifecycleListeners = new CopyOnWriteArrayList<>();
 
     public AbstractNodeManager() {
         nodeMap = makeNodeMap(new MapMaker());
-        referenceMultimap = Multimaps.synchronizedListMultimap(ArrayListMultimap.create());
     }
 
     /**
@@ -58,15 +66,45 @@ public class AbstractNodeManager<T extends Node> implements NodeManager<T> {
     }
 
     /**
-     * Get the backing {@link ListMultimap} holding this {@link NodeManager}'s References.
+     * Get the version of this {@link NodeManager}'s Nodes, which changes every time a Node is added or removed.
+     * <p>
+     * A Node obtained from this NodeManager can be held on to and used without looking it up again for as long as the
+     * version hasn't changed.
+     *
+     * @return the version of this {@link NodeManager}'s Nodes.
+     */
+    public long getNodeMapVersion() {
+        return nodeMapVersion.get();
+    }
+
+    /**
+     * Get a snapshot of the Nodes in this {@link NodeManager}.
+     *
+     * @return a snapshot of the Nodes in this {@link NodeManager}.
+     */
+    public List<T> getNodes() {
+        return new ArrayList<>(nodeMap.values());
+    }
+
+    /**
+     * Add a {@link NodeLifecycleListener} to be notified when Nodes are added to or removed from this
+     * {@link NodeManager}.
      * <p>
-     * The backing ListMultimap is synchronized and should be treated with caution as described by
-     * {@link Multimaps#synchronizedMultimap(Multimap)}.
+     * Listeners are notified on the thread that added or removed the Node, after the change was made.
      *
-     * @return the backing {@link ListMultimap} holding this {@link NodeManager}'s References.
+     * @param listener the {@link NodeLifecycleListener} to add.
      */
-    protected ListMultimap<NodeId, Reference> getReferenceMultimap() {
-        return referenceMultimap;
+    public void addNodeLifecycleListener(NodeLifecycleListener<T> listener) {
+        lifecycleListeners.add(listener);
+    }
+
+    /**
+     * Remove a previously added {@link NodeLifecycleListener}.
+     *
+     * @param listener the {@link NodeLifecycleListener} to remove.
+     */
+    public void removeNodeLifecycleListener(NodeLifecycleListener<T> listener) {
+        lifecycleListeners.remove(listener);
     }
 
     @Override
@@ -83,7 +121,20 @@ public class AbstractNodeManager<T extends Node> implements NodeManager<T> {
 
     @Override
     public Optional<T> addNode(T node) {
-        return Optional.ofNullable(nodeMap.put(node.getNodeId(), node));
+        T previous = nodeMap.put(node.getNodeId(), node);
+
+        nodeMapVersion.incrementAndGet();
+
+        if (!lifecycleListeners.isEmpty()) {
+            if (previous != null && previous != node) {
+                lifecycleListeners.forEach(l -> l.onNodeRemoved(previous));
+            }
+            if (previous != node) {
+                lifecycleListeners.forEach(l -> l.onNodeAdded(node));
+            }
+        }
+
+        return Optional.ofNullable(previous);
     }
 
     @Override
@@ -98,7 +149,15 @@ public class AbstractNodeManager<T extends Node> implements NodeManager<T> {
 
     @Override
     public Optional<T> removeNode(NodeId nodeId) {
-        return Optional.ofNullable(nodeMap.remove(nodeId));
+        T removed = nodeMap.remove(nodeId);
+
+        if (removed != null) {
+            nodeMapVersion.incrementAndGet();
+
+            lifecycleListeners.forEach(l -> l.onNodeRemoved(removed));
+        }
+
+        return Optional.ofNullable(removed);
     }
 
     @Override
@@ -108,49 +167,224 @@ public class AbstractNodeManager<T extends Node> implements NodeManager<T> {
 
     @Override
     public void addReference(Reference reference) {
-        referenceMultimap.put(reference.getSourceNodeId(), reference);
+        referenceMap.compute(
+            reference.getSourceNodeId(),
+            (nodeId, references) ->
+                references != null ? references.add(reference) : NodeReferences.of(reference)
+        );
     }
 
     @Override
     public void addReferences(Reference reference, NamespaceTable namespaceTable) {
-        referenceMultimap.put(reference.getSourceNodeId(), reference);
+        addReference(reference);
 
-        reference.invert(namespaceTable).ifPresent(
-            inverted ->
-                referenceMultimap.put(inverted.getSourceNodeId(), inverted)
-        );
+        reference.invert(namespaceTable).ifPresent(this::addReference);
     }
 
     @Override
     public void removeReference(Reference reference) {
-        referenceMultimap.remove(reference.getSourceNodeId(), reference);
+        referenceMap.computeIfPresent(
+            reference.getSourceNodeId(),
+            (nodeId, references) -> references.remove(reference)
+        );
     }
 
     @Override
     public void removeReferences(Reference reference, NamespaceTable namespaceTable) {
-        referenceMultimap.remove(reference.getSourceNodeId(), reference);
+        removeReference(reference);
 
-        reference.invert(namespaceTable).ifPresent(
-            inverted ->
-                referenceMultimap.remove(inverted.getSourceNodeId(), inverted)
-        );
+        reference.invert(namespaceTable).ifPresent(this::removeReference);
     }
 
     @Override
     public List<Reference> getReferences(NodeId nodeId) {
-        synchronized (referenceMultimap) {
-            return new ArrayList<>(referenceMultimap.get(nodeId));
-        }
+        NodeReferences references = referenceMap.get(nodeId);
+
+        if (references == null) return new ArrayList<>();
+
+        return toList(references.all, references.size);
     }
 
     @Override
     public List<Reference> getReferences(NodeId nodeId, Predicate<Reference> filter) {
-        synchronized (referenceMultimap) {
-            return referenceMultimap.get(nodeId)
-                .stream()
-                .filter(filter)
-                .collect(Collectors.toList());
+        NodeReferences references = referenceMap.get(nodeId);
+
+        List<Reference> filtered = new ArrayList<>();
+
+        if (references != null) {
+            Reference[] all = references.all;
+
+            for (int i = 0; i < references.size; i++) {
+                if (filter.test(all[i])) filtered.add(all[i]);
+            }
+        }
+
+        return filtered;
+    }
+
+    @Override
+    public List<Reference> getReferences(NodeId nodeId, Set<NodeId> referenceTypeIds) {
+        NodeReferences references = referenceMap.get(nodeId);
+
+        List<Reference> filtered = new ArrayList<>();
+
+        if (references != null) {
+            for (ReferenceTypeEntry entry : references.byType) {
+                if (referenceTypeIds.contains(entry.referenceTypeId)) {
+                    filtered.addAll(Arrays.asList(entry.references).subList(0, entry.size));
+                }
+            }
+        }
+
+        return filtered;
+    }
+
+    private static List<Reference> toList(Reference[] references, int size) {
+        List<Reference> list = new ArrayList<>(size);
+
+        for (int i = 0; i < size; i++) {
+            list.add(references[i]);
+        }
+
+        return list;
+    }
+
+    /**
+     * An immutable snapshot of the References for a source NodeId, in insertion order, plus the same References
+     * grouped by ReferenceType.
+     * <p>
+     * Appending shares the backing array with the previous snapshot when it has spare capacity: a snapshot only ever
+     * reads the first {@code size} elements, and appends only ever happen to the latest snapshot, so the elements a
+     * snapshot can see are never modified.
+     */
+    private static final class NodeReferences {
+
+        private static final int INITIAL_CAPACITY = 4;
+
+        private final Reference[] all;
+        private final int size;
+        private final ReferenceTypeEntry[] byType;
+
+        private NodeReferences(Reference[] all, int size, ReferenceTypeEntry[] byType) {
+            this.all = all;
+            this.size = size;
+            this.byType = byType;
+        }
+
+        NodeReferences add(Reference reference) {
+            Reference[] references = append(all, size, reference);
+
+            ReferenceTypeEntry[] entries = Arrays.copyOf(byType, byType.length);
+            int index = indexOfType(reference.getReferenceTypeId());
+
+            if (index >= 0) {
+                entries[index] = entries[index].add(reference);
+            } else {
+                entries = Arrays.copyOf(entries, entries.length + 1);
+                entries[entries.length - 1] = ReferenceTypeEntry.of(reference);
+            }
+
+            return new NodeReferences(references, size + 1, entries);
+        }
+
+        /**
+         * @return a snapshot without the first occurrence of {@code reference}, {@code null} if it would be empty.
+         */
+        NodeReferences remove(Reference reference) {
+            int index = indexOf(all, size, reference);
+
+            if (index < 0) return this;
+            if (size == 1) return null;
+
+            int typeIndex = indexOfType(reference.getReferenceTypeId());
+            ReferenceTypeEntry entry = byType[typeIndex].remove(reference);
+
+            ReferenceTypeEntry[] entries;
+
+            if (entry != null) {
+                entries = Arrays.copyOf(byType, byType.length);
+                entries[typeIndex] = entry;
+            } else {
+                entries = new ReferenceTypeEntry[byType.length - 1];
+                System.arraycopy(byType, 0, entries, 0, typeIndex);
+                System.arraycopy(byType, typeIndex + 1, entries, typeIndex, entries.length - typeIndex);
+            }
+
+            return new NodeReferences(without(all, size, index), size - 1, entries);
+        }
+
+        private int indexOfType(NodeId referenceTypeId) {
+            for (int i = 0; i < byType.length; i++) {
+                if (byType[i].referenceTypeId.equals(referenceTypeId)) return i;
+            }
+            return -1;
+        }
+
+        static NodeReferences of(Reference reference) {
+            Reference[] references = new Reference[INITIAL_CAPACITY];
+            references[0] = reference;
+
+            return new NodeReferences(references, 1, new ReferenceTypeEntry[]{ReferenceTypeEntry.of(reference)});
+        }
+
+    }
+
+    private static final class ReferenceTypeEntry {
+
+        private final NodeId referenceTypeId;
+        private final Reference[] references;
+        private final int size;
+
+        private ReferenceTypeEntry(NodeId referenceTypeId, Reference[] references, int size) {
+            this.referenceTypeId = referenceTypeId;
+            this.references = references;
+            this.size = size;
+        }
+
+        ReferenceTypeEntry add(Reference reference) {
+            return new ReferenceTypeEntry(referenceTypeId, append(references, size, reference), size + 1);
+        }
+
+        /**
+         * @return an entry without the first occurrence of {@code reference}, {@code null} if it would be empty.
+         */
+        ReferenceTypeEntry remove(Reference reference) {
+            int index = indexOf(references, size, reference);
+
+            if (index < 0) return this;
+            if (size == 1) return null;
+
+            return new ReferenceTypeEntry(referenceTypeId, without(references, size, index), size - 1);
+        }
+
+        static ReferenceTypeEntry of(Reference reference) {
+            return new ReferenceTypeEntry(reference.getReferenceTypeId(), new Reference[]{reference}, 1);
+        }
+
+    }
+
+    private static Reference[] append(Reference[] references, int size, Reference reference) {
+        if (size == references.length) {
+            references = Arrays.copyOf(references, Math.max(1, size * 2));
+        }
+
+        references[size] = reference;
+
+        return references;
+    }
+
+    private static Reference[] without(Reference[] references, int size, int index) {
+        Reference[] copy = new Reference[Math.max(1, size - 1)];
+        System.arraycopy(references, 0, copy, 0, index);
+        System.arraycopy(references, index + 1, copy, index, size - index - 1);
+        return copy;
+    }
+
+    private static int indexOf(Reference[] references, int size, Reference reference) {
+        for (int i = 0; i < size; i++) {
+            if (references[i].equals(reference)) return i;
         }
+        return -1;
     }
 
 }
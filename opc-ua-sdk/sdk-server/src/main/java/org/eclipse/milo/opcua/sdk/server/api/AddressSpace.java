@@ -10,7 +10,11 @@
 
 package org.eclipse.milo.opcua.sdk.server.api;
 
+import java.util.Collections;
+import java.util.Set;
+
 import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UShort;
 
 /**
  * An {@link AddressSpace} is an implementation of the services defined by {@link AddressSpaceServices} that can be
@@ -29,4 +33,33 @@ public interface AddressSpace extends AddressSpaceServices {
      */
     boolean filter(NodeId nodeId);
 
+    /**
+     * Get the namespace indices of every {@link NodeId} that {@link #filter(NodeId)} can return {@code true} for.
+     * <p>
+     * An {@link AddressSpaceComposite} uses this to route operations by namespace index instead of calling
+     * {@link #filter(NodeId)} on every registered AddressSpace. It is read once, when this AddressSpace is registered.
+     * <p>
+     * The default implementation returns an empty set, meaning this AddressSpace may contain NodeIds in any namespace.
+     *
+     * @return the namespace indices of every {@link NodeId} this {@link AddressSpace} is responsible for, or an empty
+     * set if it may be responsible for NodeIds in any namespace.
+     */
+    default Set<UShort> getNamespaceIndices() {
+        return Collections.emptySet();
+    }
+
+    /**
+     * Return {@code true} if {@link #filter(NodeId)} is {@code true} for every {@link NodeId} in
+     * {@link #getNamespaceIndices()}, i.e. this AddressSpace owns those namespaces outright rather than a range of
+     * NodeIds within them.
+     * <p>
+     * An {@link AddressSpaceComposite} doesn't call {@link #filter(NodeId)} on AddressSpaces that own a namespace.
+     *
+     * @return {@code true} if this {@link AddressSpace} is responsible for every {@link NodeId} in
+     * {@link #getNamespaceIndices()}.
+     */
+    default boolean ownsNamespaces() {
+        return false;
+    }
+
 }
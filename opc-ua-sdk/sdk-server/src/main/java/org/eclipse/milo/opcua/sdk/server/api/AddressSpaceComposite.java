@@ -12,9 +12,11 @@ package org.eclipse.milo.opcua.sdk.server.api;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.BiConsumer;
@@ -32,6 +34,7 @@ import org.eclipse.milo.opcua.stack.core.types.builtin.ExpandedNodeId;
 import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
 import org.eclipse.milo.opcua.stack.core.types.builtin.StatusCode;
 import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UInteger;
+import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UShort;
 import org.eclipse.milo.opcua.stack.core.types.enumerated.TimestampsToReturn;
 import org.eclipse.milo.opcua.stack.core.types.structured.AddNodesItem;
 import org.eclipse.milo.opcua.stack.core.types.structured.AddNodesResult;
@@ -53,6 +56,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import static java.util.Collections.emptyList;
+import static java.util.Collections.emptySet;
 import static java.util.stream.Collectors.groupingBy;
 import static java.util.stream.Collectors.toList;
 import static org.eclipse.milo.opcua.sdk.server.util.GroupMapCollate.groupMapCollate;
@@ -61,6 +65,10 @@ import static org.eclipse.milo.opcua.sdk.server.util.GroupMapCollate.groupMapCol
  * An {@link AddressSpace} that is composed of one or more registered sub-AddressSpaces.
  * <p>
  * Service call operations are executed by the first sub-AddressSpace that matches on the NodeId in the operation.
+ * <p>
+ * Sub-AddressSpaces are indexed by the namespace indices they declare in {@link AddressSpace#getNamespaceIndices()},
+ * so finding the AddressSpace for a NodeId only calls {@link AddressSpace#filter(NodeId)} on the AddressSpaces that
+ * could match it, and not at all when the first candidate owns the namespace outright.
  */
 public abstract class AddressSpaceComposite extends AbstractLifecycle implements AddressSpace {
 
@@ -68,6 +76,8 @@ public abstract class AddressSpaceComposite extends AbstractLifecycle implements
 
     private final CopyOnWriteArrayList<AddressSpace> addressSpaces = new CopyOnWriteArrayList<>();
 
+    private volatile Routes routes = Routes.EMPTY;
+
     private final OpcUaServer server;
 
     public AddressSpaceComposite(OpcUaServer server) {
@@ -82,8 +92,23 @@ public abstract class AddressSpaceComposite extends AbstractLifecycle implements
 
     @Override
     public boolean filter(NodeId nodeId) {
-        return addressSpaces.stream()
-            .anyMatch(asx -> asx.filter(nodeId));
+        return routes.route(nodeId) != null;
+    }
+
+    @Override
+    public Set<UShort> getNamespaceIndices() {
+        Set<UShort> namespaceIndices = new HashSet<>();
+
+        for (AddressSpace addressSpace : addressSpaces) {
+            Set<UShort> indices = addressSpace.getNamespaceIndices();
+
+            // any sub-AddressSpace that may contain any namespace makes this composite unbounded too
+            if (indices.isEmpty()) return emptySet();
+
+            namespaceIndices.addAll(indices);
+        }
+
+        return namespaceIndices;
     }
 
     /**
@@ -96,6 +121,7 @@ public abstract class AddressSpaceComposite extends AbstractLifecycle implements
     public synchronized void register(AddressSpace addressSpace) {
         if (!addressSpaces.contains(addressSpace)) {
             addressSpaces.add(addressSpace);
+            routes = Routes.build(addressSpaces);
 
             logger.debug("registered {}", addressSpace);
         } else {
@@ -113,6 +139,7 @@ public abstract class AddressSpaceComposite extends AbstractLifecycle implements
     public synchronized void registerFirst(AddressSpace addressSpace) {
         if (!addressSpaces.contains(addressSpace)) {
             addressSpaces.add(0, addressSpace);
+            routes = Routes.build(addressSpaces);
 
             logger.debug("registered {} at index 0", addressSpace);
         } else {
@@ -128,6 +155,7 @@ public abstract class AddressSpaceComposite extends AbstractLifecycle implements
     public synchronized void unregister(AddressSpace addressSpace) {
         if (addressSpaces.contains(addressSpace)) {
             addressSpaces.remove(addressSpace);
+            routes = Routes.build(addressSpaces);
 
             logger.debug("unregistered {}", addressSpace);
         } else {
@@ -153,12 +181,20 @@ public abstract class AddressSpaceComposite extends AbstractLifecycle implements
         return new ArrayList<>(addressSpaces);
     }
 
+    /**
+     * Get the sub-AddressSpace that operations on {@code nodeId} are routed to, if there is one.
+     *
+     * @param nodeId the {@link NodeId} to route.
+     * @return the sub-AddressSpace that operations on {@code nodeId} are routed to, if there is one.
+     */
+    public Optional<AddressSpace> findAddressSpace(NodeId nodeId) {
+        return Optional.ofNullable(routes.route(nodeId));
+    }
+
     private AddressSpace getAddressSpace(NodeId nodeId) {
-        Optional<AddressSpace> addressSpace = addressSpaces.stream()
-            .filter(asx -> asx.filter(nodeId))
-            .findFirst();
+        AddressSpace addressSpace = routes.route(nodeId);
 
-        return addressSpace.orElse(new EmptyAddressSpace(server));
+        return addressSpace != null ? addressSpace : new EmptyAddressSpace(server);
     }
 
     private AddressSpace getAddressSpace(ExpandedNodeId nodeId) {
@@ -181,16 +217,12 @@ public abstract class AddressSpaceComposite extends AbstractLifecycle implements
     public void browse(BrowseContext context, ViewDescription view, NodeId nodeId) {
         List<AddressSpace> addressSpaces = getAddressSpaces();
 
-        AddressSpace firstMatch;
-        try {
-            firstMatch = addressSpaces.stream()
-                .filter(asx -> asx.filter(nodeId))
-                .findFirst()
-                .orElseThrow(() -> new UaException(StatusCodes.Bad_NodeIdUnknown));
+        AddressSpace firstMatch = routes.route(nodeId);
 
+        if (firstMatch != null) {
             addressSpaces.remove(firstMatch);
-        } catch (UaException e) {
-            context.failure(e);
+        } else {
+            context.failure(new UaException(StatusCodes.Bad_NodeIdUnknown));
             return;
         }
 
@@ -198,7 +230,8 @@ public abstract class AddressSpaceComposite extends AbstractLifecycle implements
 
         BrowseContext browseContext = new BrowseContext(
             getServer(),
-            context.getSession().orElse(null)
+            context.getSession().orElse(null),
+            context.getReferenceTypeIds().orElse(null)
         );
 
         firstMatch.browse(browseContext, view, nodeId);
@@ -208,7 +241,8 @@ public abstract class AddressSpaceComposite extends AbstractLifecycle implements
         for (AddressSpace asx : addressSpaces) {
             browseContext = new BrowseContext(
                 getServer(),
-                context.getSession().orElse(null)
+                context.getSession().orElse(null),
+                context.getReferenceTypeIds().orElse(null)
             );
 
             asx.getReferences(browseContext, view, nodeId);
@@ -234,7 +268,8 @@ public abstract class AddressSpaceComposite extends AbstractLifecycle implements
         for (AddressSpace asx : addressSpaces) {
             BrowseContext browseContext = new BrowseContext(
                 server,
-                context.getSession().orElse(null)
+                context.getSession().orElse(null),
+                context.getReferenceTypeIds().orElse(null)
             );
 
             asx.getReferences(browseContext, view, nodeId);
@@ -642,6 +677,127 @@ public abstract class AddressSpaceComposite extends AbstractLifecycle implements
 
     //endregion
 
+    /**
+     * An immutable routing table from namespace index to the sub-AddressSpaces that may be responsible for NodeIds in
+     * that namespace, in registration order.
+     */
+    private static final class Routes {
+
+        static final Routes EMPTY = new Routes(new Route[0], Route.EMPTY);
+
+        private final Route[] byNamespace;
+        private final Route fallback;
+
+        private Routes(Route[] byNamespace, Route fallback) {
+            this.byNamespace = byNamespace;
+            this.fallback = fallback;
+        }
+
+        AddressSpace route(NodeId nodeId) {
+            int namespaceIndex = nodeId.getNamespaceIndex().intValue();
+
+            Route route = namespaceIndex < byNamespace.length ? byNamespace[namespaceIndex] : fallback;
+
+            return route.resolve(nodeId);
+        }
+
+        static Routes build(List<AddressSpace> addressSpaces) {
+            List<Set<UShort>> namespaceIndices = new ArrayList<>(addressSpaces.size());
+
+            int maxNamespaceIndex = -1;
+
+            for (AddressSpace addressSpace : addressSpaces) {
+                Set<UShort> indices = addressSpace.getNamespaceIndices();
+                namespaceIndices.add(indices);
+
+                for (UShort index : indices) {
+                    maxNamespaceIndex = Math.max(maxNamespaceIndex, index.intValue());
+                }
+            }
+
+            // namespaces nobody declared are only reachable through AddressSpaces that didn't declare any
+            Route fallback = Route.build(addressSpaces, namespaceIndices, null);
+
+            Route[] byNamespace = new Route[maxNamespaceIndex + 1];
+
+            for (int i = 0; i < byNamespace.length; i++) {
+                UShort index = UShort.valueOf(i);
+
+                if (namespaceIndices.stream().anyMatch(indices -> indices.contains(index))) {
+                    byNamespace[i] = Route.build(addressSpaces, namespaceIndices, index);
+                } else {
+                    byNamespace[i] = fallback;
+                }
+            }
+
+            return new Routes(byNamespace, fallback);
+        }
+
+    }
+
+    private static final class Route {
+
+        static final Route EMPTY = new Route(new AddressSpace[0], new boolean[0]);
+
+        private final AddressSpace[] addressSpaces;
+        private final boolean[] filter;
+
+        private Route(AddressSpace[] addressSpaces, boolean[] filter) {
+            this.addressSpaces = addressSpaces;
+            this.filter = filter;
+        }
+
+        AddressSpace resolve(NodeId nodeId) {
+            for (int i = 0; i < addressSpaces.length; i++) {
+                if (!filter[i] || addressSpaces[i].filter(nodeId)) {
+                    return addressSpaces[i];
+                }
+            }
+
+            return null;
+        }
+
+        /**
+         * Build the Route for {@code namespaceIndex}, or for namespaces nobody declared if it's {@code null}.
+         */
+        static Route build(
+            List<AddressSpace> addressSpaces,
+            List<Set<UShort>> namespaceIndices,
+            UShort namespaceIndex) {
+
+            List<AddressSpace> candidates = new ArrayList<>();
+            List<Boolean> filters = new ArrayList<>();
+
+            for (int i = 0; i < addressSpaces.size(); i++) {
+                AddressSpace addressSpace = addressSpaces.get(i);
+                Set<UShort> indices = namespaceIndices.get(i);
+
+                if (indices.isEmpty()) {
+                    candidates.add(addressSpace);
+                    filters.add(true);
+                } else if (namespaceIndex != null && indices.contains(namespaceIndex)) {
+                    candidates.add(addressSpace);
+
+                    if (addressSpace.ownsNamespaces()) {
+                        // every NodeId in this namespace stops here; nothing after it can be reached
+                        filters.add(false);
+                        break;
+                    } else {
+                        filters.add(true);
+                    }
+                }
+            }
+
+            boolean[] filter = new boolean[filters.size()];
+            for (int i = 0; i < filter.length; i++) {
+                filter[i] = filters.get(i);
+            }
+
+            return new Route(candidates.toArray(new AddressSpace[0]), filter);
+        }
+
+    }
+
     private static class EmptyAddressSpace extends ManagedAddressSpace {
 
         EmptyAddressSpace(OpcUaServer server) {
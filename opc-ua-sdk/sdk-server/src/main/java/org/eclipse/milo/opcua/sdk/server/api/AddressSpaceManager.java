@@ -13,7 +13,9 @@ package org.eclipse.milo.opcua.sdk.server.api;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
@@ -31,10 +33,33 @@ public class AddressSpaceManager extends AddressSpaceComposite {
 
     private final List<NodeManager<UaNode>> nodeManagers = new CopyOnWriteArrayList<>();
 
+    private final AtomicLong registrationVersion = new AtomicLong(0L);
+
     public AddressSpaceManager(OpcUaServer server) {
         super(server);
     }
 
+    @Override
+    public synchronized void register(AddressSpace addressSpace) {
+        super.register(addressSpace);
+
+        registrationVersion.incrementAndGet();
+    }
+
+    @Override
+    public synchronized void registerFirst(AddressSpace addressSpace) {
+        super.registerFirst(addressSpace);
+
+        registrationVersion.incrementAndGet();
+    }
+
+    @Override
+    public synchronized void unregister(AddressSpace addressSpace) {
+        super.unregister(addressSpace);
+
+        registrationVersion.incrementAndGet();
+    }
+
     /**
      * Register a {@link NodeManager} with this {@link AddressSpaceManager}.
      *
@@ -43,6 +68,7 @@ public class AddressSpaceManager extends AddressSpaceComposite {
     public synchronized void register(NodeManager<UaNode> nodeManager) {
         if (!nodeManagers.contains(nodeManager)) {
             nodeManagers.add(nodeManager);
+            registrationVersion.incrementAndGet();
         } else {
             logger.warn("NodeManager already registered: {}", nodeManager);
         }
@@ -56,11 +82,25 @@ public class AddressSpaceManager extends AddressSpaceComposite {
     public synchronized void unregister(NodeManager<UaNode> nodeManager) {
         if (nodeManagers.contains(nodeManager)) {
             nodeManagers.remove(nodeManager);
+            registrationVersion.incrementAndGet();
         } else {
             logger.warn("NodeManager not registered: {}", nodeManager);
         }
     }
 
+    /**
+     * Get the version of this {@link AddressSpaceManager}'s registrations, which changes every time an
+     * {@link AddressSpace} or {@link NodeManager} is registered or unregistered.
+     * <p>
+     * The AddressSpace a NodeId is routed to, and the NodeManager a managed Node is found in, can be held on to for as
+     * long as the version hasn't changed.
+     *
+     * @return the version of this {@link AddressSpaceManager}'s registrations.
+     */
+    public long getRegistrationVersion() {
+        return registrationVersion.get();
+    }
+
     /**
      * Get the managed {@link UaNode} identified by {@code nodeId} from the first registered {@link NodeManager} that
      * has it, if there is one.
@@ -117,4 +157,21 @@ public class AddressSpaceManager extends AddressSpaceComposite {
             .collect(Collectors.toList());
     }
 
+    /**
+     * Collect all {@link Reference}s from all registered {@link NodeManager}s where {@code nodeId} is the source
+     * {@link NodeId} in the Reference and the ReferenceType is in {@code referenceTypeIds}.
+     *
+     * @param nodeId           the {@link NodeId} of the source NodeId in the {@link Reference}.
+     * @param referenceTypeIds the {@link NodeId}s of the ReferenceTypes to include.
+     * @return all {@link Reference}s from all registered {@link NodeManager}s where {@code nodeId} is the source
+     * {@link NodeId} in the Reference and the ReferenceType is in {@code referenceTypeIds}.
+     * @see NodeManager#getReferences(NodeId, Set)
+     */
+    public List<Reference> getManagedReferences(NodeId nodeId, Set<NodeId> referenceTypeIds) {
+        return nodeManagers.stream()
+            .map(n -> n.getReferences(nodeId, referenceTypeIds))
+            .flatMap(Collection::stream)
+            .collect(Collectors.toList());
+    }
+
 }
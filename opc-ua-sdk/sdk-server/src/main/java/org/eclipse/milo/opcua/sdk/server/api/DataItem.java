@@ -29,6 +29,13 @@ public interface DataItem extends MonitoredItem {
      */
     void setQuality(StatusCode quality);
 
+    /**
+     * Called on every tick of the timer sampling this item, after the value sampled on that tick, if any, was set.
+     *
+     * @param time the time of the tick, in milliseconds since the Java epoch.
+     */
+    default void onSamplingTick(long time) {}
+
     /**
      * @return the rate to sample this item at.
      */
@@ -12,6 +12,7 @@ package org.eclipse.milo.opcua.sdk.server.api;
 
 import java.util.List;
 import java.util.Optional;
+import javax.annotation.Nullable;
 
 import com.google.common.collect.Lists;
 import org.eclipse.milo.opcua.sdk.core.Reference;
@@ -124,7 +125,7 @@ public abstract class ManagedAddressSpaceServices extends AbstractLifecycle impl
     @Override
     public void browse(BrowseContext context, ViewDescription viewDescription, NodeId nodeId) {
         if (nodeManager.containsNode(nodeId)) {
-            List<Reference> references = nodeManager.getReferences(nodeId);
+            List<Reference> references = getReferences(context, nodeId);
 
             logger.debug("Browsed {} references for {}", references.size(), nodeId);
 
@@ -136,13 +137,19 @@ public abstract class ManagedAddressSpaceServices extends AbstractLifecycle impl
 
     @Override
     public void getReferences(BrowseContext context, ViewDescription viewDescription, NodeId nodeId) {
-        List<Reference> references = nodeManager.getReferences(nodeId);
+        List<Reference> references = getReferences(context, nodeId);
 
         logger.debug("Got {} references for {}", references.size(), nodeId);
 
         context.success(references);
     }
 
+    private List<Reference> getReferences(BrowseContext context, NodeId nodeId) {
+        return context.getReferenceTypeIds()
+            .map(referenceTypeIds -> nodeManager.getReferences(nodeId, referenceTypeIds))
+            .orElseGet(() -> nodeManager.getReferences(nodeId));
+    }
+
     @Override
     public void read(
         ReadContext context,
@@ -156,26 +163,41 @@ public abstract class ManagedAddressSpaceServices extends AbstractLifecycle impl
         for (ReadValueId readValueId : readValueIds) {
             UaServerNode node = nodeManager.get(readValueId.getNodeId());
 
-            if (node != null) {
-                DataValue value = node.readAttribute(
-                    new AttributeContext(context),
-                    readValueId.getAttributeId(),
-                    timestamps,
-                    readValueId.getIndexRange(),
-                    readValueId.getDataEncoding()
-                );
+            results.add(readAttribute(context, timestamps, readValueId, node));
+        }
 
-                logger.debug("Read value {} from attribute {} of {}",
-                    value.getValue().getValue(),
-                    AttributeId.from(readValueId.getAttributeId())
-                        .map(Object::toString).orElse("unknown"),
-                    node.getNodeId()
-                );
+        context.success(results);
+    }
 
-                results.add(value);
-            } else {
-                results.add(new DataValue(StatusCodes.Bad_NodeIdUnknown));
+    /**
+     * If {@link #isRegisteredNodeAccessEnabled()}, read from the nodes resolved when they were registered without
+     * looking them up again, otherwise call {@link #read(ReadContext, Double, TimestampsToReturn, List)}.
+     */
+    @Override
+    public void readRegistered(
+        ReadContext context,
+        Double maxAge,
+        TimestampsToReturn timestamps,
+        List<ReadValueId> readValueIds,
+        List<UaServerNode> nodes
+    ) {
+
+        if (!isRegisteredNodeAccessEnabled()) {
+            read(context, maxAge, timestamps, readValueIds);
+            return;
+        }
+
+        List<DataValue> results = Lists.newArrayListWithCapacity(readValueIds.size());
+
+        for (int i = 0; i < readValueIds.size(); i++) {
+            ReadValueId readValueId = readValueIds.get(i);
+            UaServerNode node = nodes.get(i);
+
+            if (node == null) {
+                node = nodeManager.get(readValueId.getNodeId());
             }
+
+            results.add(readAttribute(context, timestamps, readValueId, node));
         }
 
         context.success(results);
@@ -192,36 +214,109 @@ public abstract class ManagedAddressSpaceServices extends AbstractLifecycle impl
         for (WriteValue writeValue : writeValues) {
             UaServerNode node = nodeManager.get(writeValue.getNodeId());
 
-            if (node != null) {
-                try {
-                    node.writeAttribute(
-                        new AttributeContext(context),
-                        writeValue.getAttributeId(),
-                        writeValue.getValue(),
-                        writeValue.getIndexRange()
-                    );
-
-                    results.add(StatusCode.GOOD);
-
-                    logger.debug(
-                        "Wrote value {} to {} attribute of {}",
-                        writeValue.getValue().getValue(),
-                        AttributeId.from(writeValue.getAttributeId())
-                            .map(Object::toString).orElse("unknown"),
-                        node.getNodeId()
-                    );
-                } catch (UaException e) {
-                    logger.error("Unable to write value={}", writeValue.getValue(), e);
-                    results.add(e.getStatusCode());
-                }
-            } else {
-                results.add(new StatusCode(StatusCodes.Bad_NodeIdUnknown));
+            results.add(writeAttribute(context, writeValue, node));
+        }
+
+        context.success(results);
+    }
+
+    /**
+     * If {@link #isRegisteredNodeAccessEnabled()}, write to the nodes resolved when they were registered without
+     * looking them up again, otherwise call {@link #write(WriteContext, List)}.
+     */
+    @Override
+    public void writeRegistered(WriteContext context, List<WriteValue> writeValues, List<UaServerNode> nodes) {
+        if (!isRegisteredNodeAccessEnabled()) {
+            write(context, writeValues);
+            return;
+        }
+
+        List<StatusCode> results = Lists.newArrayListWithCapacity(writeValues.size());
+
+        for (int i = 0; i < writeValues.size(); i++) {
+            WriteValue writeValue = writeValues.get(i);
+            UaServerNode node = nodes.get(i);
+
+            if (node == null) {
+                node = nodeManager.get(writeValue.getNodeId());
             }
+
+            results.add(writeAttribute(context, writeValue, node));
         }
 
         context.success(results);
     }
 
+    /**
+     * Whether Read and Write operations on nodes a Session registered are executed directly on the nodes resolved
+     * when they were registered, skipping {@link #read(ReadContext, Double, TimestampsToReturn, List)} and
+     * {@link #write(WriteContext, List)}.
+     * <p>
+     * Disabled by default. Subclasses that override {@code read} or {@code write} must leave it disabled, or override
+     * {@code readRegistered} and {@code writeRegistered} as well.
+     *
+     * @return {@code true} if operations on registered nodes skip {@code read} and {@code write}.
+     */
+    protected boolean isRegisteredNodeAccessEnabled() {
+        return false;
+    }
+
+    private DataValue readAttribute(
+        ReadContext context,
+        TimestampsToReturn timestamps,
+        ReadValueId readValueId,
+        @Nullable UaServerNode node) {
+
+        if (node != null) {
+            DataValue value = node.readAttribute(
+                new AttributeContext(context),
+                readValueId.getAttributeId(),
+                timestamps,
+                readValueId.getIndexRange(),
+                readValueId.getDataEncoding()
+            );
+
+            logger.debug("Read value {} from attribute {} of {}",
+                value.getValue().getValue(),
+                AttributeId.from(readValueId.getAttributeId())
+                    .map(Object::toString).orElse("unknown"),
+                node.getNodeId()
+            );
+
+            return value;
+        } else {
+            return new DataValue(StatusCodes.Bad_NodeIdUnknown);
+        }
+    }
+
+    private StatusCode writeAttribute(WriteContext context, WriteValue writeValue, @Nullable UaServerNode node) {
+        if (node != null) {
+            try {
+                node.writeAttribute(
+                    new AttributeContext(context),
+                    writeValue.getAttributeId(),
+                    writeValue.getValue(),
+                    writeValue.getIndexRange()
+                );
+
+                logger.debug(
+                    "Wrote value {} to {} attribute of {}",
+                    writeValue.getValue().getValue(),
+                    AttributeId.from(writeValue.getAttributeId())
+                        .map(Object::toString).orElse("unknown"),
+                    node.getNodeId()
+                );
+
+                return StatusCode.GOOD;
+            } catch (UaException e) {
+                logger.error("Unable to write value={}", writeValue.getValue(), e);
+                return e.getStatusCode();
+            }
+        } else {
+            return new StatusCode(StatusCodes.Bad_NodeIdUnknown);
+        }
+    }
+
     /**
      * Invoke one or more methods belonging to this {@link MethodServices}.
      *
@@ -10,6 +10,8 @@
 
 package org.eclipse.milo.opcua.sdk.server.api;
 
+import java.util.Collections;
+import java.util.Set;
 import java.util.UUID;
 
 import org.eclipse.milo.opcua.sdk.server.OpcUaServer;
@@ -50,6 +52,16 @@ public abstract class ManagedNamespace extends ManagedAddressSpace implements Na
         return nodeId.getNamespaceIndex().equals(namespaceIndex);
     }
 
+    @Override
+    public final Set<UShort> getNamespaceIndices() {
+        return Collections.singleton(namespaceIndex);
+    }
+
+    @Override
+    public final boolean ownsNamespaces() {
+        return true;
+    }
+
     @Override
     public final String getNamespaceUri() {
         return namespaceUri;
@@ -10,6 +10,9 @@
 
 package org.eclipse.milo.opcua.sdk.server.api;
 
+import java.util.Collections;
+import java.util.Set;
+
 import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
 import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UShort;
 
@@ -33,4 +36,9 @@ public interface Namespace extends AddressSpace {
         return nodeId.getNamespaceIndex().equals(getNamespaceIndex());
     }
 
+    @Override
+    default Set<UShort> getNamespaceIndices() {
+        return Collections.singleton(getNamespaceIndex());
+    }
+
 }
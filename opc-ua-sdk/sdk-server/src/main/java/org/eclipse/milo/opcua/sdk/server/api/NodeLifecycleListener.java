@@ -0,0 +1,31 @@
+/*
+ * Copyright (c) 2019 the Eclipse Milo Authors
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.milo.opcua.sdk.server.api;
+
+import org.eclipse.milo.opcua.sdk.server.api.nodes.Node;
+
+public interface NodeLifecycleListener<T extends Node> {
+
+    /**
+     * {@code node} was added to a {@link NodeManager}.
+     *
+     * @param node the {@link Node} that was added.
+     */
+    default void onNodeAdded(T node) {}
+
+    /**
+     * {@code node} was removed from a {@link NodeManager}.
+     *
+     * @param node the {@link Node} that was removed.
+     */
+    default void onNodeRemoved(T node) {}
+
+}
@@ -12,6 +12,7 @@ package org.eclipse.milo.opcua.sdk.server.api;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.function.Predicate;
 import javax.annotation.Nullable;
 
@@ -139,6 +140,23 @@ public interface NodeManager<T extends Node> {
      */
     List<Reference> getReferences(NodeId nodeId, Predicate<Reference> filter);
 
+    /**
+     * Get all {@link Reference}s that have {@code nodeId} as their source {@link NodeId} and a ReferenceType in
+     * {@code referenceTypeIds}.
+     * <p>
+     * Implementations that index References by ReferenceType can answer this without examining every Reference of
+     * the Node.
+     *
+     * @param nodeId           the source {@link NodeId}.
+     * @param referenceTypeIds the {@link NodeId}s of the ReferenceTypes to include. Subtypes are not included unless
+     *                         they are also in this set.
+     * @return all {@link Reference}s that have {@code nodeId} as their source {@link NodeId} and a ReferenceType in
+     * {@code referenceTypeIds}.
+     */
+    default List<Reference> getReferences(NodeId nodeId, Set<NodeId> referenceTypeIds) {
+        return getReferences(nodeId, r -> referenceTypeIds.contains(r.getReferenceTypeId()));
+    }
+
     /**
      * Return {@code true} if this {@link NodeManager} contains {@code node}.
      *
@@ -107,6 +107,7 @@ public interface OpcUaServerConfig extends UaStackServerConfig {
         builder.setHttpsKeyPair(config.getHttpsKeyPair().orElse(null));
         builder.setHttpsCertificate(config.getHttpsCertificate().orElse(null));
         builder.setExecutor(config.getExecutor());
+        builder.setParallelDecodingEnabled(config.isParallelDecodingEnabled());
 
         // OpcUaServerConfig values
         builder.setIdentityValidator(config.getIdentityValidator());
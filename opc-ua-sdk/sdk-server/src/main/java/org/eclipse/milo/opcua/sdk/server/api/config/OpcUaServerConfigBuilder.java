@@ -120,6 +120,12 @@ public class OpcUaServerConfigBuilder extends UaStackServerConfigBuilder {
         return this;
     }
 
+    @Override
+    public OpcUaServerConfigBuilder setParallelDecodingEnabled(boolean parallelDecodingEnabled) {
+        super.setParallelDecodingEnabled(parallelDecodingEnabled);
+        return this;
+    }
+
     @Override
     public OpcUaServerConfigBuilder setMessageLimits(MessageLimits messageLimits) {
         super.setMessageLimits(messageLimits);
@@ -229,6 +235,11 @@ public class OpcUaServerConfigBuilder extends UaStackServerConfigBuilder {
             return stackServerConfig.getExecutor();
         }
 
+        @Override
+        public boolean isParallelDecodingEnabled() {
+            return stackServerConfig.isParallelDecodingEnabled();
+        }
+
         @Override
         public MessageLimits getMessageLimits() {
             return stackServerConfig.getMessageLimits();
@@ -30,6 +30,17 @@ public interface OpcUaServerConfigLimits {
         return uint(100);
     }
 
+    /**
+     * Get the maximum number of nodes a session can have registered with the RegisterNodes service at any given time.
+     * <p>
+     * Once a session has this many nodes registered, RegisterNodes returns the NodeIds of further nodes unchanged.
+     *
+     * @return the maximum number of nodes a session can have registered at any given time.
+     */
+    default UInteger getMaxRegisteredNodesPerSession() {
+        return uint(10_000);
+    }
+
     /**
      * Get the minimum allowed publishing interval.
      *
@@ -79,6 +90,58 @@ public interface OpcUaServerConfigLimits {
         return (double) TimeUnit.MILLISECONDS.convert(24, TimeUnit.HOURS);
     }
 
+    /**
+     * Get the maximum number of bytes a Subscription may use to keep unacknowledged NotificationMessages for
+     * Republish.
+     * <p>
+     * When this limit is reached the oldest unacknowledged messages of the Subscription are discarded.
+     *
+     * @return the maximum number of bytes a Subscription may use to keep unacknowledged NotificationMessages.
+     */
+    default Long getMaxRetransmissionQueueBytesPerSubscription() {
+        return 16L * 1024 * 1024;
+    }
+
+    /**
+     * Get the number of most recently sent NotificationMessages a Subscription keeps as is while they're
+     * unacknowledged.
+     * <p>
+     * Clients usually keep several PublishRequests outstanding, so a message is typically acknowledged a few messages
+     * after it was sent. Only messages still unacknowledged after this many newer ones were sent are encoded to keep
+     * them off the heap.
+     *
+     * @return the number of unacknowledged NotificationMessages a Subscription keeps without encoding them.
+     */
+    default Integer getMaxUnencodedRetransmissionMessages() {
+        return 10;
+    }
+
+    /**
+     * Get the maximum number of bytes all Subscriptions combined may use to keep unacknowledged NotificationMessages
+     * for Republish.
+     * <p>
+     * When this limit is reached a Subscription discards its oldest unacknowledged messages to make room for new
+     * ones.
+     *
+     * @return the maximum number of bytes all Subscriptions may use to keep unacknowledged NotificationMessages.
+     */
+    default Long getMaxRetransmissionQueueBytes() {
+        return 256L * 1024 * 1024;
+    }
+
+    /**
+     * Get the resolution of publishing timers, in milliseconds.
+     * <p>
+     * The publishing timers of Subscriptions with the same publishing interval elapse together if they're due within
+     * this long of each other, so a Subscription's first timer may elapse up to this much later than one publishing
+     * interval after it was created.
+     *
+     * @return the resolution of publishing timers, in milliseconds.
+     */
+    default Double getPublishingTimerResolution() {
+        return 10.0;
+    }
+
     default Double getMaxSupportedSampleRate() {
         return (double) TimeUnit.MILLISECONDS.convert(24, TimeUnit.HOURS);
     }
@@ -17,6 +17,7 @@ import org.eclipse.milo.opcua.sdk.server.DiagnosticsContext;
 import org.eclipse.milo.opcua.sdk.server.OpcUaServer;
 import org.eclipse.milo.opcua.sdk.server.Session;
 import org.eclipse.milo.opcua.sdk.server.api.ServiceOperationContext;
+import org.eclipse.milo.opcua.sdk.server.nodes.UaServerNode;
 import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
 import org.eclipse.milo.opcua.stack.core.types.builtin.StatusCode;
 import org.eclipse.milo.opcua.stack.core.types.enumerated.TimestampsToReturn;
@@ -50,6 +51,47 @@ public interface AttributeServices {
      */
     void write(WriteContext context, List<WriteValue> writeValues);
 
+    /**
+     * Read one or more values from nodes belonging to this {@link AttributeServices} that a Session registered with
+     * the RegisterNodes service.
+     * <p>
+     * {@code nodes} holds the node each {@link ReadValueId} was resolved to when it was registered, or {@code null}
+     * if it wasn't resolved to a managed node, in which case it has to be looked up like in {@code read}.
+     * <p>
+     * The default implementation ignores {@code nodes} and calls
+     * {@link #read(ReadContext, Double, TimestampsToReturn, List)}.
+     *
+     * @param context      the {@link ReadContext}.
+     * @param maxAge       requested max age.
+     * @param timestamps   requested timestamp values.
+     * @param readValueIds the values to read.
+     * @param nodes        the registered node for each of {@code readValueIds}.
+     */
+    default void readRegistered(
+        ReadContext context,
+        Double maxAge,
+        TimestampsToReturn timestamps,
+        List<ReadValueId> readValueIds,
+        List<UaServerNode> nodes) {
+
+        read(context, maxAge, timestamps, readValueIds);
+    }
+
+    /**
+     * Write one or more values to nodes belonging to this {@link AttributeServices} that a Session registered with
+     * the RegisterNodes service.
+     * <p>
+     * The default implementation ignores {@code nodes} and calls {@link #write(WriteContext, List)}.
+     *
+     * @param context     the {@link WriteContext}.
+     * @param writeValues the values to write.
+     * @param nodes       the registered node for each of {@code writeValues}.
+     * @see #readRegistered(ReadContext, Double, TimestampsToReturn, List, List)
+     */
+    default void writeRegistered(WriteContext context, List<WriteValue> writeValues, List<UaServerNode> nodes) {
+        write(context, writeValues);
+    }
+
     final class ReadContext extends ServiceOperationContext<ReadValueId, DataValue> {
 
         public ReadContext(OpcUaServer server, @Nullable Session session) {
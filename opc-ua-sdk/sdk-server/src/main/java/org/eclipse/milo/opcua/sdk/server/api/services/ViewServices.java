@@ -12,6 +12,7 @@ package org.eclipse.milo.opcua.sdk.server.api.services;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import javax.annotation.Nullable;
 
 import org.eclipse.milo.opcua.sdk.core.Reference;
@@ -77,11 +78,22 @@ public interface ViewServices {
     final class BrowseContext extends AsyncOperationContext<List<Reference>> implements AccessContext {
 
         private final Session session;
+        private final Set<NodeId> referenceTypeIds;
 
         public BrowseContext(OpcUaServer server, @Nullable Session session) {
+            this(server, session, null);
+        }
+
+        /**
+         * @param server           the {@link OpcUaServer}.
+         * @param session          the {@link Session}, if there is one.
+         * @param referenceTypeIds the ReferenceTypes the caller will keep, or {@code null} if it keeps all of them.
+         */
+        public BrowseContext(OpcUaServer server, @Nullable Session session, @Nullable Set<NodeId> referenceTypeIds) {
             super(server);
 
             this.session = session;
+            this.referenceTypeIds = referenceTypeIds;
         }
 
         @Override
@@ -89,6 +101,19 @@ public interface ViewServices {
             return Optional.ofNullable(session);
         }
 
+        /**
+         * Get the ReferenceTypes the caller will keep, if it filters by ReferenceType.
+         * <p>
+         * This is a hint: an AddressSpace may use it to avoid collecting References that would be discarded anyway
+         * (see {@link org.eclipse.milo.opcua.sdk.server.api.NodeManager#getReferences(NodeId, Set)}), but returning
+         * References of other types is not an error.
+         *
+         * @return the {@link NodeId}s of the ReferenceTypes the caller will keep, if it filters by ReferenceType.
+         */
+        public Optional<Set<NodeId>> getReferenceTypeIds() {
+            return Optional.ofNullable(referenceTypeIds);
+        }
+
     }
 
 }
@@ -13,12 +13,15 @@ package org.eclipse.milo.opcua.sdk.server.items;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import javax.annotation.Nullable;
 
 import com.google.common.primitives.Ints;
 import org.eclipse.milo.opcua.sdk.server.OpcUaServer;
 import org.eclipse.milo.opcua.sdk.server.Session;
 import org.eclipse.milo.opcua.sdk.server.api.MonitoredItem;
-import org.eclipse.milo.opcua.sdk.server.util.RingBuffer;
+import org.eclipse.milo.opcua.sdk.server.util.MonitoredItemQueue;
 import org.eclipse.milo.opcua.stack.core.UaException;
 import org.eclipse.milo.opcua.stack.core.serialization.UaStructure;
 import org.eclipse.milo.opcua.stack.core.types.builtin.ExtensionObject;
@@ -29,12 +32,19 @@ import org.eclipse.milo.opcua.stack.core.types.structured.ReadValueId;
 
 public abstract class BaseMonitoredItem<T> implements MonitoredItem {
 
-    private static final int MAX_QUEUE_SIZE = 0xFFFF;
+    private static final int MAX_QUEUE_SIZE = MonitoredItemQueue.MAX_SIZE;
 
     protected volatile Map<UInteger, BaseMonitoredItem<?>> triggeredItems;
     protected volatile boolean triggered = false;
 
-    protected volatile RingBuffer<T> queue;
+    /**
+     * Values are added by the thread sampling this item, which must hold this item's lock, and removed without it
+     * by the thread publishing its notifications.
+     */
+    protected volatile MonitoredItemQueue<T> queue;
+
+    private final AtomicBoolean ready = new AtomicBoolean(false);
+    private volatile Consumer<BaseMonitoredItem<?>> readyListener;
 
     protected volatile long clientHandle;
     protected volatile int queueSize;
@@ -75,7 +85,7 @@ public abstract class BaseMonitoredItem<T> implements MonitoredItem {
 
         setQueueSize(queueSize);
 
-        queue = new RingBuffer<>(this.queueSize);
+        queue = new MonitoredItemQueue<>(this.queueSize);
     }
 
     protected void setQueueSize(UInteger queueSize) {
@@ -85,12 +95,12 @@ public abstract class BaseMonitoredItem<T> implements MonitoredItem {
         this.queueSize = qs;
     }
 
-    public synchronized boolean getNotifications(List<UaStructure> notifications, int max) {
-        int queueSize = queue.size();
-        int count = Math.min(queueSize, max);
+    public boolean getNotifications(List<UaStructure> notifications, int max) {
+        MonitoredItemQueue<T> queue = this.queue;
 
-        for (int i = 0; i < count; i++) {
-            notifications.add(wrapQueueValue(queue.remove()));
+        T value;
+        for (int i = 0; i < max && (value = queue.poll()) != null; i++) {
+            notifications.add(wrapQueueValue(value));
         }
 
         boolean queueIsEmpty = queue.isEmpty();
@@ -102,8 +112,8 @@ public abstract class BaseMonitoredItem<T> implements MonitoredItem {
         return queueIsEmpty;
     }
 
-    public synchronized boolean hasNotifications() {
-        return (queue.size() > 0 && monitoringMode == MonitoringMode.Reporting);
+    public boolean hasNotifications() {
+        return (!queue.isEmpty() && monitoringMode == MonitoringMode.Reporting);
     }
 
     public synchronized void modify(TimestampsToReturn timestamps,
@@ -123,15 +133,21 @@ public abstract class BaseMonitoredItem<T> implements MonitoredItem {
         if (queueSize.intValue() != this.queueSize) {
             setQueueSize(queueSize);
 
-            RingBuffer<T> oldQueue = queue;
-            queue = new RingBuffer<>(this.queueSize);
+            MonitoredItemQueue<T> oldQueue = queue;
+            queue = new MonitoredItemQueue<>(this.queueSize);
 
-            while (oldQueue.size() > 0) {
-                enqueue(oldQueue.remove());
+            T value;
+            while ((value = oldQueue.poll()) != null) {
+                enqueue(value);
             }
         }
     }
 
+    /**
+     * Add a value to the queue, discarding a value if it's full. Must be called while holding this item's lock.
+     *
+     * @param value the value to add.
+     */
     protected abstract void enqueue(T value);
 
     public void setMonitoringMode(MonitoringMode monitoringMode) {
@@ -139,9 +155,61 @@ public abstract class BaseMonitoredItem<T> implements MonitoredItem {
 
         if (monitoringMode == MonitoringMode.Disabled) {
             queue.clear();
+        } else if (!queue.isEmpty()) {
+            notifyReady();
+        }
+    }
+
+    /**
+     * Set the listener notified when this item may have notifications to report.
+     * <p>
+     * The listener is notified at most once until {@link #resetReady()} is called, and is notified immediately if
+     * this item already has notifications to report.
+     *
+     * @param readyListener the listener to notify, or {@code null} to stop notifying.
+     */
+    public void setReadyListener(@Nullable Consumer<BaseMonitoredItem<?>> readyListener) {
+        this.readyListener = readyListener;
+
+        if (readyListener != null && (hasNotifications() || isTriggered())) {
+            notifyReady();
+        }
+    }
+
+    /**
+     * Allow the ready listener to be notified again.
+     * <p>
+     * Must be called before checking {@link #hasNotifications()} and {@link #isTriggered()} so that notifications
+     * queued after the check aren't missed.
+     */
+    public void resetReady() {
+        ready.set(false);
+    }
+
+    /**
+     * Notify the ready listener, if this item is reporting or triggered and the listener hasn't been notified
+     * since the last {@link #resetReady()}.
+     */
+    protected void notifyReady() {
+        Consumer<BaseMonitoredItem<?>> listener = readyListener;
+
+        if (listener != null &&
+            (monitoringMode == MonitoringMode.Reporting || triggered) &&
+            ready.compareAndSet(false, true)) {
+
+            listener.accept(this);
         }
     }
 
+    /**
+     * Mark this item as triggered by a linked triggering item.
+     */
+    protected void trigger() {
+        triggered = true;
+
+        notifyReady();
+    }
+
     public Session getSession() {
         return session;
     }
@@ -196,7 +264,7 @@ public abstract class BaseMonitoredItem<T> implements MonitoredItem {
         return triggeredItems;
     }
 
-    public synchronized boolean isTriggered() {
+    public boolean isTriggered() {
         return triggered;
     }
 
@@ -10,10 +10,17 @@
 
 package org.eclipse.milo.opcua.sdk.server.items;
 
+import java.util.function.UnaryOperator;
+
 import org.eclipse.milo.opcua.sdk.server.OpcUaServer;
 import org.eclipse.milo.opcua.sdk.server.Session;
 import org.eclipse.milo.opcua.sdk.server.api.DataItem;
+import org.eclipse.milo.opcua.sdk.server.api.nodes.VariableNode;
+import org.eclipse.milo.opcua.sdk.server.model.types.variables.AnalogItemType;
+import org.eclipse.milo.opcua.sdk.server.nodes.UaNode;
+import org.eclipse.milo.opcua.sdk.server.util.AggregateMonitoringFilter;
 import org.eclipse.milo.opcua.sdk.server.util.DataChangeMonitoringFilter;
+import org.eclipse.milo.opcua.sdk.server.util.DeadbandComparator;
 import org.eclipse.milo.opcua.stack.core.AttributeId;
 import org.eclipse.milo.opcua.stack.core.StatusCodes;
 import org.eclipse.milo.opcua.stack.core.UaException;
@@ -29,10 +36,12 @@ import org.eclipse.milo.opcua.stack.core.types.enumerated.DeadbandType;
 import org.eclipse.milo.opcua.stack.core.types.enumerated.MonitoringMode;
 import org.eclipse.milo.opcua.stack.core.types.enumerated.TimestampsToReturn;
 import org.eclipse.milo.opcua.stack.core.types.structured.AggregateFilter;
+import org.eclipse.milo.opcua.stack.core.types.structured.AggregateFilterResult;
 import org.eclipse.milo.opcua.stack.core.types.structured.DataChangeFilter;
 import org.eclipse.milo.opcua.stack.core.types.structured.EventFilter;
 import org.eclipse.milo.opcua.stack.core.types.structured.MonitoredItemNotification;
 import org.eclipse.milo.opcua.stack.core.types.structured.MonitoringFilter;
+import org.eclipse.milo.opcua.stack.core.types.structured.Range;
 import org.eclipse.milo.opcua.stack.core.types.structured.ReadValueId;
 
 import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.uint;
@@ -47,8 +56,22 @@ public class MonitoredDataItem extends BaseMonitoredItem<DataValue> implements D
 
     private volatile DataValue lastValue = null;
     private volatile DataChangeFilter filter = null;
+    private volatile DeadbandType deadbandType = null;
+    private volatile DeadbandComparator deadbandComparator = null;
     private volatile ExtensionObject filterResult = null;
 
+    private final UnaryOperator<DataValue> overflow = this::overflow;
+
+    private volatile AggregateMonitoringFilter aggregate = null;
+
+    /**
+     * The EURange Property of the monitored node if a Percent deadband is installed, and the value and span it had
+     * when last read. The span is recalculated whenever the Property's value changes.
+     */
+    private volatile VariableNode euRangeNode = null;
+    private DataValue euRangeValue = null;
+    private double euRangeSpan = Double.NaN;
+
     public MonitoredDataItem(
         OpcUaServer server,
         Session session,
@@ -70,41 +93,96 @@ public class MonitoredDataItem extends BaseMonitoredItem<DataValue> implements D
     }
 
     @Override
-    public synchronized void setValue(DataValue value) {
-        boolean valuePassesFilter = DataChangeMonitoringFilter.filter(lastValue, value, filter);
+    public void setValue(DataValue value) {
+        setValue(value, System.currentTimeMillis());
+    }
 
-        if (valuePassesFilter) {
-            lastValue = value;
+    /**
+     * Set the latest sampled value.
+     *
+     * @param value the latest sampled value.
+     * @param time  the time {@code value} was sampled, in milliseconds since the Java epoch.
+     */
+    synchronized void setValue(DataValue value, long time) {
+        AggregateMonitoringFilter aggregate = this.aggregate;
+
+        if (aggregate != null) {
+            aggregate.accumulate(value, time, this::reportAggregate);
+        } else {
+            double deadband = deadbandComparator != null ?
+                DataChangeMonitoringFilter.deadband(deadbandType, filter.getDeadbandValue(), euRangeSpan()) :
+                Double.NaN;
 
-            enqueue(value);
+            boolean valuePassesFilter = DataChangeMonitoringFilter.filter(
+                lastValue, value, filter.getTrigger(), deadbandComparator, deadband);
 
-            if (triggeredItems != null) {
-                triggeredItems.values().forEach(item -> item.triggered = true);
+            if (valuePassesFilter) {
+                report(value);
             }
         }
     }
 
     @Override
-    protected synchronized void enqueue(DataValue value) {
-        if (queue.size() < queue.maxSize()) {
-            queue.add(value);
-        } else {
-            if (getQueueSize() > 1) {
-                /* Set overflow if queueSize > 1... */
-                value = value.withStatus(value.getStatusCode().withOverflow());
-            } else if (value.getStatusCode().isOverflowSet()) {
-                /* But make sure it's clear otherwise. */
-                value = value.withStatus(value.getStatusCode().withoutOverflow());
-            }
+    public void onSamplingTick(long time) {
+        if (aggregate == null) return;
 
-            if (discardOldest) {
-                queue.add(value);
-            } else {
-                queue.set(queue.maxSize() - 1, value);
+        synchronized (this) {
+            AggregateMonitoringFilter aggregate = this.aggregate;
+
+            if (aggregate != null) {
+                aggregate.close(time, this::reportAggregate);
             }
         }
     }
 
+    private void reportAggregate(DataValue value) {
+        report(DataValue.derivedValue(value, timestamps));
+    }
+
+    private void report(DataValue value) {
+        lastValue = value;
+
+        enqueue(value);
+
+        if (triggeredItems != null) {
+            triggeredItems.values().forEach(BaseMonitoredItem::trigger);
+        }
+    }
+
+    private double euRangeSpan() {
+        VariableNode node = euRangeNode;
+
+        if (node == null) return Double.NaN;
+
+        DataValue value = node.getValue();
+
+        if (value != euRangeValue) {
+            euRangeValue = value;
+            euRangeSpan = span(value);
+        }
+
+        return euRangeSpan;
+    }
+
+    @Override
+    protected synchronized void enqueue(DataValue value) {
+        queue.add(value, discardOldest, overflow);
+
+        notifyReady();
+    }
+
+    private DataValue overflow(DataValue value) {
+        if (getQueueSize() > 1) {
+            /* Set overflow if queueSize > 1... */
+            return value.withStatus(value.getStatusCode().withOverflow());
+        } else if (value.getStatusCode().isOverflowSet()) {
+            /* But make sure it's clear otherwise. */
+            return value.withStatus(value.getStatusCode().withoutOverflow());
+        } else {
+            return value;
+        }
+    }
+
     @Override
     public synchronized void setQuality(StatusCode quality) {
         if (lastValue == null) {
@@ -129,6 +207,10 @@ public class MonitoredDataItem extends BaseMonitoredItem<DataValue> implements D
     public synchronized void setMonitoringMode(MonitoringMode monitoringMode) {
         if (monitoringMode == MonitoringMode.Disabled) {
             lastValue = null;
+
+            if (aggregate != null) {
+                aggregate.reset();
+            }
         }
 
         super.setMonitoringMode(monitoringMode);
@@ -139,35 +221,102 @@ public class MonitoredDataItem extends BaseMonitoredItem<DataValue> implements D
     }
 
     @Override
-    protected void installFilter(ExtensionObject filterXo) throws UaException {
-        if (filterXo == null || filterXo.isNull()) {
-            this.filter = DEFAULT_FILTER;
-        } else {
+    protected synchronized void installFilter(ExtensionObject filterXo) throws UaException {
+        DataChangeFilter filter = DEFAULT_FILTER;
+        DeadbandType deadbandType = DeadbandType.None;
+        DeadbandComparator deadbandComparator = null;
+        AggregateMonitoringFilter aggregate = null;
+        ExtensionObject filterResult = null;
+        VariableNode euRangeNode = null;
+
+        if (filterXo != null && !filterXo.isNull()) {
             Object filterObject = filterXo.decode();
 
             if (filterObject instanceof MonitoringFilter) {
                 if (filterObject instanceof DataChangeFilter) {
-                    this.filter = ((DataChangeFilter) filterObject);
+                    filter = ((DataChangeFilter) filterObject);
 
-                    DeadbandType deadbandType = DeadbandType.from(filter.getDeadbandType().intValue());
+                    deadbandType = DeadbandType.from(filter.getDeadbandType().intValue());
 
                     if (deadbandType == null) {
                         throw new UaException(StatusCodes.Bad_DeadbandFilterInvalid);
                     }
 
-                    if (deadbandType == DeadbandType.Percent) {
-                        // Percent deadband is not currently implemented
-                        throw new UaException(StatusCodes.Bad_MonitoredItemFilterUnsupported);
-                    }
-
-                    if (deadbandType == DeadbandType.Absolute &&
+                    if (deadbandType != DeadbandType.None &&
                         !AttributeId.Value.isEqual(getReadValueId().getAttributeId())) {
 
-                        // Absolute deadband is only allowed for Value attributes
+                        // Deadbands are only allowed for Value attributes
                         throw new UaException(StatusCodes.Bad_FilterNotAllowed);
                     }
+
+                    if (deadbandType != DeadbandType.None) {
+                        UaNode node = server.getAddressSpaceManager()
+                            .getManagedNode(getReadValueId().getNodeId())
+                            .orElse(null);
+
+                        // compare values the way the Variable's DataType and ValueRank say they'll look
+                        if (node instanceof VariableNode) {
+                            deadbandComparator = DeadbandComparator.of(
+                                ((VariableNode) node).getDataType(),
+                                ((VariableNode) node).getValueRank()
+                            );
+                        } else {
+                            deadbandComparator = DeadbandComparator.GENERIC;
+                        }
+
+                        if (deadbandType == DeadbandType.Percent) {
+                            double deadbandValue = filter.getDeadbandValue();
+
+                            if (!(deadbandValue >= 0.0 && deadbandValue <= 100.0)) {
+                                throw new UaException(StatusCodes.Bad_DeadbandFilterInvalid);
+                            }
+
+                            // Percent deadband is only allowed for AnalogItems, i.e. nodes with an EURange
+                            euRangeNode = node != null ?
+                                node.getPropertyNode(AnalogItemType.E_U_RANGE).orElse(null) : null;
+
+                            if (euRangeNode == null) {
+                                throw new UaException(StatusCodes.Bad_FilterNotAllowed);
+                            }
+                        }
+                    }
                 } else if (filterObject instanceof AggregateFilter) {
-                    throw new UaException(StatusCodes.Bad_MonitoredItemFilterUnsupported);
+                    AggregateFilter aggregateFilter = (AggregateFilter) filterObject;
+
+                    if (!AttributeId.Value.isEqual(getReadValueId().getAttributeId())) {
+                        throw new UaException(StatusCodes.Bad_FilterNotAllowed);
+                    }
+
+                    if (!AggregateMonitoringFilter.isSupported(aggregateFilter.getAggregateType())) {
+                        throw new UaException(StatusCodes.Bad_AggregateNotSupported);
+                    }
+
+                    Double processingInterval = aggregateFilter.getProcessingInterval();
+
+                    // a processing interval of 0 (or less) means "use the sampling interval"
+                    double revisedProcessingInterval = processingInterval != null && processingInterval > 0 ?
+                        Math.max(processingInterval, samplingInterval) : samplingInterval;
+
+                    if (!(revisedProcessingInterval > 0)) {
+                        throw new UaException(StatusCodes.Bad_MonitoredItemFilterInvalid);
+                    }
+
+                    DateTime startTime = aggregateFilter.getStartTime();
+
+                    DateTime revisedStartTime = startTime == null || startTime.isNull() ?
+                        DateTime.now() : startTime;
+
+                    aggregate = new AggregateMonitoringFilter(
+                        aggregateFilter.getAggregateType(),
+                        revisedStartTime.getJavaTime(),
+                        revisedProcessingInterval
+                    );
+
+                    filterResult = ExtensionObject.encode(new AggregateFilterResult(
+                        revisedStartTime,
+                        revisedProcessingInterval,
+                        aggregateFilter.getAggregateConfiguration()
+                    ));
                 } else if (filterObject instanceof EventFilter) {
                     throw new UaException(StatusCodes.Bad_FilterNotAllowed);
                 }
@@ -175,6 +324,15 @@ public class MonitoredDataItem extends BaseMonitoredItem<DataValue> implements D
                 throw new UaException(StatusCodes.Bad_MonitoredItemFilterInvalid);
             }
         }
+
+        this.filter = filter;
+        this.deadbandType = deadbandType;
+        this.deadbandComparator = deadbandComparator;
+        this.aggregate = aggregate;
+        this.filterResult = filterResult;
+        this.euRangeNode = euRangeNode;
+        this.euRangeValue = null;
+        this.euRangeSpan = Double.NaN;
     }
 
     @Override
@@ -225,4 +383,26 @@ public class MonitoredDataItem extends BaseMonitoredItem<DataValue> implements D
         return new MonitoredItemNotification(uint(getClientHandle()), value);
     }
 
+    /**
+     * @return the span (high - low) of the EURange in {@code value}, or {@link Double#NaN} if it isn't a valid Range.
+     */
+    private static double span(DataValue value) {
+        Object o = value != null ? value.getValue().getValue() : null;
+
+        if (o instanceof ExtensionObject) {
+            o = ((ExtensionObject) o).decodeOrNull();
+        }
+
+        if (o instanceof Range) {
+            Double low = ((Range) o).getLow();
+            Double high = ((Range) o).getHigh();
+
+            if (low != null && high != null && high >= low) {
+                return high - low;
+            }
+        }
+
+        return Double.NaN;
+    }
+
 }
@@ -15,6 +15,7 @@ import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.UnaryOperator;
 import javax.annotation.Nonnull;
 
 import org.eclipse.milo.opcua.sdk.server.OpcUaServer;
@@ -61,6 +62,7 @@ public class MonitoredEventItem extends BaseMonitoredItem<Variant[]> implements
     private volatile boolean filterResultGood;
 
     private final AtomicBoolean eventOverflow = new AtomicBoolean(false);
+    private final UnaryOperator<Variant[]> overflow = this::overflow;
 
     private final FilterContext filterContext;
 
@@ -135,23 +137,21 @@ public class MonitoredEventItem extends BaseMonitoredItem<Variant[]> implements
 
     @Override
     protected synchronized void enqueue(Variant[] value) {
-        if (queue.size() < queue.maxSize()) {
-            queue.add(value);
-        } else {
-            if (getQueueSize() > 1) {
-                eventOverflow.set(true);
-            }
+        queue.add(value, discardOldest, overflow);
 
-            if (discardOldest) {
-                queue.add(value);
-            } else {
-                queue.set(queue.maxSize() - 1, value);
-            }
+        notifyReady();
+    }
+
+    private Variant[] overflow(Variant[] value) {
+        if (getQueueSize() > 1) {
+            eventOverflow.set(true);
         }
+
+        return value;
     }
 
     @Override
-    public synchronized boolean getNotifications(List<UaStructure> notifications, int max) {
+    public boolean getNotifications(List<UaStructure> notifications, int max) {
         if (eventOverflow.compareAndSet(true, false)) {
             Variant[] eventFields = generateOverflowEventFields();
 
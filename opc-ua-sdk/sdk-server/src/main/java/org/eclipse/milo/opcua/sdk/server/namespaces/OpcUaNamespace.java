@@ -139,7 +139,7 @@ public class OpcUaNamespace extends ManagedNamespace {
         try {
             long startTime = System.nanoTime();
 
-            new UaNodeLoader(getNodeContext(), getNodeManager()).loadNodes();
+            new UaNodeLoader(getNodeContext(), getNodeManager()).loadNodes(server.getExecutorService());
 
             long endTime = System.nanoTime();
             long deltaMs = TimeUnit.MILLISECONDS.convert(endTime - startTime, TimeUnit.NANOSECONDS);
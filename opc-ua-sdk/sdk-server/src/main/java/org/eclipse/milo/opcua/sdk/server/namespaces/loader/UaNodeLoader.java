@@ -10,6 +10,12 @@
 
 package org.eclipse.milo.opcua.sdk.server.namespaces.loader;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
 import org.eclipse.milo.opcua.sdk.server.api.NodeManager;
 import org.eclipse.milo.opcua.sdk.server.nodes.UaNode;
 import org.eclipse.milo.opcua.sdk.server.nodes.UaNodeContext;
@@ -25,14 +31,64 @@ public class UaNodeLoader {
     }
 
     public void loadNodes() throws Exception {
-        new UaDataTypeLoader(context, nodeManager).buildNodes();
-        new UaMethodLoader(context, nodeManager).buildNodes();
-        new UaObjectLoader(context, nodeManager).buildNodes();
-        new UaObjectTypeLoader(context, nodeManager).buildNodes();
-        new UaReferenceTypeLoader(context, nodeManager).buildNodes();
-        new UaVariableLoader(context, nodeManager).buildNodes();
-        new UaVariableTypeLoader(context, nodeManager).buildNodes();
-        new UaViewLoader(context, nodeManager).buildNodes();
+        for (Loader loader : loaders()) {
+            loader.load();
+        }
+    }
+
+    /**
+     * Load the nodes, running each loader in parallel on {@code executor}.
+     * <p>
+     * The loaders are independent of each other and only add nodes and references to the {@link NodeManager}, which
+     * is safe to do concurrently.
+     *
+     * @param executor the {@link Executor} to run the loaders on.
+     * @throws Exception if any loader fails, once all loaders are done.
+     */
+    public void loadNodes(Executor executor) throws Exception {
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+
+        for (Loader loader : loaders()) {
+            futures.add(CompletableFuture.runAsync(() -> {
+                try {
+                    loader.load();
+                } catch (Exception e) {
+                    throw new CompletionException(e);
+                }
+            }, executor));
+        }
+
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            } else {
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * @return the loaders, largest first, so the largest starts first when run in parallel.
+     */
+    private Loader[] loaders() {
+        return new Loader[]{
+            () -> new UaVariableLoader(context, nodeManager).buildNodes(),
+            () -> new UaObjectLoader(context, nodeManager).buildNodes(),
+            () -> new UaMethodLoader(context, nodeManager).buildNodes(),
+            () -> new UaDataTypeLoader(context, nodeManager).buildNodes(),
+            () -> new UaObjectTypeLoader(context, nodeManager).buildNodes(),
+            () -> new UaVariableTypeLoader(context, nodeManager).buildNodes(),
+            () -> new UaReferenceTypeLoader(context, nodeManager).buildNodes(),
+            () -> new UaViewLoader(context, nodeManager).buildNodes()
+        };
+    }
+
+    private interface Loader {
+        void load() throws Exception;
     }
 
 }
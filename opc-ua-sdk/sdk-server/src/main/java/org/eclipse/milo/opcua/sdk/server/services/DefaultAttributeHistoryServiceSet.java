@@ -119,6 +119,7 @@ public class DefaultAttributeHistoryServiceSet implements AttributeHistoryServic
                 server.getConfig().getEncodingLimits(),
                 OpcUaDataTypeManager.getInstance()
             ))
+            .map(session.getRegisteredNodes()::resolve)
             .collect(Collectors.toList());
 
         if (historyUpdateDetailsList.isEmpty()) {
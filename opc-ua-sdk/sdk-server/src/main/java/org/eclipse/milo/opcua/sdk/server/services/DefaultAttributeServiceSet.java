@@ -73,7 +73,7 @@ public class DefaultAttributeServiceSet implements AttributeServiceSet {
 
         ReadContext context = new ReadContext(server, session, diagnosticsContext);
 
-        server.getAddressSpaceManager().read(
+        session.getRegisteredNodes().read(
             context,
             request.getMaxAge(),
             request.getTimestampsToReturn(),
@@ -125,7 +125,7 @@ public class DefaultAttributeServiceSet implements AttributeServiceSet {
             new DiagnosticsContext<>()
         );
 
-        server.getAddressSpaceManager().write(context, nodesToWrite);
+        session.getRegisteredNodes().write(context, nodesToWrite);
 
         context.getFuture().thenAccept(values -> {
             ResponseHeader header = service.createResponseHeader();
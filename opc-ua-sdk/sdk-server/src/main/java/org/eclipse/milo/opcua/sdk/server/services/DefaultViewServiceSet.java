@@ -17,6 +17,7 @@ import java.util.stream.Stream;
 
 import org.eclipse.milo.opcua.sdk.server.DiagnosticsContext;
 import org.eclipse.milo.opcua.sdk.server.OpcUaServer;
+import org.eclipse.milo.opcua.sdk.server.RegisteredNodes;
 import org.eclipse.milo.opcua.sdk.server.Session;
 import org.eclipse.milo.opcua.sdk.server.services.helpers.BrowseHelper;
 import org.eclipse.milo.opcua.sdk.server.services.helpers.BrowsePathsHelper;
@@ -129,9 +130,19 @@ public class DefaultViewServiceSet implements ViewServiceSet {
             throw new UaException(StatusCodes.Bad_TooManyOperations);
         }
 
+        Session session = service.attr(ServiceAttributes.SESSION_KEY).get();
+
+        RegisteredNodes registeredNodes = session.getRegisteredNodes();
+
+        NodeId[] registeredNodeIds = new NodeId[nodeIds.size()];
+
+        for (int i = 0; i < nodeIds.size(); i++) {
+            registeredNodeIds[i] = registeredNodes.register(nodeIds.get(i));
+        }
+
         service.setResponse(new RegisterNodesResponse(
             service.createResponseHeader(StatusCode.GOOD),
-            a(nodeIds, NodeId.class)
+            registeredNodeIds
         ));
     }
 
@@ -151,6 +162,10 @@ public class DefaultViewServiceSet implements ViewServiceSet {
             throw new UaException(StatusCodes.Bad_TooManyOperations);
         }
 
+        Session session = service.attr(ServiceAttributes.SESSION_KEY).get();
+
+        nodeIds.forEach(session.getRegisteredNodes()::unregister);
+
         service.setResponse(new UnregisterNodesResponse(service.createResponseHeader(StatusCode.GOOD)));
     }
 
@@ -12,8 +12,11 @@ package org.eclipse.milo.opcua.sdk.server.services.helpers;
 
 import java.util.Collections;
 import java.util.EnumSet;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 
 import com.google.common.collect.Lists;
@@ -26,6 +29,7 @@ import org.eclipse.milo.opcua.sdk.server.api.services.ViewServices.BrowseContext
 import org.eclipse.milo.opcua.sdk.server.services.ServiceAttributes;
 import org.eclipse.milo.opcua.stack.core.AttributeId;
 import org.eclipse.milo.opcua.stack.core.Identifiers;
+import org.eclipse.milo.opcua.stack.core.ReferenceType;
 import org.eclipse.milo.opcua.stack.core.Stack;
 import org.eclipse.milo.opcua.stack.core.StatusCodes;
 import org.eclipse.milo.opcua.stack.core.types.builtin.ByteString;
@@ -76,6 +80,8 @@ public class BrowseHelper {
     private static final StatusCode BAD_NO_CONTINUATION_POINTS =
         new StatusCode(StatusCodes.Bad_NoContinuationPoints);
 
+    private static final Set<NodeId> HAS_TYPE_DEFINITION = Collections.singleton(Identifiers.HasTypeDefinition);
+
     private static final BrowseResult NODE_ID_UNKNOWN_RESULT = new BrowseResult(
         new StatusCode(StatusCodes.Bad_NodeIdUnknown),
         ByteString.NULL_VALUE, new ReferenceDescription[0]);
@@ -114,6 +120,41 @@ public class BrowseHelper {
         return browse.browse();
     }
 
+    /**
+     * Resolve the set of ReferenceTypes a reference type filter matches.
+     *
+     * @param server          the {@link OpcUaServer} whose ReferenceTypes are used to resolve subtypes.
+     * @param referenceTypeId the ReferenceType to match. A null or null-valued NodeId matches any ReferenceType.
+     * @param includeSubtypes {@code true} if subtypes of {@code referenceTypeId} also match.
+     * @return the {@link NodeId}s of the matching ReferenceTypes, or {@code null} if any ReferenceType matches.
+     */
+    static Set<NodeId> referenceTypeIds(OpcUaServer server, NodeId referenceTypeId, boolean includeSubtypes) {
+        if (referenceTypeId == null || referenceTypeId.isNull()) return null;
+
+        Set<NodeId> referenceTypeIds = new HashSet<>();
+        referenceTypeIds.add(referenceTypeId);
+
+        if (includeSubtypes) {
+            Map<NodeId, ReferenceType> referenceTypes = server.getReferenceTypes();
+
+            for (ReferenceType referenceType : referenceTypes.values()) {
+                Optional<NodeId> superTypeId = referenceType.getSuperTypeId();
+
+                while (superTypeId.isPresent()) {
+                    if (superTypeId.get().equals(referenceTypeId)) {
+                        referenceTypeIds.add(referenceType.getNodeId());
+                        break;
+                    }
+
+                    ReferenceType superType = referenceTypes.get(superTypeId.get());
+                    superTypeId = superType != null ? superType.getSuperTypeId() : Optional.empty();
+                }
+            }
+        }
+
+        return referenceTypeIds;
+    }
+
     private static class Browse {
 
         private final CompletableFuture<BrowseResult> future = new CompletableFuture<>();
@@ -123,6 +164,7 @@ public class BrowseHelper {
         private final ViewDescription view;
         private final UInteger maxReferencesPerNode;
         private final BrowseDescription browseDescription;
+        private final Set<NodeId> referenceTypeIds;
 
         private Browse(AccessContext context,
                        OpcUaServer server,
@@ -135,6 +177,12 @@ public class BrowseHelper {
             this.view = view;
             this.browseDescription = browseDescription;
             this.maxReferencesPerNode = maxReferencesPerNode;
+
+            referenceTypeIds = referenceTypeIds(
+                server,
+                browseDescription.getReferenceTypeId(),
+                browseDescription.getIncludeSubtypes()
+            );
         }
 
         public CompletableFuture<BrowseResult> browse() {
@@ -142,7 +190,8 @@ public class BrowseHelper {
 
                 BrowseContext browseContext = new BrowseContext(
                     server,
-                    context.getSession().orElse(null)
+                    context.getSession().orElse(null),
+                    referenceTypeIds
                 );
 
                 server.getAddressSpaceManager().browse(browseContext, view, browseDescription.getNodeId());
@@ -222,13 +271,7 @@ public class BrowseHelper {
         }
 
         private boolean referenceTypeFilter(Reference reference) {
-            NodeId referenceTypeId = browseDescription.getReferenceTypeId();
-
-            boolean includeAny = referenceTypeId == null || referenceTypeId.isNull();
-            boolean includeSubtypes = browseDescription.getIncludeSubtypes();
-
-            return includeAny || reference.getReferenceTypeId().equals(referenceTypeId) ||
-                (includeSubtypes && reference.subtypeOf(referenceTypeId, server.getReferenceTypes()));
+            return referenceTypeIds == null || referenceTypeIds.contains(reference.getReferenceTypeId());
         }
 
         private boolean nodeClassFilter(ReferenceDescription referenceDescription) {
@@ -358,7 +401,7 @@ public class BrowseHelper {
 
         private CompletableFuture<ExpandedNodeId> getTypeDefinition(NodeId nodeId) {
             Optional<ExpandedNodeId> typeDefinitionId = server.getAddressSpaceManager()
-                .getManagedReferences(nodeId, Reference.HAS_TYPE_DEFINITION_PREDICATE)
+                .getManagedReferences(nodeId, HAS_TYPE_DEFINITION)
                 .stream()
                 .findFirst()
                 .map(Reference::getTargetNodeId);
@@ -369,7 +412,8 @@ public class BrowseHelper {
 
                 BrowseContext browseContext = new BrowseContext(
                     server,
-                    context.getSession().orElse(null)
+                    context.getSession().orElse(null),
+                    HAS_TYPE_DEFINITION
                 );
 
                 server.getAddressSpaceManager().browse(browseContext, nodeId);
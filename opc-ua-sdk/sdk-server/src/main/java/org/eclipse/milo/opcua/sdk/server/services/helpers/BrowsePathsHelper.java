@@ -13,6 +13,7 @@ package org.eclipse.milo.opcua.sdk.server.services.helpers;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 
 import org.eclipse.milo.opcua.sdk.core.Reference;
@@ -160,13 +161,17 @@ public class BrowsePathsHelper {
     }
 
     private CompletableFuture<ExpandedNodeId> next(NodeId nodeId, RelativePathElement element) {
-        NodeId referenceTypeId = element.getReferenceTypeId();
-        boolean includeSubtypes = element.getIncludeSubtypes();
+        Set<NodeId> referenceTypeIds = BrowseHelper.referenceTypeIds(
+            server,
+            element.getReferenceTypeId(),
+            element.getIncludeSubtypes()
+        );
         QualifiedName targetName = element.getTargetName();
 
         BrowseContext browseContext = new BrowseContext(
             server,
-            context.getSession().orElse(null)
+            context.getSession().orElse(null),
+            referenceTypeIds
         );
 
         server.getAddressSpaceManager().browse(browseContext, nodeId);
@@ -176,9 +181,7 @@ public class BrowsePathsHelper {
         return future.thenCompose(references -> {
             List<ExpandedNodeId> targetNodeIds = references.stream()
                 /* Filter for references of the requested type or its subtype, if allowed... */
-                .filter(r -> referenceTypeId.isNull() ||
-                    r.getReferenceTypeId().equals(referenceTypeId) ||
-                    (includeSubtypes && r.subtypeOf(referenceTypeId, server.getReferenceTypes())))
+                .filter(r -> referenceTypeIds == null || referenceTypeIds.contains(r.getReferenceTypeId()))
 
                 /* Filter for reference direction... */
                 .filter(r -> r.isInverse() == element.getIsInverse())
@@ -202,13 +205,17 @@ public class BrowsePathsHelper {
     }
 
     private CompletableFuture<List<ExpandedNodeId>> target(NodeId nodeId, RelativePathElement element) {
-        NodeId referenceTypeId = element.getReferenceTypeId();
-        boolean includeSubtypes = element.getIncludeSubtypes();
+        Set<NodeId> referenceTypeIds = BrowseHelper.referenceTypeIds(
+            server,
+            element.getReferenceTypeId(),
+            element.getIncludeSubtypes()
+        );
         QualifiedName targetName = element.getTargetName();
 
         BrowseContext browseContext = new BrowseContext(
             server,
-            context.getSession().orElse(null)
+            context.getSession().orElse(null),
+            referenceTypeIds
         );
 
         server.getAddressSpaceManager().browse(browseContext, nodeId);
@@ -218,9 +225,7 @@ public class BrowsePathsHelper {
         return future.thenCompose(references -> {
             List<ExpandedNodeId> targetNodeIds = references.stream()
                 /* Filter for references of the requested type or its subtype, if allowed... */
-                .filter(r -> referenceTypeId.isNull() ||
-                    r.getReferenceTypeId().equals(referenceTypeId) ||
-                    (includeSubtypes && r.subtypeOf(referenceTypeId, server.getReferenceTypes())))
+                .filter(r -> referenceTypeIds == null || referenceTypeIds.contains(r.getReferenceTypeId()))
 
                 /* Filter for reference direction... */
                 .filter(r -> r.isInverse() == element.getIsInverse())
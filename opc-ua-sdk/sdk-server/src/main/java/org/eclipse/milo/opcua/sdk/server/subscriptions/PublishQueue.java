@@ -10,26 +10,42 @@
 
 package org.eclipse.milo.opcua.sdk.server.subscriptions;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.Date;
-import java.util.LinkedHashMap;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
 import javax.annotation.Nullable;
 
-import com.google.common.collect.Lists;
 import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UInteger;
 import org.eclipse.milo.opcua.stack.core.types.structured.RequestHeader;
 import org.eclipse.milo.opcua.stack.server.services.ServiceRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Publish requests waiting for a Subscription to use them, and Subscriptions waiting for a Publish request.
+ * <p>
+ * Neither adding a request nor adding a Subscription blocks. Whichever is added second matches waiting
+ * Subscriptions, highest priority first and then in the order they started waiting, with queued requests, and
+ * delivers every match it made to its Subscription in a single task on the server's executor.
+ */
 public class PublishQueue {
 
+    private static final Comparator<WaitingSubscription> WAIT_ORDER = Comparator
+        .comparingInt((WaitingSubscription ws) -> -ws.priority)
+        .thenComparingLong(ws -> ws.sequence);
+
     private final Logger logger = LoggerFactory.getLogger(getClass());
 
-    private final LinkedList<ServiceRequest> serviceQueue = new LinkedList<>();
+    private final ConcurrentLinkedQueue<ServiceRequest> serviceQueue = new ConcurrentLinkedQueue<>();
+
+    private final ConcurrentSkipListSet<WaitingSubscription> waitList = new ConcurrentSkipListSet<>(WAIT_ORDER);
 
-    private final LinkedHashMap<UInteger, WaitingSubscription> waitList = new LinkedHashMap<>();
+    private final ConcurrentHashMap<UInteger, WaitingSubscription> waitingById = new ConcurrentHashMap<>();
 
     /**
      * Add a Publish {@link ServiceRequest} to the queue.
@@ -39,51 +55,13 @@ public class PublishQueue {
      *
      * @param service the Publish {@link ServiceRequest}.
      */
-    public synchronized void addRequest(ServiceRequest service) {
-        List<WaitingSubscription> waitingSubscriptions = Lists.newArrayList(waitList.values());
-
-        if (waitingSubscriptions.isEmpty()) {
-            serviceQueue.add(service);
-
-            logger.debug("Queued PublishRequest requestHandle={}, size={}",
-                service.getRequest().getRequestHeader().getRequestHandle(),
-                serviceQueue.size()
-            );
-        } else {
-            WaitingSubscription subscription = null;
-
-            int maxPriority = 0;
-            long minWaitingSince = Long.MAX_VALUE;
-
-            for (WaitingSubscription waiting : waitingSubscriptions) {
-                int priority = waiting.getSubscription().getPriority();
-                long waitingSince = waiting.getWaitingSince().getTime();
-
-                if (priority > maxPriority) {
-                    maxPriority = priority;
-                    minWaitingSince = Long.MAX_VALUE;
-                }
-                if (priority >= maxPriority && waitingSince < minWaitingSince) {
-                    minWaitingSince = waitingSince;
-                    subscription = waiting;
-                }
-            }
-
-            if (subscription != null) {
-                waitList.remove(subscription.subscription.getId());
+    public void addRequest(ServiceRequest service) {
+        serviceQueue.add(service);
 
-                logger.debug("Delivering PublishRequest to Subscription [id={}]",
-                    subscription.getSubscription().getId());
+        logger.debug("Queued PublishRequest requestHandle={}",
+            service.getRequest().getRequestHeader().getRequestHandle());
 
-                final WaitingSubscription ws = subscription;
-
-                service.getServer().getConfig().getExecutor().execute(
-                    () -> ws.subscription.onPublish(service)
-                );
-            } else {
-                serviceQueue.add(service);
-            }
-        }
+        deliver();
     }
 
     /**
@@ -99,33 +77,26 @@ public class PublishQueue {
      *
      * @param subscription the subscription to wait-list.
      */
-    public synchronized void addSubscription(Subscription subscription) {
-        if (waitList.isEmpty() && !serviceQueue.isEmpty()) {
-            ServiceRequest request = poll();
+    public void addSubscription(Subscription subscription) {
+        WaitingSubscription waiting = new WaitingSubscription(subscription);
 
-            if (request != null) {
-                request.getServer().getConfig().getExecutor().execute(
-                    () ->
-                        subscription.onPublish(request)
-                );
-            } else {
-                waitList.putIfAbsent(subscription.getId(), new WaitingSubscription(subscription));
-            }
-        } else {
-            waitList.putIfAbsent(subscription.getId(), new WaitingSubscription(subscription));
+        if (waitingById.putIfAbsent(subscription.getId(), waiting) == null) {
+            waitList.add(waiting);
         }
+
+        deliver();
     }
 
-    public synchronized boolean isEmpty() {
+    public boolean isEmpty() {
         return serviceQueue.isEmpty();
     }
 
-    public synchronized boolean isNotEmpty() {
+    public boolean isNotEmpty() {
         return !isEmpty();
     }
 
     @Nullable
-    public synchronized ServiceRequest poll() {
+    public ServiceRequest poll() {
         long now = System.currentTimeMillis();
 
         while (true) {
@@ -155,14 +126,81 @@ public class PublishQueue {
         }
     }
 
+    /**
+     * Match waiting Subscriptions with queued requests until one or the other runs out, then deliver the matched
+     * requests.
+     * <p>
+     * A request and a Subscription added concurrently are always matched: each is added before its thread checks
+     * for the other, so at least one thread finds both.
+     */
+    private void deliver() {
+        WaitingSubscription first = null;
+        ServiceRequest firstRequest = null;
+        List<WaitingSubscription> subscriptions = null;
+        List<ServiceRequest> requests = null;
+
+        while (!waitList.isEmpty() && !serviceQueue.isEmpty()) {
+            WaitingSubscription waiting = waitList.pollFirst();
+
+            if (waiting == null) continue;
+
+            ServiceRequest request = poll();
+
+            if (request == null) {
+                // another thread took the last request; put it back in the same place and check again
+                waitList.add(waiting);
+                continue;
+            }
+
+            waitingById.remove(waiting.subscription.getId(), waiting);
+
+            logger.debug("Delivering PublishRequest to Subscription [id={}]", waiting.subscription.getId());
+
+            if (first == null) {
+                first = waiting;
+                firstRequest = request;
+            } else {
+                if (subscriptions == null) {
+                    subscriptions = new ArrayList<>();
+                    requests = new ArrayList<>();
+                }
+                subscriptions.add(waiting);
+                requests.add(request);
+            }
+        }
+
+        if (first != null) {
+            final Subscription subscription = first.subscription;
+            final ServiceRequest request = firstRequest;
+            final List<WaitingSubscription> moreSubscriptions = subscriptions;
+            final List<ServiceRequest> moreRequests = requests;
+
+            request.getServer().getConfig().getExecutor().execute(() -> {
+                subscription.onPublish(request);
+
+                if (moreSubscriptions != null) {
+                    for (int i = 0; i < moreSubscriptions.size(); i++) {
+                        moreSubscriptions.get(i).subscription.onPublish(moreRequests.get(i));
+                    }
+                }
+            });
+        }
+    }
+
     public static class WaitingSubscription {
 
+        private static final AtomicLong SEQUENCE = new AtomicLong(0L);
+
         private final Date waitingSince = new Date();
 
+        private final long sequence = SEQUENCE.getAndIncrement();
+
         private final Subscription subscription;
+        private final int priority;
 
         public WaitingSubscription(Subscription subscription) {
             this.subscription = subscription;
+            this.priority = subscription.getPriority();
         }
 
         public Subscription getSubscription() {
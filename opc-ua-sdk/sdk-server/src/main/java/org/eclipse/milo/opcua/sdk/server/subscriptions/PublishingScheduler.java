@@ -0,0 +1,384 @@
+/*
+ * Copyright (c) 2019 the Eclipse Milo Authors
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.milo.opcua.sdk.server.subscriptions;
+
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.common.math.DoubleMath;
+import org.eclipse.milo.opcua.sdk.server.OpcUaServer;
+import org.eclipse.milo.opcua.sdk.server.api.config.OpcUaServerConfigLimits;
+import org.eclipse.milo.opcua.stack.core.util.LatencyHistogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Elapses the publishing timers of all {@link Subscription}s on a server.
+ * <p>
+ * Subscriptions with the same publishing interval whose timers would elapse at nearly the same time share a
+ * {@link Bucket}. Each bucket is scheduled once, at a fixed rate, and on every tick elapses the timers of its
+ * Subscriptions in batches on the server's executor, instead of every Subscription scheduling its own timer.
+ * <p>
+ * A Subscription's first timer elapses one publishing interval after it was added, delayed by up to the publishing
+ * timer resolution so it can share a bucket; after that it elapses once per interval, as long as the Subscription
+ * stays in the same bucket. A Subscription whose timer from an earlier tick is still running skips the tick;
+ * the others in its bucket don't.
+ *
+ * @see OpcUaServerConfigLimits#getPublishingTimerResolution()
+ */
+public class PublishingScheduler {
+
+    /**
+     * The maximum number of Subscriptions whose timers are elapsed in one task on the executor.
+     */
+    static final int BATCH_SIZE = 64;
+
+    private static final Entry[] NO_ENTRIES = new Entry[0];
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final long epochNanos = System.nanoTime();
+
+    private final Map<BucketKey, Bucket> buckets = new HashMap<>();
+    private final Map<Subscription, Bucket> bucketsBySubscription = new IdentityHashMap<>();
+
+    private final OpcUaServer server;
+    private final long resolutionNanos;
+
+    /**
+     * @param server          the server whose executors run the timers.
+     * @param resolutionNanos how much later than one interval after it's added the first timer of a Subscription may
+     *                        elapse so it can share a bucket.
+     */
+    public PublishingScheduler(OpcUaServer server, long resolutionNanos) {
+        this.server = server;
+        this.resolutionNanos = Math.max(1L, resolutionNanos);
+    }
+
+    /**
+     * Start elapsing the publishing timer of {@code subscription}, at its current publishing interval.
+     * <p>
+     * If the timer was already started it's restarted.
+     *
+     * @param subscription the {@link Subscription} to add.
+     */
+    public synchronized void add(Subscription subscription) {
+        remove(subscription);
+
+        long intervalNanos = TimeUnit.NANOSECONDS.convert(
+            DoubleMath.roundToLong(subscription.getPublishingInterval(), RoundingMode.UP),
+            TimeUnit.MILLISECONDS
+        );
+        intervalNanos = Math.max(1L, intervalNanos);
+
+        long resolution = Math.min(resolutionNanos, intervalNanos);
+
+        // the first tick at or after one interval from now whose phase is a multiple of resolution
+        long due = System.nanoTime() - epochNanos + intervalNanos;
+        long firstTick = due / intervalNanos;
+        long phaseNanos = (due % intervalNanos + resolution - 1) / resolution * resolution;
+
+        if (phaseNanos >= intervalNanos) {
+            phaseNanos = 0L;
+            firstTick++;
+        }
+
+        BucketKey key = new BucketKey(intervalNanos, phaseNanos);
+
+        Bucket bucket = buckets.get(key);
+
+        if (bucket == null) {
+            bucket = new Bucket(key, firstTick);
+            buckets.put(key, bucket);
+            bucket.add(new Entry(subscription, firstTick));
+            bucket.start();
+        } else {
+            bucket.add(new Entry(subscription, firstTick));
+        }
+
+        bucketsBySubscription.put(subscription, bucket);
+    }
+
+    /**
+     * Stop elapsing the publishing timer of {@code subscription}.
+     * <p>
+     * A timer elapsing concurrently may still run once more.
+     *
+     * @param subscription the {@link Subscription} to remove.
+     */
+    public synchronized void remove(Subscription subscription) {
+        Bucket bucket = bucketsBySubscription.remove(subscription);
+
+        if (bucket != null && bucket.remove(subscription)) {
+            bucket.stop();
+            buckets.remove(bucket.key);
+        }
+    }
+
+    /**
+     * Move {@code subscription} to a bucket for its current publishing interval if its timer was started and its
+     * interval changed.
+     *
+     * @param subscription the {@link Subscription} whose publishing interval may have changed.
+     */
+    public synchronized void update(Subscription subscription) {
+        Bucket bucket = bucketsBySubscription.get(subscription);
+
+        if (bucket != null) {
+            long intervalNanos = TimeUnit.NANOSECONDS.convert(
+                DoubleMath.roundToLong(subscription.getPublishingInterval(), RoundingMode.UP),
+                TimeUnit.MILLISECONDS
+            );
+
+            if (Math.max(1L, intervalNanos) != bucket.key.intervalNanos) {
+                add(subscription);
+            }
+        }
+    }
+
+    /**
+     * @return a snapshot of the buckets currently scheduled.
+     */
+    public synchronized List<Bucket> getBuckets() {
+        return new ArrayList<>(buckets.values());
+    }
+
+    /**
+     * The Subscriptions whose publishing timers elapse together.
+     */
+    public final class Bucket {
+
+        private final LatencyHistogram jitter = new LatencyHistogram();
+        private final AtomicLong skippedTimers = new AtomicLong(0L);
+
+        private volatile Entry[] entries = NO_ENTRIES;
+
+        private volatile ScheduledFuture<?> future;
+
+        private final BucketKey key;
+
+        /**
+         * The index of the next tick; only accessed by the tick task.
+         */
+        private long nextTick;
+
+        private Bucket(BucketKey key, long firstTick) {
+            this.key = key;
+            this.nextTick = firstTick;
+        }
+
+        /**
+         * @return the publishing interval of the Subscriptions in this bucket, in nanoseconds.
+         */
+        public long getIntervalNanos() {
+            return key.intervalNanos;
+        }
+
+        /**
+         * @return the offset of this bucket's ticks within the interval, in nanoseconds.
+         */
+        public long getPhaseNanos() {
+            return key.phaseNanos;
+        }
+
+        /**
+         * @return the number of Subscriptions in this bucket.
+         */
+        public int getSubscriptionCount() {
+            return entries.length;
+        }
+
+        /**
+         * @return how late each batch of timers started, relative to when the bucket was due to tick.
+         */
+        public LatencyHistogram getJitter() {
+            return jitter;
+        }
+
+        /**
+         * @return the number of times a Subscription's timer didn't elapse on a tick because its timer from an earlier
+         * tick was still running.
+         */
+        public long getSkippedTimers() {
+            return skippedTimers.get();
+        }
+
+        private void add(Entry entry) {
+            Entry[] current = entries;
+            Entry[] updated = Arrays.copyOf(current, current.length + 1);
+            updated[current.length] = entry;
+            entries = updated;
+        }
+
+        /**
+         * @return {@code true} if the bucket is now empty.
+         */
+        private boolean remove(Subscription subscription) {
+            Entry[] current = entries;
+
+            for (int i = 0; i < current.length; i++) {
+                if (current[i].subscription == subscription) {
+                    Entry[] updated = new Entry[current.length - 1];
+                    System.arraycopy(current, 0, updated, 0, i);
+                    System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+                    entries = updated;
+                    break;
+                }
+            }
+
+            return entries.length == 0;
+        }
+
+        private void start() {
+            long firstTickNanos = epochNanos + nextTick * key.intervalNanos + key.phaseNanos;
+
+            future = server.getScheduledExecutorService().scheduleAtFixedRate(
+                this::tick,
+                firstTickNanos - System.nanoTime(),
+                key.intervalNanos,
+                TimeUnit.NANOSECONDS
+            );
+        }
+
+        private void stop() {
+            ScheduledFuture<?> f = future;
+            if (f != null) f.cancel(false);
+        }
+
+        private void tick() {
+            long tick = nextTick++;
+            long dueNanos = epochNanos + tick * key.intervalNanos + key.phaseNanos;
+
+            Entry[] current = entries;
+            Entry[] due = new Entry[current.length];
+            int dueCount = 0;
+
+            for (Entry entry : current) {
+                if (entry.firstTick <= tick) {
+                    int state = entry.state.get();
+
+                    if (state == Entry.RUNNING) {
+                        skippedTimers.incrementAndGet();
+                    } else {
+                        if (state == Entry.QUEUED) {
+                            // still waiting behind a slow timer in an earlier batch; whichever batch gets to it
+                            // first runs it, and that batch's tick is the one that's skipped.
+                            skippedTimers.incrementAndGet();
+                        } else {
+                            entry.state.set(Entry.QUEUED);
+                        }
+
+                        due[dueCount++] = entry;
+                    }
+                }
+            }
+
+            ExecutorService executor = server.getExecutorService();
+
+            for (int start = 0; start < dueCount; start += BATCH_SIZE) {
+                final int from = start;
+                final int to = Math.min(dueCount, start + BATCH_SIZE);
+
+                try {
+                    executor.execute(() -> runBatch(due, from, to, dueNanos));
+                } catch (Throwable t) {
+                    logger.error("failed to run publishing timers", t);
+
+                    for (int i = from; i < to; i++) {
+                        due[i].state.compareAndSet(Entry.QUEUED, Entry.IDLE);
+                    }
+                }
+            }
+        }
+
+        private void runBatch(Entry[] due, int from, int to, long dueNanos) {
+            jitter.record(System.nanoTime() - dueNanos);
+
+            for (int i = from; i < to; i++) {
+                Entry entry = due[i];
+
+                if (!entry.state.compareAndSet(Entry.QUEUED, Entry.RUNNING)) continue;
+
+                try {
+                    entry.subscription.onPublishingTimer();
+                } catch (Throwable t) {
+                    logger.error(
+                        "[id={}] uncaught exception in publishing timer",
+                        entry.subscription.getId(), t
+                    );
+                } finally {
+                    entry.state.set(Entry.IDLE);
+                }
+            }
+        }
+
+    }
+
+    private static final class Entry {
+
+        static final int IDLE = 0;
+        static final int QUEUED = 1;
+        static final int RUNNING = 2;
+
+        /**
+         * Whether this Subscription's timer is waiting in a batch or running; only a running timer makes a tick skip
+         * it.
+         */
+        final AtomicInteger state = new AtomicInteger(IDLE);
+
+        final Subscription subscription;
+        final long firstTick;
+
+        Entry(Subscription subscription, long firstTick) {
+            this.subscription = subscription;
+            this.firstTick = firstTick;
+        }
+
+    }
+
+    private static final class BucketKey {
+
+        final long intervalNanos;
+        final long phaseNanos;
+
+        BucketKey(long intervalNanos, long phaseNanos) {
+            this.intervalNanos = intervalNanos;
+            this.phaseNanos = phaseNanos;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            BucketKey that = (BucketKey) o;
+
+            return intervalNanos == that.intervalNanos && phaseNanos == that.phaseNanos;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Long.hashCode(intervalNanos) + Long.hashCode(phaseNanos);
+        }
+
+    }
+
+}
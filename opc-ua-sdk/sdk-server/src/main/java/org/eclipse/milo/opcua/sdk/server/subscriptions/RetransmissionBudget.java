@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2019 the Eclipse Milo Authors
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.milo.opcua.sdk.server.subscriptions;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.milo.opcua.sdk.server.api.config.OpcUaServerConfigLimits;
+
+/**
+ * The server-wide limit on the number of bytes used by encoded NotificationMessages kept for Republish by all
+ * {@link Subscription}s.
+ *
+ * @see OpcUaServerConfigLimits#getMaxRetransmissionQueueBytes()
+ */
+public class RetransmissionBudget {
+
+    private final AtomicLong usedBytes = new AtomicLong(0L);
+    private final LongAdder discardedMessageCount = new LongAdder();
+
+    private final long maxBytes;
+
+    public RetransmissionBudget(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Reserve {@code bytes} if doing so wouldn't exceed the limit.
+     *
+     * @param bytes the number of bytes to reserve.
+     * @return {@code true} if the bytes were reserved.
+     */
+    boolean tryReserve(long bytes) {
+        while (true) {
+            long used = usedBytes.get();
+
+            if (used + bytes > maxBytes) {
+                return false;
+            } else if (usedBytes.compareAndSet(used, used + bytes)) {
+                return true;
+            }
+        }
+    }
+
+    void release(long bytes) {
+        usedBytes.addAndGet(-bytes);
+    }
+
+    void messageDiscarded() {
+        discardedMessageCount.increment();
+    }
+
+    /**
+     * @return the maximum number of bytes all Subscriptions may use for encoded NotificationMessages.
+     */
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * @return the number of bytes currently used for encoded NotificationMessages.
+     */
+    public long getUsedBytes() {
+        return usedBytes.get();
+    }
+
+    /**
+     * @return the number of unacknowledged NotificationMessages discarded by all Subscriptions to stay within their
+     * limits.
+     */
+    public long getDiscardedMessageCount() {
+        return discardedMessageCount.sum();
+    }
+
+}
@@ -0,0 +1,227 @@
+/*
+ * Copyright (c) 2019 the Eclipse Milo Authors
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.milo.opcua.sdk.server.subscriptions;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import javax.annotation.Nullable;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import org.eclipse.milo.opcua.stack.core.UaSerializationException;
+import org.eclipse.milo.opcua.stack.core.serialization.EncodingLimits;
+import org.eclipse.milo.opcua.stack.core.serialization.OpcUaBinaryStreamDecoder;
+import org.eclipse.milo.opcua.stack.core.serialization.OpcUaBinaryStreamEncoder;
+import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UInteger;
+import org.eclipse.milo.opcua.stack.core.types.structured.NotificationMessage;
+import org.eclipse.milo.opcua.stack.core.util.BufferUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The unacknowledged NotificationMessages of a {@link Subscription}, kept until they're acknowledged in case the
+ * client asks to Republish them.
+ * <p>
+ * The most recently sent messages are kept as is, since clients usually acknowledge them within a few PublishRequests.
+ * A message still unacknowledged after a number of newer messages were sent is encoded into a pooled direct buffer,
+ * so a slow or disconnected client doesn't pin the notifications it hasn't acknowledged on the heap, and is only
+ * decoded again if it's republished.
+ * <p>
+ * Encoded messages count against a per-Subscription limit and a server-wide {@link RetransmissionBudget}. When
+ * encoding a message would exceed either, the oldest messages of the Subscription are discarded to make room.
+ * <p>
+ * Not thread-safe; access is synchronized by the owning Subscription.
+ */
+class RetransmissionQueue {
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final Map<UInteger, Entry> messages = new LinkedHashMap<>();
+
+    /**
+     * The last {@link #maxUnencodedMessages} messages sent, oldest first, including ones since acknowledged.
+     */
+    private final Queue<Entry> recent = new ArrayDeque<>();
+
+    private long encodedBytes = 0L;
+    private volatile long discardedMessageCount = 0L;
+
+    private final long maxBytes;
+    private final int maxUnencodedMessages;
+    private final RetransmissionBudget budget;
+    private final EncodingLimits encodingLimits;
+
+    RetransmissionQueue(
+        long maxBytes,
+        int maxUnencodedMessages,
+        RetransmissionBudget budget,
+        EncodingLimits encodingLimits) {
+
+        this.maxBytes = maxBytes;
+        this.maxUnencodedMessages = Math.max(1, maxUnencodedMessages);
+        this.budget = budget;
+        this.encodingLimits = encodingLimits;
+    }
+
+    void add(NotificationMessage message) {
+        Entry entry = new Entry(message);
+
+        messages.put(message.getSequenceNumber(), entry);
+        recent.add(entry);
+
+        while (recent.size() > maxUnencodedMessages) {
+            Entry oldest = recent.remove();
+
+            // acknowledged or discarded entries have already been released
+            if (oldest.message != null) {
+                encode(oldest);
+            }
+        }
+    }
+
+    @Nullable
+    NotificationMessage get(UInteger sequenceNumber) {
+        Entry entry = messages.get(sequenceNumber);
+
+        if (entry == null) {
+            return null;
+        } else if (entry.message != null) {
+            return entry.message;
+        } else {
+            OpcUaBinaryStreamDecoder decoder = new OpcUaBinaryStreamDecoder(
+                entry.encoded.duplicate(),
+                encodingLimits
+            );
+
+            return decoder.readBuiltinStruct(null, NotificationMessage.class);
+        }
+    }
+
+    boolean remove(UInteger sequenceNumber) {
+        Entry entry = messages.remove(sequenceNumber);
+
+        if (entry != null) {
+            release(entry);
+            return true;
+        } else {
+            return false;
+        }
+    }
+
+    void clear() {
+        messages.values().forEach(this::release);
+        messages.clear();
+        recent.clear();
+    }
+
+    UInteger[] getSequenceNumbers() {
+        UInteger[] sequenceNumbers = messages.keySet().toArray(new UInteger[0]);
+        Arrays.sort(sequenceNumbers);
+        return sequenceNumbers;
+    }
+
+    long getEncodedBytes() {
+        return encodedBytes;
+    }
+
+    long getDiscardedMessageCount() {
+        return discardedMessageCount;
+    }
+
+    private void encode(Entry entry) {
+        ByteBuf buffer = BufferUtil.pooledBuffer();
+
+        try {
+            new OpcUaBinaryStreamEncoder(buffer, encodingLimits)
+                .writeBuiltinStruct(null, entry.message, NotificationMessage.class);
+
+            int length = buffer.readableBytes();
+
+            if (makeRoom(entry, length)) {
+                entry.encoded = PooledByteBufAllocator.DEFAULT.directBuffer(length, length).writeBytes(buffer);
+                entry.message = null;
+
+                encodedBytes += length;
+            }
+        } catch (UaSerializationException e) {
+            logger.warn("Failed to encode NotificationMessage sequenceNumber={}: {}",
+                entry.sequenceNumber, e.getMessage(), e);
+
+            discard(entry);
+        } finally {
+            buffer.release();
+        }
+    }
+
+    /**
+     * Discard the oldest messages until {@code length} bytes fit within the per-Subscription limit and have been
+     * reserved from the server-wide budget.
+     *
+     * @return {@code true} if room was made, {@code false} if {@code entry} itself had to be discarded.
+     */
+    private boolean makeRoom(Entry entry, int length) {
+        while (encodedBytes + length > maxBytes || !budget.tryReserve(length)) {
+            Iterator<Entry> iterator = messages.values().iterator();
+            Entry oldest = iterator.next();
+
+            discard(oldest);
+
+            if (oldest == entry) return false;
+        }
+
+        return true;
+    }
+
+    private void discard(Entry entry) {
+        messages.remove(entry.sequenceNumber);
+        release(entry);
+
+        discardedMessageCount++;
+        budget.messageDiscarded();
+
+        logger.debug("Discarded unacknowledged NotificationMessage sequenceNumber={}", entry.sequenceNumber);
+    }
+
+    private void release(Entry entry) {
+        ByteBuf encoded = entry.encoded;
+
+        if (encoded != null) {
+            int length = encoded.readableBytes();
+
+            encodedBytes -= length;
+            budget.release(length);
+            encoded.release();
+
+            entry.encoded = null;
+        }
+
+        entry.message = null;
+    }
+
+    private static class Entry {
+
+        private final UInteger sequenceNumber;
+
+        private NotificationMessage message;
+        private ByteBuf encoded;
+
+        private Entry(NotificationMessage message) {
+            this.sequenceNumber = message.getSequenceNumber();
+            this.message = message;
+        }
+
+    }
+
+}
@@ -10,16 +10,14 @@
 
 package org.eclipse.milo.opcua.sdk.server.subscriptions;
 
-import java.math.RoundingMode;
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -27,15 +25,14 @@ import com.google.common.collect.Iterators;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.PeekingIterator;
-import com.google.common.math.DoubleMath;
 import com.google.common.primitives.Ints;
+import org.eclipse.milo.opcua.sdk.server.OpcUaServer;
 import org.eclipse.milo.opcua.sdk.server.Session;
 import org.eclipse.milo.opcua.sdk.server.api.config.OpcUaServerConfigLimits;
 import org.eclipse.milo.opcua.sdk.server.items.BaseMonitoredItem;
 import org.eclipse.milo.opcua.stack.core.StatusCodes;
 import org.eclipse.milo.opcua.stack.core.serialization.UaStructure;
 import org.eclipse.milo.opcua.stack.core.types.OpcUaDataTypeManager;
-import org.eclipse.milo.opcua.stack.core.types.OpcUaDefaultBinaryEncoding;
 import org.eclipse.milo.opcua.stack.core.types.builtin.DateTime;
 import org.eclipse.milo.opcua.stack.core.types.builtin.DiagnosticInfo;
 import org.eclipse.milo.opcua.stack.core.types.builtin.ExtensionObject;
@@ -69,18 +66,27 @@ public class Subscription {
     private final AtomicLong itemIds = new AtomicLong(1L);
     private final Map<UInteger, BaseMonitoredItem<?>> itemsById = Maps.newConcurrentMap();
 
+    /**
+     * Items that have notified they may have notifications to report since they were last drained.
+     */
+    private final Queue<BaseMonitoredItem<?>> readyItems = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Items drained from {@link #readyItems} that haven't been included in a publish yet. Only accessed while
+     * synchronized on this Subscription.
+     */
+    private final Set<BaseMonitoredItem<?>> pendingItems = new LinkedHashSet<>();
+
     private final AtomicReference<State> state = new AtomicReference<>(State.Normal);
     private final AtomicReference<StateListener> stateListener = new AtomicReference<>();
 
     private final AtomicLong sequenceNumber = new AtomicLong(1L);
 
-    private final Map<UInteger, NotificationMessage> availableMessages = Maps.newConcurrentMap();
+    private final RetransmissionQueue retransmissionQueue;
 
     private final PublishHandler publishHandler = new PublishHandler();
     private final TimerHandler timerHandler = new TimerHandler();
 
-    private volatile ScheduledFuture<?> publishingTimer;
-
     private volatile boolean messageSent = false;
     private volatile boolean moreNotifications = false;
     private volatile long keepAliveCounter;
@@ -109,6 +115,15 @@ public class Subscription {
         this.subscriptionManager = subscriptionManager;
         this.subscriptionId = subscriptionId;
 
+        OpcUaServer server = subscriptionManager.getServer();
+
+        retransmissionQueue = new RetransmissionQueue(
+            server.getConfig().getLimits().getMaxRetransmissionQueueBytesPerSubscription(),
+            server.getConfig().getLimits().getMaxUnencodedRetransmissionMessages(),
+            server.getRetransmissionBudget(),
+            server.getConfig().getEncodingLimits()
+        );
+
         setPublishingInterval(publishingInterval);
         setMaxKeepAliveCount(maxKeepAliveCount);
         setLifetimeCount(lifetimeCount);
@@ -132,6 +147,8 @@ public class Subscription {
 
         this.priority = request.getPriority().intValue();
 
+        publishingScheduler().update(this);
+
         resetLifetimeCounter();
 
         logger.debug("[id={}] subscription modified, interval={}, keep-alive={}, lifetime={}",
@@ -141,9 +158,7 @@ public class Subscription {
     public synchronized List<BaseMonitoredItem<?>> deleteSubscription() {
         setState(State.Closed);
 
-        ScheduledFuture<?> sf = publishingTimer;
-        if (sf != null) sf.cancel(false);
-        publishingTimer = null;
+        publishingScheduler().remove(this);
 
         logger.debug("[id={}] subscription deleted.", subscriptionId);
 
@@ -161,6 +176,8 @@ public class Subscription {
     public synchronized void addMonitoredItems(List<BaseMonitoredItem<?>> createdItems) {
         for (BaseMonitoredItem<?> item : createdItems) {
             itemsById.put(item.getId(), item);
+
+            item.setReadyListener(readyItems::add);
         }
 
         resetLifetimeCounter();
@@ -171,6 +188,9 @@ public class Subscription {
     public synchronized void removeMonitoredItems(List<BaseMonitoredItem<?>> deletedItems) {
         for (BaseMonitoredItem<?> item : deletedItems) {
             itemsById.remove(item.getId());
+
+            item.setReadyListener(null);
+            pendingItems.remove(item);
         }
 
         resetLifetimeCounter();
@@ -309,6 +329,10 @@ public class Subscription {
         return subscriptionManager.getPublishQueue();
     }
 
+    private synchronized PublishingScheduler publishingScheduler() {
+        return subscriptionManager.getServer().getPublishingScheduler();
+    }
+
     private long currentSequenceNumber() {
         return sequenceNumber.get();
     }
@@ -382,10 +406,14 @@ public class Subscription {
 
         lastIterator.forEachRemaining(items::add);
 
-        itemsById.values().stream()
-            .filter(item -> item.hasNotifications() || item.isTriggered())
+        drainReadyItems();
+
+        pendingItems.stream()
+            .filter(Subscription::hasNotifications)
             .forEach(items::add);
 
+        pendingItems.clear();
+
         PeekingIterator<BaseMonitoredItem<?>> iterator = Iterators.peekingIterator(items.iterator());
 
         gatherAndSend(iterator, service);
@@ -453,6 +481,7 @@ public class Subscription {
             }
         });
 
+        // notifications are encoded directly into the PublishResponse when it's serialized
         List<ExtensionObject> notificationData = Lists.newArrayList();
 
         if (dataNotifications.size() > 0) {
@@ -461,10 +490,9 @@ public class Subscription {
                 new DiagnosticInfo[0]
             );
 
-            notificationData.add(ExtensionObject.encode(
+            notificationData.add(ExtensionObject.encodeDeferred(
                 dataChange,
                 dataChange.getBinaryEncodingId(),
-                OpcUaDefaultBinaryEncoding.getInstance(),
                 subscriptionManager.getServer().getConfig().getEncodingLimits(),
                 OpcUaDataTypeManager.getInstance()
             ));
@@ -475,10 +503,9 @@ public class Subscription {
                 eventNotifications.toArray(new EventFieldList[0])
             );
 
-            notificationData.add(ExtensionObject.encode(
+            notificationData.add(ExtensionObject.encodeDeferred(
                 eventChange,
                 eventChange.getBinaryEncodingId(),
-                OpcUaDefaultBinaryEncoding.getInstance(),
                 subscriptionManager.getServer().getConfig().getEncodingLimits(),
                 OpcUaDataTypeManager.getInstance()
             ));
@@ -492,7 +519,7 @@ public class Subscription {
             notificationData.toArray(new ExtensionObject[0])
         );
 
-        availableMessages.put(notificationMessage.getSequenceNumber(), notificationMessage);
+        retransmissionQueue.add(notificationMessage);
         UInteger[] available = getAvailableSequenceNumbers();
 
         UInteger requestHandle = service.getRequest().getRequestHeader().getRequestHandle();
@@ -520,8 +547,37 @@ public class Subscription {
     }
 
     private boolean notificationsAvailable() {
-        return itemsById.values().stream()
-            .anyMatch(item -> item.hasNotifications() || item.isTriggered());
+        if (lastIterator.hasNext()) return true;
+
+        drainReadyItems();
+
+        pendingItems.removeIf(item -> !hasNotifications(item));
+
+        return !pendingItems.isEmpty();
+    }
+
+    /**
+     * Move items that became ready since the last drain into {@link #pendingItems}, so the cost of a publishing
+     * cycle depends on the number of items with changes rather than the number of items in the Subscription.
+     */
+    private void drainReadyItems() {
+        // an item that is reset and immediately notifies again can be polled repeatedly; bound the drain so it
+        // always finishes.
+        int remaining = itemsById.size();
+
+        BaseMonitoredItem<?> item;
+
+        while (remaining-- > 0 && (item = readyItems.poll()) != null) {
+            item.resetReady();
+
+            if (itemsById.get(item.getId()) == item) {
+                pendingItems.add(item);
+            }
+        }
+    }
+
+    private static boolean hasNotifications(BaseMonitoredItem<?> item) {
+        return item.hasNotifications() || item.isTriggered();
     }
 
     private void setState(State state) {
@@ -529,6 +585,11 @@ public class Subscription {
 
         logger.debug("[id={}] {} -> {}", subscriptionId, previousState, state);
 
+        if (state == State.Closing || state == State.Closed) {
+            // nothing can be republished once the subscription has expired or been deleted
+            retransmissionQueue.clear();
+        }
+
         StateListener listener = stateListener.get();
 
         if (listener != null) {
@@ -565,10 +626,21 @@ public class Subscription {
     }
 
     public synchronized UInteger[] getAvailableSequenceNumbers() {
-        Set<UInteger> uIntegers = availableMessages.keySet();
-        UInteger[] available = uIntegers.toArray(new UInteger[0]);
-        Arrays.sort(available);
-        return available;
+        return retransmissionQueue.getSequenceNumbers();
+    }
+
+    /**
+     * @return the number of bytes used by encoded unacknowledged NotificationMessages kept for Republish.
+     */
+    public synchronized long getRetransmissionQueueBytes() {
+        return retransmissionQueue.getEncodedBytes();
+    }
+
+    /**
+     * @return the number of unacknowledged NotificationMessages discarded to stay within the retransmission limits.
+     */
+    public long getDiscardedMessageCount() {
+        return retransmissionQueue.getDiscardedMessageCount();
     }
 
     public synchronized SubscriptionManager getSubscriptionManager() {
@@ -631,43 +703,38 @@ public class Subscription {
                 subscriptionId, state, keepAliveCounter, lifetimeCounter);
         }
 
-        long startNanos = System.nanoTime();
-
         if (state == State.Normal) {
             timerHandler.whenNormal();
         } else if (state == State.KeepAlive) {
             timerHandler.whenKeepAlive();
         } else if (state == State.Late) {
             timerHandler.whenLate();
-        } else if (state == State.Closed) {
-            logger.debug("[id={}] onPublish(), state={}", subscriptionId, state); // No-op.
+        } else if (state == State.Closing || state == State.Closed) {
+            // the timer elapsed as it was being stopped
+            logger.debug("[id={}] onPublishingTimer(), state={}", subscriptionId, state); // No-op.
+            return;
         } else {
             throw new RuntimeException("unhandled subscription state: " + state);
         }
 
-        long elapsedNanos = System.nanoTime() - startNanos;
-
-        long intervalNanos = TimeUnit.NANOSECONDS.convert(
-            DoubleMath.roundToLong(publishingInterval, RoundingMode.UP),
-            TimeUnit.MILLISECONDS
-        );
-
-        long adjustedIntervalNanos = Math.max(0, intervalNanos - elapsedNanos);
-
-        startPublishingTimer(adjustedIntervalNanos);
+        if (!decrementLifetimeCounter()) {
+            publishingScheduler().remove(this);
+        }
     }
 
     synchronized void startPublishingTimer() {
-        long intervalNanos = TimeUnit.NANOSECONDS.convert(
-            DoubleMath.roundToLong(publishingInterval, RoundingMode.UP),
-            TimeUnit.MILLISECONDS
-        );
-
-        startPublishingTimer(intervalNanos);
+        if (decrementLifetimeCounter()) {
+            publishingScheduler().add(this);
+        }
     }
 
-    private synchronized void startPublishingTimer(long delayNanos) {
-        if (state.get() == State.Closed) return;
+    /**
+     * Count one publishing interval against the lifetime of this Subscription.
+     *
+     * @return {@code false} if the lifetime expired and this Subscription is now closing.
+     */
+    private boolean decrementLifetimeCounter() {
+        if (state.get() == State.Closed) return false;
 
         // lifetimeCounter is always accessed while synchronized on 'this'.
         lifetimeCounter = lifetimeCounter - 1;
@@ -676,17 +743,15 @@ public class Subscription {
             logger.debug("[id={}] lifetime expired.", subscriptionId);
 
             setState(State.Closing);
+
+            return false;
         } else {
-            publishingTimer = subscriptionManager.getServer().getScheduledExecutorService().schedule(
-                this::onPublishingTimer,
-                delayNanos,
-                TimeUnit.NANOSECONDS
-            );
+            return true;
         }
     }
 
     public synchronized StatusCode acknowledge(UInteger sequenceNumber) {
-        if (availableMessages.remove(sequenceNumber) != null) {
+        if (retransmissionQueue.remove(sequenceNumber)) {
             logger.debug("[id={}] sequence number acknowledged: {}", subscriptionId, sequenceNumber);
 
             return StatusCode.GOOD;
@@ -700,7 +765,7 @@ public class Subscription {
     public synchronized NotificationMessage republish(UInteger sequenceNumber) {
         resetLifetimeCounter();
 
-        return availableMessages.get(sequenceNumber);
+        return retransmissionQueue.get(sequenceNumber);
     }
 
     private class PublishHandler {
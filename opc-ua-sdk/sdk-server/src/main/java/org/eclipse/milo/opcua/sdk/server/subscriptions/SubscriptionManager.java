@@ -217,31 +217,7 @@ public class SubscriptionManager {
 
                 List<BaseMonitoredItem<?>> deletedItems = subscription.deleteSubscription();
 
-                /*
-                 * Notify AddressSpaces of the items we just deleted.
-                 */
-
-                List<DataItem> dataItems = Lists.newArrayList();
-                List<EventItem> eventItems = Lists.newArrayList();
-
-                for (BaseMonitoredItem<?> item : deletedItems) {
-                    if (item instanceof MonitoredDataItem) {
-                        dataItems.add((DataItem) item);
-                    } else if (item instanceof MonitoredEventItem) {
-                        eventItems.add((EventItem) item);
-                    }
-                }
-
-                try {
-                    if (!dataItems.isEmpty()) {
-                        server.getAddressSpaceManager().onDataItemsDeleted(dataItems);
-                    }
-                    if (!eventItems.isEmpty()) {
-                        server.getAddressSpaceManager().onEventItemsDeleted(eventItems);
-                    }
-                } catch (Throwable t) {
-                    logger.error("Unexpected error notifying AddressSpace of MonitoredItems being deleted.", t);
-                }
+                monitoredItemsDeleted(deletedItems);
 
                 results[i] = StatusCode.GOOD;
             } else {
@@ -422,6 +398,9 @@ public class SubscriptionManager {
 
         AttributeGroup attributeGroup = attributeGroups.get(nodeId);
 
+        // the item monitors the node itself, not the alias it was registered under
+        ReadValueId itemToMonitor = resolveRegistered(request.getItemToMonitor());
+
         if (attributeId.equals(AttributeId.EventNotifier.uid())) {
             UByte eventNotifier = attributeGroup.getEventNotifier();
 
@@ -435,7 +414,7 @@ public class SubscriptionManager {
 
             try {
                 server.getAddressSpaceManager().onCreateEventItem(
-                    request.getItemToMonitor(),
+                    itemToMonitor,
                     requestedQueueSize,
                     revisedQueueSize::set
                 );
@@ -448,7 +427,7 @@ public class SubscriptionManager {
                 session,
                 uint(subscription.nextItemId()),
                 subscription.getId(),
-                request.getItemToMonitor(),
+                itemToMonitor,
                 request.getMonitoringMode(),
                 timestamps,
                 request.getRequestedParameters().getClientHandle(),
@@ -505,7 +484,7 @@ public class SubscriptionManager {
 
             try {
                 server.getAddressSpaceManager().onCreateDataItem(
-                    request.getItemToMonitor(),
+                    itemToMonitor,
                     requestedSamplingInterval,
                     requestedQueueSize,
                     (rsi, rqs) -> {
@@ -522,7 +501,7 @@ public class SubscriptionManager {
                 session,
                 uint(subscription.nextItemId()),
                 subscription.getId(),
-                request.getItemToMonitor(),
+                itemToMonitor,
                 request.getMonitoringMode(),
                 timestamps,
                 request.getRequestedParameters().getClientHandle(),
@@ -642,6 +621,23 @@ public class SubscriptionManager {
         });
     }
 
+    private ReadValueId resolveRegistered(ReadValueId readValueId) {
+        if (session == null) return readValueId;
+
+        NodeId nodeId = session.getRegisteredNodes().resolve(readValueId.getNodeId());
+
+        if (nodeId == readValueId.getNodeId()) {
+            return readValueId;
+        } else {
+            return new ReadValueId(
+                nodeId,
+                readValueId.getAttributeId(),
+                readValueId.getIndexRange(),
+                readValueId.getDataEncoding()
+            );
+        }
+    }
+
     private BaseMonitoredItem<?> modifyMonitoredItem(
         MonitoredItemModifyRequest request,
         TimestampsToReturn timestamps,
@@ -781,12 +777,22 @@ public class SubscriptionManager {
 
         ReadContext context = new ReadContext(server, null);
 
-        server.getAddressSpaceManager().read(
-            context,
-            0.0,
-            TimestampsToReturn.Neither,
-            attributesToRead
-        );
+        if (session != null) {
+            // NodeIds may be aliases of nodes registered with RegisterNodes
+            session.getRegisteredNodes().read(
+                context,
+                0.0,
+                TimestampsToReturn.Neither,
+                attributesToRead
+            );
+        } else {
+            server.getAddressSpaceManager().read(
+                context,
+                0.0,
+                TimestampsToReturn.Neither,
+                attributesToRead
+            );
+        }
 
         return context.getFuture().thenApply(attributeValues -> {
             Map<NodeId, AttributeGroup> monitoringAttributes = new HashMap<>();
@@ -1089,12 +1095,43 @@ public class SubscriptionManager {
 
             if (deleteSubscriptions) {
                 server.getSubscriptions().remove(s.getId());
+
+                monitoredItemsDeleted(s.deleteSubscription());
             }
 
             iterator.remove();
         }
     }
 
+    /**
+     * Notify AddressSpaces of MonitoredItems deleted along with their Subscription.
+     *
+     * @param deletedItems the deleted {@link BaseMonitoredItem}s.
+     */
+    private void monitoredItemsDeleted(List<BaseMonitoredItem<?>> deletedItems) {
+        List<DataItem> dataItems = Lists.newArrayList();
+        List<EventItem> eventItems = Lists.newArrayList();
+
+        for (BaseMonitoredItem<?> item : deletedItems) {
+            if (item instanceof MonitoredDataItem) {
+                dataItems.add((DataItem) item);
+            } else if (item instanceof MonitoredEventItem) {
+                eventItems.add((EventItem) item);
+            }
+        }
+
+        try {
+            if (!dataItems.isEmpty()) {
+                server.getAddressSpaceManager().onDataItemsDeleted(dataItems);
+            }
+            if (!eventItems.isEmpty()) {
+                server.getAddressSpaceManager().onEventItemsDeleted(eventItems);
+            }
+        } catch (Throwable t) {
+            logger.error("Unexpected error notifying AddressSpace of MonitoredItems being deleted.", t);
+        }
+    }
+
     public Subscription removeSubscription(UInteger subscriptionId) {
         Subscription subscription = subscriptions.remove(subscriptionId);
         if (subscription != null) subscription.setStateListener(null);
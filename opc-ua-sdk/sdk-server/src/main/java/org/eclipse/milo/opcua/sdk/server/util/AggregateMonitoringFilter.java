@@ -0,0 +1,303 @@
+/*
+ * Copyright (c) 2019 the Eclipse Milo Authors
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.milo.opcua.sdk.server.util;
+
+import java.util.Date;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import com.google.common.collect.ImmutableSet;
+import org.eclipse.milo.opcua.stack.core.Identifiers;
+import org.eclipse.milo.opcua.stack.core.StatusCodes;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DateTime;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.StatusCode;
+import org.eclipse.milo.opcua.stack.core.types.builtin.Variant;
+
+/**
+ * Incrementally calculates an aggregate over consecutive processing intervals from the values sampled for a
+ * monitored item with an {@link org.eclipse.milo.opcua.stack.core.types.structured.AggregateFilter}.
+ * <p>
+ * Processing intervals start at the filter's start time and are {@code processingInterval} milliseconds long. A
+ * sampled value belongs to the interval containing the time it was sampled, not its own timestamps, which may not
+ * change while the value doesn't. An interval's result is produced on the first sampling tick or sample at or after
+ * its end, with the start of the interval as its source timestamp. Intervals in which nothing was sampled produce no
+ * result.
+ * <p>
+ * Only values with a Good status and a numeric value are aggregated. The result is Good if every value sampled in the
+ * interval was, Uncertain_DataSubNormal if only some were, and Bad_NoData if none were (except for Count, which
+ * is always reported).
+ * <p>
+ * TimeAverage integrates the sampled values as line segments between samples, interpolating at the boundary between
+ * adjacent intervals. An interval closed by a sampling tick before the next sample holds its last value to its end.
+ * <p>
+ * Not thread-safe; access is synchronized by the owning monitored item.
+ */
+public class AggregateMonitoringFilter {
+
+    private static final Set<NodeId> SUPPORTED_AGGREGATES = ImmutableSet.of(
+        Identifiers.AggregateFunction_Average,
+        Identifiers.AggregateFunction_Minimum,
+        Identifiers.AggregateFunction_Maximum,
+        Identifiers.AggregateFunction_Count,
+        Identifiers.AggregateFunction_TimeAverage
+    );
+
+    private static final StatusCode UNCERTAIN_DATA_SUB_NORMAL = new StatusCode(StatusCodes.Uncertain_DataSubNormal);
+    private static final StatusCode BAD_NO_DATA = new StatusCode(StatusCodes.Bad_NoData);
+
+    private final NodeId aggregateType;
+    private final long startTime;
+    private final double processingInterval;
+
+    private boolean started = false;
+    private double intervalStart;
+    private double intervalEnd;
+
+    private int sampleCount;
+    private int goodCount;
+    private double sum;
+    private double min;
+    private double max;
+    private Variant minValue;
+    private Variant maxValue;
+
+    private double area;
+    private double duration;
+    private boolean hasPrevious = false;
+    private double previousTime;
+    private double previousValue;
+
+    /**
+     * @param aggregateType      the NodeId of the aggregate function; must be one of the supported aggregates.
+     * @param startTime          the start of the first processing interval, in milliseconds since the Java epoch.
+     * @param processingInterval the length of each processing interval, in milliseconds.
+     * @see #isSupported(NodeId)
+     */
+    public AggregateMonitoringFilter(NodeId aggregateType, long startTime, double processingInterval) {
+        if (!isSupported(aggregateType)) {
+            throw new IllegalArgumentException("unsupported aggregate: " + aggregateType);
+        }
+        if (!(processingInterval > 0)) {
+            throw new IllegalArgumentException("processingInterval: " + processingInterval);
+        }
+
+        this.aggregateType = aggregateType;
+        this.startTime = startTime;
+        this.processingInterval = processingInterval;
+    }
+
+    /**
+     * Add a sampled value to the current processing interval.
+     *
+     * @param value   the sampled value.
+     * @param time    the time {@code value} was sampled, in milliseconds since the Java epoch.
+     * @param results receives the result of the current processing interval if {@code time} is past its end.
+     */
+    public void accumulate(DataValue value, long time, Consumer<DataValue> results) {
+        if (!started) {
+            startInterval(alignedStart(time));
+            started = true;
+        } else if (time >= intervalEnd) {
+            Double sample = sampleValue(value);
+            boolean adjacent = time < intervalEnd + processingInterval;
+
+            if (adjacent && hasPrevious && sample != null) {
+                // extend the time average to the end of the interval and carry it into the next one
+                double boundaryValue = interpolate(previousTime, previousValue, time, sample, intervalEnd);
+                integrate(intervalEnd, boundaryValue);
+            }
+
+            if (sampleCount > 0) {
+                results.accept(result());
+            }
+
+            if (adjacent) {
+                startInterval(intervalEnd);
+            } else {
+                hasPrevious = false;
+                startInterval(alignedStart(time));
+            }
+        }
+
+        add(value, time);
+    }
+
+    /**
+     * Close the current processing interval if it ended at or before {@code time}, without waiting for a later sample.
+     *
+     * @param time    the time of the sampling tick, in milliseconds since the Java epoch.
+     * @param results receives the result of the current processing interval if it was closed.
+     */
+    public void close(long time, Consumer<DataValue> results) {
+        if (!started || time < intervalEnd) return;
+
+        if (sampleCount > 0) {
+            if (hasPrevious) {
+                // hold the last value to the end of the interval and carry it into the next one
+                integrate(intervalEnd, previousValue);
+            }
+
+            results.accept(result());
+        }
+
+        if (time < intervalEnd + processingInterval) {
+            startInterval(intervalEnd);
+        } else {
+            startInterval(alignedStart(time));
+        }
+    }
+
+    /**
+     * Discard the current processing interval and any values sampled in it.
+     */
+    public void reset() {
+        started = false;
+        hasPrevious = false;
+    }
+
+    public NodeId getAggregateType() {
+        return aggregateType;
+    }
+
+    public double getProcessingInterval() {
+        return processingInterval;
+    }
+
+    private void startInterval(double start) {
+        intervalStart = start;
+        intervalEnd = start + processingInterval;
+
+        sampleCount = 0;
+        goodCount = 0;
+        sum = 0.0;
+        min = Double.POSITIVE_INFINITY;
+        max = Double.NEGATIVE_INFINITY;
+        minValue = null;
+        maxValue = null;
+        area = 0.0;
+        duration = 0.0;
+
+        if (hasPrevious) {
+            previousTime = Math.max(previousTime, intervalStart);
+        }
+    }
+
+    private double alignedStart(double time) {
+        double intervals = Math.floor((time - startTime) / processingInterval);
+
+        return startTime + intervals * processingInterval;
+    }
+
+    private void add(DataValue value, double time) {
+        sampleCount++;
+
+        Double sample = sampleValue(value);
+
+        if (sample == null) return;
+
+        goodCount++;
+        sum += sample;
+
+        if (sample < min) {
+            min = sample;
+            minValue = value.getValue();
+        }
+        if (sample > max) {
+            max = sample;
+            maxValue = value.getValue();
+        }
+
+        if (hasPrevious && time >= previousTime) {
+            integrate(time, sample);
+        } else {
+            previousTime = time;
+            previousValue = sample;
+            hasPrevious = true;
+        }
+    }
+
+    private void integrate(double time, double value) {
+        double elapsed = time - previousTime;
+
+        area += (previousValue + value) / 2.0 * elapsed;
+        duration += elapsed;
+
+        previousTime = time;
+        previousValue = value;
+    }
+
+    private DataValue result() {
+        StatusCode status;
+        if (goodCount == 0) {
+            status = BAD_NO_DATA;
+        } else if (goodCount < sampleCount) {
+            status = UNCERTAIN_DATA_SUB_NORMAL;
+        } else {
+            status = StatusCode.GOOD;
+        }
+
+        Variant value;
+        if (Identifiers.AggregateFunction_Count.equals(aggregateType)) {
+            value = new Variant(goodCount);
+            if (goodCount == 0) status = UNCERTAIN_DATA_SUB_NORMAL;
+        } else if (goodCount == 0) {
+            value = Variant.NULL_VALUE;
+        } else if (Identifiers.AggregateFunction_Average.equals(aggregateType)) {
+            value = new Variant(sum / goodCount);
+        } else if (Identifiers.AggregateFunction_Minimum.equals(aggregateType)) {
+            value = minValue;
+        } else if (Identifiers.AggregateFunction_Maximum.equals(aggregateType)) {
+            value = maxValue;
+        } else {
+            // TimeAverage; a single sample covers no time, so it's its own average.
+            value = new Variant(duration > 0 ? area / duration : sum / goodCount);
+        }
+
+        return new DataValue(
+            value,
+            status,
+            new DateTime(new Date((long) intervalStart)),
+            DateTime.now()
+        );
+    }
+
+    /**
+     * @return {@code true} if {@code aggregateType} is an aggregate function this filter can calculate.
+     */
+    public static boolean isSupported(NodeId aggregateType) {
+        return SUPPORTED_AGGREGATES.contains(aggregateType);
+    }
+
+    private static Double sampleValue(DataValue value) {
+        if (value.getStatusCode() == null || !value.getStatusCode().isGood()) {
+            return null;
+        }
+
+        Object o = value.getValue().getValue();
+
+        if (o instanceof Number) {
+            double d = ((Number) o).doubleValue();
+
+            return Double.isNaN(d) ? null : d;
+        } else {
+            return null;
+        }
+    }
+
+    private static double interpolate(double t0, double v0, double t1, double v1, double t) {
+        if (t1 == t0) return v1;
+
+        return v0 + (v1 - v0) * (t - t0) / (t1 - t0);
+    }
+
+}
@@ -11,8 +11,10 @@
 package org.eclipse.milo.opcua.sdk.server.util;
 
 import java.util.Objects;
+import javax.annotation.Nullable;
 
 import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
+import org.eclipse.milo.opcua.stack.core.types.builtin.Variant;
 import org.eclipse.milo.opcua.stack.core.types.enumerated.DataChangeTrigger;
 import org.eclipse.milo.opcua.stack.core.types.enumerated.DeadbandType;
 import org.eclipse.milo.opcua.stack.core.types.structured.DataChangeFilter;
@@ -20,14 +22,75 @@ import org.eclipse.milo.opcua.stack.core.types.structured.DataChangeFilter;
 public class DataChangeMonitoringFilter {
 
     public static boolean filter(DataValue lastValue, DataValue currentValue, DataChangeFilter filter) {
-        return triggerFilter(lastValue, currentValue, filter) && deadbandFilter(lastValue, currentValue, filter);
+        return filter(lastValue, currentValue, filter, Double.NaN);
     }
 
-    private static boolean triggerFilter(DataValue lastValue, DataValue currentValue, DataChangeFilter filter) {
+    /**
+     * @param lastValue    the last value reported, or {@code null} if none has been.
+     * @param currentValue the value to test.
+     * @param filter       the {@link DataChangeFilter} to apply.
+     * @param euRangeSpan  the span (high - low) of the item's EURange, used by a Percent deadband. A Percent deadband
+     *                     lets every value through if this is {@link Double#NaN}.
+     * @return {@code true} if {@code currentValue} passes the filter and should be reported.
+     */
+    public static boolean filter(
+        DataValue lastValue,
+        DataValue currentValue,
+        DataChangeFilter filter,
+        double euRangeSpan) {
+
+        DeadbandType deadbandType = DeadbandType.from(filter.getDeadbandType().intValue());
+
+        return filter(
+            lastValue,
+            currentValue,
+            filter.getTrigger(),
+            DeadbandComparator.GENERIC,
+            deadband(deadbandType, filter.getDeadbandValue(), euRangeSpan)
+        );
+    }
+
+    /**
+     * @param lastValue    the last value reported, or {@code null} if none has been.
+     * @param currentValue the value to test.
+     * @param trigger      the {@link DataChangeTrigger} of the filter.
+     * @param comparator   the {@link DeadbandComparator} for the item's values, or {@code null} if no deadband applies.
+     * @param deadband     the absolute deadband, or {@link Double#NaN} if no deadband applies.
+     * @return {@code true} if {@code currentValue} passes the filter and should be reported.
+     * @see #deadband(DeadbandType, double, double)
+     */
+    public static boolean filter(
+        DataValue lastValue,
+        DataValue currentValue,
+        DataChangeTrigger trigger,
+        @Nullable DeadbandComparator comparator,
+        double deadband) {
+
         if (lastValue == null) return true;
 
-        DataChangeTrigger trigger = filter.getTrigger();
+        return triggerFilter(lastValue, currentValue, trigger) &&
+            deadbandFilter(lastValue, currentValue, comparator, deadband);
+    }
 
+    /**
+     * Get the absolute deadband for a DataChangeFilter's deadband.
+     *
+     * @param deadbandType  the filter's {@link DeadbandType}, or {@code null} if it's not a known type.
+     * @param deadbandValue the filter's deadband value.
+     * @param euRangeSpan   the span (high - low) of the item's EURange, or {@link Double#NaN} if it has none.
+     * @return the absolute deadband, or {@link Double#NaN} if no deadband applies.
+     */
+    public static double deadband(@Nullable DeadbandType deadbandType, double deadbandValue, double euRangeSpan) {
+        if (deadbandType == DeadbandType.Absolute) {
+            return deadbandValue;
+        } else if (deadbandType == DeadbandType.Percent) {
+            return deadbandValue / 100.0 * euRangeSpan;
+        } else {
+            return Double.NaN;
+        }
+    }
+
+    private static boolean triggerFilter(DataValue lastValue, DataValue currentValue, DataChangeTrigger trigger) {
         if (trigger == DataChangeTrigger.Status) {
             return statusChanged(lastValue, currentValue);
         } else if (trigger == DataChangeTrigger.StatusValue) {
@@ -40,56 +103,21 @@ public class DataChangeMonitoringFilter {
         }
     }
 
-    private static boolean deadbandFilter(DataValue lastValue, DataValue currentValue, DataChangeFilter filter) {
-        if (lastValue == null) return true;
-
-        int index = filter.getDeadbandType().intValue();
-        if (index < 0 || index >= DeadbandType.values().length) return true;
-        DeadbandType deadbandType = DeadbandType.values()[index];
+    private static boolean deadbandFilter(
+        DataValue lastValue,
+        DataValue currentValue,
+        @Nullable DeadbandComparator comparator,
+        double deadband) {
 
-        if (deadbandType != DeadbandType.Absolute) return true;
+        if (comparator == null || Double.isNaN(deadband)) return true;
 
-        Object last = lastValue.getValue().getValue();
-        Object current = currentValue.getValue().getValue();
+        Variant last = lastValue.getValue();
+        Variant current = currentValue.getValue();
 
-        if (last == null || current == null) {
+        if (last.isNull() || current.isNull()) {
             return true;
-        } else if (last.getClass().isArray() && current.getClass().isArray()) {
-            return compareArrayDeadband(last, current, filter.getDeadbandValue());
         } else {
-            return compareScalarDeadband(last, current, filter.getDeadbandValue());
-        }
-    }
-
-    private static boolean compareArrayDeadband(Object last, Object current, double deadband) {
-        Object[] lastA = Object[].class.cast(last);
-        Object[] currentA = Object[].class.cast(current);
-
-        if (lastA.length != currentA.length) {
-            return true;
-        } else {
-            boolean exceeds = false;
-
-            for (int i = 0; i < lastA.length; i++) {
-                exceeds = exceeds || exceedsDeadband(lastA[i], currentA[i], deadband);
-            }
-
-            return exceeds;
-        }
-    }
-
-    private static boolean compareScalarDeadband(Object last, Object current, double deadband) {
-        return exceedsDeadband(last, current, deadband);
-    }
-
-    private static boolean exceedsDeadband(Object last, Object current, double deadband) {
-        try {
-            double lastD = Number.class.cast(last).doubleValue();
-            double currentD = Number.class.cast(current).doubleValue();
-
-            return Math.abs(lastD - currentD) > deadband;
-        } catch (Throwable t) {
-            return true;
+            return comparator.exceeds(last, current, deadband);
         }
     }
 
@@ -0,0 +1,229 @@
+/*
+ * Copyright (c) 2019 the Eclipse Milo Authors
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.milo.opcua.sdk.server.util;
+
+import javax.annotation.Nullable;
+
+import org.eclipse.milo.opcua.sdk.core.ValueRanks;
+import org.eclipse.milo.opcua.stack.core.BuiltinDataType;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.Variant;
+
+/**
+ * Tests whether a value has moved outside the deadband around the last reported value.
+ * <p>
+ * A comparator is chosen once per monitored item with {@link #of(NodeId, Integer)}, from the DataType and ValueRank
+ * of the monitored Variable, so comparing values doesn't allocate: array values backed by a primitive array (see
+ * {@link Variant#ofPrimitiveArray}) are compared without boxing them, and values that aren't numeric always exceed
+ * the deadband rather than failing a cast.
+ */
+public abstract class DeadbandComparator {
+
+    /**
+     * Compares numeric scalars.
+     */
+    public static final DeadbandComparator SCALAR = new DeadbandComparator() {
+        @Override
+        public boolean exceeds(Variant last, Variant current, double deadband) {
+            return exceedsScalar(last.getValue(), current.getValue(), deadband);
+        }
+    };
+
+    /**
+     * Compares one-dimensional numeric arrays, with or without a backing primitive array.
+     */
+    public static final DeadbandComparator ARRAY = new DeadbandComparator() {
+        @Override
+        public boolean exceeds(Variant last, Variant current, double deadband) {
+            if (last.isPrimitiveArray() && current.isPrimitiveArray()) {
+                return exceedsPrimitiveArray(last, current, deadband);
+            } else {
+                return exceedsBoxedArray(last.getValue(), current.getValue(), deadband);
+            }
+        }
+    };
+
+    /**
+     * Compares values of any type and value rank, checking which kind of value it is on every comparison.
+     */
+    public static final DeadbandComparator GENERIC = new DeadbandComparator() {
+        @Override
+        public boolean exceeds(Variant last, Variant current, double deadband) {
+            if (last.isPrimitiveArray() || current.isPrimitiveArray()) {
+                return ARRAY.exceeds(last, current, deadband);
+            }
+
+            Object lastValue = last.getValue();
+            Object currentValue = current.getValue();
+
+            if (lastValue instanceof Object[]) {
+                return exceedsBoxedArray(lastValue, currentValue, deadband);
+            } else {
+                return exceedsScalar(lastValue, currentValue, deadband);
+            }
+        }
+    };
+
+    /**
+     * @param last     the last value reported.
+     * @param current  the value to test.
+     * @param deadband the absolute deadband; must not be negative.
+     * @return {@code true} if {@code current} differs from {@code last} by more than {@code deadband}, or if either
+     * is not numeric or their array lengths differ.
+     */
+    public abstract boolean exceeds(Variant last, Variant current, double deadband);
+
+    /**
+     * Get the comparator for values of a Variable.
+     *
+     * @param dataType   the DataType of the Variable.
+     * @param valueRank  the ValueRank of the Variable.
+     * @return {@link #SCALAR} or {@link #ARRAY} for scalars and one-dimensional arrays of a numeric builtin type,
+     * otherwise {@link #GENERIC}.
+     */
+    public static DeadbandComparator of(@Nullable NodeId dataType, @Nullable Integer valueRank) {
+        BuiltinDataType builtinType = dataType != null ? BuiltinDataType.fromNodeId(dataType) : null;
+
+        if (builtinType == null || !isNumeric(builtinType) || valueRank == null) {
+            return GENERIC;
+        } else if (valueRank == ValueRanks.Scalar) {
+            return SCALAR;
+        } else if (valueRank == ValueRanks.OneDimension) {
+            return ARRAY;
+        } else {
+            return GENERIC;
+        }
+    }
+
+    private static boolean isNumeric(BuiltinDataType dataType) {
+        return dataType.getTypeId() >= BuiltinDataType.SByte.getTypeId() &&
+            dataType.getTypeId() <= BuiltinDataType.Double.getTypeId();
+    }
+
+    private static boolean exceedsScalar(Object last, Object current, double deadband) {
+        if (last instanceof Number && current instanceof Number) {
+            double lastD = ((Number) last).doubleValue();
+            double currentD = ((Number) current).doubleValue();
+
+            return Math.abs(lastD - currentD) > deadband;
+        } else {
+            return true;
+        }
+    }
+
+    private static boolean exceedsBoxedArray(Object last, Object current, double deadband) {
+        if (!(last instanceof Object[]) || !(current instanceof Object[])) return true;
+
+        Object[] lastA = (Object[]) last;
+        Object[] currentA = (Object[]) current;
+
+        if (lastA.length != currentA.length) return true;
+
+        for (int i = 0; i < lastA.length; i++) {
+            if (exceedsScalar(lastA[i], currentA[i], deadband)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static boolean exceedsPrimitiveArray(Variant last, Variant current, double deadband) {
+        BuiltinDataType dataType = last.getPrimitiveArrayType();
+
+        if (dataType != current.getPrimitiveArrayType() || dataType == null) return true;
+
+        Object lastA = last.getPrimitiveArray();
+        Object currentA = current.getPrimitiveArray();
+
+        switch (dataType) {
+            case Double: {
+                double[] l = (double[]) lastA;
+                double[] c = (double[]) currentA;
+                if (l.length != c.length) return true;
+                for (int i = 0; i < l.length; i++) {
+                    if (Math.abs(l[i] - c[i]) > deadband) return true;
+                }
+                return false;
+            }
+            case Float: {
+                float[] l = (float[]) lastA;
+                float[] c = (float[]) currentA;
+                if (l.length != c.length) return true;
+                for (int i = 0; i < l.length; i++) {
+                    if (Math.abs((double) l[i] - c[i]) > deadband) return true;
+                }
+                return false;
+            }
+            case Int64: {
+                long[] l = (long[]) lastA;
+                long[] c = (long[]) currentA;
+                if (l.length != c.length) return true;
+                for (int i = 0; i < l.length; i++) {
+                    if (Math.abs((double) l[i] - c[i]) > deadband) return true;
+                }
+                return false;
+            }
+            case UInt64: {
+                long[] l = (long[]) lastA;
+                long[] c = (long[]) currentA;
+                if (l.length != c.length) return true;
+                for (int i = 0; i < l.length; i++) {
+                    if (Math.abs(unsigned(l[i]) - unsigned(c[i])) > deadband) return true;
+                }
+                return false;
+            }
+            case Int32:
+            case UInt32: {
+                long mask = dataType == BuiltinDataType.UInt32 ? 0xFFFFFFFFL : -1L;
+                int[] l = (int[]) lastA;
+                int[] c = (int[]) currentA;
+                if (l.length != c.length) return true;
+                for (int i = 0; i < l.length; i++) {
+                    if (Math.abs((double) (l[i] & mask) - (c[i] & mask)) > deadband) return true;
+                }
+                return false;
+            }
+            case Int16:
+            case UInt16: {
+                int mask = dataType == BuiltinDataType.UInt16 ? 0xFFFF : -1;
+                short[] l = (short[]) lastA;
+                short[] c = (short[]) currentA;
+                if (l.length != c.length) return true;
+                for (int i = 0; i < l.length; i++) {
+                    if (Math.abs((l[i] & mask) - (c[i] & mask)) > deadband) return true;
+                }
+                return false;
+            }
+            case SByte:
+            case Byte: {
+                int mask = dataType == BuiltinDataType.Byte ? 0xFF : -1;
+                byte[] l = (byte[]) lastA;
+                byte[] c = (byte[]) currentA;
+                if (l.length != c.length) return true;
+                for (int i = 0; i < l.length; i++) {
+                    if (Math.abs((l[i] & mask) - (c[i] & mask)) > deadband) return true;
+                }
+                return false;
+            }
+            default:
+                // Boolean
+                return true;
+        }
+    }
+
+    private static double unsigned(long l) {
+        double d = (double) (l >>> 1) * 2.0;
+
+        return d + (l & 1L);
+    }
+
+}
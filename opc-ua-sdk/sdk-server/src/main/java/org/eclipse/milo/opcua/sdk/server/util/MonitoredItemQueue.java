@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2019 the Eclipse Milo Authors
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.milo.opcua.sdk.server.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+import javax.annotation.Nullable;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * A bounded, lock-free queue of the values sampled for a monitored item, with the overflow behavior of a
+ * MonitoredItem queue: when full, either the oldest or the newest value is discarded to make room.
+ * <p>
+ * Values are added by a single producer, the thread sampling the item, and removed by consumers, the thread
+ * publishing its notifications, without either blocking the other. Multiple producers must synchronize with each
+ * other; consumers need not.
+ * <p>
+ * The head index, element count and a stamp that changes with every update are packed into a single {@code long}
+ * so the whole queue state changes atomically. A value is written to its slot before the count is updated to
+ * include it, and a consumer only keeps a value it read if the state didn't change in the meantime.
+ * <p>
+ * Removed values aren't cleared from their slots until they're overwritten, so up to {@link #maxSize()} values may
+ * stay reachable after being removed.
+ */
+public class MonitoredItemQueue<E> {
+
+    /**
+     * The largest supported maximum size; head and count are 16 bits each.
+     */
+    public static final int MAX_SIZE = 0xFFFF;
+
+    private static final long STAMP_INCREMENT = 1L << 32;
+
+    private final AtomicLong state = new AtomicLong(0L);
+
+    private final Object[] buffer;
+    private final int maxSize;
+
+    /**
+     * @param maxSize the maximum number of values in the queue, between 1 and {@link #MAX_SIZE}.
+     */
+    public MonitoredItemQueue(int maxSize) {
+        checkArgument(maxSize > 0 && maxSize <= MAX_SIZE, "maxSize: " + maxSize);
+
+        this.maxSize = maxSize;
+        this.buffer = new Object[maxSize];
+    }
+
+    /**
+     * Add a value to the end of the queue, discarding a value first if the queue is full.
+     * <p>
+     * Must only be called by one thread at a time.
+     *
+     * @param e             the value to add.
+     * @param discardOldest if the queue is full, {@code true} to discard the oldest value, or {@code false} to
+     *                      discard the newest value, i.e. replace the last value in the queue with {@code e}.
+     * @param overflow      applied to {@code e} if a value was discarded; the result is added instead of {@code e}.
+     * @return {@code true} if a value was discarded.
+     */
+    public boolean add(E e, boolean discardOldest, UnaryOperator<E> overflow) {
+        E value = e;
+        boolean overflowed = false;
+
+        while (true) {
+            long s = state.get();
+            int head = head(s);
+            int count = count(s);
+
+            if (count < maxSize) {
+                // nothing reads this slot until count includes it
+                buffer[index(head + count)] = value;
+
+                if (state.compareAndSet(s, update(s, head, count + 1))) {
+                    return overflowed;
+                }
+            } else {
+                int newHead = discardOldest ? index(head + 1) : head;
+
+                if (state.compareAndSet(s, update(s, newHead, count - 1)) && !overflowed) {
+                    value = overflow.apply(e);
+                    overflowed = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Remove the value at the head of the queue.
+     *
+     * @return the oldest value in the queue, or {@code null} if it's empty.
+     */
+    @Nullable
+    public E poll() {
+        while (true) {
+            long s = state.get();
+            int head = head(s);
+            int count = count(s);
+
+            if (count == 0) return null;
+
+            @SuppressWarnings("unchecked")
+            E e = (E) buffer[head];
+
+            if (state.compareAndSet(s, update(s, index(head + 1), count - 1))) {
+                return e;
+            }
+        }
+    }
+
+    /**
+     * Remove all values from the queue.
+     */
+    public void clear() {
+        while (true) {
+            long s = state.get();
+            int head = head(s);
+            int count = count(s);
+
+            if (count == 0 || state.compareAndSet(s, update(s, index(head + count), 0))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return {@code true} if the queue is empty.
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * @return the current number of values in the queue.
+     */
+    public int size() {
+        return count(state.get());
+    }
+
+    /**
+     * @return the maximum number of values in the queue.
+     */
+    public int maxSize() {
+        return maxSize;
+    }
+
+    private int index(int i) {
+        return i < maxSize ? i : i - maxSize;
+    }
+
+    private static int head(long s) {
+        return (int) (s & 0xFFFF);
+    }
+
+    private static int count(long s) {
+        return (int) ((s >>> 16) & 0xFFFF);
+    }
+
+    private static long update(long s, int head, int count) {
+        long stamp = (s & 0xFFFFFFFF00000000L) + STAMP_INCREMENT;
+
+        return stamp | ((long) count << 16) | head;
+    }
+
+}
@@ -0,0 +1,244 @@
+/*
+ * Copyright (c) 2019 the Eclipse Milo Authors
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.milo.opcua.sdk.server.util;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.milo.opcua.sdk.server.api.DataItem;
+import org.eclipse.milo.opcua.stack.core.AttributeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.QualifiedName;
+import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UInteger;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.TimestampsToReturn;
+import org.eclipse.milo.opcua.stack.core.types.structured.ReadValueId;
+
+/**
+ * A value that is sampled once and fanned out to every {@link DataItem} monitoring it.
+ * <p>
+ * Items are reference counted: a {@link SampledNode} is in use as long as at least one item has been added and not yet
+ * removed. Adding and removing items must be done from a single thread at a time, but {@link #setValue(DataValue)} may
+ * be called concurrently with either.
+ * <p>
+ * Values must be sampled with {@link TimestampsToReturn#Both}; each item receives a value derived with its own
+ * {@link TimestampsToReturn}, and items that requested the same timestamps share the same derived instance.
+ */
+public class SampledNode {
+
+    private static final DataItem[] NO_ITEMS = new DataItem[0];
+
+    private static final TimestampsToReturn[] TIMESTAMPS = TimestampsToReturn.values();
+
+    private volatile DataItem[] items = NO_ITEMS;
+
+    private volatile DataValue lastValue;
+    private volatile long lastValueNanos;
+
+    private final Key key;
+    private final ReadValueId readValueId;
+    private final boolean valueAttribute;
+
+    public SampledNode(ReadValueId readValueId) {
+        this.readValueId = readValueId;
+
+        key = new Key(readValueId);
+        valueAttribute = AttributeId.Value.isEqual(readValueId.getAttributeId());
+    }
+
+    /**
+     * @return the {@link Key} identifying the value this node samples.
+     */
+    public Key getKey() {
+        return key;
+    }
+
+    /**
+     * @return the {@link ReadValueId} to sample.
+     */
+    public ReadValueId getReadValueId() {
+        return readValueId;
+    }
+
+    /**
+     * @return the number of items currently referencing this node.
+     */
+    public int getReferenceCount() {
+        return items.length;
+    }
+
+    /**
+     * Add a reference from {@code item}.
+     *
+     * @param item the {@link DataItem} to deliver sampled values to.
+     * @return the reference count after adding {@code item}.
+     */
+    public int add(DataItem item) {
+        DataItem[] current = items;
+        DataItem[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = item;
+        items = updated;
+
+        return updated.length;
+    }
+
+    /**
+     * Remove the reference from {@code item}.
+     *
+     * @param item the {@link DataItem} to stop delivering sampled values to.
+     * @return the reference count after removing {@code item}, or -1 if {@code item} was not referencing this node.
+     */
+    public int remove(DataItem item) {
+        DataItem[] current = items;
+
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == item) {
+                DataItem[] updated = new DataItem[current.length - 1];
+                System.arraycopy(current, 0, updated, 0, i);
+                System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+                items = updated;
+
+                if (updated.length == 0) {
+                    lastValue = null;
+                }
+
+                return updated.length;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Deliver a newly sampled value to every item referencing this node.
+     *
+     * @param value the value sampled with {@link TimestampsToReturn#Both}.
+     */
+    public void setValue(DataValue value) {
+        lastValue = value;
+        lastValueNanos = System.nanoTime();
+
+        DataItem[] current = items;
+
+        if (current.length == 1) {
+            DataItem item = current[0];
+            item.setValue(deriveValue(value, item.getTimestampsToReturn()));
+        } else if (current.length > 1) {
+            DataValue[] derived = new DataValue[TIMESTAMPS.length];
+
+            for (DataItem item : current) {
+                TimestampsToReturn timestamps = item.getTimestampsToReturn();
+
+                if (timestamps == null) {
+                    item.setValue(value);
+                } else {
+                    int i = timestamps.ordinal();
+                    if (derived[i] == null) derived[i] = deriveValue(value, timestamps);
+                    item.setValue(derived[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Notify every item referencing this node that a sampling tick has completed.
+     *
+     * @param time the time of the tick, in milliseconds since the Java epoch.
+     */
+    public void onSamplingTick(long time) {
+        for (DataItem item : items) {
+            item.onSamplingTick(time);
+        }
+    }
+
+    /**
+     * Deliver the most recently sampled value to {@code item}, if that value is no older than {@code maxAge}.
+     * <p>
+     * This lets an item that just started referencing this node receive an initial value without another read.
+     *
+     * @param item   the {@link DataItem} to deliver the value to.
+     * @param maxAge the maximum age of the value.
+     * @param unit   the {@link TimeUnit} of {@code maxAge}.
+     * @return {@code true} if a value was delivered.
+     */
+    public boolean deliverLastValue(DataItem item, long maxAge, TimeUnit unit) {
+        DataValue value = lastValue;
+
+        if (value != null && System.nanoTime() - lastValueNanos <= unit.toNanos(maxAge)) {
+            item.setValue(deriveValue(value, item.getTimestampsToReturn()));
+            return true;
+        } else {
+            return false;
+        }
+    }
+
+    /**
+     * Deliver a value sampled on behalf of {@code item} only, e.g. as its initial value, and keep it as the most
+     * recently sampled value of this node.
+     *
+     * @param item  the {@link DataItem} to deliver the value to.
+     * @param value the value sampled with {@link TimestampsToReturn#Both}.
+     */
+    public void setValue(DataItem item, DataValue value) {
+        lastValue = value;
+        lastValueNanos = System.nanoTime();
+
+        item.setValue(deriveValue(value, item.getTimestampsToReturn()));
+    }
+
+    private DataValue deriveValue(DataValue value, TimestampsToReturn timestamps) {
+        if (timestamps == null) {
+            return value;
+        } else {
+            return valueAttribute ?
+                DataValue.derivedValue(value, timestamps) :
+                DataValue.derivedNonValue(value, timestamps);
+        }
+    }
+
+    /**
+     * Identifies the value a {@link SampledNode} samples: the NodeId, attribute, index range, and data encoding of a
+     * {@link ReadValueId}, which doesn't implement equals/hashCode itself.
+     */
+    public static final class Key {
+
+        private final NodeId nodeId;
+        private final UInteger attributeId;
+        private final String indexRange;
+        private final QualifiedName dataEncoding;
+
+        public Key(ReadValueId readValueId) {
+            this.nodeId = readValueId.getNodeId();
+            this.attributeId = readValueId.getAttributeId();
+            this.indexRange = readValueId.getIndexRange();
+            this.dataEncoding = readValueId.getDataEncoding();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key that = (Key) o;
+            return Objects.equals(nodeId, that.nodeId) &&
+                Objects.equals(attributeId, that.attributeId) &&
+                Objects.equals(indexRange, that.indexRange) &&
+                Objects.equals(dataEncoding, that.dataEncoding);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(nodeId, attributeId, indexRange, dataEncoding);
+        }
+
+    }
+
+}
@@ -0,0 +1,336 @@
+/*
+ * Copyright (c) 2019 the Eclipse Milo Authors
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.milo.opcua.sdk.server.util;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.google.common.collect.ImmutableList;
+import org.eclipse.milo.opcua.sdk.server.OpcUaServer;
+import org.eclipse.milo.opcua.sdk.server.api.DataItem;
+import org.eclipse.milo.opcua.sdk.server.api.services.AttributeServices;
+import org.eclipse.milo.opcua.sdk.server.api.services.AttributeServices.ReadContext;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.TimestampsToReturn;
+import org.eclipse.milo.opcua.stack.core.types.structured.ReadValueId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A group of {@link DataItem}s that share a sampling interval and are sampled together by a {@link SubscriptionModel}.
+ * <p>
+ * Items with identical {@link ReadValueId}s share a {@link SampledNode} so that each distinct value is read only once
+ * per tick, regardless of how many sessions or subscriptions are monitoring it. Ticks are aligned to a grid of
+ * multiples of the sampling interval, and a tick that is late or skipped entirely is recorded in this bucket's lag
+ * metrics.
+ * <p>
+ * Membership changes ({@link #add(DataItem)}, {@link #remove(DataItem)}) must be made from a single thread at a time;
+ * ticks only ever see an immutable snapshot of the membership, so they don't allocate or lock on behalf of it. A change
+ * only marks the snapshot stale; the next tick rebuilds it once, however many changes were made since.
+ */
+public class SamplingBucket {
+
+    private static final SampledNode[] NO_NODES = new SampledNode[0];
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final Map<SampledNode.Key, SampledNode> nodes = new LinkedHashMap<>();
+
+    private volatile Snapshot snapshot = new Snapshot(NO_NODES, Collections.emptyList());
+    private volatile boolean snapshotStale = false;
+
+    private volatile int itemCount = 0;
+
+    private volatile boolean cancelled = false;
+    private volatile ScheduledFuture<?> nextTick;
+    private volatile long deadline;
+
+    private final LongAdder tickCount = new LongAdder();
+    private final LongAdder overrunCount = new LongAdder();
+    private volatile long lastLagNanos = 0L;
+    private volatile long maxLagNanos = 0L;
+
+    private final Runnable tick = this::tick;
+
+    private final long samplingInterval;
+    private final long intervalNanos;
+    private final long epochNanos;
+
+    private final OpcUaServer server;
+    private final AttributeServices attributeServices;
+    private final ExecutorService executor;
+    private final ScheduledExecutorService scheduler;
+
+    SamplingBucket(
+        long samplingInterval,
+        long epochNanos,
+        OpcUaServer server,
+        AttributeServices attributeServices) {
+
+        this.samplingInterval = samplingInterval;
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1L, samplingInterval));
+        this.epochNanos = epochNanos;
+        this.server = server;
+        this.attributeServices = attributeServices;
+
+        executor = server.getExecutorService();
+        scheduler = server.getScheduledExecutorService();
+    }
+
+    /**
+     * @return the sampling interval, in milliseconds, of the items in this bucket.
+     */
+    public long getSamplingInterval() {
+        return samplingInterval;
+    }
+
+    /**
+     * @return the number of {@link DataItem}s in this bucket.
+     */
+    public int getItemCount() {
+        return itemCount;
+    }
+
+    /**
+     * @return the number of distinct values read from the address space on each tick.
+     */
+    public int getSampledNodeCount() {
+        synchronized (nodes) {
+            return nodes.size();
+        }
+    }
+
+    /**
+     * @return the number of ticks that have started.
+     */
+    public long getTickCount() {
+        return tickCount.sum();
+    }
+
+    /**
+     * @return the number of ticks that were skipped because the previous tick was still running at their deadline.
+     */
+    public long getOverrunCount() {
+        return overrunCount.sum();
+    }
+
+    /**
+     * @param unit the {@link TimeUnit} to return the lag in.
+     * @return how late, relative to its deadline, the most recent tick started.
+     */
+    public long getLastLag(TimeUnit unit) {
+        return unit.convert(lastLagNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @param unit the {@link TimeUnit} to return the lag in.
+     * @return the largest lag observed for any tick of this bucket.
+     */
+    public long getMaxLag(TimeUnit unit) {
+        return unit.convert(maxLagNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Add {@code item} to this bucket.
+     *
+     * @param item the {@link DataItem} to add.
+     * @return the {@link SampledNode} {@code item} now references.
+     */
+    SampledNode add(DataItem item) {
+        SampledNode.Key key = new SampledNode.Key(item.getReadValueId());
+
+        SampledNode node = nodes.get(key);
+
+        if (node == null) {
+            node = new SampledNode(item.getReadValueId());
+            node.add(item);
+
+            synchronized (nodes) {
+                nodes.put(key, node);
+                snapshotStale = true;
+            }
+        } else {
+            node.add(item);
+        }
+
+        itemCount++;
+
+        return node;
+    }
+
+    /**
+     * Remove {@code item} from this bucket.
+     *
+     * @param item the {@link DataItem} to remove.
+     */
+    void remove(DataItem item) {
+        SampledNode.Key key = new SampledNode.Key(item.getReadValueId());
+
+        SampledNode node = nodes.get(key);
+
+        if (node != null) {
+            int referenceCount = node.remove(item);
+
+            if (referenceCount >= 0) {
+                itemCount--;
+            }
+
+            if (referenceCount == 0) {
+                synchronized (nodes) {
+                    nodes.remove(key);
+                    snapshotStale = true;
+                }
+            }
+        }
+    }
+
+    boolean isEmpty() {
+        return nodes.isEmpty();
+    }
+
+    /**
+     * Start ticking, beginning at the next multiple of the sampling interval since the epoch.
+     */
+    void start() {
+        long now = System.nanoTime();
+        long elapsed = now - epochNanos;
+
+        deadline = epochNanos + ((elapsed / intervalNanos) + 1) * intervalNanos;
+
+        nextTick = scheduler.schedule(tick, deadline - now, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Stop ticking. A tick in progress will complete but not schedule another.
+     */
+    void cancel() {
+        cancelled = true;
+
+        ScheduledFuture<?> f = nextTick;
+        if (f != null) f.cancel(false);
+    }
+
+    /**
+     * @return the snapshot of the membership, rebuilt first if the membership changed since it was last built.
+     */
+    private Snapshot snapshot() {
+        if (snapshotStale) {
+            synchronized (nodes) {
+                snapshotStale = false;
+                updateSnapshot();
+            }
+        }
+
+        return snapshot;
+    }
+
+    private void updateSnapshot() {
+        SampledNode[] sampledNodes = nodes.values().toArray(NO_NODES);
+
+        ImmutableList.Builder<ReadValueId> builder = ImmutableList.builder();
+        for (SampledNode node : sampledNodes) {
+            builder.add(node.getReadValueId());
+        }
+
+        snapshot = new Snapshot(sampledNodes, builder.build());
+    }
+
+    private void tick() {
+        if (cancelled) return;
+
+        long lag = System.nanoTime() - deadline;
+        lastLagNanos = lag;
+        if (lag > maxLagNanos) maxLagNanos = lag;
+        tickCount.increment();
+
+        Snapshot s = snapshot();
+
+        if (s.nodes.length == 0) {
+            scheduleNext();
+            return;
+        }
+
+        ReadContext context = new ReadContext(server, null);
+
+        context.getFuture().whenCompleteAsync((values, ex) -> {
+            try {
+                if (values != null) {
+                    distribute(s.nodes, values);
+                } else {
+                    logger.warn("Sampling read failed; samplingInterval={}", samplingInterval, ex);
+                }
+
+                long time = System.currentTimeMillis();
+
+                for (SampledNode node : s.nodes) {
+                    node.onSamplingTick(time);
+                }
+            } catch (Throwable t) {
+                logger.error("Uncaught exception delivering sampled values; samplingInterval={}", samplingInterval, t);
+            } finally {
+                scheduleNext();
+            }
+        }, executor);
+
+        executor.execute(() -> {
+            try {
+                attributeServices.read(context, 0d, TimestampsToReturn.Both, s.readValueIds);
+            } catch (Throwable t) {
+                // the read will never complete the context; fail it so the next tick is still scheduled
+                context.getFuture().completeExceptionally(t);
+            }
+        });
+    }
+
+    private void scheduleNext() {
+        if (cancelled) return;
+
+        long now = System.nanoTime();
+        long next = deadline + intervalNanos;
+
+        if (next - now < 0) {
+            long missed = (now - next) / intervalNanos + 1;
+            overrunCount.add(missed);
+            next += missed * intervalNanos;
+        }
+
+        deadline = next;
+        nextTick = scheduler.schedule(tick, next - now, TimeUnit.NANOSECONDS);
+    }
+
+    private static void distribute(SampledNode[] nodes, List<DataValue> values) {
+        int count = Math.min(nodes.length, values.size());
+
+        for (int i = 0; i < count; i++) {
+            nodes[i].setValue(values.get(i));
+        }
+    }
+
+    private static final class Snapshot {
+
+        final SampledNode[] nodes;
+        final List<ReadValueId> readValueIds;
+
+        Snapshot(SampledNode[] nodes, List<ReadValueId> readValueIds) {
+            this.nodes = nodes;
+            this.readValueIds = readValueIds;
+        }
+
+    }
+
+}
@@ -11,17 +11,18 @@
 package org.eclipse.milo.opcua.sdk.server.util;
 
 import java.math.RoundingMode;
-import java.util.Collections;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
+import javax.annotation.Nullable;
 
-import com.google.common.collect.Lists;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Maps;
 import com.google.common.math.DoubleMath;
 import org.eclipse.milo.opcua.sdk.server.OpcUaServer;
@@ -29,21 +30,33 @@ import org.eclipse.milo.opcua.sdk.server.api.DataItem;
 import org.eclipse.milo.opcua.sdk.server.api.MonitoredItem;
 import org.eclipse.milo.opcua.sdk.server.api.services.AttributeServices;
 import org.eclipse.milo.opcua.sdk.server.api.services.AttributeServices.ReadContext;
-import org.eclipse.milo.opcua.stack.core.AttributeId;
 import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
-import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UInteger;
 import org.eclipse.milo.opcua.stack.core.types.enumerated.TimestampsToReturn;
 import org.eclipse.milo.opcua.stack.core.types.structured.ReadValueId;
 import org.eclipse.milo.opcua.stack.core.util.ExecutionQueue;
 
+/**
+ * Samples {@link DataItem}s by reading their values from an {@link AttributeServices} instance.
+ * <p>
+ * Items are grouped into a {@link SamplingBucket} per sampling interval. Creating, modifying, or deleting items moves
+ * only the affected items between buckets; buckets that are unaffected keep ticking undisturbed.
+ * <p>
+ * Within a bucket, items monitoring the same {@link ReadValueId} share a reference-counted {@link SampledNode}, so a
+ * value monitored by many sessions is read once per interval and fanned out to each of them.
+ */
 public class SubscriptionModel {
 
-    private final Set<DataItem> itemSet = Collections.newSetFromMap(Maps.newConcurrentMap());
+    /**
+     * Every item that has been created and not yet deleted, mapped to the bucket it's currently sampled in, or
+     * {@code null} if sampling is disabled. Only accessed from {@link #executionQueue}.
+     */
+    private final Map<DataItem, SamplingBucket> itemBuckets = new HashMap<>();
+
+    private final Map<Long, SamplingBucket> buckets = Maps.newConcurrentMap();
 
-    private final List<ScheduledUpdate> schedule = Lists.newCopyOnWriteArrayList();
+    private final long epochNanos = System.nanoTime();
 
     private final ExecutorService executor;
-    private final ScheduledExecutorService scheduler;
     private final ExecutionQueue executionQueue;
 
     private final OpcUaServer server;
@@ -55,109 +68,174 @@ public class SubscriptionModel {
         this.attributeServices = attributeServices;
 
         executor = server.getExecutorService();
-        scheduler = server.getScheduledExecutorService();
 
         executionQueue = new ExecutionQueue(executor);
     }
 
     public void onDataItemsCreated(List<DataItem> items) {
         executionQueue.submit(() -> {
-            itemSet.addAll(items);
-            reschedule();
+            Map<DataItem, SampledNode> added = new LinkedHashMap<>();
+
+            for (DataItem item : items) {
+                itemBuckets.put(item, null);
+
+                SampledNode node = update(item);
+                if (node != null) added.put(item, node);
+            }
+
+            sampleNow(added);
         });
     }
 
     public void onDataItemsModified(List<DataItem> items) {
-        executionQueue.submit(this::reschedule);
+        executionQueue.submit(() -> {
+            Map<DataItem, SampledNode> added = new LinkedHashMap<>();
+
+            for (DataItem item : items) {
+                if (itemBuckets.containsKey(item)) {
+                    SampledNode node = update(item);
+                    if (node != null) added.put(item, node);
+                }
+            }
+
+            sampleNow(added);
+        });
     }
 
     public void onDataItemsDeleted(List<DataItem> items) {
         executionQueue.submit(() -> {
-            itemSet.removeAll(items);
-            reschedule();
+            for (DataItem item : items) {
+                if (itemBuckets.containsKey(item)) {
+                    SamplingBucket bucket = itemBuckets.remove(item);
+
+                    if (bucket != null) removeFromBucket(bucket, item);
+                }
+            }
         });
     }
 
     public void onMonitoringModeChanged(List<MonitoredItem> items) {
-        executionQueue.submit(this::reschedule);
-    }
+        executionQueue.submit(() -> {
+            Map<DataItem, SampledNode> added = new LinkedHashMap<>();
 
-    private void reschedule() {
-        Map<Double, List<DataItem>> bySamplingInterval = itemSet.stream()
-            .filter(DataItem::isSamplingEnabled)
-            .collect(Collectors.groupingBy(DataItem::getSamplingInterval));
+            for (MonitoredItem item : items) {
+                if (item instanceof DataItem && itemBuckets.containsKey(item)) {
+                    DataItem dataItem = (DataItem) item;
 
-        List<ScheduledUpdate> updates = bySamplingInterval.keySet().stream()
-            .map(samplingInterval -> {
-                List<DataItem> items = bySamplingInterval.get(samplingInterval);
+                    SampledNode node = update(dataItem);
+                    if (node != null) added.put(dataItem, node);
+                }
+            }
 
-                return new ScheduledUpdate(samplingInterval, items);
-            })
-            .collect(Collectors.toList());
+            sampleNow(added);
+        });
+    }
 
-        schedule.forEach(ScheduledUpdate::cancel);
-        schedule.clear();
-        schedule.addAll(updates);
-        schedule.forEach(scheduler::execute);
+    /**
+     * @return the {@link SamplingBucket}s currently in use, one per distinct sampling interval.
+     */
+    public List<SamplingBucket> getSamplingBuckets() {
+        return ImmutableList.copyOf(buckets.values());
     }
 
-    private class ScheduledUpdate implements Runnable {
+    /**
+     * Move {@code item} into the bucket matching its current sampling interval and monitoring mode.
+     *
+     * @param item the {@link DataItem} to update.
+     * @return the {@link SampledNode} {@code item} now references if it was not previously being sampled and now is,
+     * otherwise {@code null}.
+     */
+    @Nullable
+    private SampledNode update(DataItem item) {
+        SamplingBucket current = itemBuckets.get(item);
+
+        if (!item.isSamplingEnabled()) {
+            if (current != null) {
+                itemBuckets.put(item, null);
+                removeFromBucket(current, item);
+            }
+            return null;
+        }
 
-        private volatile boolean cancelled = false;
+        long samplingInterval = DoubleMath.roundToLong(item.getSamplingInterval(), RoundingMode.UP);
 
-        private final long samplingInterval;
-        private final List<DataItem> items;
+        if (current != null && current.getSamplingInterval() == samplingInterval) {
+            return null;
+        }
 
-        private ScheduledUpdate(double samplingInterval, List<DataItem> items) {
-            this.samplingInterval = DoubleMath.roundToLong(samplingInterval, RoundingMode.UP);
-            this.items = items;
+        if (current != null) {
+            removeFromBucket(current, item);
         }
 
-        private void cancel() {
-            cancelled = true;
+        SamplingBucket bucket = buckets.get(samplingInterval);
+        SampledNode node;
+
+        if (bucket == null) {
+            bucket = new SamplingBucket(samplingInterval, epochNanos, server, attributeServices);
+            buckets.put(samplingInterval, bucket);
+            node = bucket.add(item);
+            bucket.start();
+        } else {
+            node = bucket.add(item);
         }
 
-        @Override
-        public void run() {
-            List<PendingRead> pending = items.stream()
-                .map(item -> new PendingRead(item.getReadValueId()))
-                .collect(Collectors.toList());
+        itemBuckets.put(item, bucket);
 
-            List<ReadValueId> ids = pending.stream()
-                .map(PendingRead::getInput)
-                .collect(Collectors.toList());
+        return current == null ? node : null;
+    }
 
-            ReadContext context = new ReadContext(server, null);
+    private void removeFromBucket(SamplingBucket bucket, DataItem item) {
+        bucket.remove(item);
 
-            context.getFuture().thenAcceptAsync(values -> {
-                Iterator<DataItem> ii = items.iterator();
-                Iterator<DataValue> vi = values.iterator();
+        if (bucket.isEmpty()) {
+            bucket.cancel();
+            buckets.remove(bucket.getSamplingInterval());
+        }
+    }
 
-                while (ii.hasNext() && vi.hasNext()) {
-                    DataItem item = ii.next();
-                    DataValue value = vi.next();
+    /**
+     * Deliver an initial value to items that just started sampling rather than making them wait for the next tick of
+     * their bucket.
+     * <p>
+     * Items joining a {@link SampledNode} that was sampled within the last sampling interval receive that value;
+     * the rest are read together, once per distinct {@link SampledNode}.
+     *
+     * @param items the items to sample and the {@link SampledNode} each references.
+     */
+    private void sampleNow(Map<DataItem, SampledNode> items) {
+        Map<SampledNode, List<DataItem>> pending = new LinkedHashMap<>();
+
+        items.forEach((item, node) -> {
+            long maxAge = DoubleMath.roundToLong(item.getSamplingInterval(), RoundingMode.UP);
+
+            if (!node.deliverLastValue(item, maxAge, TimeUnit.MILLISECONDS)) {
+                pending.computeIfAbsent(node, n -> new ArrayList<>()).add(item);
+            }
+        });
 
-                    TimestampsToReturn timestamps = item.getTimestampsToReturn();
+        if (pending.isEmpty()) return;
 
-                    if (timestamps != null) {
-                        UInteger attributeId = item.getReadValueId().getAttributeId();
+        List<SampledNode> nodes = new ArrayList<>(pending.keySet());
 
-                        value = (AttributeId.Value.isEqual(attributeId)) ?
-                            DataValue.derivedValue(value, timestamps) :
-                            DataValue.derivedNonValue(value, timestamps);
-                    }
+        List<ReadValueId> ids = nodes.stream()
+            .map(SampledNode::getReadValueId)
+            .collect(Collectors.toList());
 
-                    item.setValue(value);
-                }
+        ReadContext context = new ReadContext(server, null);
 
-                if (!cancelled) {
-                    scheduler.schedule(this, samplingInterval, TimeUnit.MILLISECONDS);
-                }
-            }, executor);
+        context.getFuture().thenAcceptAsync(values -> {
+            Iterator<SampledNode> ni = nodes.iterator();
+            Iterator<DataValue> vi = values.iterator();
 
-            executor.execute(() -> attributeServices.read(context, 0d, TimestampsToReturn.Both, ids));
-        }
+            while (ni.hasNext() && vi.hasNext()) {
+                SampledNode node = ni.next();
+                DataValue value = vi.next();
+
+                pending.get(node).forEach(item -> node.setValue(item, value));
+            }
+        }, executor);
 
+        executor.execute(() -> attributeServices.read(context, 0d, TimestampsToReturn.Both, ids));
     }
 
 }
@@ -0,0 +1,426 @@
+/*
+ * Copyright (c) 2019 the Eclipse Milo Authors
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.milo.opcua.sdk.server;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.google.common.collect.ImmutableList;
+import org.eclipse.milo.opcua.sdk.server.api.AddressSpace;
+import org.eclipse.milo.opcua.sdk.server.api.AddressSpaceManager;
+import org.eclipse.milo.opcua.sdk.server.api.NodeManager;
+import org.eclipse.milo.opcua.sdk.server.api.services.AttributeServices.ReadContext;
+import org.eclipse.milo.opcua.sdk.server.nodes.UaNode;
+import org.eclipse.milo.opcua.sdk.server.nodes.UaNodeContext;
+import org.eclipse.milo.opcua.sdk.server.nodes.UaServerNode;
+import org.eclipse.milo.opcua.sdk.server.nodes.UaVariableNode;
+import org.eclipse.milo.opcua.stack.core.AttributeId;
+import org.eclipse.milo.opcua.stack.core.Identifiers;
+import org.eclipse.milo.opcua.stack.core.NamespaceTable;
+import org.eclipse.milo.opcua.stack.core.StatusCodes;
+import org.eclipse.milo.opcua.stack.core.types.builtin.ByteString;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DateTime;
+import org.eclipse.milo.opcua.stack.core.types.builtin.LocalizedText;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.QualifiedName;
+import org.eclipse.milo.opcua.stack.core.types.builtin.Variant;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.BrowseDirection;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.NodeClass;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.TimestampsToReturn;
+import org.eclipse.milo.opcua.stack.core.types.structured.AddReferencesItem;
+import org.eclipse.milo.opcua.stack.core.types.structured.AddReferencesRequest;
+import org.eclipse.milo.opcua.stack.core.types.structured.BrowseDescription;
+import org.eclipse.milo.opcua.stack.core.types.structured.BrowsePath;
+import org.eclipse.milo.opcua.stack.core.types.structured.BrowseRequest;
+import org.eclipse.milo.opcua.stack.core.types.structured.CallMethodRequest;
+import org.eclipse.milo.opcua.stack.core.types.structured.CallRequest;
+import org.eclipse.milo.opcua.stack.core.types.structured.DeleteAtTimeDetails;
+import org.eclipse.milo.opcua.stack.core.types.structured.DeleteNodesItem;
+import org.eclipse.milo.opcua.stack.core.types.structured.DeleteNodesRequest;
+import org.eclipse.milo.opcua.stack.core.types.structured.HistoryReadRequest;
+import org.eclipse.milo.opcua.stack.core.types.structured.HistoryReadValueId;
+import org.eclipse.milo.opcua.stack.core.types.structured.HistoryUpdateDetails;
+import org.eclipse.milo.opcua.stack.core.types.structured.ReadValueId;
+import org.eclipse.milo.opcua.stack.core.types.structured.RelativePath;
+import org.eclipse.milo.opcua.stack.core.types.structured.RelativePathElement;
+import org.eclipse.milo.opcua.stack.core.types.structured.TranslateBrowsePathsToNodeIdsRequest;
+import org.mockito.Mockito;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.uint;
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.ushort;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+
+public class RegisteredNodesTest {
+
+    private final OpcUaServer server = Mockito.mock(OpcUaServer.class);
+
+    private AddressSpaceManager addressSpaceManager;
+    private UaNodeManager nodeManager;
+    private UaNodeContext nodeContext;
+    private AddressSpace ns2;
+
+    private RegisteredNodes registeredNodes;
+
+    @BeforeMethod
+    public void setUp() {
+        addressSpaceManager = new AddressSpaceManager(server);
+
+        Mockito.when(server.getNamespaceTable()).thenReturn(new NamespaceTable());
+        Mockito.when(server.getAddressSpaceManager()).thenReturn(addressSpaceManager);
+
+        nodeManager = new UaNodeManager();
+        addressSpaceManager.register(nodeManager);
+
+        nodeContext = new UaNodeContext() {
+            @Override
+            public OpcUaServer getServer() {
+                return server;
+            }
+
+            @Override
+            public NodeManager<UaNode> getNodeManager() {
+                return nodeManager;
+            }
+        };
+
+        ns2 = addressSpace("ns2");
+        addressSpaceManager.register(ns2);
+
+        registeredNodes = new RegisteredNodes(server, ushort(1), 2);
+    }
+
+    @Test
+    public void testRegister() {
+        NodeId nodeId = addNode(new NodeId(2, "foo"));
+
+        NodeId alias = registeredNodes.register(nodeId);
+
+        assertEquals(alias.getNamespaceIndex(), ushort(1));
+        assertEquals(alias.getIdentifier().getClass(), ByteString.class);
+        assertEquals(registeredNodes.resolve(alias), nodeId);
+
+        // registering again returns the same alias
+        assertEquals(registeredNodes.register(nodeId), alias);
+        assertEquals(registeredNodes.size(), 1);
+
+        // nodes no AddressSpace claims aren't registered
+        NodeId unclaimed = new NodeId(3, "foo");
+        assertEquals(registeredNodes.register(unclaimed), unclaimed);
+        assertEquals(registeredNodes.size(), 1);
+
+        registeredNodes.unregister(alias);
+
+        assertEquals(registeredNodes.size(), 0);
+        assertEquals(registeredNodes.resolve(alias), alias);
+        assertNull(registeredNodes.get(alias));
+    }
+
+    @Test
+    public void testRegisterIsLimited() {
+        NodeId foo = addNode(new NodeId(2, "foo"));
+        NodeId bar = addNode(new NodeId(2, "bar"));
+        NodeId baz = addNode(new NodeId(2, "baz"));
+
+        NodeId fooAlias = registeredNodes.register(foo);
+        NodeId barAlias = registeredNodes.register(bar);
+
+        // nodes beyond the limit aren't registered
+        assertEquals(registeredNodes.register(baz), baz);
+        assertEquals(registeredNodes.size(), 2);
+
+        // nodes already registered still are
+        assertEquals(registeredNodes.register(foo), fooAlias);
+
+        registeredNodes.unregister(barAlias);
+
+        assertNotEquals(registeredNodes.register(baz), baz);
+        assertEquals(registeredNodes.size(), 2);
+    }
+
+    @Test
+    public void testAliasDoesNotShadowExistingNode() {
+        NodeId existing = addNode(new NodeId(1, uint(1)));
+
+        NodeId alias = registeredNodes.register(addNode(new NodeId(2, "foo")));
+
+        assertNotEquals(alias, existing);
+    }
+
+    @Test
+    public void testAliasesAreSessionSpecific() {
+        NodeId nodeId = addNode(new NodeId(2, "foo"));
+
+        RegisteredNodes other = new RegisteredNodes(server, ushort(1), 2);
+
+        NodeId alias = registeredNodes.register(nodeId);
+        NodeId otherAlias = other.register(nodeId);
+
+        assertNotEquals(alias, otherAlias);
+        assertNull(other.get(alias));
+
+        // a numeric NodeId in the alias namespace is never taken for an alias
+        assertNull(registeredNodes.get(new NodeId(1, uint(1))));
+    }
+
+    @Test
+    public void testResolveRequest() {
+        NodeId foo = addNode(new NodeId(2, "foo"));
+        NodeId bar = new NodeId(2, "bar");
+        NodeId fooAlias = registeredNodes.register(foo);
+
+        BrowseRequest browseRequest = new BrowseRequest(
+            null,
+            null,
+            uint(0),
+            new BrowseDescription[]{browseDescription(bar), browseDescription(fooAlias)}
+        );
+
+        BrowseRequest resolvedBrowse = (BrowseRequest) registeredNodes.resolve(browseRequest);
+        assertEquals(resolvedBrowse.getNodesToBrowse()[0], browseRequest.getNodesToBrowse()[0]);
+        assertEquals(resolvedBrowse.getNodesToBrowse()[1].getNodeId(), foo);
+
+        CallRequest callRequest = new CallRequest(
+            null,
+            new CallMethodRequest[]{new CallMethodRequest(fooAlias, fooAlias, new Variant[0])}
+        );
+
+        CallMethodRequest resolvedCall = ((CallRequest) registeredNodes.resolve(callRequest)).getMethodsToCall()[0];
+        assertEquals(resolvedCall.getObjectId(), foo);
+        assertEquals(resolvedCall.getMethodId(), foo);
+
+        TranslateBrowsePathsToNodeIdsRequest translateRequest = new TranslateBrowsePathsToNodeIdsRequest(
+            null,
+            new BrowsePath[]{new BrowsePath(fooAlias, new RelativePath(new RelativePathElement[0]))}
+        );
+
+        assertEquals(
+            ((TranslateBrowsePathsToNodeIdsRequest) registeredNodes.resolve(translateRequest))
+                .getBrowsePaths()[0].getStartingNode(),
+            foo
+        );
+
+        HistoryReadRequest historyReadRequest = new HistoryReadRequest(
+            null,
+            null,
+            TimestampsToReturn.Both,
+            false,
+            new HistoryReadValueId[]{new HistoryReadValueId(fooAlias, null, QualifiedName.NULL_VALUE, null)}
+        );
+
+        assertEquals(
+            ((HistoryReadRequest) registeredNodes.resolve(historyReadRequest)).getNodesToRead()[0].getNodeId(),
+            foo
+        );
+
+        AddReferencesRequest addReferencesRequest = new AddReferencesRequest(
+            null,
+            new AddReferencesItem[]{new AddReferencesItem(
+                fooAlias,
+                Identifiers.Organizes,
+                true,
+                null,
+                fooAlias.expanded(),
+                NodeClass.Variable
+            )}
+        );
+
+        AddReferencesItem resolvedReference =
+            ((AddReferencesRequest) registeredNodes.resolve(addReferencesRequest)).getReferencesToAdd()[0];
+        assertEquals(resolvedReference.getSourceNodeId(), foo);
+        assertEquals(resolvedReference.getTargetNodeId(), foo.expanded());
+
+        DeleteNodesRequest deleteNodesRequest = new DeleteNodesRequest(
+            null,
+            new DeleteNodesItem[]{new DeleteNodesItem(fooAlias, true)}
+        );
+
+        assertEquals(
+            ((DeleteNodesRequest) registeredNodes.resolve(deleteNodesRequest)).getNodesToDelete()[0].getNodeId(),
+            foo
+        );
+
+        // requests without aliases are returned as they are
+        BrowseRequest unaliased = new BrowseRequest(
+            null,
+            null,
+            uint(0),
+            new BrowseDescription[]{browseDescription(bar)}
+        );
+        assertSame(registeredNodes.resolve(unaliased), unaliased);
+    }
+
+    @Test
+    public void testResolveHistoryUpdateDetails() {
+        NodeId foo = addNode(new NodeId(2, "foo"));
+        NodeId fooAlias = registeredNodes.register(foo);
+
+        DeleteAtTimeDetails details = new DeleteAtTimeDetails(fooAlias, new DateTime[]{DateTime.now()});
+        HistoryUpdateDetails resolved = registeredNodes.resolve(details);
+
+        assertEquals(resolved.getClass(), DeleteAtTimeDetails.class);
+        assertEquals(resolved.getNodeId(), foo);
+        assertSame(((DeleteAtTimeDetails) resolved).getReqTimes(), details.getReqTimes());
+
+        DeleteAtTimeDetails unaliased = new DeleteAtTimeDetails(foo, new DateTime[0]);
+        assertSame(registeredNodes.resolve(unaliased), unaliased);
+    }
+
+    @Test
+    public void testReadRoutesAliasesToRegisteredNode() throws Exception {
+        NodeId foo = addNode(new NodeId(2, "foo"));
+        NodeId bar = addNode(new NodeId(2, "bar"));
+
+        NodeId fooAlias = registeredNodes.register(foo);
+
+        assertEquals(read(fooAlias, bar, fooAlias), ImmutableList.of("ns2:foo", "read:bar", "ns2:foo"));
+
+        // the node is looked up again once it's been removed
+        nodeManager.removeNode(foo);
+
+        assertEquals(read(fooAlias, bar), ImmutableList.of("ns2:null", "read:bar"));
+
+        addNode(foo);
+
+        assertEquals(read(fooAlias), Collections.singletonList("ns2:foo"));
+
+        registeredNodes.clear();
+
+        // no longer an alias, so it's routed like any other NodeId and nothing claims it
+        ReadContext context = read(Collections.singletonList(fooAlias));
+        assertEquals(context.getFuture().get().get(0).getStatusCode().getValue(), StatusCodes.Bad_NodeIdUnknown);
+    }
+
+    @Test
+    public void testRegisteredNodeIsResolvedAgainWhenRegistrationsChange() throws Exception {
+        NodeId foo = addNode(new NodeId(2, "foo"));
+        NodeId fooAlias = registeredNodes.register(foo);
+
+        assertEquals(read(fooAlias), Collections.singletonList("ns2:foo"));
+
+        // the node is no longer found once its NodeManager is unregistered
+        addressSpaceManager.unregister(nodeManager);
+
+        assertEquals(read(fooAlias), Collections.singletonList("ns2:null"));
+
+        addressSpaceManager.register(nodeManager);
+
+        assertEquals(read(fooAlias), Collections.singletonList("ns2:foo"));
+
+        // operations are routed to whichever AddressSpace claims the node now
+        addressSpaceManager.unregister(ns2);
+
+        ReadContext context = read(Collections.singletonList(fooAlias));
+        assertEquals(context.getFuture().get().get(0).getStatusCode().getValue(), StatusCodes.Bad_NodeIdUnknown);
+
+        addressSpaceManager.register(addressSpace("other"));
+
+        assertEquals(read(fooAlias), Collections.singletonList("other:foo"));
+    }
+
+    private static BrowseDescription browseDescription(NodeId nodeId) {
+        return new BrowseDescription(
+            nodeId,
+            BrowseDirection.Forward,
+            Identifiers.References,
+            true,
+            uint(0),
+            uint(0)
+        );
+    }
+
+    private NodeId addNode(NodeId nodeId) {
+        UaVariableNode node = new UaVariableNode(
+            nodeContext,
+            nodeId,
+            new QualifiedName(nodeId.getNamespaceIndex(), nodeId.getIdentifier().toString()),
+            LocalizedText.english(nodeId.getIdentifier().toString())
+        );
+
+        nodeManager.addNode(node);
+
+        return nodeId;
+    }
+
+    private List<String> read(NodeId... nodeIds) throws Exception {
+        ReadContext context = read(ImmutableList.copyOf(nodeIds));
+
+        List<String> names = new ArrayList<>();
+        for (DataValue value : context.getFuture().get()) {
+            names.add((String) value.getValue().getValue());
+        }
+        return names;
+    }
+
+    private ReadContext read(List<NodeId> nodeIds) {
+        List<ReadValueId> readValueIds = new ArrayList<>();
+
+        for (NodeId nodeId : nodeIds) {
+            readValueIds.add(new ReadValueId(nodeId, AttributeId.Value.uid(), null, QualifiedName.NULL_VALUE));
+        }
+
+        ReadContext context = new ReadContext(server, null);
+
+        registeredNodes.read(context, 0.0, TimestampsToReturn.Neither, readValueIds);
+
+        return context;
+    }
+
+    private static AddressSpace addressSpace(String name) {
+        AddressSpace addressSpace = Mockito.mock(AddressSpace.class, name);
+
+        Mockito.when(addressSpace.getNamespaceIndices()).thenReturn(Collections.singleton(ushort(2)));
+        Mockito.when(addressSpace.ownsNamespaces()).thenReturn(true);
+
+        Mockito.doAnswer(invocation -> {
+            ReadContext context = invocation.getArgument(0);
+            List<ReadValueId> readValueIds = invocation.getArgument(3);
+
+            List<DataValue> values = new ArrayList<>();
+            readValueIds.forEach(id -> values.add(new DataValue(new Variant("read:" + id.getNodeId().getIdentifier()))));
+
+            context.success(values);
+            return null;
+        }).when(addressSpace).read(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any());
+
+        Mockito.doAnswer(invocation -> {
+            ReadContext context = invocation.getArgument(0);
+            List<ReadValueId> readValueIds = invocation.getArgument(3);
+            List<UaServerNode> nodes = invocation.getArgument(4);
+
+            List<DataValue> values = new ArrayList<>();
+            for (int i = 0; i < readValueIds.size(); i++) {
+                UaServerNode node = nodes.get(i);
+
+                // the registered node must be the node the ReadValueId was resolved to
+                if (node != null) {
+                    assertEquals(node.getNodeId(), readValueIds.get(i).getNodeId());
+                }
+
+                values.add(new DataValue(new Variant(
+                    name + ":" + (node != null ? node.getNodeId().getIdentifier() : null))));
+            }
+
+            context.success(values);
+            return null;
+        }).when(addressSpace).readRegistered(
+            Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any());
+
+        return addressSpace;
+    }
+
+}
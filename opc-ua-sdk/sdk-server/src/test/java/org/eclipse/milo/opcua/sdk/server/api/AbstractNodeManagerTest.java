@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2019 the Eclipse Milo Authors
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.milo.opcua.sdk.server.api;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import org.eclipse.milo.opcua.sdk.core.Reference;
+import org.eclipse.milo.opcua.sdk.server.UaNodeManager;
+import org.eclipse.milo.opcua.stack.core.Identifiers;
+import org.eclipse.milo.opcua.stack.core.NamespaceTable;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class AbstractNodeManagerTest {
+
+    private static final NodeId SOURCE = new NodeId(1, "source");
+
+    @Test
+    public void testReferencesAreReturnedInInsertionOrder() {
+        UaNodeManager nodeManager = new UaNodeManager();
+
+        List<Reference> references = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            NodeId referenceTypeId = i % 2 == 0 ? Identifiers.Organizes : Identifiers.HasComponent;
+            references.add(reference(referenceTypeId, i));
+        }
+
+        references.forEach(nodeManager::addReference);
+
+        assertEquals(nodeManager.getReferences(SOURCE), references);
+        assertEquals(nodeManager.getReferences(new NodeId(1, "unknown")), Collections.emptyList());
+    }
+
+    @Test
+    public void testReferencesByType() {
+        UaNodeManager nodeManager = new UaNodeManager();
+
+        Reference r0 = reference(Identifiers.Organizes, 0);
+        Reference r1 = reference(Identifiers.HasComponent, 1);
+        Reference r2 = reference(Identifiers.Organizes, 2);
+        Reference r3 = reference(Identifiers.HasProperty, 3);
+
+        nodeManager.addReference(r0);
+        nodeManager.addReference(r1);
+        nodeManager.addReference(r2);
+        nodeManager.addReference(r3);
+
+        assertEquals(
+            nodeManager.getReferences(SOURCE, Collections.singleton(Identifiers.Organizes)),
+            ImmutableList.of(r0, r2)
+        );
+
+        List<Reference> components = nodeManager.getReferences(
+            SOURCE, ImmutableSet.of(Identifiers.HasComponent, Identifiers.HasProperty));
+
+        assertEquals(components.size(), 2);
+        assertTrue(components.containsAll(ImmutableList.of(r1, r3)));
+
+        assertEquals(
+            nodeManager.getReferences(SOURCE, r -> r.getReferenceTypeId().equals(Identifiers.HasProperty)),
+            ImmutableList.of(r3)
+        );
+
+        nodeManager.removeReference(r0);
+        nodeManager.removeReference(r2);
+
+        assertEquals(nodeManager.getReferences(SOURCE, Collections.singleton(Identifiers.Organizes)), ImmutableList.of());
+        assertEquals(nodeManager.getReferences(SOURCE), ImmutableList.of(r1, r3));
+    }
+
+    @Test
+    public void testRemoveReference() {
+        UaNodeManager nodeManager = new UaNodeManager();
+
+        Reference r0 = reference(Identifiers.Organizes, 0);
+        Reference r1 = reference(Identifiers.Organizes, 1);
+
+        nodeManager.addReference(r0);
+        nodeManager.addReference(r1);
+        nodeManager.addReference(r0);
+
+        // like a ListMultimap, only the first occurrence is removed
+        nodeManager.removeReference(r0);
+        assertEquals(nodeManager.getReferences(SOURCE), ImmutableList.of(r1, r0));
+
+        nodeManager.removeReference(r0);
+        nodeManager.removeReference(r1);
+        assertEquals(nodeManager.getReferences(SOURCE), ImmutableList.of());
+
+        nodeManager.addReference(r1);
+        assertEquals(nodeManager.getReferences(SOURCE), ImmutableList.of(r1));
+    }
+
+    @Test
+    public void testAddAndRemoveReferencesWithInverse() {
+        UaNodeManager nodeManager = new UaNodeManager();
+        NamespaceTable namespaceTable = new NamespaceTable();
+
+        Reference reference = reference(Identifiers.Organizes, 0);
+
+        nodeManager.addReferences(reference, namespaceTable);
+
+        NodeId target = new NodeId(1, 0);
+        assertEquals(nodeManager.getReferences(SOURCE), ImmutableList.of(reference));
+        assertEquals(nodeManager.getReferences(target).size(), 1);
+        assertTrue(nodeManager.getReferences(target).get(0).isInverse());
+
+        nodeManager.removeReferences(reference, namespaceTable);
+
+        assertEquals(nodeManager.getReferences(SOURCE), ImmutableList.of());
+        assertEquals(nodeManager.getReferences(target), ImmutableList.of());
+    }
+
+    @Test
+    public void testConcurrentAddAndRead() throws Exception {
+        UaNodeManager nodeManager = new UaNodeManager();
+
+        int writers = 4;
+        int referencesPerWriter = 2_000;
+
+        ExecutorService executor = Executors.newFixedThreadPool(writers + 1);
+        CountDownLatch start = new CountDownLatch(1);
+
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+
+            for (int w = 0; w < writers; w++) {
+                int writer = w;
+
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < referencesPerWriter; i++) {
+                        nodeManager.addReference(reference(Identifiers.Organizes, writer * referencesPerWriter + i));
+                    }
+                    return null;
+                }));
+            }
+
+            Future<?> reader = executor.submit(() -> {
+                start.await();
+                int last = 0;
+                while (last < writers * referencesPerWriter) {
+                    List<Reference> references = nodeManager.getReferences(SOURCE);
+
+                    assertTrue(references.size() >= last);
+                    references.forEach(r -> assertEquals(r.getSourceNodeId(), SOURCE));
+
+                    last = references.size();
+                }
+                return null;
+            });
+
+            start.countDown();
+
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+            reader.get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(nodeManager.getReferences(SOURCE).size(), writers * referencesPerWriter);
+        assertEquals(
+            nodeManager.getReferences(SOURCE, Collections.singleton(Identifiers.Organizes)).size(),
+            writers * referencesPerWriter
+        );
+    }
+
+    private static Reference reference(NodeId referenceTypeId, int target) {
+        return new Reference(
+            SOURCE,
+            referenceTypeId,
+            new NodeId(1, target).expanded(),
+            Reference.Direction.FORWARD
+        );
+    }
+
+}
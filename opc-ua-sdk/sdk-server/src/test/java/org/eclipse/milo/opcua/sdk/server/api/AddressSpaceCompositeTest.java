@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2019 the Eclipse Milo Authors
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.milo.opcua.sdk.server.api;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import org.eclipse.milo.opcua.sdk.server.OpcUaServer;
+import org.eclipse.milo.opcua.sdk.server.api.services.AttributeServices.ReadContext;
+import org.eclipse.milo.opcua.stack.core.AttributeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.QualifiedName;
+import org.eclipse.milo.opcua.stack.core.types.builtin.Variant;
+import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UShort;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.TimestampsToReturn;
+import org.eclipse.milo.opcua.stack.core.types.structured.ReadValueId;
+import org.mockito.Mockito;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.ushort;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class AddressSpaceCompositeTest {
+
+    private final OpcUaServer server = Mockito.mock(OpcUaServer.class);
+
+    private AddressSpace ns2;
+    private AddressSpace ns3;
+    private AddressSpace ns4Partial;
+    private AddressSpace any;
+
+    private AddressSpaceComposite composite;
+
+    @BeforeMethod
+    public void setUp() {
+        ns2 = addressSpace("ns2", Collections.singleton(ushort(2)), true, id -> id.getNamespaceIndex().intValue() == 2);
+        ns3 = addressSpace("ns3", Collections.singleton(ushort(3)), true, id -> id.getNamespaceIndex().intValue() == 3);
+
+        ns4Partial = addressSpace(
+            "ns4Partial",
+            Collections.singleton(ushort(4)),
+            false,
+            id -> id.getNamespaceIndex().intValue() == 4 && id.getIdentifier().toString().startsWith("partial")
+        );
+
+        any = addressSpace("any", Collections.emptySet(), false, id -> id.getNamespaceIndex().intValue() != 5);
+
+        composite = new AddressSpaceComposite(server) {};
+    }
+
+    @Test
+    public void testRouteByNamespace() throws Exception {
+        composite.register(ns2);
+        composite.register(ns3);
+        composite.register(ns4Partial);
+        composite.register(any);
+
+        List<NodeId> nodeIds = new ArrayList<>();
+        nodeIds.add(new NodeId(2, "foo"));
+        nodeIds.add(new NodeId(3, "foo"));
+        nodeIds.add(new NodeId(4, "partial.foo"));
+        nodeIds.add(new NodeId(4, "foo"));
+        nodeIds.add(new NodeId(0, "foo"));
+        nodeIds.add(new NodeId(100, "foo"));
+
+        assertEquals(read(nodeIds), ImmutableList.of("ns2", "ns3", "ns4Partial", "any", "any", "any"));
+
+        // namespace owners are never asked to filter
+        Mockito.verify(ns2, Mockito.never()).filter(Mockito.any());
+        Mockito.verify(ns3, Mockito.never()).filter(Mockito.any());
+
+        assertTrue(composite.filter(new NodeId(4, "foo")));
+        assertFalse(composite.filter(new NodeId(5, "foo")));
+    }
+
+    @Test
+    public void testRegistrationOrderIsPreserved() throws Exception {
+        // an undeclared AddressSpace registered first still gets the first chance to match
+        composite.register(any);
+        composite.register(ns2);
+
+        assertEquals(read(Collections.singletonList(new NodeId(2, "foo"))), Collections.singletonList("any"));
+
+        composite.unregister(any);
+
+        assertEquals(read(Collections.singletonList(new NodeId(2, "foo"))), Collections.singletonList("ns2"));
+
+        composite.registerFirst(any);
+
+        assertEquals(read(Collections.singletonList(new NodeId(2, "foo"))), Collections.singletonList("any"));
+    }
+
+    @Test
+    public void testNamespaceIndices() {
+        composite.register(ns2);
+        composite.register(ns3);
+
+        assertEquals(composite.getNamespaceIndices(), ImmutableSet.of(ushort(2), ushort(3)));
+
+        composite.register(any);
+
+        assertEquals(composite.getNamespaceIndices(), Collections.emptySet());
+    }
+
+    private List<String> read(List<NodeId> nodeIds) throws Exception {
+        List<ReadValueId> readValueIds = new ArrayList<>();
+
+        for (NodeId nodeId : nodeIds) {
+            readValueIds.add(new ReadValueId(nodeId, AttributeId.Value.uid(), null, QualifiedName.NULL_VALUE));
+        }
+
+        ReadContext context = new ReadContext(server, null);
+
+        composite.read(context, 0.0, TimestampsToReturn.Neither, readValueIds);
+
+        List<String> names = new ArrayList<>();
+        for (DataValue value : context.getFuture().get()) {
+            names.add((String) value.getValue().getValue());
+        }
+        return names;
+    }
+
+    private static AddressSpace addressSpace(
+        String name,
+        Set<UShort> namespaceIndices,
+        boolean ownsNamespaces,
+        Predicate<NodeId> filter) {
+
+        AddressSpace addressSpace = Mockito.mock(AddressSpace.class, name);
+
+        Mockito.when(addressSpace.getNamespaceIndices()).thenReturn(namespaceIndices);
+        Mockito.when(addressSpace.ownsNamespaces()).thenReturn(ownsNamespaces);
+        Mockito.when(addressSpace.filter(Mockito.any())).then(invocation -> filter.test(invocation.getArgument(0)));
+
+        Mockito.doAnswer(invocation -> {
+            ReadContext context = invocation.getArgument(0);
+            List<ReadValueId> readValueIds = invocation.getArgument(3);
+
+            List<DataValue> values = new ArrayList<>();
+            readValueIds.forEach(id -> values.add(new DataValue(new Variant(name))));
+
+            context.success(values);
+            return null;
+        }).when(addressSpace).read(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any());
+
+        return addressSpace;
+    }
+
+}
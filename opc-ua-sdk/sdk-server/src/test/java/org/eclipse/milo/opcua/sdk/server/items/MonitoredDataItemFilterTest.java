@@ -0,0 +1,350 @@
+/*
+ * Copyright (c) 2019 the Eclipse Milo Authors
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.milo.opcua.sdk.server.items;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.eclipse.milo.opcua.sdk.server.OpcUaServer;
+import org.eclipse.milo.opcua.sdk.server.UaNodeManager;
+import org.eclipse.milo.opcua.sdk.server.api.AddressSpaceManager;
+import org.eclipse.milo.opcua.sdk.server.api.NodeManager;
+import org.eclipse.milo.opcua.sdk.server.model.types.variables.AnalogItemType;
+import org.eclipse.milo.opcua.sdk.server.nodes.UaNode;
+import org.eclipse.milo.opcua.sdk.server.nodes.UaNodeContext;
+import org.eclipse.milo.opcua.sdk.server.nodes.UaVariableNode;
+import org.eclipse.milo.opcua.stack.core.AttributeId;
+import org.eclipse.milo.opcua.stack.core.Identifiers;
+import org.eclipse.milo.opcua.stack.core.NamespaceTable;
+import org.eclipse.milo.opcua.stack.core.StatusCodes;
+import org.eclipse.milo.opcua.stack.core.UaException;
+import org.eclipse.milo.opcua.stack.core.serialization.UaStructure;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DateTime;
+import org.eclipse.milo.opcua.stack.core.types.builtin.ExtensionObject;
+import org.eclipse.milo.opcua.stack.core.types.builtin.LocalizedText;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.QualifiedName;
+import org.eclipse.milo.opcua.stack.core.types.builtin.StatusCode;
+import org.eclipse.milo.opcua.stack.core.types.builtin.Variant;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.DataChangeTrigger;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.DeadbandType;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.MonitoringMode;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.TimestampsToReturn;
+import org.eclipse.milo.opcua.stack.core.types.structured.AggregateConfiguration;
+import org.eclipse.milo.opcua.stack.core.types.structured.AggregateFilter;
+import org.eclipse.milo.opcua.stack.core.types.structured.AggregateFilterResult;
+import org.eclipse.milo.opcua.stack.core.types.structured.DataChangeFilter;
+import org.eclipse.milo.opcua.stack.core.types.structured.MonitoredItemNotification;
+import org.eclipse.milo.opcua.stack.core.types.structured.Range;
+import org.eclipse.milo.opcua.stack.core.types.structured.ReadValueId;
+import org.mockito.Mockito;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.ubyte;
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.uint;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+public class MonitoredDataItemFilterTest {
+
+    private static final long START = 1_000_000L;
+
+    private final OpcUaServer server = Mockito.mock(OpcUaServer.class);
+
+    private UaNodeManager nodeManager;
+    private UaNodeContext nodeContext;
+
+    @BeforeMethod
+    public void setUp() {
+        AddressSpaceManager addressSpaceManager = new AddressSpaceManager(server);
+
+        Mockito.when(server.getNamespaceTable()).thenReturn(new NamespaceTable());
+        Mockito.when(server.getAddressSpaceManager()).thenReturn(addressSpaceManager);
+
+        nodeManager = new UaNodeManager();
+        addressSpaceManager.register(nodeManager);
+
+        nodeContext = new UaNodeContext() {
+            @Override
+            public OpcUaServer getServer() {
+                return server;
+            }
+
+            @Override
+            public NodeManager<UaNode> getNodeManager() {
+                return nodeManager;
+            }
+        };
+    }
+
+    @Test
+    public void testPercentDeadband() throws Exception {
+        UaVariableNode node = addNode(new NodeId(1, "analog"));
+        node.setProperty(AnalogItemType.E_U_RANGE, new Range(0.0, 200.0));
+
+        // 10% of 200 = 20
+        MonitoredDataItem item = newItem(node.getNodeId(), percentDeadband(10.0));
+
+        List<Double> values = sample(item, 0.0, 10.0, 20.0, 20.5, 30.0, 41.0);
+        assertEquals(values, doubles(0.0, 20.5, 41.0));
+
+        // changing the EURange changes the deadband: 10% of 20 = 2
+        node.setProperty(AnalogItemType.E_U_RANGE, new Range(0.0, 20.0));
+
+        values = sample(item, 42.0, 43.5, 44.0);
+        assertEquals(values, doubles(43.5));
+    }
+
+    @Test
+    public void testPercentDeadbandRequiresEURange() throws Exception {
+        NodeId nodeId = addNode(new NodeId(1, "plain")).getNodeId();
+
+        assertStatus(() -> newItem(nodeId, percentDeadband(10.0)), StatusCodes.Bad_FilterNotAllowed);
+        assertStatus(() -> newItem(nodeId, percentDeadband(101.0)), StatusCodes.Bad_DeadbandFilterInvalid);
+    }
+
+    @Test
+    public void testAggregateFilterResult() throws Exception {
+        MonitoredDataItem item = newItem(new NodeId(1, "x"), aggregate(Identifiers.AggregateFunction_Average, 50.0));
+
+        AggregateFilterResult result = (AggregateFilterResult) item.getFilterResult().decode();
+
+        assertEquals(result.getRevisedStartTime().getJavaTime(), START);
+        // revised up to the sampling interval
+        assertEquals(result.getRevisedProcessingInterval(), 100.0);
+
+        assertStatus(
+            () -> newItem(new NodeId(1, "x"), aggregate(Identifiers.AggregateFunction_Range, 1000.0)),
+            StatusCodes.Bad_AggregateNotSupported
+        );
+    }
+
+    @Test
+    public void testAggregates() throws Exception {
+        // interval 1: 1 @ 0ms, 3 @ 500ms; interval 2: 5 @ 1000ms, bad @ 1500ms; interval 3: 7 @ 2000ms
+        assertEquals(aggregate(Identifiers.AggregateFunction_Average), doubles(2.0, 5.0));
+        assertEquals(aggregate(Identifiers.AggregateFunction_Minimum), doubles(1.0, 5.0));
+        assertEquals(aggregate(Identifiers.AggregateFunction_Maximum), doubles(3.0, 5.0));
+        assertEquals(aggregate(Identifiers.AggregateFunction_Count), doubles(2.0, 1.0));
+
+        // (1..3 over 500ms + 3..5 over 500ms) / 1000ms; the bad value is skipped, so 5..7 over 1000ms
+        assertEquals(aggregate(Identifiers.AggregateFunction_TimeAverage), doubles(3.0, 6.0));
+    }
+
+    @Test
+    public void testAggregateStatus() throws Exception {
+        MonitoredDataItem item = aggregateItem(Identifiers.AggregateFunction_Average);
+
+        List<DataValue> results = new ArrayList<>();
+        item.setValue(value(1, 0), START);
+        item.setValue(badValue(500), START + 500);
+        item.setValue(badValue(1000), START + 1000);
+        item.setValue(value(1, 2000), START + 2000);
+        item.setValue(value(1, 5000), START + 5000);
+        drain(item, results);
+
+        assertEquals(results.size(), 3);
+
+        assertEquals(results.get(0).getSourceTime().getJavaTime(), START);
+        assertEquals(results.get(0).getStatusCode().getValue(), StatusCodes.Uncertain_DataSubNormal);
+
+        assertEquals(results.get(1).getSourceTime().getJavaTime(), START + 1000);
+        assertEquals(results.get(1).getStatusCode().getValue(), StatusCodes.Bad_NoData);
+
+        // nothing is reported for the empty intervals between 3000ms and 5000ms
+        assertEquals(results.get(2).getSourceTime().getJavaTime(), START + 2000);
+        assertTrue(results.get(2).getStatusCode().isGood());
+    }
+
+    @Test
+    public void testAggregateUsesSamplingTime() throws Exception {
+        MonitoredDataItem item = newItem(
+            new NodeId(1, "x"),
+            aggregate(Identifiers.AggregateFunction_Average, 1000.0),
+            TimestampsToReturn.Source
+        );
+
+        // an unchanged value keeps its source timestamp, but is still sampled once per interval
+        item.setValue(value(1, 0), START);
+        item.setValue(value(1, 0), START + 1000);
+        item.setValue(value(1, 0), START + 2000);
+
+        List<DataValue> results = new ArrayList<>();
+        drain(item, results);
+
+        assertEquals(results.size(), 2);
+        assertEquals(results.get(0).getSourceTime().getJavaTime(), START);
+        assertEquals(results.get(1).getSourceTime().getJavaTime(), START + 1000);
+
+        // only the requested timestamps are returned
+        results.forEach(v -> assertNull(v.getServerTime()));
+    }
+
+    @Test
+    public void testAggregateClosedBySamplingTick() throws Exception {
+        MonitoredDataItem item = aggregateItem(Identifiers.AggregateFunction_TimeAverage);
+
+        item.setValue(value(1, 0), START);
+        item.setValue(value(3, 500), START + 500);
+
+        item.onSamplingTick(START + 900);
+
+        List<DataValue> results = new ArrayList<>();
+        drain(item, results);
+        assertTrue(results.isEmpty());
+
+        // the interval closes without waiting for another sample, holding 3 until its end
+        item.onSamplingTick(START + 1000);
+
+        drain(item, results);
+        assertEquals(results.size(), 1);
+        assertEquals(results.get(0).getSourceTime().getJavaTime(), START);
+        assertEquals(results.get(0).getValue().getValue(), (1.0 + 3.0) / 2.0 * 0.5 + 3.0 * 0.5);
+
+        // nothing sampled since, so nothing more to report
+        item.onSamplingTick(START + 2000);
+
+        results.clear();
+        drain(item, results);
+        assertTrue(results.isEmpty());
+    }
+
+    private List<Double> aggregate(NodeId aggregateType) throws Exception {
+        MonitoredDataItem item = aggregateItem(aggregateType);
+
+        item.setValue(value(1, 0), START);
+        item.setValue(value(3, 500), START + 500);
+        item.setValue(value(5, 1000), START + 1000);
+        item.setValue(badValue(1500), START + 1500);
+        item.setValue(value(7, 2000), START + 2000);
+
+        List<DataValue> results = new ArrayList<>();
+        drain(item, results);
+
+        List<Double> values = new ArrayList<>();
+        results.forEach(v -> values.add(((Number) v.getValue().getValue()).doubleValue()));
+        return values;
+    }
+
+    private MonitoredDataItem aggregateItem(NodeId aggregateType) throws Exception {
+        return newItem(new NodeId(1, "x"), aggregate(aggregateType, 1000.0));
+    }
+
+    private static List<Double> sample(MonitoredDataItem item, double... values) {
+        for (double v : values) {
+            item.setValue(new DataValue(new Variant(v)));
+        }
+
+        List<DataValue> results = new ArrayList<>();
+        drain(item, results);
+
+        List<Double> reported = new ArrayList<>();
+        results.forEach(v -> reported.add((Double) v.getValue().getValue()));
+        return reported;
+    }
+
+    private static void drain(MonitoredDataItem item, List<DataValue> values) {
+        List<UaStructure> notifications = new ArrayList<>();
+        item.getNotifications(notifications, Integer.MAX_VALUE);
+
+        notifications.forEach(n -> values.add(((MonitoredItemNotification) n).getValue()));
+    }
+
+    private UaVariableNode addNode(NodeId nodeId) {
+        UaVariableNode node = new UaVariableNode(
+            nodeContext,
+            nodeId,
+            new QualifiedName(nodeId.getNamespaceIndex(), nodeId.getIdentifier().toString()),
+            LocalizedText.english(nodeId.getIdentifier().toString())
+        );
+
+        nodeManager.addNode(node);
+
+        return node;
+    }
+
+    private MonitoredDataItem newItem(NodeId nodeId, UaStructure filter) throws UaException {
+        return newItem(nodeId, filter, TimestampsToReturn.Both);
+    }
+
+    private MonitoredDataItem newItem(
+        NodeId nodeId,
+        UaStructure filter,
+        TimestampsToReturn timestamps) throws UaException {
+
+        return new MonitoredDataItem(
+            server,
+            null,
+            uint(1),
+            uint(1),
+            new ReadValueId(nodeId, AttributeId.Value.uid(), null, QualifiedName.NULL_VALUE),
+            MonitoringMode.Reporting,
+            timestamps,
+            uint(1),
+            100.0,
+            ExtensionObject.encode(filter),
+            uint(100),
+            true
+        );
+    }
+
+    private static DataChangeFilter percentDeadband(double percent) {
+        return new DataChangeFilter(DataChangeTrigger.StatusValue, uint(DeadbandType.Percent.getValue()), percent);
+    }
+
+    private static AggregateFilter aggregate(NodeId aggregateType, double processingInterval) {
+        return new AggregateFilter(
+            new DateTime(new Date(START)),
+            aggregateType,
+            processingInterval,
+            new AggregateConfiguration(true, true, ubyte(100), ubyte(100), false)
+        );
+    }
+
+    private static DataValue value(int value, long offset) {
+        return new DataValue(new Variant(value), StatusCode.GOOD, null, time(offset));
+    }
+
+    private static DataValue badValue(long offset) {
+        return new DataValue(Variant.NULL_VALUE, new StatusCode(StatusCodes.Bad_NoCommunication), null, time(offset));
+    }
+
+    private static DateTime time(long offset) {
+        return new DateTime(new Date(START + offset));
+    }
+
+    private static List<Double> doubles(double... values) {
+        List<Double> list = new ArrayList<>();
+        for (double v : values) {
+            list.add(v);
+        }
+        return list;
+    }
+
+    private static void assertStatus(ItemFactory factory, long statusCode) {
+        try {
+            factory.create();
+            fail("expected " + new StatusCode(statusCode));
+        } catch (UaException e) {
+            assertEquals(e.getStatusCode().getValue(), statusCode);
+        }
+    }
+
+    private interface ItemFactory {
+        MonitoredDataItem create() throws UaException;
+    }
+
+}
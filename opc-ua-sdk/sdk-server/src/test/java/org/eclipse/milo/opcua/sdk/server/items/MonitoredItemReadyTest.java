@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2019 the Eclipse Milo Authors
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.milo.opcua.sdk.server.items;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.milo.opcua.sdk.server.OpcUaServer;
+import org.eclipse.milo.opcua.stack.core.AttributeId;
+import org.eclipse.milo.opcua.stack.core.serialization.UaStructure;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.QualifiedName;
+import org.eclipse.milo.opcua.stack.core.types.builtin.Variant;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.MonitoringMode;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.TimestampsToReturn;
+import org.eclipse.milo.opcua.stack.core.types.structured.ReadValueId;
+import org.mockito.Mockito;
+import org.testng.annotations.Test;
+
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.uint;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class MonitoredItemReadyTest {
+
+    private final OpcUaServer server = Mockito.mock(OpcUaServer.class);
+
+    @Test
+    public void testNotifiesOnceUntilReset() throws Exception {
+        MonitoredDataItem item = newItem(1, MonitoringMode.Reporting);
+
+        List<BaseMonitoredItem<?>> ready = new ArrayList<>();
+        item.setReadyListener(ready::add);
+
+        assertTrue(ready.isEmpty());
+
+        item.setValue(new DataValue(new Variant(1)));
+        item.setValue(new DataValue(new Variant(2)));
+
+        assertEquals(ready.size(), 1);
+
+        item.resetReady();
+        item.setValue(new DataValue(new Variant(3)));
+
+        assertEquals(ready.size(), 2);
+
+        item.setReadyListener(null);
+        item.resetReady();
+        item.setValue(new DataValue(new Variant(4)));
+
+        assertEquals(ready.size(), 2);
+    }
+
+    @Test
+    public void testNotifiesWhenListenerSetOnItemWithNotifications() throws Exception {
+        MonitoredDataItem item = newItem(1, MonitoringMode.Reporting);
+        item.setValue(new DataValue(new Variant(1)));
+
+        List<BaseMonitoredItem<?>> ready = new ArrayList<>();
+        item.setReadyListener(ready::add);
+
+        assertEquals(ready.size(), 1);
+    }
+
+    @Test
+    public void testSamplingItemNotifiesWhenReportingOrTriggered() throws Exception {
+        MonitoredDataItem trigger = newItem(1, MonitoringMode.Reporting);
+        MonitoredDataItem sampling = newItem(2, MonitoringMode.Sampling);
+
+        List<BaseMonitoredItem<?>> ready = new ArrayList<>();
+        sampling.setReadyListener(ready::add);
+
+        sampling.setValue(new DataValue(new Variant(1)));
+
+        assertTrue(ready.isEmpty());
+
+        trigger.getTriggeredItems().put(sampling.getId(), sampling);
+        trigger.setValue(new DataValue(new Variant(1)));
+
+        assertEquals(ready.size(), 1);
+        assertTrue(sampling.isTriggered());
+
+        // gathering the triggered item's notifications clears the trigger
+        sampling.resetReady();
+        List<UaStructure> notifications = new ArrayList<>();
+        assertTrue(sampling.getNotifications(notifications, Integer.MAX_VALUE));
+        assertEquals(notifications.size(), 1);
+
+        sampling.setValue(new DataValue(new Variant(2)));
+        assertEquals(ready.size(), 1);
+
+        sampling.setMonitoringMode(MonitoringMode.Reporting);
+        assertEquals(ready.size(), 2);
+    }
+
+    private MonitoredDataItem newItem(int id, MonitoringMode monitoringMode) throws Exception {
+        return new MonitoredDataItem(
+            server,
+            null,
+            uint(id),
+            uint(1),
+            new ReadValueId(new NodeId(2, id), AttributeId.Value.uid(), null, QualifiedName.NULL_VALUE),
+            monitoringMode,
+            TimestampsToReturn.Both,
+            uint(id),
+            100.0,
+            null,
+            uint(10),
+            true
+        );
+    }
+
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2019 the Eclipse Milo Authors
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.milo.opcua.sdk.server.services.helpers;
+
+import java.util.Collections;
+import java.util.Set;
+
+import org.eclipse.milo.opcua.sdk.server.OpcUaServer;
+import org.eclipse.milo.opcua.stack.core.BuiltinReferenceType;
+import org.eclipse.milo.opcua.stack.core.Identifiers;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.mockito.Mockito;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+public class BrowseHelperTest {
+
+    @Test
+    public void testReferenceTypeIds() {
+        OpcUaServer server = Mockito.mock(OpcUaServer.class);
+        Mockito.when(server.getReferenceTypes()).thenReturn(BuiltinReferenceType.getReferenceMap());
+
+        assertNull(BrowseHelper.referenceTypeIds(server, null, true));
+        assertNull(BrowseHelper.referenceTypeIds(server, NodeId.NULL_VALUE, true));
+
+        assertEquals(
+            BrowseHelper.referenceTypeIds(server, Identifiers.HierarchicalReferences, false),
+            Collections.singleton(Identifiers.HierarchicalReferences)
+        );
+
+        Set<NodeId> hierarchical = BrowseHelper.referenceTypeIds(server, Identifiers.HierarchicalReferences, true);
+
+        assertTrue(hierarchical.contains(Identifiers.HierarchicalReferences));
+        assertTrue(hierarchical.contains(Identifiers.Organizes));
+        assertTrue(hierarchical.contains(Identifiers.HasComponent));
+        assertTrue(hierarchical.contains(Identifiers.HasOrderedComponent));
+        assertFalse(hierarchical.contains(Identifiers.HasTypeDefinition));
+        assertFalse(hierarchical.contains(Identifiers.References));
+    }
+
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2019 the Eclipse Milo Authors
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.milo.opcua.sdk.server.subscriptions;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.common.util.concurrent.MoreExecutors;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DateTime;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.structured.PublishRequest;
+import org.eclipse.milo.opcua.stack.core.types.structured.RequestHeader;
+import org.eclipse.milo.opcua.stack.core.types.structured.SubscriptionAcknowledgement;
+import org.eclipse.milo.opcua.stack.server.UaStackServer;
+import org.eclipse.milo.opcua.stack.server.UaStackServerConfig;
+import org.eclipse.milo.opcua.stack.server.services.ServiceRequest;
+import org.mockito.InOrder;
+import org.testng.annotations.Test;
+
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.uint;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class PublishQueueTest {
+
+    private final UaStackServer stackServer = stackServer();
+
+    @Test
+    public void testRequestsAreQueued() {
+        PublishQueue queue = new PublishQueue();
+        ServiceRequest r1 = request(1);
+        ServiceRequest r2 = request(2);
+
+        queue.addRequest(r1);
+        queue.addRequest(r2);
+
+        assertTrue(queue.isNotEmpty());
+
+        Subscription s1 = subscription(1, 0);
+        queue.addSubscription(s1);
+
+        verify(s1).onPublish(r1);
+        assertTrue(queue.isNotEmpty());
+
+        assertEquals(queue.poll(), r2);
+        assertFalse(queue.isNotEmpty());
+    }
+
+    @Test
+    public void testSubscriptionsByPriorityThenAge() {
+        PublishQueue queue = new PublishQueue();
+        Subscription low = subscription(1, 0);
+        Subscription high1 = subscription(2, 10);
+        Subscription high2 = subscription(3, 10);
+
+        queue.addSubscription(low);
+        queue.addSubscription(high1);
+        queue.addSubscription(high2);
+
+        ServiceRequest r1 = request(1);
+        ServiceRequest r2 = request(2);
+        ServiceRequest r3 = request(3);
+
+        queue.addRequest(r1);
+        queue.addRequest(r2);
+        queue.addRequest(r3);
+
+        InOrder inOrder = inOrder(low, high1, high2);
+        inOrder.verify(high1).onPublish(r1);
+        inOrder.verify(high2).onPublish(r2);
+        inOrder.verify(low).onPublish(r3);
+    }
+
+    @Test
+    public void testSubscriptionWaitsOnce() {
+        PublishQueue queue = new PublishQueue();
+        Subscription s1 = subscription(1, 0);
+
+        queue.addSubscription(s1);
+        queue.addSubscription(s1);
+
+        ServiceRequest r1 = request(1);
+        ServiceRequest r2 = request(2);
+        queue.addRequest(r1);
+        queue.addRequest(r2);
+
+        verify(s1, times(1)).onPublish(any());
+        verify(s1, never()).onPublish(r2);
+        assertEquals(queue.poll(), r2);
+    }
+
+    @Test
+    public void testConcurrentRequestsAndSubscriptions() throws Exception {
+        final int rounds = 2000;
+
+        for (int round = 0; round < rounds; round++) {
+            PublishQueue queue = new PublishQueue();
+            AtomicInteger published = new AtomicInteger(0);
+
+            Subscription s1 = subscription(1, 0);
+            doAnswer(invocation -> published.incrementAndGet()).when(s1).onPublish(any());
+
+            ServiceRequest r1 = request(1);
+            CountDownLatch start = new CountDownLatch(1);
+
+            Thread t = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException ignored) {
+                    return;
+                }
+                queue.addRequest(r1);
+            });
+            t.start();
+
+            start.countDown();
+            queue.addSubscription(s1);
+
+            t.join(TimeUnit.SECONDS.toMillis(5));
+
+            // whichever was added second delivered the request, exactly once
+            assertEquals(published.get(), 1, "round " + round);
+            assertFalse(queue.isNotEmpty());
+        }
+    }
+
+    private Subscription subscription(int id, int priority) {
+        Subscription subscription = mock(Subscription.class);
+        when(subscription.getId()).thenReturn(uint(id));
+        when(subscription.getPriority()).thenReturn(priority);
+        return subscription;
+    }
+
+    private ServiceRequest request(int requestHandle) {
+        RequestHeader header = new RequestHeader(
+            NodeId.NULL_VALUE,
+            DateTime.now(),
+            uint(requestHandle),
+            uint(0),
+            null,
+            uint(0),
+            null
+        );
+
+        PublishRequest request = new PublishRequest(header, new SubscriptionAcknowledgement[0]);
+
+        return new ServiceRequest(stackServer, request, null, 0L, null, null);
+    }
+
+    private static UaStackServer stackServer() {
+        UaStackServerConfig config = mock(UaStackServerConfig.class);
+        when(config.getExecutor()).thenReturn(MoreExecutors.newDirectExecutorService());
+
+        UaStackServer stackServer = mock(UaStackServer.class);
+        when(stackServer.getConfig()).thenReturn(config);
+
+        return stackServer;
+    }
+
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright (c) 2019 the Eclipse Milo Authors
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.milo.opcua.sdk.server.subscriptions;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.milo.opcua.sdk.server.OpcUaServer;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.uint;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class PublishingSchedulerTest {
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private final OpcUaServer server = server();
+
+    @AfterClass
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void testSubscriptionsShareBucket() throws Exception {
+        PublishingScheduler publishingScheduler = new PublishingScheduler(server, TimeUnit.MILLISECONDS.toNanos(50));
+
+        CountDownLatch s1Ticks = new CountDownLatch(3);
+        CountDownLatch s2Ticks = new CountDownLatch(3);
+
+        Subscription s1 = subscription(1, 50.0, s1Ticks, null);
+        Subscription s2 = subscription(2, 50.0, s2Ticks, null);
+        Subscription s3 = subscription(3, 100.0, null, null);
+
+        publishingScheduler.add(s1);
+        publishingScheduler.add(s2);
+        publishingScheduler.add(s3);
+
+        List<PublishingScheduler.Bucket> buckets = publishingScheduler.getBuckets();
+        assertEquals(buckets.size(), 2);
+        assertEquals(buckets.stream().mapToInt(PublishingScheduler.Bucket::getSubscriptionCount).sum(), 3);
+
+        assertTrue(s1Ticks.await(5, TimeUnit.SECONDS));
+        assertTrue(s2Ticks.await(5, TimeUnit.SECONDS));
+
+        PublishingScheduler.Bucket bucket = buckets.stream()
+            .filter(b -> b.getIntervalNanos() == TimeUnit.MILLISECONDS.toNanos(50))
+            .findFirst()
+            .orElseThrow(AssertionError::new);
+
+        assertEquals(bucket.getSubscriptionCount(), 2);
+        assertTrue(bucket.getJitter().getCount() >= 3);
+
+        publishingScheduler.remove(s1);
+        publishingScheduler.remove(s2);
+        publishingScheduler.remove(s3);
+
+        assertTrue(publishingScheduler.getBuckets().isEmpty());
+    }
+
+    @Test
+    public void testFirstTimerElapsesAfterOneInterval() throws Exception {
+        // a resolution as long as the interval puts every Subscription in the same bucket
+        PublishingScheduler publishingScheduler = new PublishingScheduler(server, TimeUnit.MILLISECONDS.toNanos(100));
+
+        AtomicLong s1FirstTick = new AtomicLong(0L);
+        AtomicLong s2FirstTick = new AtomicLong(0L);
+        CountDownLatch s1Ticked = new CountDownLatch(1);
+        CountDownLatch s2Ticked = new CountDownLatch(1);
+
+        Subscription s1 = subscription(1, 100.0, s1Ticked, s1FirstTick);
+        Subscription s2 = subscription(2, 100.0, s2Ticked, s2FirstTick);
+
+        long s1Added = System.nanoTime();
+        publishingScheduler.add(s1);
+
+        Thread.sleep(50);
+
+        long s2Added = System.nanoTime();
+        publishingScheduler.add(s2);
+
+        assertEquals(publishingScheduler.getBuckets().size(), 1);
+
+        assertTrue(s1Ticked.await(5, TimeUnit.SECONDS));
+        assertTrue(s2Ticked.await(5, TimeUnit.SECONDS));
+
+        long interval = TimeUnit.MILLISECONDS.toNanos(100);
+        assertTrue(s1FirstTick.get() - s1Added >= interval, "s1 first tick too early");
+        assertTrue(s2FirstTick.get() - s2Added >= interval, "s2 first tick too early");
+
+        publishingScheduler.remove(s1);
+        publishingScheduler.remove(s2);
+    }
+
+    @Test
+    public void testUpdateMovesToNewInterval() {
+        PublishingScheduler publishingScheduler = new PublishingScheduler(server, TimeUnit.MILLISECONDS.toNanos(10));
+
+        Subscription s1 = subscription(1, 1000.0, null, null);
+
+        // not started; nothing to move
+        publishingScheduler.update(s1);
+        assertTrue(publishingScheduler.getBuckets().isEmpty());
+
+        publishingScheduler.add(s1);
+        assertEquals(publishingScheduler.getBuckets().get(0).getIntervalNanos(), TimeUnit.SECONDS.toNanos(1));
+
+        when(s1.getPublishingInterval()).thenReturn(2000.0);
+        publishingScheduler.update(s1);
+
+        List<PublishingScheduler.Bucket> buckets = publishingScheduler.getBuckets();
+        assertEquals(buckets.size(), 1);
+        assertEquals(buckets.get(0).getIntervalNanos(), TimeUnit.SECONDS.toNanos(2));
+
+        publishingScheduler.remove(s1);
+        assertTrue(publishingScheduler.getBuckets().isEmpty());
+    }
+
+    @Test
+    public void testSlowSubscriptionSkipsOnlyItsOwnTimer() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        OpcUaServer server = mock(OpcUaServer.class);
+        when(server.getScheduledExecutorService()).thenReturn(scheduler);
+        when(server.getExecutorService()).thenReturn(executor);
+
+        try {
+            PublishingScheduler publishingScheduler =
+                new PublishingScheduler(server, TimeUnit.MILLISECONDS.toNanos(20));
+
+            CountDownLatch release = new CountDownLatch(1);
+            AtomicInteger slowTicks = new AtomicInteger(0);
+
+            Subscription slow = mock(Subscription.class);
+            when(slow.getId()).thenReturn(uint(1));
+            when(slow.getPublishingInterval()).thenReturn(20.0);
+            doAnswer(invocation -> {
+                slowTicks.incrementAndGet();
+                release.await(5, TimeUnit.SECONDS);
+                return null;
+            }).when(slow).onPublishingTimer();
+
+            CountDownLatch fastTicks = new CountDownLatch(5);
+            Subscription fast = subscription(2, 20.0, fastTicks, null);
+
+            publishingScheduler.add(slow);
+            publishingScheduler.add(fast);
+
+            List<PublishingScheduler.Bucket> buckets = publishingScheduler.getBuckets();
+            assertEquals(buckets.size(), 1);
+
+            // the fast Subscription keeps ticking while the slow one's first timer is still running
+            assertTrue(fastTicks.await(5, TimeUnit.SECONDS));
+            assertEquals(slowTicks.get(), 1);
+            assertTrue(buckets.get(0).getSkippedTimers() > 0);
+
+            publishingScheduler.remove(slow);
+            publishingScheduler.remove(fast);
+
+            release.countDown();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private OpcUaServer server() {
+        OpcUaServer server = mock(OpcUaServer.class);
+        when(server.getScheduledExecutorService()).thenReturn(scheduler);
+        when(server.getExecutorService()).thenReturn(scheduler);
+        return server;
+    }
+
+    private static Subscription subscription(
+        int id,
+        double publishingInterval,
+        CountDownLatch ticks,
+        AtomicLong firstTick) {
+
+        Subscription subscription = mock(Subscription.class);
+        when(subscription.getId()).thenReturn(uint(id));
+        when(subscription.getPublishingInterval()).thenReturn(publishingInterval);
+
+        doAnswer(invocation -> {
+            if (firstTick != null) firstTick.compareAndSet(0L, System.nanoTime());
+            if (ticks != null) ticks.countDown();
+            return null;
+        }).when(subscription).onPublishingTimer();
+
+        return subscription;
+    }
+
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2019 the Eclipse Milo Authors
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.milo.opcua.sdk.server.subscriptions;
+
+import org.eclipse.milo.opcua.stack.core.serialization.EncodingLimits;
+import org.eclipse.milo.opcua.stack.core.types.OpcUaDataTypeManager;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DateTime;
+import org.eclipse.milo.opcua.stack.core.types.builtin.ExtensionObject;
+import org.eclipse.milo.opcua.stack.core.types.builtin.Variant;
+import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UInteger;
+import org.eclipse.milo.opcua.stack.core.types.structured.DataChangeNotification;
+import org.eclipse.milo.opcua.stack.core.types.structured.MonitoredItemNotification;
+import org.eclipse.milo.opcua.stack.core.types.structured.NotificationMessage;
+import org.testng.annotations.Test;
+
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.uint;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+public class RetransmissionQueueTest {
+
+    @Test
+    public void testOlderMessagesAreEncoded() {
+        RetransmissionBudget budget = new RetransmissionBudget(Long.MAX_VALUE);
+        RetransmissionQueue queue = new RetransmissionQueue(Long.MAX_VALUE, 1, budget, EncodingLimits.DEFAULT);
+
+        NotificationMessage m1 = message(1);
+        NotificationMessage m2 = message(2);
+
+        queue.add(m1);
+
+        // the latest message is kept as is
+        assertSame(queue.get(uint(1)), m1);
+        assertEquals(queue.getEncodedBytes(), 0L);
+
+        queue.add(m2);
+
+        assertSame(queue.get(uint(2)), m2);
+        assertTrue(queue.getEncodedBytes() > 0);
+        assertEquals(budget.getUsedBytes(), queue.getEncodedBytes());
+        assertEquals(queue.getSequenceNumbers(), new UInteger[]{uint(1), uint(2)});
+
+        NotificationMessage republished = queue.get(uint(1));
+        assertNotNull(republished);
+        assertEquals(republished.getSequenceNumber(), uint(1));
+        assertEquals(republished.getPublishTime(), m1.getPublishTime());
+        assertEquals(republished.getNotificationData()[0].getBody(), m1.getNotificationData()[0].getBody());
+
+        assertTrue(queue.remove(uint(1)));
+        assertFalse(queue.remove(uint(1)));
+        assertNull(queue.get(uint(1)));
+
+        assertEquals(queue.getEncodedBytes(), 0L);
+        assertEquals(budget.getUsedBytes(), 0L);
+    }
+
+    @Test
+    public void testMessagesAcknowledgedWithinWindowAreNotEncoded() {
+        RetransmissionBudget budget = new RetransmissionBudget(Long.MAX_VALUE);
+        RetransmissionQueue queue = new RetransmissionQueue(Long.MAX_VALUE, 3, budget, EncodingLimits.DEFAULT);
+
+        NotificationMessage[] sent = new NotificationMessage[10];
+
+        // each message is acknowledged 3 messages after it was sent, like a client with 3 outstanding requests
+        for (int i = 1; i < sent.length; i++) {
+            if (i > 3) {
+                assertTrue(queue.remove(uint(i - 3)));
+            }
+
+            sent[i] = message(i);
+            queue.add(sent[i]);
+
+            assertEquals(queue.getEncodedBytes(), 0L);
+        }
+
+        assertSame(queue.get(uint(7)), sent[7]);
+
+        // 7 wasn't acknowledged before a 4th newer message was sent, so it's encoded
+        queue.add(message(10));
+
+        assertTrue(queue.getEncodedBytes() > 0);
+        assertEquals(queue.get(uint(7)).getSequenceNumber(), uint(7));
+        assertSame(queue.get(uint(8)), sent[8]);
+
+        queue.clear();
+
+        assertEquals(budget.getUsedBytes(), 0L);
+    }
+
+    @Test
+    public void testSubscriptionLimitDiscardsOldest() {
+        long messageBytes = encodedSize(message(1));
+
+        RetransmissionBudget budget = new RetransmissionBudget(Long.MAX_VALUE);
+        RetransmissionQueue queue = new RetransmissionQueue(messageBytes * 2, 1, budget, EncodingLimits.DEFAULT);
+
+        for (int i = 1; i <= 5; i++) {
+            queue.add(message(i));
+        }
+
+        // 1 and 2 were discarded to make room for 3 and 4; 5 is the latest
+        assertEquals(queue.getSequenceNumbers(), new UInteger[]{uint(3), uint(4), uint(5)});
+        assertEquals(queue.getDiscardedMessageCount(), 2L);
+        assertEquals(budget.getDiscardedMessageCount(), 2L);
+        assertEquals(queue.getEncodedBytes(), messageBytes * 2);
+
+        queue.clear();
+
+        assertEquals(queue.getSequenceNumbers().length, 0);
+        assertEquals(budget.getUsedBytes(), 0L);
+    }
+
+    @Test
+    public void testServerBudgetIsShared() {
+        long messageBytes = encodedSize(message(1));
+
+        RetransmissionBudget budget = new RetransmissionBudget(messageBytes * 2);
+        RetransmissionQueue q1 = new RetransmissionQueue(Long.MAX_VALUE, 1, budget, EncodingLimits.DEFAULT);
+        RetransmissionQueue q2 = new RetransmissionQueue(Long.MAX_VALUE, 1, budget, EncodingLimits.DEFAULT);
+
+        q1.add(message(1));
+        q1.add(message(2));
+        q1.add(message(3));
+
+        assertEquals(budget.getUsedBytes(), messageBytes * 2);
+
+        // q2 can't take budget from q1, so it has to discard its own message
+        q2.add(message(1));
+        q2.add(message(2));
+
+        assertEquals(q2.getSequenceNumbers(), new UInteger[]{uint(2)});
+        assertEquals(q2.getDiscardedMessageCount(), 1L);
+        assertEquals(q1.getDiscardedMessageCount(), 0L);
+
+        q1.remove(uint(1));
+        q2.add(message(3));
+
+        assertEquals(q2.getSequenceNumbers(), new UInteger[]{uint(2), uint(3)});
+        assertEquals(budget.getUsedBytes(), messageBytes * 2);
+        assertEquals(budget.getDiscardedMessageCount(), 1L);
+
+        q1.clear();
+        q2.clear();
+
+        assertEquals(budget.getUsedBytes(), 0L);
+    }
+
+    private static long encodedSize(NotificationMessage message) {
+        RetransmissionBudget budget = new RetransmissionBudget(Long.MAX_VALUE);
+        RetransmissionQueue queue = new RetransmissionQueue(Long.MAX_VALUE, 1, budget, EncodingLimits.DEFAULT);
+
+        queue.add(message);
+        queue.add(message(message.getSequenceNumber().intValue() + 1));
+
+        long size = queue.getEncodedBytes();
+        queue.clear();
+        return size;
+    }
+
+    private static NotificationMessage message(int sequenceNumber) {
+        DataChangeNotification dataChange = new DataChangeNotification(
+            new MonitoredItemNotification[]{
+                new MonitoredItemNotification(uint(1), new DataValue(new Variant(sequenceNumber))),
+                new MonitoredItemNotification(uint(2), new DataValue(new Variant("foo")))
+            },
+            null
+        );
+
+        return new NotificationMessage(
+            uint(sequenceNumber),
+            new DateTime(0L),
+            new ExtensionObject[]{
+                ExtensionObject.encodeDeferred(
+                    dataChange,
+                    dataChange.getBinaryEncodingId(),
+                    EncodingLimits.DEFAULT,
+                    OpcUaDataTypeManager.getInstance()
+                )
+            }
+        );
+    }
+
+}
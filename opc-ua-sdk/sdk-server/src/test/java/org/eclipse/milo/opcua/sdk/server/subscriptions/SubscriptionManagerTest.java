@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2019 the Eclipse Milo Authors
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.milo.opcua.sdk.server.subscriptions;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.milo.opcua.sdk.server.OpcUaServer;
+import org.eclipse.milo.opcua.sdk.server.Session;
+import org.eclipse.milo.opcua.sdk.server.api.AddressSpaceManager;
+import org.eclipse.milo.opcua.sdk.server.api.config.OpcUaServerConfig;
+import org.eclipse.milo.opcua.sdk.server.api.config.OpcUaServerConfigLimits;
+import org.eclipse.milo.opcua.sdk.server.items.MonitoredDataItem;
+import org.eclipse.milo.opcua.sdk.server.items.MonitoredEventItem;
+import org.eclipse.milo.opcua.stack.core.serialization.EncodingLimits;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UInteger;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.uint;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertTrue;
+
+public class SubscriptionManagerTest {
+
+    private final NodeId sessionId = new NodeId(1, "session");
+
+    private final Map<UInteger, Subscription> serverSubscriptions = new ConcurrentHashMap<>();
+
+    private OpcUaServer server;
+    private AddressSpaceManager addressSpaceManager;
+    private SubscriptionManager subscriptionManager;
+
+    @BeforeMethod
+    public void setUp() {
+        serverSubscriptions.clear();
+
+        server = mock(OpcUaServer.class);
+        addressSpaceManager = mock(AddressSpaceManager.class);
+
+        OpcUaServerConfig config = mock(OpcUaServerConfig.class);
+        when(config.getLimits()).thenReturn(new OpcUaServerConfigLimits() {});
+        when(config.getEncodingLimits()).thenReturn(EncodingLimits.DEFAULT);
+
+        when(server.getConfig()).thenReturn(config);
+        when(server.getRetransmissionBudget()).thenReturn(new RetransmissionBudget(Long.MAX_VALUE));
+        when(server.getPublishingScheduler()).thenReturn(mock(PublishingScheduler.class));
+        when(server.getAddressSpaceManager()).thenReturn(addressSpaceManager);
+        when(server.getSubscriptions()).thenReturn(serverSubscriptions);
+
+        Session session = mock(Session.class);
+        when(session.getSessionId()).thenReturn(sessionId);
+
+        subscriptionManager = new SubscriptionManager(session, server);
+    }
+
+    @Test
+    public void testSessionClosedDeletesMonitoredItems() {
+        Subscription subscription = newSubscription(uint(1));
+
+        MonitoredDataItem dataItem = mock(MonitoredDataItem.class);
+        when(dataItem.getId()).thenReturn(uint(1));
+        MonitoredEventItem eventItem = mock(MonitoredEventItem.class);
+        when(eventItem.getId()).thenReturn(uint(2));
+
+        subscription.addMonitoredItems(Collections.singletonList(dataItem));
+        subscription.addMonitoredItems(Collections.singletonList(eventItem));
+
+        subscriptionManager.sessionClosed(true);
+
+        verify(addressSpaceManager).onDataItemsDeleted(Collections.singletonList(dataItem));
+        verify(addressSpaceManager).onEventItemsDeleted(Collections.singletonList(eventItem));
+
+        assertTrue(serverSubscriptions.isEmpty());
+    }
+
+    private Subscription newSubscription(UInteger subscriptionId) {
+        Subscription subscription = new Subscription(
+            subscriptionManager,
+            subscriptionId,
+            100.0,
+            10L,
+            30L,
+            0L,
+            true,
+            0
+        );
+
+        subscriptionManager.addSubscription(subscription);
+        serverSubscriptions.put(subscriptionId, subscription);
+
+        return subscription;
+    }
+
+}
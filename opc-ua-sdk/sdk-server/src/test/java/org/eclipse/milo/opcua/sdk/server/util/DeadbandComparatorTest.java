@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2019 the Eclipse Milo Authors
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.milo.opcua.sdk.server.util;
+
+import org.eclipse.milo.opcua.sdk.core.ValueRanks;
+import org.eclipse.milo.opcua.stack.core.BuiltinDataType;
+import org.eclipse.milo.opcua.stack.core.Identifiers;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
+import org.eclipse.milo.opcua.stack.core.types.builtin.Variant;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.DataChangeTrigger;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+public class DeadbandComparatorTest {
+
+    @Test
+    public void testOf() {
+        assertSame(DeadbandComparator.of(Identifiers.Double, ValueRanks.Scalar), DeadbandComparator.SCALAR);
+        assertSame(DeadbandComparator.of(Identifiers.Int32, ValueRanks.Scalar), DeadbandComparator.SCALAR);
+        assertSame(DeadbandComparator.of(Identifiers.Float, ValueRanks.OneDimension), DeadbandComparator.ARRAY);
+
+        assertSame(DeadbandComparator.of(Identifiers.Double, ValueRanks.Any), DeadbandComparator.GENERIC);
+        assertSame(DeadbandComparator.of(Identifiers.String, ValueRanks.Scalar), DeadbandComparator.GENERIC);
+        assertSame(DeadbandComparator.of(Identifiers.Number, ValueRanks.Scalar), DeadbandComparator.GENERIC);
+        assertSame(DeadbandComparator.of(null, null), DeadbandComparator.GENERIC);
+    }
+
+    @Test
+    public void testScalar() {
+        for (DeadbandComparator c : new DeadbandComparator[]{DeadbandComparator.SCALAR, DeadbandComparator.GENERIC}) {
+            assertFalse(c.exceeds(new Variant(1.0), new Variant(1.5), 0.5));
+            assertTrue(c.exceeds(new Variant(1.0), new Variant(1.6), 0.5));
+            assertTrue(c.exceeds(new Variant(1), new Variant(3), 1.0));
+
+            // not numeric
+            assertTrue(c.exceeds(new Variant("a"), new Variant("a"), 1.0));
+        }
+    }
+
+    @Test
+    public void testPrimitiveArray() {
+        for (DeadbandComparator c : new DeadbandComparator[]{DeadbandComparator.ARRAY, DeadbandComparator.GENERIC}) {
+            Variant last = floats(1.0f, 2.0f, 3.0f);
+
+            assertFalse(c.exceeds(last, floats(1.5f, 2.5f, 2.5f), 0.5));
+            assertTrue(c.exceeds(last, floats(1.0f, 2.0f, 3.6f), 0.5));
+            assertTrue(c.exceeds(last, floats(1.0f, 2.0f), 0.5));
+
+            // same value, boxed
+            assertFalse(c.exceeds(last, new Variant(new Float[]{1.0f, 2.0f, 3.0f}), 0.5));
+        }
+    }
+
+    @Test
+    public void testUnsignedPrimitiveArray() {
+        // 0xFFFFFFFF is 4294967295 as a UInt32 but -1 as an Int32
+        Variant uint32Last = Variant.ofPrimitiveArray(BuiltinDataType.UInt32, new int[]{-1});
+        Variant uint32Current = Variant.ofPrimitiveArray(BuiltinDataType.UInt32, new int[]{1});
+        assertTrue(DeadbandComparator.ARRAY.exceeds(uint32Last, uint32Current, 10.0));
+
+        Variant int32Last = Variant.ofPrimitiveArray(BuiltinDataType.Int32, new int[]{-1});
+        Variant int32Current = Variant.ofPrimitiveArray(BuiltinDataType.Int32, new int[]{1});
+        assertFalse(DeadbandComparator.ARRAY.exceeds(int32Last, int32Current, 10.0));
+
+        Variant byteLast = Variant.ofPrimitiveArray(BuiltinDataType.Byte, new byte[]{(byte) 0xFF});
+        Variant byteCurrent = Variant.ofPrimitiveArray(BuiltinDataType.Byte, new byte[]{(byte) 0xFE});
+        assertFalse(DeadbandComparator.ARRAY.exceeds(byteLast, byteCurrent, 1.0));
+    }
+
+    @Test
+    public void testFilter() {
+        DataValue last = new DataValue(floats(1.0f, 2.0f));
+
+        assertTrue(DataChangeMonitoringFilter.filter(
+            null, last, DataChangeTrigger.StatusValue, DeadbandComparator.ARRAY, 1.0));
+
+        assertFalse(DataChangeMonitoringFilter.filter(
+            last, new DataValue(floats(1.0f, 2.0f)), DataChangeTrigger.StatusValue, null, Double.NaN));
+
+        assertTrue(DataChangeMonitoringFilter.filter(
+            last, new DataValue(floats(1.0f, 2.5f)), DataChangeTrigger.StatusValue, null, Double.NaN));
+
+        assertFalse(DataChangeMonitoringFilter.filter(
+            last, new DataValue(floats(1.0f, 2.5f)), DataChangeTrigger.StatusValue, DeadbandComparator.ARRAY, 1.0));
+    }
+
+    private static Variant floats(float... values) {
+        return Variant.ofPrimitiveArray(BuiltinDataType.Float, values);
+    }
+
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2019 the Eclipse Milo Authors
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.milo.opcua.sdk.server.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.UnaryOperator;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+public class MonitoredItemQueueTest {
+
+    private static final UnaryOperator<Integer> NEGATE = i -> -i;
+
+    @Test
+    public void testAddAndPoll() {
+        MonitoredItemQueue<Integer> queue = new MonitoredItemQueue<>(3);
+
+        assertTrue(queue.isEmpty());
+        assertNull(queue.poll());
+
+        for (int i = 0; i < 10; i++) {
+            assertFalse(queue.add(i, true, NEGATE));
+            assertFalse(queue.add(i + 100, true, NEGATE));
+
+            assertEquals(queue.size(), 2);
+            assertEquals(queue.poll(), Integer.valueOf(i));
+            assertEquals(queue.poll(), Integer.valueOf(i + 100));
+            assertNull(queue.poll());
+        }
+    }
+
+    @Test
+    public void testDiscardOldest() {
+        MonitoredItemQueue<Integer> queue = new MonitoredItemQueue<>(3);
+
+        queue.add(1, true, NEGATE);
+        queue.add(2, true, NEGATE);
+        queue.add(3, true, NEGATE);
+        assertTrue(queue.add(4, true, NEGATE));
+        assertTrue(queue.add(5, true, NEGATE));
+
+        assertEquals(drain(queue), list(3, -4, -5));
+    }
+
+    @Test
+    public void testDiscardNewest() {
+        MonitoredItemQueue<Integer> queue = new MonitoredItemQueue<>(3);
+
+        queue.add(1, false, NEGATE);
+        queue.add(2, false, NEGATE);
+        queue.add(3, false, NEGATE);
+        assertTrue(queue.add(4, false, NEGATE));
+        assertTrue(queue.add(5, false, NEGATE));
+
+        assertEquals(drain(queue), list(1, 2, -5));
+
+        MonitoredItemQueue<Integer> single = new MonitoredItemQueue<>(1);
+        single.add(1, false, NEGATE);
+        single.add(2, false, NEGATE);
+        assertEquals(drain(single), list(-2));
+    }
+
+    @Test
+    public void testClear() {
+        MonitoredItemQueue<Integer> queue = new MonitoredItemQueue<>(2);
+
+        queue.add(1, true, NEGATE);
+        queue.add(2, true, NEGATE);
+        queue.clear();
+
+        assertTrue(queue.isEmpty());
+
+        queue.add(3, true, NEGATE);
+        assertEquals(drain(queue), list(3));
+    }
+
+    @Test
+    public void testConcurrentProducerAndConsumer() throws Exception {
+        final int count = 1_000_000;
+
+        for (boolean discardOldest : new boolean[]{true, false}) {
+            MonitoredItemQueue<Integer> queue = new MonitoredItemQueue<>(16);
+            AtomicInteger discarded = new AtomicInteger(0);
+
+            Thread producer = new Thread(() -> {
+                for (int i = 1; i <= count; i++) {
+                    if (queue.add(i, discardOldest, UnaryOperator.identity())) {
+                        discarded.incrementAndGet();
+                    }
+                }
+            });
+
+            producer.start();
+
+            int received = 0;
+            int last = 0;
+            while (producer.isAlive() || !queue.isEmpty()) {
+                Integer i = queue.poll();
+
+                if (i != null) {
+                    // values are never duplicated or reordered
+                    assertTrue(i > last, i + " > " + last);
+                    last = i;
+                    received++;
+                }
+            }
+
+            producer.join();
+
+            assertEquals(received + discarded.get(), count);
+
+            if (discardOldest) {
+                // the newest value is never discarded
+                assertEquals(last, count);
+            }
+        }
+    }
+
+    private static List<Integer> drain(MonitoredItemQueue<Integer> queue) {
+        List<Integer> values = new ArrayList<>();
+        Integer i;
+        while ((i = queue.poll()) != null) {
+            values.add(i);
+        }
+        return values;
+    }
+
+    private static List<Integer> list(Integer... values) {
+        List<Integer> list = new ArrayList<>();
+        for (Integer i : values) {
+            list.add(i);
+        }
+        return list;
+    }
+
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2019 the Eclipse Milo Authors
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.milo.opcua.sdk.server.util;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.milo.opcua.sdk.server.api.DataItem;
+import org.eclipse.milo.opcua.stack.core.AttributeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.QualifiedName;
+import org.eclipse.milo.opcua.stack.core.types.builtin.Variant;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.TimestampsToReturn;
+import org.eclipse.milo.opcua.stack.core.types.structured.ReadValueId;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+public class SampledNodeTest {
+
+    private final ReadValueId readValueId = new ReadValueId(
+        new NodeId(2, "foo"), AttributeId.Value.uid(), null, QualifiedName.NULL_VALUE);
+
+    @Test
+    public void testKeyEquality() {
+        ReadValueId same = new ReadValueId(
+            new NodeId(2, "foo"), AttributeId.Value.uid(), null, QualifiedName.NULL_VALUE);
+
+        ReadValueId otherRange = new ReadValueId(
+            new NodeId(2, "foo"), AttributeId.Value.uid(), "0:1", QualifiedName.NULL_VALUE);
+
+        assertEquals(new SampledNode.Key(readValueId), new SampledNode.Key(same));
+        assertEquals(new SampledNode.Key(readValueId).hashCode(), new SampledNode.Key(same).hashCode());
+        assertFalse(new SampledNode.Key(readValueId).equals(new SampledNode.Key(otherRange)));
+    }
+
+    @Test
+    public void testReferenceCounting() {
+        SampledNode node = new SampledNode(readValueId);
+
+        DataItem item1 = mockItem(TimestampsToReturn.Both);
+        DataItem item2 = mockItem(TimestampsToReturn.Both);
+
+        assertEquals(node.add(item1), 1);
+        assertEquals(node.add(item2), 2);
+        assertEquals(node.remove(item1), 1);
+        assertEquals(node.remove(item1), -1);
+        assertEquals(node.remove(item2), 0);
+        assertEquals(node.getReferenceCount(), 0);
+    }
+
+    @Test
+    public void testItemsWithSameTimestampsShareDerivedValue() {
+        SampledNode node = new SampledNode(readValueId);
+
+        DataItem item1 = mockItem(TimestampsToReturn.Source);
+        DataItem item2 = mockItem(TimestampsToReturn.Source);
+        DataItem item3 = mockItem(TimestampsToReturn.Neither);
+
+        node.add(item1);
+        node.add(item2);
+        node.add(item3);
+
+        node.setValue(new DataValue(new Variant(42)));
+
+        DataValue v1 = captureValue(item1);
+        DataValue v2 = captureValue(item2);
+        DataValue v3 = captureValue(item3);
+
+        assertSame(v1, v2);
+        assertEquals(v3.getValue(), new Variant(42));
+        assertNull(v3.getSourceTime());
+        assertNull(v3.getServerTime());
+    }
+
+    @Test
+    public void testDeliverLastValue() {
+        SampledNode node = new SampledNode(readValueId);
+
+        DataItem item1 = mockItem(TimestampsToReturn.Both);
+        DataItem item2 = mockItem(TimestampsToReturn.Both);
+
+        node.add(item1);
+        assertFalse(node.deliverLastValue(item1, 1, TimeUnit.HOURS));
+
+        node.setValue(new DataValue(new Variant(42)));
+
+        node.add(item2);
+        assertTrue(node.deliverLastValue(item2, 1, TimeUnit.HOURS));
+        assertEquals(captureValue(item2).getValue(), new Variant(42));
+    }
+
+    private static DataItem mockItem(TimestampsToReturn timestamps) {
+        DataItem item = Mockito.mock(DataItem.class);
+        Mockito.when(item.getTimestampsToReturn()).thenReturn(timestamps);
+        return item;
+    }
+
+    private static DataValue captureValue(DataItem item) {
+        ArgumentCaptor<DataValue> captor = ArgumentCaptor.forClass(DataValue.class);
+        Mockito.verify(item).setValue(captor.capture());
+        return captor.getValue();
+    }
+
+}
@@ -0,0 +1,256 @@
+/*
+ * Copyright (c) 2019 the Eclipse Milo Authors
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.milo.opcua.sdk.server.util;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import com.google.common.collect.ImmutableList;
+import org.eclipse.milo.opcua.sdk.server.OpcUaServer;
+import org.eclipse.milo.opcua.sdk.server.api.DataItem;
+import org.eclipse.milo.opcua.sdk.server.api.services.AttributeServices;
+import org.eclipse.milo.opcua.stack.core.AttributeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.QualifiedName;
+import org.eclipse.milo.opcua.stack.core.types.builtin.StatusCode;
+import org.eclipse.milo.opcua.stack.core.types.builtin.Variant;
+import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UInteger;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.TimestampsToReturn;
+import org.eclipse.milo.opcua.stack.core.types.structured.ReadValueId;
+import org.eclipse.milo.opcua.stack.core.types.structured.WriteValue;
+import org.mockito.Mockito;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.uint;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class SubscriptionModelTest {
+
+    private ExecutorService executor;
+    private ScheduledExecutorService scheduler;
+    private OpcUaServer server;
+
+    @BeforeClass
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(2);
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+
+        server = Mockito.mock(OpcUaServer.class);
+        Mockito.when(server.getExecutorService()).thenReturn(executor);
+        Mockito.when(server.getScheduledExecutorService()).thenReturn(scheduler);
+    }
+
+    @AfterClass
+    public void tearDown() {
+        executor.shutdownNow();
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void testIdenticalReadValueIdsAreCoalesced() throws Exception {
+        RecordingAttributeServices attributeServices = new RecordingAttributeServices();
+        SubscriptionModel model = new SubscriptionModel(server, attributeServices);
+
+        TestDataItem item1 = new TestDataItem(uint(1), new NodeId(2, "foo"), 50.0);
+        TestDataItem item2 = new TestDataItem(uint(2), new NodeId(2, "foo"), 50.0);
+        TestDataItem item3 = new TestDataItem(uint(3), new NodeId(2, "bar"), 50.0);
+
+        model.onDataItemsCreated(ImmutableList.of(item1, item2, item3));
+
+        assertTrue(item1.awaitValues(3));
+        assertTrue(item2.awaitValues(3));
+        assertTrue(item3.awaitValues(3));
+
+        List<SamplingBucket> buckets = model.getSamplingBuckets();
+        assertEquals(buckets.size(), 1);
+        assertEquals(buckets.get(0).getItemCount(), 3);
+        assertEquals(buckets.get(0).getSampledNodeCount(), 2);
+
+        // every tick after the initial sample reads each distinct node once
+        assertTrue(attributeServices.reads.stream().anyMatch(ids -> ids.size() == 2));
+        assertTrue(attributeServices.reads.stream().allMatch(ids -> ids.size() <= 3));
+    }
+
+    @Test
+    public void testItemsMoveBetweenBuckets() throws Exception {
+        RecordingAttributeServices attributeServices = new RecordingAttributeServices();
+        SubscriptionModel model = new SubscriptionModel(server, attributeServices);
+
+        TestDataItem item1 = new TestDataItem(uint(1), new NodeId(2, "foo"), 50.0);
+        TestDataItem item2 = new TestDataItem(uint(2), new NodeId(2, "bar"), 50.0);
+
+        model.onDataItemsCreated(ImmutableList.of(item1, item2));
+        assertTrue(item1.awaitValues(1));
+
+        item2.samplingInterval = 100.0;
+        model.onDataItemsModified(ImmutableList.of(item2));
+
+        item1.samplingEnabled = false;
+        model.onMonitoringModeChanged(ImmutableList.of(item1));
+
+        model.onDataItemsDeleted(ImmutableList.of(item2));
+
+        // membership changes are applied serially on the model's queue
+        Thread.sleep(100);
+
+        assertTrue(model.getSamplingBuckets().isEmpty());
+    }
+
+    @Test
+    public void testTicksContinueAfterFailures() throws Exception {
+        AtomicInteger attempts = new AtomicInteger(0);
+
+        // every other read throws instead of completing its context
+        RecordingAttributeServices attributeServices = new RecordingAttributeServices() {
+            @Override
+            public void read(
+                ReadContext context,
+                Double maxAge,
+                TimestampsToReturn timestamps,
+                List<ReadValueId> readValueIds) {
+
+                if (attempts.incrementAndGet() % 2 == 0) {
+                    throw new IllegalStateException("read failed");
+                }
+
+                super.read(context, maxAge, timestamps, readValueIds);
+            }
+        };
+
+        SubscriptionModel model = new SubscriptionModel(server, attributeServices);
+
+        TestDataItem item = new TestDataItem(uint(1), new NodeId(2, "foo"), 20.0);
+        item.failing = true;
+
+        model.onDataItemsCreated(ImmutableList.of(item));
+        assertTrue(item.awaitValues(3));
+
+        SamplingBucket bucket = model.getSamplingBuckets().get(0);
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (bucket.getTickCount() < 6 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertTrue(bucket.getTickCount() >= 6, "tickCount=" + bucket.getTickCount());
+
+        model.onDataItemsDeleted(ImmutableList.of(item));
+    }
+
+    private static class RecordingAttributeServices implements AttributeServices {
+
+        final List<List<ReadValueId>> reads = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void read(
+            ReadContext context,
+            Double maxAge,
+            TimestampsToReturn timestamps,
+            List<ReadValueId> readValueIds) {
+
+            reads.add(readValueIds);
+
+            List<DataValue> values = readValueIds.stream()
+                .map(id -> new DataValue(new Variant(id.getNodeId().getIdentifier())))
+                .collect(Collectors.toList());
+
+            context.success(values);
+        }
+
+        @Override
+        public void write(WriteContext context, List<WriteValue> writeValues) {
+            context.failure(StatusCode.BAD);
+        }
+
+    }
+
+    private static class TestDataItem implements DataItem {
+
+        private final CountDownLatch latch = new CountDownLatch(3);
+
+        volatile double samplingInterval;
+        volatile boolean samplingEnabled = true;
+        volatile boolean failing = false;
+
+        private final UInteger id;
+        private final ReadValueId readValueId;
+
+        TestDataItem(UInteger id, NodeId nodeId, double samplingInterval) {
+            this.id = id;
+            this.readValueId = new ReadValueId(nodeId, AttributeId.Value.uid(), null, QualifiedName.NULL_VALUE);
+            this.samplingInterval = samplingInterval;
+        }
+
+        boolean awaitValues(int count) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 5000;
+
+            while (latch.getCount() > 3 - count) {
+                if (System.currentTimeMillis() > deadline) return false;
+                latch.await(10, TimeUnit.MILLISECONDS);
+            }
+
+            return true;
+        }
+
+        @Override
+        public void setValue(DataValue value) {
+            latch.countDown();
+
+            if (failing) throw new IllegalStateException("setValue failed");
+        }
+
+        @Override
+        public void setQuality(StatusCode quality) {}
+
+        @Override
+        public double getSamplingInterval() {
+            return samplingInterval;
+        }
+
+        @Override
+        public UInteger getId() {
+            return id;
+        }
+
+        @Override
+        public UInteger getSubscriptionId() {
+            return uint(0);
+        }
+
+        @Override
+        public ReadValueId getReadValueId() {
+            return readValueId;
+        }
+
+        @Override
+        public TimestampsToReturn getTimestampsToReturn() {
+            return TimestampsToReturn.Both;
+        }
+
+        @Override
+        public boolean isSamplingEnabled() {
+            return samplingEnabled;
+        }
+
+    }
+
+}
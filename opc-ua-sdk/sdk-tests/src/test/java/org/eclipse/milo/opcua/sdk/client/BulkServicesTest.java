@@ -0,0 +1,368 @@
+/*
+ * Copyright (c) 2019 the Eclipse Milo Authors
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.milo.opcua.sdk.client;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.eclipse.milo.opcua.sdk.client.api.config.OpcUaClientConfig;
+import org.eclipse.milo.opcua.stack.client.UaStackClient;
+import org.eclipse.milo.opcua.stack.core.AttributeId;
+import org.eclipse.milo.opcua.stack.core.Identifiers;
+import org.eclipse.milo.opcua.stack.core.StatusCodes;
+import org.eclipse.milo.opcua.stack.core.UaException;
+import org.eclipse.milo.opcua.stack.core.security.SecurityPolicy;
+import org.eclipse.milo.opcua.stack.core.transport.TransportProfile;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
+import org.eclipse.milo.opcua.stack.core.types.builtin.LocalizedText;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.QualifiedName;
+import org.eclipse.milo.opcua.stack.core.types.builtin.StatusCode;
+import org.eclipse.milo.opcua.stack.core.types.builtin.Variant;
+import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UInteger;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.MessageSecurityMode;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.TimestampsToReturn;
+import org.eclipse.milo.opcua.stack.core.types.structured.EndpointDescription;
+import org.eclipse.milo.opcua.stack.core.types.structured.ReadResponse;
+import org.eclipse.milo.opcua.stack.core.types.structured.ReadValueId;
+import org.eclipse.milo.opcua.stack.core.types.structured.WriteResponse;
+import org.eclipse.milo.opcua.stack.core.types.structured.WriteValue;
+import org.testng.annotations.Test;
+
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.uint;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+public class BulkServicesTest {
+
+    @Test
+    public void testReadSplitByOperationLimits() throws Exception {
+        List<Integer> requestSizes = new ArrayList<>();
+
+        TestClient client = new TestClient(4, new OperationLimits(10, 0, 0, 0, 0), readValueIds -> {
+            requestSizes.add(readValueIds.size());
+            return completed(values(readValueIds));
+        });
+
+        List<DataValue> results = client.getBulkServices()
+            .read(0.0, TimestampsToReturn.Neither, readValueIds(95))
+            .get(5, TimeUnit.SECONDS);
+
+        assertResultsInOrder(results, 95);
+        assertEquals(requestSizes.size(), 10);
+        requestSizes.forEach(size -> assertTrue(size <= 10));
+
+        // the operation limits are read once per session
+        client.getBulkServices().read(0.0, TimestampsToReturn.Neither, readValueIds(5)).get(5, TimeUnit.SECONDS);
+
+        assertEquals(client.limitsReads.get(), 1);
+    }
+
+    @Test
+    public void testMaxRequestsInFlight() throws Exception {
+        List<CompletableFuture<List<DataValue>>> pending = new ArrayList<>();
+        List<List<ReadValueId>> requests = new ArrayList<>();
+
+        TestClient client = new TestClient(2, new OperationLimits(10, 0, 0, 0, 0), readValueIds -> {
+            CompletableFuture<List<DataValue>> f = new CompletableFuture<>();
+            pending.add(f);
+            requests.add(readValueIds);
+            return f;
+        });
+
+        CompletableFuture<List<DataValue>> future = client.getBulkServices()
+            .read(0.0, TimestampsToReturn.Neither, readValueIds(50));
+
+        assertEquals(pending.size(), 2);
+
+        // complete them out of order; each completion lets one more request out
+        pending.get(1).complete(values(requests.get(1)));
+        assertEquals(pending.size(), 3);
+        pending.get(0).complete(values(requests.get(0)));
+        assertEquals(pending.size(), 4);
+
+        for (int i = 2; i < 5; i++) {
+            pending.get(i).complete(values(requests.get(i)));
+            assertTrue(pending.size() - (i + 1) <= 2);
+        }
+
+        assertEquals(pending.size(), 5);
+        assertResultsInOrder(future.get(5, TimeUnit.SECONDS), 50);
+    }
+
+    @Test
+    public void testTooManyOperationsSplitsRequest() throws Exception {
+        List<Integer> rejectedSizes = new ArrayList<>();
+        List<Integer> acceptedSizes = new ArrayList<>();
+
+        // the server advertises 20 but rejects more than 8 at a time
+        TestClient client = new TestClient(1, new OperationLimits(20, 0, 0, 0, 0), readValueIds -> {
+            if (readValueIds.size() > 8) {
+                rejectedSizes.add(readValueIds.size());
+                return failed(StatusCodes.Bad_TooManyOperations);
+            } else {
+                acceptedSizes.add(readValueIds.size());
+                return completed(values(readValueIds));
+            }
+        });
+
+        List<DataValue> results = client.getBulkServices()
+            .read(0.0, TimestampsToReturn.Neither, readValueIds(50))
+            .get(5, TimeUnit.SECONDS);
+
+        assertResultsInOrder(results, 50);
+
+        // the first request is halved twice; the rest are sent at the learned size right away
+        assertEquals(rejectedSizes, Arrays.asList(20, 10));
+        acceptedSizes.forEach(size -> assertTrue(size <= 5));
+    }
+
+    @Test
+    public void testTransientErrorRetried() throws Exception {
+        AtomicInteger attempts = new AtomicInteger(0);
+
+        TestClient client = new TestClient(4, OperationLimits.UNLIMITED, readValueIds -> {
+            if (attempts.incrementAndGet() < 3) {
+                return failed(StatusCodes.Bad_Timeout);
+            } else {
+                return completed(values(readValueIds));
+            }
+        });
+
+        List<DataValue> results = client.getBulkServices()
+            .read(0.0, TimestampsToReturn.Neither, readValueIds(5))
+            .get(5, TimeUnit.SECONDS);
+
+        assertResultsInOrder(results, 5);
+        assertEquals(attempts.get(), 3);
+    }
+
+    @Test
+    public void testTransientErrorNotRetriedForWrite() throws Exception {
+        AtomicInteger attempts = new AtomicInteger(0);
+
+        TestClient client = new TestClient(4, OperationLimits.UNLIMITED, readValueIds -> {
+            throw new IllegalStateException();
+        });
+
+        client.writeService = writeValues -> {
+            attempts.incrementAndGet();
+            return failed(StatusCodes.Bad_Timeout);
+        };
+
+        try {
+            client.getBulkServices().write(writeValues(5)).get(5, TimeUnit.SECONDS);
+            fail("expected failure");
+        } catch (ExecutionException e) {
+            assertEquals(
+                UaException.extractStatusCode(e).map(StatusCode::getValue).orElse(0L),
+                (Long) StatusCodes.Bad_Timeout
+            );
+        }
+
+        // the write may have been applied, so it isn't sent again
+        assertEquals(attempts.get(), 1);
+    }
+
+    @Test
+    public void testUnprocessedErrorRetriedForWrite() throws Exception {
+        AtomicInteger attempts = new AtomicInteger(0);
+
+        TestClient client = new TestClient(4, OperationLimits.UNLIMITED, readValueIds -> {
+            throw new IllegalStateException();
+        });
+
+        client.writeService = writeValues -> {
+            if (attempts.incrementAndGet() < 3) {
+                return failed(StatusCodes.Bad_TcpServerTooBusy);
+            } else {
+                List<StatusCode> results = new ArrayList<>();
+                writeValues.forEach(v -> results.add(StatusCode.GOOD));
+                return completed(results);
+            }
+        };
+
+        List<StatusCode> results = client.getBulkServices()
+            .write(writeValues(5))
+            .get(5, TimeUnit.SECONDS);
+
+        assertEquals(results.size(), 5);
+        assertEquals(attempts.get(), 3);
+    }
+
+    @Test
+    public void testNonTransientErrorFails() throws Exception {
+        AtomicInteger attempts = new AtomicInteger(0);
+
+        TestClient client = new TestClient(4, new OperationLimits(0, 2, 0, 0, 0), readValueIds -> {
+            throw new IllegalStateException();
+        });
+
+        client.writeService = writeValues -> {
+            attempts.incrementAndGet();
+            return failed(StatusCodes.Bad_NodeIdUnknown);
+        };
+
+        try {
+            client.getBulkServices().write(writeValues(10)).get(5, TimeUnit.SECONDS);
+            fail("expected failure");
+        } catch (ExecutionException e) {
+            assertEquals(
+                UaException.extractStatusCode(e).map(StatusCode::getValue).orElse(0L),
+                (Long) StatusCodes.Bad_NodeIdUnknown
+            );
+        }
+
+        // no retries, and no new requests once the operation has failed
+        assertTrue(attempts.get() <= 4);
+    }
+
+    private static void assertResultsInOrder(List<DataValue> results, int count) {
+        assertEquals(results.size(), count);
+
+        for (int i = 0; i < count; i++) {
+            assertEquals(results.get(i).getValue().getValue(), i);
+        }
+    }
+
+    private static List<ReadValueId> readValueIds(int count) {
+        List<ReadValueId> readValueIds = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            readValueIds.add(new ReadValueId(
+                new NodeId(2, i), AttributeId.Value.uid(), null, QualifiedName.NULL_VALUE));
+        }
+        return readValueIds;
+    }
+
+    private static List<WriteValue> writeValues(int count) {
+        List<WriteValue> writeValues = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            writeValues.add(new WriteValue(
+                new NodeId(2, i), AttributeId.Value.uid(), null, new DataValue(new Variant(i))));
+        }
+        return writeValues;
+    }
+
+    private static List<DataValue> values(List<ReadValueId> readValueIds) {
+        List<DataValue> values = new ArrayList<>();
+        for (ReadValueId readValueId : readValueIds) {
+            values.add(new DataValue(new Variant(((UInteger) readValueId.getNodeId().getIdentifier()).intValue())));
+        }
+        return values;
+    }
+
+    private static <T> CompletableFuture<T> completed(T value) {
+        return CompletableFuture.completedFuture(value);
+    }
+
+    private static <T> CompletableFuture<T> failed(long statusCode) {
+        CompletableFuture<T> f = new CompletableFuture<>();
+        f.completeExceptionally(new UaException(statusCode));
+        return f;
+    }
+
+    private static class TestClient extends OpcUaClient {
+
+        final AtomicInteger limitsReads = new AtomicInteger(0);
+
+        final OpcUaSession session = new OpcUaSession(
+            NodeId.NULL_VALUE, NodeId.NULL_VALUE, "test", 60000.0, uint(0), null, null);
+
+        final OperationLimits limits;
+
+        final Function<List<ReadValueId>, CompletableFuture<List<DataValue>>> readService;
+
+        Function<List<WriteValue>, CompletableFuture<List<StatusCode>>> writeService;
+
+        TestClient(
+            int maxRequestsInFlight,
+            OperationLimits limits,
+            Function<List<ReadValueId>, CompletableFuture<List<DataValue>>> readService) throws Exception {
+
+            this(config(maxRequestsInFlight), limits, readService);
+        }
+
+        private TestClient(
+            OpcUaClientConfig config,
+            OperationLimits limits,
+            Function<List<ReadValueId>, CompletableFuture<List<DataValue>>> readService) throws Exception {
+
+            super(config, UaStackClient.create(config));
+
+            this.limits = limits;
+            this.readService = readService;
+        }
+
+        @Override
+        public CompletableFuture<OpcUaSession> getSession() {
+            return CompletableFuture.completedFuture(session);
+        }
+
+        @Override
+        public CompletableFuture<ReadResponse> read(
+            double maxAge,
+            TimestampsToReturn timestampsToReturn,
+            List<ReadValueId> readValueIds) {
+
+            if (readValueIds.get(0).getNodeId()
+                .equals(Identifiers.Server_ServerCapabilities_OperationLimits_MaxNodesPerRead)) {
+
+                limitsReads.incrementAndGet();
+
+                DataValue[] results = new DataValue[]{
+                    new DataValue(new Variant(uint(limits.getMaxNodesPerRead()))),
+                    new DataValue(new Variant(uint(limits.getMaxNodesPerWrite()))),
+                    new DataValue(new Variant(uint(limits.getMaxNodesPerBrowse()))),
+                    new DataValue(new Variant(uint(limits.getMaxNodesPerMethodCall()))),
+                    new DataValue(new Variant(uint(limits.getMaxMonitoredItemsPerCall())))
+                };
+
+                return completed(new ReadResponse(null, results, null));
+            }
+
+            return readService.apply(readValueIds)
+                .thenApply(values -> new ReadResponse(null, values.toArray(new DataValue[0]), null));
+        }
+
+        @Override
+        public CompletableFuture<WriteResponse> write(List<WriteValue> writeValues) {
+            return writeService.apply(writeValues)
+                .thenApply(results -> new WriteResponse(null, results.toArray(new StatusCode[0]), null));
+        }
+
+        private static OpcUaClientConfig config(int maxRequestsInFlight) {
+            return OpcUaClientConfig.builder()
+                .setEndpoint(new EndpointDescription(
+                    "opc.tcp://localhost:12685",
+                    null,
+                    null,
+                    MessageSecurityMode.None,
+                    SecurityPolicy.None.getUri(),
+                    null,
+                    TransportProfile.TCP_UASC_UABINARY.getUri(),
+                    null
+                ))
+                .setApplicationName(LocalizedText.english("Eclipse Milo Test Client"))
+                .setApplicationUri("urn:eclipse:milo:test:client")
+                .setMaxBulkRequestsInFlight(uint(maxRequestsInFlight))
+                .build();
+        }
+
+    }
+
+}
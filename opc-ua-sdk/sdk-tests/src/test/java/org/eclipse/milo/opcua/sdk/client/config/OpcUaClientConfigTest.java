@@ -13,6 +13,7 @@ package org.eclipse.milo.opcua.sdk.client.config;
 import org.eclipse.milo.opcua.binaryschema.GenericBsdParser;
 import org.eclipse.milo.opcua.sdk.client.api.config.OpcUaClientConfig;
 import org.eclipse.milo.opcua.sdk.client.api.identity.AnonymousProvider;
+import org.eclipse.milo.opcua.sdk.client.api.subscriptions.NotificationOverflowPolicy;
 import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UInteger;
 import org.testng.annotations.Test;
 
@@ -32,6 +33,10 @@ public class OpcUaClientConfigTest {
             .setMaxPendingPublishRequests(uint(2))
             .setIdentityProvider(new AnonymousProvider())
             .setBsdParser(new GenericBsdParser())
+            .setMaxBulkRequestsInFlight(uint(8))
+            .setNotificationBacklogCapacity(uint(32))
+            .setNotificationOverflowPolicy(NotificationOverflowPolicy.DROP_OLDEST)
+            .setAdaptivePublishWindowEnabled(true)
             .build();
 
         OpcUaClientConfig copy = OpcUaClientConfig.copy(original).build();
@@ -46,6 +51,10 @@ public class OpcUaClientConfigTest {
         assertEquals(copy.getKeepAliveFailuresAllowed(), original.getKeepAliveFailuresAllowed());
         assertEquals(copy.getKeepAliveInterval(), original.getKeepAliveInterval());
         assertEquals(copy.getKeepAliveTimeout(), original.getKeepAliveTimeout());
+        assertEquals(copy.getMaxBulkRequestsInFlight(), original.getMaxBulkRequestsInFlight());
+        assertEquals(copy.getNotificationBacklogCapacity(), original.getNotificationBacklogCapacity());
+        assertEquals(copy.getNotificationOverflowPolicy(), original.getNotificationOverflowPolicy());
+        assertEquals(copy.isAdaptivePublishWindowEnabled(), original.isAdaptivePublishWindowEnabled());
     }
 
     @Test
@@ -71,6 +80,10 @@ public class OpcUaClientConfigTest {
                     .setKeepAliveFailuresAllowed(uint(2))
                     .setKeepAliveInterval(uint(10000))
                     .setKeepAliveTimeout(uint(15000))
+                    .setMaxBulkRequestsInFlight(uint(16))
+                    .setNotificationBacklogCapacity(uint(0))
+                    .setNotificationOverflowPolicy(NotificationOverflowPolicy.DROP_NEWEST)
+                    .setAdaptivePublishWindowEnabled(true)
         );
 
         assertNotEquals(copy.getSessionName(), original.getSessionName());
@@ -84,6 +97,10 @@ public class OpcUaClientConfigTest {
         assertEquals(copy.getKeepAliveFailuresAllowed(), uint(2));
         assertEquals(copy.getKeepAliveInterval(), uint(10000));
         assertEquals(copy.getKeepAliveTimeout(), uint(15000));
+        assertEquals(copy.getMaxBulkRequestsInFlight(), uint(16));
+        assertEquals(copy.getNotificationBacklogCapacity(), uint(0));
+        assertEquals(copy.getNotificationOverflowPolicy(), NotificationOverflowPolicy.DROP_NEWEST);
+        assertEquals(copy.isAdaptivePublishWindowEnabled(), true);
     }
 
 }
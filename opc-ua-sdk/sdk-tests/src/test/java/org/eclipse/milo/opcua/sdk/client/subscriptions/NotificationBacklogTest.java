@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2019 the Eclipse Milo Authors
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.milo.opcua.sdk.client.subscriptions;
+
+import org.eclipse.milo.opcua.sdk.client.api.subscriptions.NotificationOverflowPolicy;
+import org.eclipse.milo.opcua.sdk.client.subscriptions.NotificationBacklog.PendingNotification;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DateTime;
+import org.eclipse.milo.opcua.stack.core.types.builtin.ExtensionObject;
+import org.eclipse.milo.opcua.stack.core.types.structured.NotificationMessage;
+import org.testng.annotations.Test;
+
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.uint;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+public class NotificationBacklogTest {
+
+    @Test
+    public void testBlock() {
+        NotificationBacklog backlog = new NotificationBacklog();
+
+        PendingNotification p1 = pending(1);
+        PendingNotification p2 = pending(2);
+        PendingNotification p3 = pending(3);
+
+        assertNull(backlog.offer(p1, 2, NotificationOverflowPolicy.BLOCK));
+        assertNull(backlog.offer(p2, 2, NotificationOverflowPolicy.BLOCK));
+        assertNull(backlog.offer(p3, 2, NotificationOverflowPolicy.BLOCK));
+
+        // queued within capacity are admitted right away; the overflow waits until it's delivered
+        assertTrue(p1.getAdmitted().isDone());
+        assertTrue(p2.getAdmitted().isDone());
+        assertFalse(p3.getAdmitted().isDone());
+        assertEquals(backlog.size(), 3);
+
+        assertSame(backlog.poll(), p1);
+        assertSame(backlog.poll(), p2);
+        assertSame(backlog.poll(), p3);
+
+        p3.delivered();
+        assertTrue(p3.getAdmitted().isDone());
+    }
+
+    @Test
+    public void testBlockWithoutCapacity() {
+        NotificationBacklog backlog = new NotificationBacklog();
+
+        PendingNotification p1 = pending(1);
+
+        assertNull(backlog.offer(p1, 0, NotificationOverflowPolicy.BLOCK));
+        assertFalse(p1.getAdmitted().isDone());
+
+        assertSame(backlog.poll(), p1);
+        p1.delivered();
+        assertTrue(p1.getAdmitted().isDone());
+    }
+
+    @Test
+    public void testDropOldest() {
+        NotificationBacklog backlog = new NotificationBacklog();
+
+        PendingNotification p1 = pending(1);
+        PendingNotification p2 = pending(2);
+        PendingNotification p3 = pending(3);
+
+        assertNull(backlog.offer(p1, 2, NotificationOverflowPolicy.DROP_OLDEST));
+        assertNull(backlog.offer(p2, 2, NotificationOverflowPolicy.DROP_OLDEST));
+        assertSame(backlog.offer(p3, 2, NotificationOverflowPolicy.DROP_OLDEST), p1.getMessage());
+
+        assertTrue(p3.getAdmitted().isDone());
+        assertEquals(backlog.size(), 2);
+
+        assertSame(backlog.poll(), p2);
+        assertSame(backlog.poll(), p3);
+        assertNull(backlog.poll());
+    }
+
+    @Test
+    public void testDropNewest() {
+        NotificationBacklog backlog = new NotificationBacklog();
+
+        PendingNotification p1 = pending(1);
+        PendingNotification p2 = pending(2);
+        PendingNotification p3 = pending(3);
+
+        assertNull(backlog.offer(p1, 2, NotificationOverflowPolicy.DROP_NEWEST));
+        assertNull(backlog.offer(p2, 2, NotificationOverflowPolicy.DROP_NEWEST));
+        assertSame(backlog.offer(p3, 2, NotificationOverflowPolicy.DROP_NEWEST), p3.getMessage());
+
+        assertTrue(p3.getAdmitted().isDone());
+        assertEquals(backlog.size(), 2);
+
+        assertSame(backlog.poll(), p1);
+        assertSame(backlog.poll(), p2);
+        assertNull(backlog.poll());
+    }
+
+    private static PendingNotification pending(long sequenceNumber) {
+        return new PendingNotification(
+            new NotificationMessage(uint(sequenceNumber), DateTime.now(), new ExtensionObject[0])
+        );
+    }
+
+}
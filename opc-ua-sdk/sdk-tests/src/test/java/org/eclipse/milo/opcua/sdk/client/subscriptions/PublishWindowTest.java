@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2019 the Eclipse Milo Authors
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.milo.opcua.sdk.client.subscriptions;
+
+import java.util.concurrent.TimeUnit;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class PublishWindowTest {
+
+    private static final int MAX_SIZE = 100;
+
+    @Test
+    public void testInitialSize() {
+        PublishWindow window = new PublishWindow();
+
+        assertEquals(window.getSize(), 0);
+        assertEquals(window.getSize(4, MAX_SIZE), 5);
+        assertEquals(window.getSize(7, MAX_SIZE), 7);
+        assertEquals(window.getSize(7, 3), 3);
+    }
+
+    @Test
+    public void testNeverShrinksBelowSubscriptionCount() throws Exception {
+        PublishWindow window = new PublishWindow();
+        window.getSize(1, MAX_SIZE);
+
+        for (int i = 0; i < 20; i++) {
+            Thread.sleep(1);
+            window.onPublishResponse(0L, false, MAX_SIZE);
+        }
+
+        assertEquals(window.getSize(), 1);
+
+        // Subscriptions were added: the window grows to one request per Subscription right away...
+        assertEquals(window.getSize(6, MAX_SIZE), 6);
+        assertEquals(window.getMinSize(), 6);
+
+        for (int i = 0; i < 20; i++) {
+            Thread.sleep(1);
+            window.onPublishResponse(0L, false, MAX_SIZE);
+        }
+
+        // ...and instant round trips don't shrink it again
+        assertEquals(window.getTargetSize(), 6);
+        assertEquals(window.getSize(), 6);
+
+        // Subscriptions were deleted: it shrinks gradually again
+        window.getSize(2, MAX_SIZE);
+
+        for (int i = 0; i < 30; i++) {
+            Thread.sleep(1);
+            window.onPublishResponse(0L, false, MAX_SIZE);
+        }
+
+        assertEquals(window.getSize(), 2);
+    }
+
+    @Test
+    public void testMoreNotificationsGrows() {
+        PublishWindow window = new PublishWindow();
+        window.getSize(1, MAX_SIZE);
+
+        for (int i = 0; i < 3; i++) {
+            window.onPublishResponse(0L, true, MAX_SIZE);
+        }
+
+        assertEquals(window.getSize(1, MAX_SIZE), 5);
+        assertEquals(window.getIncreaseCount(), 3L);
+    }
+
+    @Test
+    public void testGrowsTowardsTargetOnSlowRoundTrips() throws Exception {
+        PublishWindow window = new PublishWindow();
+        window.getSize(1, MAX_SIZE);
+
+        // responses arrive about every millisecond but each took 50ms, so ~50 should be outstanding
+        for (int i = 0; i < 20; i++) {
+            Thread.sleep(1);
+            window.onPublishResponse(TimeUnit.MILLISECONDS.toNanos(50), false, MAX_SIZE);
+        }
+
+        assertTrue(window.getTargetSize() > 2, "targetSize=" + window.getTargetSize());
+
+        // it grows to the target right away but only shrinks gradually, so sleep jitter can leave it above
+        assertTrue(window.getSize() >= window.getTargetSize(), window.toString());
+    }
+
+    @Test
+    public void testShrinksTowardsTarget() throws Exception {
+        PublishWindow window = new PublishWindow();
+        window.getSize(0, MAX_SIZE);
+
+        // grow to 4 while the server has more notifications
+        for (int i = 0; i < 3; i++) {
+            Thread.sleep(1);
+            window.onPublishResponse(0L, true, MAX_SIZE);
+        }
+
+        assertEquals(window.getSize(), 4);
+
+        // instant round trips: one outstanding request is enough. It takes a window's worth of responses to shrink
+        // by one.
+        for (int i = 0; i < 4; i++) {
+            Thread.sleep(1);
+            window.onPublishResponse(0L, false, MAX_SIZE);
+        }
+
+        assertEquals(window.getTargetSize(), 1);
+        assertEquals(window.getSize(), 3);
+
+        for (int i = 0; i < 20; i++) {
+            Thread.sleep(1);
+            window.onPublishResponse(0L, false, MAX_SIZE);
+        }
+
+        assertEquals(window.getSize(), 1);
+        assertTrue(window.getDecreaseCount() >= 3);
+    }
+
+    @Test
+    public void testTooManyPublishRequestsCaps() {
+        PublishWindow window = new PublishWindow();
+        window.getSize(9, MAX_SIZE);
+
+        window.onTooManyPublishRequests(6);
+
+        assertEquals(window.getServerLimit(), 5);
+        assertEquals(window.getSize(9, MAX_SIZE), 5);
+        assertEquals(window.getThrottleCount(), 1L);
+
+        window.onPublishResponse(0L, true, MAX_SIZE);
+        assertEquals(window.getSize(9, MAX_SIZE), 5);
+
+        window.reset();
+        assertEquals(window.getServerLimit(), Integer.MAX_VALUE);
+        assertEquals(window.getSize(9, MAX_SIZE), 10);
+    }
+
+}
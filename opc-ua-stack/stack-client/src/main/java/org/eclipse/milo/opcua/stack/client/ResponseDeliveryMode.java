@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2019 the Eclipse Milo Authors
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.milo.opcua.stack.client;
+
+import org.eclipse.milo.opcua.stack.core.serialization.UaRequestMessage;
+
+/**
+ * How a {@link UaStackClient} completes the futures returned by {@code sendRequest} once responses arrive.
+ * <p>
+ * Futures are always completed on the configured executor, never on the transport's thread.
+ */
+public enum ResponseDeliveryMode {
+
+    /**
+     * Complete futures one at a time, in the order the responses were received.
+     */
+    ORDERED,
+
+    /**
+     * Complete futures for requests of the same type one at a time, in the order the responses were received.
+     * Futures for requests of different types may complete concurrently.
+     */
+    ORDERED_BY_REQUEST_TYPE,
+
+    /**
+     * Complete futures for requests sent with the same delivery key one at a time, in the order the responses were
+     * received. Futures for requests with different keys may complete concurrently.
+     * <p>
+     * Requests sent without a key use their type as the key.
+     *
+     * @see UaStackClient#sendRequest(UaRequestMessage, Object)
+     */
+    ORDERED_BY_KEY,
+
+    /**
+     * Complete each future as soon as its response is received, concurrently and in no particular order.
+     */
+    UNORDERED
+
+}
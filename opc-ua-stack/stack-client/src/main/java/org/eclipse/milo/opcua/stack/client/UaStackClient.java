@@ -31,6 +31,7 @@ import org.eclipse.milo.opcua.stack.core.types.structured.RequestHeader;
 import org.eclipse.milo.opcua.stack.core.types.structured.ResponseHeader;
 import org.eclipse.milo.opcua.stack.core.types.structured.ServiceFault;
 import org.eclipse.milo.opcua.stack.core.util.ExecutionQueue;
+import org.eclipse.milo.opcua.stack.core.util.LatencyHistogram;
 import org.eclipse.milo.opcua.stack.core.util.LongSequence;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -39,13 +40,22 @@ import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.
 
 public class UaStackClient {
 
+    /**
+     * The number of delivery queues used by the {@link ResponseDeliveryMode}s that order delivery per request type or
+     * per key.
+     */
+    static final int DELIVERY_STRIPES = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+
     private final Logger logger = LoggerFactory.getLogger(getClass());
 
     private final LongSequence requestHandles = new LongSequence(0, UInteger.MAX_VALUE);
 
     private final Map<UInteger, CompletableFuture<UaResponseMessage>> pending = Maps.newConcurrentMap();
 
-    private final ExecutionQueue deliveryQueue;
+    private final LatencyHistogram deliveryLag = new LatencyHistogram();
+
+    private final ResponseDeliveryMode deliveryMode;
+    private final ExecutionQueue[] deliveryQueues;
 
     private final UaStackClientConfig config;
     private final UaTransport transport;
@@ -54,8 +64,26 @@ public class UaStackClient {
         this.config = config;
         this.transport = transport;
 
+        deliveryMode = config.getResponseDeliveryMode();
+
+        switch (deliveryMode) {
+            case ORDERED:
+                deliveryQueues = new ExecutionQueue[]{new ExecutionQueue(config.getExecutor())};
+                break;
+
+            case ORDERED_BY_REQUEST_TYPE:
+            case ORDERED_BY_KEY:
+                deliveryQueues = new ExecutionQueue[DELIVERY_STRIPES];
+                for (int i = 0; i < deliveryQueues.length; i++) {
+                    deliveryQueues[i] = new ExecutionQueue(config.getExecutor());
+                }
+                break;
 
-        deliveryQueue = new ExecutionQueue(config.getExecutor());
+            case UNORDERED:
+            default:
+                deliveryQueues = new ExecutionQueue[0];
+                break;
+        }
     }
 
     /**
@@ -65,6 +93,34 @@ public class UaStackClient {
         return config;
     }
 
+    /**
+     * @return the {@link ResponseDeliveryMode} this client completes request futures with.
+     */
+    public ResponseDeliveryMode getResponseDeliveryMode() {
+        return deliveryMode;
+    }
+
+    /**
+     * Get the time between a response being received and its future being completed, i.e. how long responses waited
+     * for earlier responses they're ordered behind, and for a thread on the executor.
+     *
+     * @return a {@link LatencyHistogram} of the delivery lag of all responses received by this client.
+     */
+    public LatencyHistogram getDeliveryLag() {
+        return deliveryLag;
+    }
+
+    /**
+     * @return the number of received responses whose futures are waiting to be completed.
+     */
+    public int getPendingDeliveries() {
+        int depth = 0;
+        for (ExecutionQueue queue : deliveryQueues) {
+            depth += queue.getQueueDepth();
+        }
+        return depth;
+    }
+
     /**
      * Connect this {@link UaStackClient} to the server in the configured endpoint.
      * <p>
@@ -153,6 +209,22 @@ public class UaStackClient {
      * @see #newRequestHeader(NodeId, UInteger)
      */
     public CompletableFuture<UaResponseMessage> sendRequest(UaRequestMessage request) {
+        return sendRequest(request, request.getClass());
+    }
+
+    /**
+     * Send a {@link UaRequestMessage} to the connected server.
+     * <p>
+     * When the client is configured with {@link ResponseDeliveryMode#ORDERED_BY_KEY} the returned future is completed
+     * after the futures of any earlier responses to requests sent with an equal {@code deliveryKey}. In the other
+     * modes {@code deliveryKey} is ignored.
+     *
+     * @param request     the {@link UaRequestMessage} to send.
+     * @param deliveryKey the key that determines which other responses the response is delivered in order with.
+     * @return a {@link CompletableFuture} containing the eventual {@link UaResponseMessage} from the server.
+     * @see #sendRequest(UaRequestMessage)
+     */
+    public CompletableFuture<UaResponseMessage> sendRequest(UaRequestMessage request, Object deliveryKey) {
         RequestHeader requestHeader = request.getRequestHeader();
         UInteger requestHandle = requestHeader.getRequestHandle();
 
@@ -163,7 +235,7 @@ public class UaStackClient {
             pending.remove(requestHandle);
 
             if (response != null) {
-                deliverResponse(request, response, future);
+                deliverResponse(request, deliveryKey, response, future);
             } else {
                 future.completeExceptionally(ex);
             }
@@ -173,47 +245,87 @@ public class UaStackClient {
     }
 
     /**
-     * Complete {@code future} with {@code response} on the {@code deliveryQueue}.
+     * Complete {@code future} with {@code response} on the executor, ordered according to the configured
+     * {@link ResponseDeliveryMode}.
      * <p>
      * This is done for two reasons:
      * 1. the transport future is completed on its serialization queue thread, which we want to get off of ASAP.
-     * 2. the futures need to be completed serially, in the order received from the server.
+     * 2. depending on the mode, the futures need to be completed serially, in the order received from the server.
      *
-     * @param request  the original {@link UaRequestMessage}.
-     * @param response the {@link UaResponseMessage}.
-     * @param future   the {@link CompletableFuture} awaiting completion.
+     * @param request     the original {@link UaRequestMessage}.
+     * @param deliveryKey the key the request was sent with.
+     * @param response    the {@link UaResponseMessage}.
+     * @param future      the {@link CompletableFuture} awaiting completion.
      */
     private void deliverResponse(
         UaRequestMessage request,
+        Object deliveryKey,
         UaResponseMessage response,
         CompletableFuture<UaResponseMessage> future) {
 
-        ResponseHeader header = response.getResponseHeader();
-        UInteger requestHandle = header.getRequestHandle();
+        long receivedNanos = System.nanoTime();
 
-        deliveryQueue.submit(() -> {
-            if (header.getServiceResult().isGood()) {
-                future.complete(response);
-            } else {
-                ServiceFault serviceFault;
+        Runnable delivery = () -> {
+            deliveryLag.record(System.nanoTime() - receivedNanos);
 
-                if (response instanceof ServiceFault) {
-                    serviceFault = (ServiceFault) response;
-                } else {
-                    serviceFault = new ServiceFault(header);
-                }
+            completeResponse(request, response, future);
+        };
 
-                if (logger.isDebugEnabled()) {
-                    logger.debug(
-                        "Received ServiceFault request={} requestHandle={}, result={}",
-                        request.getClass().getSimpleName(),
-                        requestHandle,
-                        header.getServiceResult());
-                }
+        switch (deliveryMode) {
+            case ORDERED:
+                deliveryQueues[0].submit(delivery);
+                break;
+
+            case ORDERED_BY_REQUEST_TYPE:
+                deliveryQueue(request.getClass()).submit(delivery);
+                break;
+
+            case ORDERED_BY_KEY:
+                deliveryQueue(deliveryKey).submit(delivery);
+                break;
+
+            case UNORDERED:
+            default:
+                config.getExecutor().execute(delivery);
+                break;
+        }
+    }
 
-                future.completeExceptionally(new UaServiceFaultException(serviceFault));
+    private ExecutionQueue deliveryQueue(Object key) {
+        int h = key != null ? key.hashCode() : 0;
+        h ^= (h >>> 16);
+
+        return deliveryQueues[(h & Integer.MAX_VALUE) % deliveryQueues.length];
+    }
+
+    private void completeResponse(
+        UaRequestMessage request,
+        UaResponseMessage response,
+        CompletableFuture<UaResponseMessage> future) {
+
+        ResponseHeader header = response.getResponseHeader();
+
+        if (header.getServiceResult().isGood()) {
+            future.complete(response);
+        } else {
+            ServiceFault serviceFault;
+
+            if (response instanceof ServiceFault) {
+                serviceFault = (ServiceFault) response;
+            } else {
+                serviceFault = new ServiceFault(header);
             }
-        });
+
+            if (logger.isDebugEnabled()) {
+                logger.debug(
+                    "Received ServiceFault request={} requestHandle={}, result={}",
+                    request.getClass().getSimpleName(),
+                    header.getRequestHandle(),
+                    header.getServiceResult());
+            }
+
+            future.completeExceptionally(new UaServiceFaultException(serviceFault));
+        }
     }
 
     /**
@@ -111,6 +111,20 @@ public interface UaStackClientConfig {
      */
     UInteger getChannelLifetime();
 
+    /**
+     * @return {@code true} if responses received on a secure channel should be decrypted, verified, and decoded in
+     * parallel on the executor rather than one at a time. Responses are still delivered in the order received.
+     */
+    boolean isParallelDecodingEnabled();
+
+    /**
+     * @return the {@link ResponseDeliveryMode} that determines the order in which the futures of requests sent by the
+     * client are completed. Defaults to {@link ResponseDeliveryMode#ORDERED}.
+     */
+    default ResponseDeliveryMode getResponseDeliveryMode() {
+        return ResponseDeliveryMode.ORDERED;
+    }
+
     static UaStackClientConfigBuilder builder() {
         return new UaStackClientConfigBuilder();
     }
@@ -139,6 +153,8 @@ public interface UaStackClientConfig {
         builder.setConnectTimeout(config.getConnectTimeout());
         builder.setAcknowledgeTimeout(config.getAcknowledgeTimeout());
         builder.setRequestTimeout(config.getRequestTimeout());
+        builder.setParallelDecodingEnabled(config.isParallelDecodingEnabled());
+        builder.setResponseDeliveryMode(config.getResponseDeliveryMode());
 
         return builder;
     }
@@ -46,6 +46,8 @@ public class UaStackClientConfigBuilder {
     private UInteger requestTimeout = uint(60_000);
     private MessageLimits messageLimits = MessageLimits.DEFAULT;
     private UInteger channelLifetime = uint(60 * 60 * 1000);
+    private boolean parallelDecodingEnabled = false;
+    private ResponseDeliveryMode responseDeliveryMode = ResponseDeliveryMode.ORDERED;
 
     public UaStackClientConfigBuilder setEndpoint(EndpointDescription endpoint) {
         this.endpoint = endpoint;
@@ -117,6 +119,16 @@ public class UaStackClientConfigBuilder {
         return this;
     }
 
+    public UaStackClientConfigBuilder setParallelDecodingEnabled(boolean parallelDecodingEnabled) {
+        this.parallelDecodingEnabled = parallelDecodingEnabled;
+        return this;
+    }
+
+    public UaStackClientConfigBuilder setResponseDeliveryMode(ResponseDeliveryMode responseDeliveryMode) {
+        this.responseDeliveryMode = responseDeliveryMode;
+        return this;
+    }
+
     public UaStackClientConfig build() {
         if (executor == null) {
             executor = Stack.sharedExecutor();
@@ -142,7 +154,9 @@ public class UaStackClientConfigBuilder {
             acknowledgeTimeout,
             requestTimeout,
             messageLimits,
-            channelLifetime
+            channelLifetime,
+            parallelDecodingEnabled,
+            responseDeliveryMode
         );
     }
 
@@ -163,6 +177,8 @@ public class UaStackClientConfigBuilder {
         private final UInteger requestTimeout;
         private final MessageLimits messageLimits;
         private final UInteger channelLifetime;
+        private final boolean parallelDecodingEnabled;
+        private final ResponseDeliveryMode responseDeliveryMode;
 
         UaStackClientConfigImpl(
             EndpointDescription endpoint,
@@ -178,7 +194,9 @@ public class UaStackClientConfigBuilder {
             UInteger acknowledgeTimeout,
             UInteger requestTimeout,
             MessageLimits messageLimits,
-            UInteger channelLifetime) {
+            UInteger channelLifetime,
+            boolean parallelDecodingEnabled,
+            ResponseDeliveryMode responseDeliveryMode) {
 
             this.endpoint = endpoint;
             this.keyPair = keyPair;
@@ -194,6 +212,8 @@ public class UaStackClientConfigBuilder {
             this.requestTimeout = requestTimeout;
             this.messageLimits = messageLimits;
             this.channelLifetime = channelLifetime;
+            this.parallelDecodingEnabled = parallelDecodingEnabled;
+            this.responseDeliveryMode = responseDeliveryMode;
         }
 
         @Override
@@ -274,6 +294,16 @@ public class UaStackClientConfigBuilder {
             return requestTimeout;
         }
 
+        @Override
+        public boolean isParallelDecodingEnabled() {
+            return parallelDecodingEnabled;
+        }
+
+        @Override
+        public ResponseDeliveryMode getResponseDeliveryMode() {
+            return responseDeliveryMode;
+        }
+
     }
 
 }
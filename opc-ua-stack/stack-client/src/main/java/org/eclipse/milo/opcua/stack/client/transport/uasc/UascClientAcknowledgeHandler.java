@@ -229,7 +229,8 @@ public class UascClientAcknowledgeHandler extends ByteToMessageCodec<UaTransport
             SerializationQueue serializationQueue = new SerializationQueue(
                 config.getExecutor(),
                 parameters,
-                config.getEncodingLimits()
+                config.getEncodingLimits(),
+                config.isParallelDecodingEnabled()
             );
 
             UascClientMessageHandler handler = new UascClientMessageHandler(
@@ -39,6 +39,7 @@ import org.eclipse.milo.opcua.stack.core.channel.ChunkDecoder;
 import org.eclipse.milo.opcua.stack.core.channel.ChunkEncoder;
 import org.eclipse.milo.opcua.stack.core.channel.MessageAbortedException;
 import org.eclipse.milo.opcua.stack.core.channel.SerializationQueue;
+import org.eclipse.milo.opcua.stack.core.channel.SerializationQueue.MessageCallback;
 import org.eclipse.milo.opcua.stack.core.channel.headers.AsymmetricSecurityHeader;
 import org.eclipse.milo.opcua.stack.core.channel.headers.HeaderDecoder;
 import org.eclipse.milo.opcua.stack.core.channel.messages.ErrorMessage;
@@ -46,6 +47,7 @@ import org.eclipse.milo.opcua.stack.core.channel.messages.MessageType;
 import org.eclipse.milo.opcua.stack.core.channel.messages.TcpMessageDecoder;
 import org.eclipse.milo.opcua.stack.core.security.CertificateValidator;
 import org.eclipse.milo.opcua.stack.core.security.SecurityPolicy;
+import org.eclipse.milo.opcua.stack.core.serialization.UaMessage;
 import org.eclipse.milo.opcua.stack.core.serialization.UaResponseMessage;
 import org.eclipse.milo.opcua.stack.core.types.builtin.ByteString;
 import org.eclipse.milo.opcua.stack.core.types.builtin.DateTime;
@@ -618,67 +620,71 @@ public class UascClientMessageHandler extends ByteToMessageCodec<UaTransportRequ
             final List<ByteBuf> buffersToDecode = chunkBuffers;
             chunkBuffers = new ArrayList<>(maxChunkCount);
 
-            serializationQueue.decode((binaryDecoder, chunkDecoder) -> {
-                try {
-                    validateChunkHeaders(buffersToDecode);
-                } catch (UaException e) {
-                    logger.error("Error validating chunk headers: {}", e.getMessage(), e);
-                    buffersToDecode.forEach(ReferenceCountUtil::safeRelease);
+            serializationQueue.decodeSymmetric(secureChannel, buffersToDecode, new MessageCallback() {
+                @Override
+                public void validateChunks(List<ByteBuf> chunkBuffers) throws UaException {
+                    validateChunkHeaders(chunkBuffers);
+                }
+
+                @Override
+                public void onValidationError(UaException ex) {
+                    logger.error("Error validating chunk headers: {}", ex.getMessage(), ex);
+
                     ctx.close();
-                    return;
                 }
 
-                chunkDecoder.decodeSymmetric(secureChannel, buffersToDecode, new ChunkDecoder.Callback() {
-                    @Override
-                    public void onDecodingError(UaException ex) {
-                        logger.error(
-                            "Error decoding symmetric message: {}",
-                            ex.getMessage(), ex);
+                @Override
+                public void onDecodingError(UaException ex) {
+                    logger.error(
+                        "Error decoding symmetric message: {}",
+                        ex.getMessage(), ex);
 
-                        ctx.close();
-                    }
+                    ctx.close();
+                }
 
-                    @Override
-                    public void onMessageAborted(MessageAbortedException ex) {
-                        logger.warn(
-                            "Received message abort chunk; error={}, reason={}",
-                            ex.getStatusCode(), ex.getMessage());
+                @Override
+                public void onMessageAborted(MessageAbortedException ex) {
+                    logger.warn(
+                        "Received message abort chunk; error={}, reason={}",
+                        ex.getStatusCode(), ex.getMessage());
 
-                        long requestId = ex.getRequestId();
-                        UaTransportRequest request = pending.remove(requestId);
+                    long requestId = ex.getRequestId();
+                    UaTransportRequest request = pending.remove(requestId);
 
-                        if (request != null) {
-                            request.getFuture().completeExceptionally(ex);
-                        } else {
-                            logger.warn("No pending request for requestId={}", requestId);
-                        }
+                    if (request != null) {
+                        request.getFuture().completeExceptionally(ex);
+                    } else {
+                        logger.warn("No pending request for requestId={}", requestId);
                     }
+                }
 
-                    @Override
-                    public void onMessageDecoded(ByteBuf message, long requestId) {
-                        UaTransportRequest request = pending.remove(requestId);
+                @Override
+                public void onMessageDecoded(UaMessage message, long requestId) {
+                    UaTransportRequest request = pending.remove(requestId);
 
+                    if (request != null) {
                         try {
-                            if (request != null) {
-                                UaResponseMessage response = (UaResponseMessage) binaryDecoder
-                                    .setBuffer(message)
-                                    .readMessage(null);
-
-                                request.getFuture().complete(response);
-                            } else {
-                                logger.warn("No pending request for requestId={}", requestId);
-                            }
+                            request.getFuture().complete((UaResponseMessage) message);
                         } catch (Throwable t) {
                             logger.error("Error decoding UaResponseMessage", t);
 
-                            if (request != null) {
-                                request.getFuture().completeExceptionally(t);
-                            }
-                        } finally {
-                            message.release();
+                            request.getFuture().completeExceptionally(t);
                         }
+                    } else {
+                        logger.warn("No pending request for requestId={}", requestId);
                     }
-                });
+                }
+
+                @Override
+                public void onMessageDecodingError(long requestId, Throwable ex) {
+                    logger.error("Error decoding UaResponseMessage", ex);
+
+                    UaTransportRequest request = pending.remove(requestId);
+
+                    if (request != null) {
+                        request.getFuture().completeExceptionally(ex);
+                    }
+                }
             });
         }
     }
@@ -10,8 +10,13 @@
 
 package org.eclipse.milo.opcua.stack.core.channel;
 
+import java.security.GeneralSecurityException;
 import java.util.Optional;
 import javax.annotation.Nullable;
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
 
 import org.eclipse.milo.opcua.stack.core.security.SecurityAlgorithm;
 import org.eclipse.milo.opcua.stack.core.types.builtin.ByteString;
@@ -127,6 +132,10 @@ public class ChannelSecurity {
         private final byte[] encryptionKey;
         private final byte[] initializationVector;
 
+        private final ThreadLocal<Mac> signatureMac = new ThreadLocal<>();
+        private final ThreadLocal<Cipher> encryptionCipher = new ThreadLocal<>();
+        private final ThreadLocal<Cipher> decryptionCipher = new ThreadLocal<>();
+
         SecretKeys(byte[] signatureKey, byte[] encryptionKey, byte[] initializationVector) {
             this.signatureKey = signatureKey;
             this.encryptionKey = encryptionKey;
@@ -144,5 +153,81 @@ public class ChannelSecurity {
         public byte[] getInitializationVector() {
             return initializationVector;
         }
+
+        /**
+         * Get a {@link Mac} keyed with the signature key, for the exclusive use of the calling thread.
+         * <p>
+         * The instance is created and initialized on the first call from each thread and reset on every call after.
+         *
+         * @param algorithm the symmetric signature algorithm of the channel's SecurityPolicy.
+         * @return a {@link Mac} keyed with the signature key.
+         */
+        public Mac getSignatureMac(SecurityAlgorithm algorithm) throws GeneralSecurityException {
+            String transformation = algorithm.getTransformation();
+
+            Mac mac = signatureMac.get();
+
+            if (mac == null || !mac.getAlgorithm().equals(transformation)) {
+                mac = Mac.getInstance(transformation);
+                mac.init(new SecretKeySpec(signatureKey, transformation));
+
+                signatureMac.set(mac);
+            } else {
+                mac.reset();
+            }
+
+            return mac;
+        }
+
+        /**
+         * Get a {@link Cipher} initialized for encryption with the encryption key and initialization vector, for the
+         * exclusive use of the calling thread.
+         * <p>
+         * A {@link Cipher} returns to its initialized state after each {@code doFinal}, so the same instance is
+         * returned on every call from a thread.
+         *
+         * @param algorithm the symmetric encryption algorithm of the channel's SecurityPolicy.
+         * @return a {@link Cipher} initialized for encryption.
+         */
+        public Cipher getEncryptionCipher(SecurityAlgorithm algorithm) throws GeneralSecurityException {
+            return getCipher(encryptionCipher, Cipher.ENCRYPT_MODE, algorithm);
+        }
+
+        /**
+         * Get a {@link Cipher} initialized for decryption with the encryption key and initialization vector, for the
+         * exclusive use of the calling thread.
+         *
+         * @param algorithm the symmetric encryption algorithm of the channel's SecurityPolicy.
+         * @return a {@link Cipher} initialized for decryption.
+         * @see #getEncryptionCipher(SecurityAlgorithm)
+         */
+        public Cipher getDecryptionCipher(SecurityAlgorithm algorithm) throws GeneralSecurityException {
+            return getCipher(decryptionCipher, Cipher.DECRYPT_MODE, algorithm);
+        }
+
+        private Cipher getCipher(
+            ThreadLocal<Cipher> cache,
+            int mode,
+            SecurityAlgorithm algorithm) throws GeneralSecurityException {
+
+            String transformation = algorithm.getTransformation();
+
+            Cipher cipher = cache.get();
+
+            if (cipher == null || !cipher.getAlgorithm().equals(transformation)) {
+                assert (transformation.startsWith("AES"));
+
+                cipher = Cipher.getInstance(transformation);
+                cipher.init(
+                    mode,
+                    new SecretKeySpec(encryptionKey, "AES"),
+                    new IvParameterSpec(initializationVector)
+                );
+
+                cache.set(cipher);
+            }
+
+            return cipher;
+        }
     }
 }
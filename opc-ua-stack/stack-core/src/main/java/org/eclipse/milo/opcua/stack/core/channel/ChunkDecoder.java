@@ -14,14 +14,14 @@ import java.nio.Buffer;
 import java.nio.ByteBuffer;
 import java.security.GeneralSecurityException;
 import java.security.InvalidKeyException;
+import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.security.Signature;
 import java.security.SignatureException;
-import java.util.Arrays;
 import java.util.List;
+import javax.annotation.Nullable;
 import javax.crypto.Cipher;
-import javax.crypto.spec.IvParameterSpec;
-import javax.crypto.spec.SecretKeySpec;
+import javax.crypto.Mac;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.CompositeByteBuf;
@@ -35,7 +35,6 @@ import org.eclipse.milo.opcua.stack.core.channel.headers.SymmetricSecurityHeader
 import org.eclipse.milo.opcua.stack.core.channel.messages.ErrorMessage;
 import org.eclipse.milo.opcua.stack.core.security.SecurityAlgorithm;
 import org.eclipse.milo.opcua.stack.core.util.BufferUtil;
-import org.eclipse.milo.opcua.stack.core.util.SignatureUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -72,6 +71,66 @@ public final class ChunkDecoder {
         decode(symmetricDecoder, channel, chunkBuffers, callback);
     }
 
+    /**
+     * Decrypt and verify the chunks of a symmetric message in place, without checking sequence numbers or assembling
+     * the message body.
+     * <p>
+     * Verification doesn't depend on any other message, so different {@link ChunkDecoder} instances for the same
+     * channel may verify different messages concurrently. Chunks that verify successfully must then be passed, in
+     * the order they were received, to {@link #assembleSymmetric(SecureChannel, List, Callback)}.
+     *
+     * @param channel      the {@link SecureChannel} the chunks were received on.
+     * @param chunkBuffers the chunks of a complete message.
+     * @param callback     the {@link Callback} to notify if decoding fails.
+     * @return {@code true} if the chunks were verified, {@code false} if {@code callback} was notified of an error
+     * and the chunks were released.
+     */
+    public boolean verifySymmetric(
+        SecureChannel channel,
+        List<ByteBuf> chunkBuffers,
+        ChunkDecoder.Callback callback) {
+
+        try {
+            symmetricDecoder.verifyChunks(channel, chunkBuffers);
+
+            return true;
+        } catch (UaException e) {
+            callback.onDecodingError(e);
+
+            safeReleaseBuffers(null, chunkBuffers);
+
+            return false;
+        }
+    }
+
+    /**
+     * Check the sequence numbers of, and assemble the message body from, chunks previously verified by
+     * {@link #verifySymmetric(SecureChannel, List, Callback)}.
+     *
+     * @param channel      the {@link SecureChannel} the chunks were received on.
+     * @param chunkBuffers the verified chunks of a complete message.
+     * @param callback     the {@link Callback} to notify with the result.
+     */
+    public void assembleSymmetric(
+        SecureChannel channel,
+        List<ByteBuf> chunkBuffers,
+        ChunkDecoder.Callback callback) {
+
+        CompositeByteBuf composite = BufferUtil.compositeBuffer();
+
+        try {
+            symmetricDecoder.assembleChunks(composite, chunkBuffers, callback);
+        } catch (MessageAbortedException e) {
+            callback.onMessageAborted(e);
+
+            safeReleaseBuffers(composite, chunkBuffers);
+        } catch (UaException e) {
+            callback.onDecodingError(e);
+
+            safeReleaseBuffers(composite, chunkBuffers);
+        }
+    }
+
     private static void decode(
         AbstractDecoder decoder,
         SecureChannel channel,
@@ -93,8 +152,8 @@ public final class ChunkDecoder {
         }
     }
 
-    private static void safeReleaseBuffers(CompositeByteBuf composite, List<ByteBuf> chunkBuffers) {
-        if (composite.refCnt() > 0) {
+    private static void safeReleaseBuffers(@Nullable CompositeByteBuf composite, List<ByteBuf> chunkBuffers) {
+        if (composite != null && composite.refCnt() > 0) {
             ReferenceCountUtil.safeRelease(composite);
         }
         chunkBuffers.forEach(b -> {
@@ -124,17 +183,23 @@ public final class ChunkDecoder {
             List<ByteBuf> chunkBuffers,
             Callback callback) throws UaException {
 
+            verifyChunks(channel, chunkBuffers);
+
+            assembleChunks(composite, chunkBuffers, callback);
+        }
+
+        /**
+         * Decrypt and verify each chunk in place. Afterwards each chunk's reader index is positioned at its sequence
+         * header and its writer index at the end of its body, i.e. before any padding and signature.
+         */
+        void verifyChunks(SecureChannel channel, List<ByteBuf> chunkBuffers) throws UaException {
             int signatureSize = getSignatureSize(channel);
             int cipherTextBlockSize = getCipherTextBlockSize(channel);
 
             boolean encrypted = isEncryptionEnabled(channel);
             boolean signed = isSigningEnabled(channel);
 
-            long requestId = -1L;
-
             for (ByteBuf chunkBuffer : chunkBuffers) {
-                final char chunkType = (char) chunkBuffer.getByte(3);
-
                 chunkBuffer.skipBytes(SecureMessageHeader.SECURE_MESSAGE_HEADER_SIZE);
 
                 readSecurityHeader(channel, chunkBuffer);
@@ -153,7 +218,26 @@ public final class ChunkDecoder {
                 final int paddingSize = encrypted ? getPaddingSize(cipherTextBlockSize, signatureSize, chunkBuffer) : 0;
                 final int bodyEnd = chunkBuffer.readableBytes() - signatureSize - paddingSize;
 
-                chunkBuffer.readerIndex(encryptedStart);
+                if (bodyEnd < encryptedStart + SequenceHeader.SEQUENCE_HEADER_SIZE) {
+                    throw new UaException(StatusCodes.Bad_DecodingError, "invalid chunk body length");
+                }
+
+                chunkBuffer.setIndex(encryptedStart, bodyEnd);
+            }
+        }
+
+        /**
+         * Check sequence numbers and assemble the bodies of chunks that have been through {@link #verifyChunks}.
+         */
+        void assembleChunks(
+            CompositeByteBuf composite,
+            List<ByteBuf> chunkBuffers,
+            Callback callback) throws UaException {
+
+            long requestId = -1L;
+
+            for (ByteBuf chunkBuffer : chunkBuffers) {
+                final char chunkType = (char) chunkBuffer.getByte(3);
 
                 SequenceHeader sequenceHeader = SequenceHeader.decode(chunkBuffer);
                 long sequenceNumber = sequenceHeader.getSequenceNumber();
@@ -173,7 +257,7 @@ public final class ChunkDecoder {
                     lastSequenceNumber = sequenceNumber;
                 }
 
-                ByteBuf bodyBuffer = chunkBuffer.readSlice(bodyEnd - chunkBuffer.readerIndex());
+                ByteBuf bodyBuffer = chunkBuffer.readSlice(chunkBuffer.readableBytes());
 
                 if (chunkType == 'A') {
                     ErrorMessage errorMessage = ErrorMessage.decode(bodyBuffer);
@@ -204,13 +288,19 @@ public final class ChunkDecoder {
 
             int plainTextBufferSize = cipherTextBlockSize * blockCount;
 
-            ByteBuf plainTextBuffer = BufferUtil.pooledBuffer(plainTextBufferSize);
+            ByteBuffer chunkNioBuffer = chunkBuffer.nioBuffer();
+
+            /*
+             * Plain text is never longer than the cipher text it was decrypted from, and Cipher is copy-safe, so
+             * decrypt in place whenever the chunk is backed by a single writable region of memory.
+             */
+            boolean inPlace = chunkBuffer.nioBufferCount() == 1 && !chunkNioBuffer.isReadOnly();
 
-            ByteBuffer plainTextNioBuffer = plainTextBuffer
-                .writerIndex(plainTextBufferSize)
-                .nioBuffer();
+            ByteBuf plainTextBuffer = inPlace ? null : BufferUtil.pooledBuffer(plainTextBufferSize);
 
-            ByteBuffer chunkNioBuffer = chunkBuffer.nioBuffer();
+            ByteBuffer plainTextNioBuffer = inPlace ?
+                chunkNioBuffer.duplicate() :
+                plainTextBuffer.writerIndex(plainTextBufferSize).nioBuffer();
 
             try {
                 Cipher cipher = getCipher(channel);
@@ -227,15 +317,21 @@ public final class ChunkDecoder {
                     cipher.doFinal(chunkNioBuffer, plainTextNioBuffer);
                 }
 
-                /* Write plainTextBuffer back into the chunk buffer we decrypted from. */
-                ((Buffer) plainTextNioBuffer).flip(); // limit = pos, pos = 0
+                if (inPlace) {
+                    chunkBuffer.writerIndex(chunkBuffer.readerIndex() + plainTextNioBuffer.position());
+                } else {
+                    /* Write plainTextBuffer back into the chunk buffer we decrypted from. */
+                    ((Buffer) plainTextNioBuffer).flip(); // limit = pos, pos = 0
 
-                chunkBuffer.writerIndex(chunkBuffer.readerIndex());
-                chunkBuffer.writeBytes(plainTextNioBuffer);
+                    chunkBuffer.writerIndex(chunkBuffer.readerIndex());
+                    chunkBuffer.writeBytes(plainTextNioBuffer);
+                }
             } catch (GeneralSecurityException e) {
                 throw new UaException(StatusCodes.Bad_SecurityChecksFailed, e);
             } finally {
-                plainTextBuffer.release();
+                if (plainTextBuffer != null) {
+                    plainTextBuffer.release();
+                }
             }
         }
 
@@ -346,8 +442,6 @@ public final class ChunkDecoder {
     private final class SymmetricDecoder extends AbstractDecoder {
 
         private volatile ChannelSecurity.SecurityKeys securityKeys;
-        private volatile Cipher cipher = null;
-        private volatile long cipherId = -1;
 
         @Override
         public void readSecurityHeader(SecureChannel channel, ByteBuf chunkBuffer) throws UaException {
@@ -381,22 +475,22 @@ public final class ChunkDecoder {
                             "unknown secure channel token: " + receivedTokenId);
                     }
 
-                    if (channel.isSymmetricEncryptionEnabled() && channelSecurity.getPreviousKeys().isPresent()) {
+                    if (channelSecurity.getPreviousKeys().isPresent()) {
                         securityKeys = channelSecurity.getPreviousKeys().get();
                     }
                 }
-
-                if (cipherId != receivedTokenId && channel.isSymmetricEncryptionEnabled()) {
-                    cipher = initCipher(channel);
-                    cipherId = receivedTokenId;
-                }
             }
         }
 
         @Override
-        public Cipher getCipher(SecureChannel channel) {
-            assert cipher != null;
-            return cipher;
+        public Cipher getCipher(SecureChannel channel) throws UaException {
+            SecurityAlgorithm encryptionAlgorithm = channel.getSecurityPolicy().getSymmetricEncryptionAlgorithm();
+
+            try {
+                return channel.getDecryptionKeys(securityKeys).getDecryptionCipher(encryptionAlgorithm);
+            } catch (GeneralSecurityException e) {
+                throw new UaException(StatusCodes.Bad_InternalError, e);
+            }
         }
 
         @Override
@@ -412,20 +506,28 @@ public final class ChunkDecoder {
         @Override
         public void verifyChunk(SecureChannel channel, ByteBuf chunkBuffer) throws UaException {
             SecurityAlgorithm securityAlgorithm = channel.getSecurityPolicy().getSymmetricSignatureAlgorithm();
-            byte[] secretKey = channel.getDecryptionKeys(securityKeys).getSignatureKey();
             int signatureSize = channel.getSymmetricSignatureSize();
 
             ByteBuffer chunkNioBuffer = chunkBuffer.nioBuffer(0, chunkBuffer.writerIndex());
             ((Buffer) chunkNioBuffer).position(0);
             ((Buffer) chunkNioBuffer).limit(chunkBuffer.writerIndex() - signatureSize);
 
-            byte[] signature = SignatureUtil.hmac(securityAlgorithm, secretKey, chunkNioBuffer);
+            byte[] signature;
+
+            try {
+                Mac mac = channel.getDecryptionKeys(securityKeys).getSignatureMac(securityAlgorithm);
+                mac.update(chunkNioBuffer);
+
+                signature = mac.doFinal();
+            } catch (GeneralSecurityException e) {
+                throw new UaException(StatusCodes.Bad_SecurityChecksFailed, e);
+            }
 
             byte[] signatureBytes = new byte[signatureSize];
             ((Buffer) chunkNioBuffer).limit(chunkNioBuffer.position() + signatureSize);
             chunkNioBuffer.get(signatureBytes);
 
-            if (!Arrays.equals(signature, signatureBytes)) {
+            if (!MessageDigest.isEqual(signature, signatureBytes)) {
                 throw new UaException(StatusCodes.Bad_SecurityChecksFailed, "could not verify signature");
             }
         }
@@ -445,25 +547,6 @@ public final class ChunkDecoder {
             return channel.isSymmetricSigningEnabled();
         }
 
-        private Cipher initCipher(SecureChannel channel) throws UaException {
-            try {
-                String transformation = channel.getSecurityPolicy()
-                    .getSymmetricEncryptionAlgorithm().getTransformation();
-
-                ChannelSecurity.SecretKeys decryptionKeys = channel.getDecryptionKeys(securityKeys);
-
-                SecretKeySpec keySpec = new SecretKeySpec(decryptionKeys.getEncryptionKey(), "AES");
-                IvParameterSpec ivSpec = new IvParameterSpec(decryptionKeys.getInitializationVector());
-
-                Cipher cipher = Cipher.getInstance(transformation);
-                cipher.init(Cipher.DECRYPT_MODE, keySpec, ivSpec);
-
-                return cipher;
-            } catch (GeneralSecurityException e) {
-                throw new UaException(StatusCodes.Bad_InternalError, e);
-            }
-        }
-
     }
 
 }
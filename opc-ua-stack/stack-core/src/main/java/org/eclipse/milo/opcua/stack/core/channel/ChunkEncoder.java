@@ -17,8 +17,7 @@ import java.security.cert.Certificate;
 import java.util.ArrayList;
 import java.util.List;
 import javax.crypto.Cipher;
-import javax.crypto.spec.IvParameterSpec;
-import javax.crypto.spec.SecretKeySpec;
+import javax.crypto.Mac;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.util.ReferenceCountUtil;
@@ -207,27 +206,33 @@ public final class ChunkEncoder {
                         ByteBuffer chunkNioBuffer = chunkBuffer.nioBuffer(
                             chunkBuffer.readerIndex(), blockCount * cipherTextBlockSize);
 
-                        ByteBuf copyBuffer = chunkBuffer.copy();
-                        ByteBuffer plainTextNioBuffer = copyBuffer.nioBuffer();
-
                         Cipher cipher = getCipher(channel);
 
                         if (isAsymmetric()) {
-                            for (int blockNumber = 0; blockNumber < blockCount; blockNumber++) {
-                                int position = blockNumber * plainTextBlockSize;
-                                int limit = (blockNumber + 1) * plainTextBlockSize;
-                                ((Buffer) plainTextNioBuffer).position(position);
-                                ((Buffer) plainTextNioBuffer).limit(limit);
-
-                                int bytesWritten = cipher.doFinal(plainTextNioBuffer, chunkNioBuffer);
-
-                                assert (bytesWritten == cipherTextBlockSize);
+                            // cipher text blocks are larger than plain text blocks; encrypt from a copy.
+                            ByteBuf copyBuffer = chunkBuffer.copy();
+                            ByteBuffer plainTextNioBuffer = copyBuffer.nioBuffer();
+
+                            try {
+                                for (int blockNumber = 0; blockNumber < blockCount; blockNumber++) {
+                                    int position = blockNumber * plainTextBlockSize;
+                                    int limit = (blockNumber + 1) * plainTextBlockSize;
+                                    ((Buffer) plainTextNioBuffer).position(position);
+                                    ((Buffer) plainTextNioBuffer).limit(limit);
+
+                                    int bytesWritten = cipher.doFinal(plainTextNioBuffer, chunkNioBuffer);
+
+                                    assert (bytesWritten == cipherTextBlockSize);
+                                }
+                            } finally {
+                                copyBuffer.release();
                             }
                         } else {
+                            // cipher text is the same size as the plain text; encrypt in place.
+                            ByteBuffer plainTextNioBuffer = chunkNioBuffer.duplicate();
+
                             cipher.doFinal(plainTextNioBuffer, chunkNioBuffer);
                         }
-
-                        copyBuffer.release();
                     } catch (GeneralSecurityException e) {
                         throw new UaException(StatusCodes.Bad_SecurityChecksFailed, e);
                     }
@@ -365,8 +370,6 @@ public final class ChunkEncoder {
     private class SymmetricEncoder extends AbstractEncoder {
 
         private volatile ChannelSecurity.SecurityKeys securityKeys;
-        private volatile Cipher cipher = null;
-        private volatile long cipherId = -1;
 
         @Override
         public void encodeSecurityHeader(SecureChannel channel, ByteBuf buffer) throws UaException {
@@ -376,29 +379,35 @@ public final class ChunkEncoder {
             SymmetricSecurityHeader.encode(new SymmetricSecurityHeader(tokenId), buffer);
 
             securityKeys = channelSecurity != null ? channelSecurity.getCurrentKeys() : null;
-
-            if (cipherId != tokenId && channel.isSymmetricEncryptionEnabled()) {
-                cipher = initCipher(channel);
-                cipherId = tokenId;
-            }
         }
 
         @Override
         public byte[] signChunk(SecureChannel channel, ByteBuffer chunkNioBuffer) throws UaException {
             SecurityAlgorithm signatureAlgorithm = channel.getSecurityPolicy().getSymmetricSignatureAlgorithm();
-            byte[] signatureKey = channel.getEncryptionKeys(securityKeys).getSignatureKey();
 
-            return SignatureUtil.hmac(
-                signatureAlgorithm,
-                signatureKey,
-                chunkNioBuffer
-            );
+            try {
+                Mac mac = channel.getEncryptionKeys(securityKeys).getSignatureMac(signatureAlgorithm);
+                mac.update(chunkNioBuffer);
+
+                return mac.doFinal();
+            } catch (GeneralSecurityException e) {
+                throw new UaException(StatusCodes.Bad_SecurityChecksFailed, e);
+            }
         }
 
         @Override
-        public Cipher getCipher(SecureChannel channel) {
-            assert cipher != null;
-            return cipher;
+        public Cipher getCipher(SecureChannel channel) throws UaException {
+            SecurityAlgorithm encryptionAlgorithm = channel.getSecurityPolicy().getSymmetricEncryptionAlgorithm();
+
+            try {
+                Cipher cipher = channel.getEncryptionKeys(securityKeys).getEncryptionCipher(encryptionAlgorithm);
+
+                assert (cipher.getBlockSize() == channel.getSymmetricBlockSize());
+
+                return cipher;
+            } catch (GeneralSecurityException e) {
+                throw new UaException(StatusCodes.Bad_SecurityChecksFailed, e);
+            }
         }
 
         @Override
@@ -436,26 +445,6 @@ public final class ChunkEncoder {
             return channel.isSymmetricSigningEnabled();
         }
 
-        private Cipher initCipher(SecureChannel channel) throws UaException {
-            try {
-                String transformation = channel.getSecurityPolicy()
-                    .getSymmetricEncryptionAlgorithm().getTransformation();
-                ChannelSecurity.SecretKeys secretKeys = channel.getEncryptionKeys(securityKeys);
-
-                SecretKeySpec keySpec = new SecretKeySpec(secretKeys.getEncryptionKey(), "AES");
-                IvParameterSpec ivSpec = new IvParameterSpec(secretKeys.getInitializationVector());
-
-                Cipher cipher = Cipher.getInstance(transformation);
-                cipher.init(Cipher.ENCRYPT_MODE, keySpec, ivSpec);
-
-                assert (cipher.getBlockSize() == channel.getSymmetricBlockSize());
-
-                return cipher;
-            } catch (GeneralSecurityException e) {
-                throw new UaException(StatusCodes.Bad_SecurityChecksFailed, e);
-            }
-        }
-
     }
 
 }
@@ -10,15 +10,42 @@
 
 package org.eclipse.milo.opcua.stack.core.channel;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutorService;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.util.ReferenceCountUtil;
+import org.eclipse.milo.opcua.stack.core.StatusCodes;
+import org.eclipse.milo.opcua.stack.core.UaException;
 import org.eclipse.milo.opcua.stack.core.serialization.EncodingLimits;
 import org.eclipse.milo.opcua.stack.core.serialization.OpcUaBinaryStreamDecoder;
 import org.eclipse.milo.opcua.stack.core.serialization.OpcUaBinaryStreamEncoder;
+import org.eclipse.milo.opcua.stack.core.serialization.UaMessage;
 import org.eclipse.milo.opcua.stack.core.util.ExecutionQueue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+/**
+ * Serializes the encoding and decoding of messages for a secure channel.
+ * <p>
+ * By default every message is decoded serially, in the order received. When parallel decoding is enabled, symmetric
+ * messages submitted via {@link #decodeSymmetric(SecureChannel, List, MessageCallback)} are instead decoded in a
+ * pipeline: decrypting and verifying chunks, and decoding complete messages, run concurrently on the executor, while
+ * sequence number checks and delivery to the {@link MessageCallback} still happen one message at a time, in the order
+ * received.
+ * <p>
+ * Messages submitted via {@link #decode(Decoder)}, i.e. OpenSecureChannel messages, act as a barrier in parallel mode:
+ * they are decoded after every previously submitted message has been delivered, and no subsequently submitted message
+ * is decoded until they are done, so security tokens they install are in place for the messages that follow.
+ */
 public class SerializationQueue {
 
+    private static final CompletableFuture<Void> COMPLETED = CompletableFuture.completedFuture(null);
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
     private final OpcUaBinaryStreamEncoder binaryEncoder;
     private final OpcUaBinaryStreamDecoder binaryDecoder;
 
@@ -28,7 +55,20 @@ public class SerializationQueue {
     private final ExecutionQueue encodingQueue;
     private final ExecutionQueue decodingQueue;
 
+    private final ConcurrentLinkedQueue<ChunkDecoder> chunkDecoderPool = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<OpcUaBinaryStreamDecoder> binaryDecoderPool = new ConcurrentLinkedQueue<>();
+
+    private final Object pipelineLock = new Object();
+    private CompletableFuture<Void> barrier = COMPLETED;
+    private CompletableFuture<Void> lastAssembled = COMPLETED;
+    private CompletableFuture<Void> lastDelivered = COMPLETED;
+
+    private volatile boolean paused = false;
+
+    private final ExecutorService executor;
     private final ChannelParameters parameters;
+    private final EncodingLimits encodingLimits;
+    private final boolean parallelDecoding;
 
     public SerializationQueue(
         ExecutorService executor,
@@ -36,7 +76,20 @@ public class SerializationQueue {
         EncodingLimits encodingLimits
     ) {
 
+        this(executor, parameters, encodingLimits, false);
+    }
+
+    public SerializationQueue(
+        ExecutorService executor,
+        ChannelParameters parameters,
+        EncodingLimits encodingLimits,
+        boolean parallelDecoding
+    ) {
+
+        this.executor = executor;
         this.parameters = parameters;
+        this.encodingLimits = encodingLimits;
+        this.parallelDecoding = parallelDecoding;
 
         chunkEncoder = new ChunkEncoder(parameters);
 
@@ -58,10 +111,78 @@ public class SerializationQueue {
     }
 
     public void decode(Decoder decoder) {
-        decodingQueue.submit(() -> decoder.decode(binaryDecoder, chunkDecoder));
+        if (parallelDecoding) {
+            synchronized (pipelineLock) {
+                CompletableFuture<Void> decoded = lastDelivered.thenRunAsync(() -> {
+                    if (paused) return;
+
+                    try {
+                        decoder.decode(binaryDecoder, chunkDecoder);
+                    } catch (Throwable t) {
+                        logger.warn("Uncaught Throwable during decoding.", t);
+                    }
+                }, executor).handle(this::barrier);
+
+                barrier = decoded;
+                lastAssembled = decoded;
+                lastDelivered = decoded;
+            }
+        } else {
+            decodingQueue.submit(() -> decoder.decode(binaryDecoder, chunkDecoder));
+        }
+    }
+
+    /**
+     * Decode the chunks of a symmetric message and deliver the result to {@code callback}.
+     *
+     * @param channel      the {@link SecureChannel} the chunks were received on.
+     * @param chunkBuffers the chunks of a complete message. Ownership passes to this queue.
+     * @param callback     the {@link MessageCallback} to validate the chunks and receive the result.
+     */
+    public void decodeSymmetric(SecureChannel channel, List<ByteBuf> chunkBuffers, MessageCallback callback) {
+        PendingMessage pending = new PendingMessage(channel, chunkBuffers, callback);
+
+        if (parallelDecoding) {
+            // Every stage recovers from failure so that lastAssembled and lastDelivered always complete normally; a
+            // failure is delivered as a decoding error for that message and doesn't stall the messages behind it.
+            synchronized (pipelineLock) {
+                CompletableFuture<PendingMessage> verified = barrier
+                    .thenApplyAsync(v -> verify(pending), executor)
+                    .handle((m, ex) -> recover(pending, ex));
+
+                CompletableFuture<PendingMessage> assembled = verified
+                    .thenCombineAsync(lastAssembled, (m, v) -> assemble(m, chunkDecoder), executor)
+                    .handle((m, ex) -> recover(pending, ex));
+
+                CompletableFuture<PendingMessage> decoded = assembled
+                    .thenApplyAsync(this::decodeMessage, executor)
+                    .handle((m, ex) -> recover(pending, ex));
+
+                CompletableFuture<Void> delivered = decoded
+                    .thenAcceptBothAsync(lastDelivered, (m, v) -> deliver(m), executor)
+                    .handle(this::barrier);
+
+                lastAssembled = assembled.handle((m, ex) -> null);
+                lastDelivered = delivered;
+            }
+        } else {
+            decodingQueue.submit(() -> {
+                try {
+                    if (validate(pending)) {
+                        chunkDecoder.decodeSymmetric(channel, chunkBuffers, pending);
+                        decodeMessage(pending, binaryDecoder);
+                    }
+                } catch (Throwable t) {
+                    recover(pending, t);
+                }
+                deliver(pending);
+            });
+        }
     }
 
     public void pause() {
+        paused = true;
+
         encodingQueue.pause();
         decodingQueue.pause();
     }
@@ -70,6 +191,159 @@ public class SerializationQueue {
         return parameters;
     }
 
+    /**
+     * @return {@code true} if symmetric messages are decoded in parallel.
+     */
+    public boolean isParallelDecodingEnabled() {
+        return parallelDecoding;
+    }
+
+    private boolean validate(PendingMessage pending) {
+        try {
+            pending.callback.validateChunks(pending.chunkBuffers);
+
+            return true;
+        } catch (UaException e) {
+            pending.chunkBuffers.forEach(ReferenceCountUtil::safeRelease);
+            pending.validationError = e;
+
+            return false;
+        } catch (Throwable t) {
+            pending.chunkBuffers.forEach(ReferenceCountUtil::safeRelease);
+            pending.validationError = new UaException(StatusCodes.Bad_DecodingError, t);
+
+            return false;
+        }
+    }
+
+    /**
+     * Record {@code ex}, if not null, as the decoding error for {@code pending} and release its buffers.
+     *
+     * @return {@code pending}.
+     */
+    private PendingMessage recover(PendingMessage pending, Throwable ex) {
+        if (ex != null) {
+            logger.warn("Uncaught Throwable during decoding.", ex);
+
+            pending.fail(ex);
+        }
+
+        return pending;
+    }
+
+    private Void barrier(Void v, Throwable ex) {
+        if (ex != null) {
+            logger.warn("Uncaught Throwable during decoding.", ex);
+        }
+
+        return null;
+    }
+
+    private PendingMessage verify(PendingMessage pending) {
+        if (paused) {
+            pending.release();
+            return pending;
+        }
+
+        if (validate(pending)) {
+            ChunkDecoder decoder = chunkDecoderPool.poll();
+            if (decoder == null) {
+                decoder = new ChunkDecoder(
+                    parameters,
+                    encodingLimits.getMaxArrayLength(),
+                    encodingLimits.getMaxStringLength()
+                );
+            }
+
+            try {
+                pending.verified = decoder.verifySymmetric(pending.channel, pending.chunkBuffers, pending);
+            } catch (Throwable t) {
+                recover(pending, t);
+            } finally {
+                chunkDecoderPool.offer(decoder);
+            }
+        }
+
+        return pending;
+    }
+
+    private PendingMessage assemble(PendingMessage pending, ChunkDecoder decoder) {
+        if (paused) {
+            pending.release();
+        } else if (pending.verified) {
+            try {
+                decoder.assembleSymmetric(pending.channel, pending.chunkBuffers, pending);
+            } catch (Throwable t) {
+                recover(pending, t);
+            }
+        }
+
+        return pending;
+    }
+
+    private PendingMessage decodeMessage(PendingMessage pending) {
+        OpcUaBinaryStreamDecoder decoder = binaryDecoderPool.poll();
+        if (decoder == null) {
+            decoder = new OpcUaBinaryStreamDecoder(encodingLimits);
+        }
+
+        try {
+            return decodeMessage(pending, decoder);
+        } finally {
+            binaryDecoderPool.offer(decoder);
+        }
+    }
+
+    private PendingMessage decodeMessage(PendingMessage pending, OpcUaBinaryStreamDecoder decoder) {
+        ByteBuf messageBuffer = pending.messageBuffer;
+
+        if (messageBuffer != null) {
+            try {
+                if (!paused) {
+                    pending.message = decoder.setBuffer(messageBuffer).readMessage(null);
+                }
+            } catch (Throwable t) {
+                pending.messageError = t;
+            } finally {
+                pending.messageBuffer = null;
+                messageBuffer.release();
+            }
+        }
+
+        return pending;
+    }
+
+    private void deliver(PendingMessage pending) {
+        if (paused) return;
+
+        MessageCallback callback = pending.callback;
+
+        try {
+            if (pending.validationError != null) {
+                callback.onValidationError(pending.validationError);
+            } else if (pending.decodingError != null) {
+                callback.onDecodingError(pending.decodingError);
+            } else if (pending.abortedError != null) {
+                callback.onMessageAborted(pending.abortedError);
+            } else if (pending.messageError != null) {
+                callback.onMessageDecodingError(pending.requestId, pending.messageError);
+            } else if (pending.message != null) {
+                callback.onMessageDecoded(pending.message, pending.requestId);
+            }
+        } catch (Throwable t) {
+            logger.warn("Uncaught Throwable during delivery.", t);
+
+            if (pending.validationError == null && pending.decodingError == null) {
+                // the channel is in an unknown state; let the callback close it
+                try {
+                    callback.onDecodingError(new UaException(StatusCodes.Bad_UnexpectedError, t));
+                } catch (Throwable t2) {
+                    logger.warn("Uncaught Throwable during delivery.", t2);
+                }
+            }
+        }
+    }
+
     @FunctionalInterface
     public interface Decoder {
         void decode(OpcUaBinaryStreamDecoder binaryDecoder, ChunkDecoder chunkDecoder);
@@ -80,4 +354,115 @@ public class SerializationQueue {
         void encode(OpcUaBinaryStreamEncoder binaryEncoder, ChunkEncoder chunkEncoder);
     }
 
+    /**
+     * Receives the result of decoding a symmetric message submitted via
+     * {@link #decodeSymmetric(SecureChannel, List, MessageCallback)}.
+     * <p>
+     * Exactly one of the {@code on*} methods is called for each message, in the order the messages were submitted,
+     * except that if {@link #onMessageDecoded(UaMessage, long)}, {@link #onMessageAborted(MessageAbortedException)}
+     * or {@link #onMessageDecodingError(long, Throwable)} throws, {@link #onDecodingError(UaException)} is called
+     * afterwards so the channel can be closed.
+     */
+    public interface MessageCallback {
+
+        /**
+         * Validate the chunk headers before any decryption or verification is attempted.
+         * <p>
+         * Called in the order the messages were submitted, but not necessarily before the previous message has been
+         * delivered.
+         *
+         * @param chunkBuffers the chunks of the message.
+         * @throws UaException if the chunks are invalid.
+         */
+        void validateChunks(List<ByteBuf> chunkBuffers) throws UaException;
+
+        void onValidationError(UaException ex);
+
+        void onDecodingError(UaException ex);
+
+        void onMessageAborted(MessageAbortedException ex);
+
+        void onMessageDecoded(UaMessage message, long requestId);
+
+        void onMessageDecodingError(long requestId, Throwable ex);
+
+    }
+
+    /**
+     * A message as it moves through the decoding pipeline.
+     */
+    private static final class PendingMessage implements ChunkDecoder.Callback {
+
+        volatile boolean verified = false;
+
+        volatile UaException validationError;
+        volatile UaException decodingError;
+        volatile MessageAbortedException abortedError;
+
+        volatile ByteBuf messageBuffer;
+        volatile long requestId = -1L;
+
+        volatile UaMessage message;
+        volatile Throwable messageError;
+
+        final SecureChannel channel;
+        final List<ByteBuf> chunkBuffers;
+        final MessageCallback callback;
+
+        PendingMessage(SecureChannel channel, List<ByteBuf> chunkBuffers, MessageCallback callback) {
+            this.channel = channel;
+            this.chunkBuffers = chunkBuffers;
+            this.callback = callback;
+        }
+
+        @Override
+        public void onDecodingError(UaException ex) {
+            decodingError = ex;
+        }
+
+        @Override
+        public void onMessageAborted(MessageAbortedException ex) {
+            abortedError = ex;
+            requestId = ex.getRequestId();
+        }
+
+        @Override
+        public void onMessageDecoded(ByteBuf message, long requestId) {
+            this.messageBuffer = message;
+            this.requestId = requestId;
+        }
+
+        /**
+         * Release every buffer held for this message and, unless it already failed, record {@code ex} as its
+         * decoding error.
+         */
+        void fail(Throwable ex) {
+            release();
+
+            ByteBuf buffer = messageBuffer;
+            if (buffer != null) {
+                messageBuffer = null;
+                ReferenceCountUtil.safeRelease(buffer);
+            }
+
+            message = null;
+
+            if (validationError == null && decodingError == null && abortedError == null && messageError == null) {
+                decodingError = UaException.extract(ex)
+                    .orElseGet(() -> new UaException(StatusCodes.Bad_DecodingError, ex));
+            }
+        }
+
+        void release() {
+            verified = false;
+
+            chunkBuffers.forEach(b -> {
+                if (b.refCnt() > 0) {
+                    ReferenceCountUtil.safeRelease(b);
+                }
+            });
+        }
+
+    }
+
 }
@@ -12,6 +12,8 @@ package org.eclipse.milo.opcua.stack.core.serialization;
 
 import java.io.UnsupportedEncodingException;
 import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.charset.Charset;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -21,6 +23,7 @@ import javax.annotation.Nullable;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.util.ByteProcessor;
+import org.eclipse.milo.opcua.stack.core.BuiltinDataType;
 import org.eclipse.milo.opcua.stack.core.StatusCodes;
 import org.eclipse.milo.opcua.stack.core.UaSerializationException;
 import org.eclipse.milo.opcua.stack.core.serialization.codecs.BuiltinDataTypeCodec;
@@ -423,6 +426,16 @@ public class OpcUaBinaryStreamDecoder implements UaDecoder {
                                     length, encodingLimits.getMaxArrayLength()));
                         }
 
+                        Variant primitiveArray = readPrimitiveArray(typeId, length);
+
+                        if (primitiveArray != null) {
+                            int[] dimensions = dimensionsEncoded ? decodeDimensions() : new int[]{length};
+
+                            return dimensions.length > 1 ?
+                                new Variant(ArrayUtil.unflatten(primitiveArray.getValue(), dimensions)) :
+                                primitiveArray;
+                        }
+
                         Object flatArray = Array.newInstance(backingClass, length);
 
                         for (int i = 0; i < length; i++) {
@@ -482,6 +495,131 @@ public class OpcUaBinaryStreamDecoder implements UaDecoder {
         return str;
     }
 
+    /**
+     * Read a flat array of a numeric or Boolean builtin type straight into a primitive array.
+     *
+     * @param typeId the builtin type id of the array elements.
+     * @param length the number of elements.
+     * @return a {@link Variant} backed by the primitive array, or {@code null} if {@code typeId} is not a type that can
+     * be backed by a primitive array, in which case nothing has been read.
+     */
+    @Nullable
+    private Variant readPrimitiveArray(int typeId, int length) throws UaSerializationException {
+        switch (typeId) {
+            case 1: {
+                checkArrayBytes(length, 1);
+                boolean[] a = new boolean[length];
+                for (int i = 0; i < length; i++) {
+                    a[i] = buffer.readBoolean();
+                }
+                return Variant.ofPrimitiveArray(BuiltinDataType.Boolean, a);
+            }
+            case 2:
+            case 3: {
+                checkArrayBytes(length, 1);
+                byte[] a = new byte[length];
+                buffer.readBytes(a);
+                return Variant.ofPrimitiveArray(typeId == 2 ? BuiltinDataType.SByte : BuiltinDataType.Byte, a);
+            }
+            case 4:
+            case 5: {
+                short[] a = new short[checkArrayBytes(length, 2)];
+                ByteBuffer view = littleEndianView(length * 2);
+                if (view != null) {
+                    view.asShortBuffer().get(a);
+                } else {
+                    for (int i = 0; i < length; i++) {
+                        a[i] = buffer.readShortLE();
+                    }
+                }
+                return Variant.ofPrimitiveArray(typeId == 4 ? BuiltinDataType.Int16 : BuiltinDataType.UInt16, a);
+            }
+            case 6:
+            case 7: {
+                int[] a = new int[checkArrayBytes(length, 4)];
+                ByteBuffer view = littleEndianView(length * 4);
+                if (view != null) {
+                    view.asIntBuffer().get(a);
+                } else {
+                    for (int i = 0; i < length; i++) {
+                        a[i] = buffer.readIntLE();
+                    }
+                }
+                return Variant.ofPrimitiveArray(typeId == 6 ? BuiltinDataType.Int32 : BuiltinDataType.UInt32, a);
+            }
+            case 8:
+            case 9: {
+                long[] a = new long[checkArrayBytes(length, 8)];
+                ByteBuffer view = littleEndianView(length * 8);
+                if (view != null) {
+                    view.asLongBuffer().get(a);
+                } else {
+                    for (int i = 0; i < length; i++) {
+                        a[i] = buffer.readLongLE();
+                    }
+                }
+                return Variant.ofPrimitiveArray(typeId == 8 ? BuiltinDataType.Int64 : BuiltinDataType.UInt64, a);
+            }
+            case 10: {
+                float[] a = new float[checkArrayBytes(length, 4)];
+                ByteBuffer view = littleEndianView(length * 4);
+                if (view != null) {
+                    view.asFloatBuffer().get(a);
+                } else {
+                    for (int i = 0; i < length; i++) {
+                        a[i] = buffer.readFloatLE();
+                    }
+                }
+                return Variant.ofPrimitiveArray(BuiltinDataType.Float, a);
+            }
+            case 11: {
+                double[] a = new double[checkArrayBytes(length, 8)];
+                ByteBuffer view = littleEndianView(length * 8);
+                if (view != null) {
+                    view.asDoubleBuffer().get(a);
+                } else {
+                    for (int i = 0; i < length; i++) {
+                        a[i] = buffer.readDoubleLE();
+                    }
+                }
+                return Variant.ofPrimitiveArray(BuiltinDataType.Double, a);
+            }
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Check that {@code length} elements of {@code elementSize} bytes are actually available before allocating an
+     * array for them.
+     */
+    private int checkArrayBytes(int length, int elementSize) throws UaSerializationException {
+        if ((long) length * elementSize > buffer.readableBytes()) {
+            throw new UaSerializationException(StatusCodes.Bad_DecodingError,
+                String.format("array length exceeds remaining bytes (length=%s, remaining=%s)",
+                    length, buffer.readableBytes()));
+        }
+
+        return length;
+    }
+
+    /**
+     * Get a little-endian view of the next {@code byteLength} bytes and skip past them, if they're contiguous in
+     * memory; otherwise return {@code null} and read nothing.
+     */
+    @Nullable
+    private ByteBuffer littleEndianView(int byteLength) {
+        int index = buffer.readerIndex();
+
+        if (buffer.nioBufferCount() == 1) {
+            ByteBuffer view = buffer.nioBuffer(index, byteLength).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.skipBytes(byteLength);
+            return view;
+        } else {
+            return null;
+        }
+    }
+
     private int[] decodeDimensions() {
         int length = readInt32();
 
@@ -12,19 +12,25 @@ package org.eclipse.milo.opcua.stack.core.serialization;
 
 import java.io.UnsupportedEncodingException;
 import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.charset.Charset;
 import java.util.UUID;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
+import org.eclipse.milo.opcua.stack.core.BuiltinDataType;
 import org.eclipse.milo.opcua.stack.core.StatusCodes;
 import org.eclipse.milo.opcua.stack.core.UaSerializationException;
 import org.eclipse.milo.opcua.stack.core.serialization.codecs.BuiltinDataTypeCodec;
 import org.eclipse.milo.opcua.stack.core.serialization.codecs.OpcUaBinaryDataTypeCodec;
 import org.eclipse.milo.opcua.stack.core.serialization.codecs.SerializationContext;
 import org.eclipse.milo.opcua.stack.core.types.BuiltinDataTypeDictionary;
+import org.eclipse.milo.opcua.stack.core.types.DataTypeManager;
 import org.eclipse.milo.opcua.stack.core.types.OpcUaDataTypeManager;
 import org.eclipse.milo.opcua.stack.core.types.builtin.ByteString;
 import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
@@ -466,7 +472,14 @@ public class OpcUaBinaryStreamEncoder implements UaEncoder {
     }
 
     public void writeExtensionObject(ExtensionObject value) throws UaSerializationException {
-        if (value == null || value.getBody() == null) {
+        ExtensionObject.DeferredBody deferredBody = value != null ? value.getDeferredBody() : null;
+
+        if (deferredBody != null) {
+            writeNodeId(value.getEncodingId());
+            buffer.writeByte(1); // Body is binary encoded
+
+            writeDeferredBody(deferredBody, value.getEncodingId());
+        } else if (value == null || value.getBody() == null) {
             writeNodeId(NodeId.NULL_VALUE);
             buffer.writeByte(0); // No body is encoded
         } else {
@@ -500,6 +513,38 @@ public class OpcUaBinaryStreamEncoder implements UaEncoder {
         }
     }
 
+    /**
+     * Encode the object of a {@link ExtensionObject.DeferredBody} directly into the buffer as a length-prefixed
+     * ByteString, rather than encoding it into an intermediate ByteString and copying that.
+     */
+    private void writeDeferredBody(
+        ExtensionObject.DeferredBody deferredBody,
+        NodeId encodingId) throws UaSerializationException {
+
+        DataTypeManager dataTypeManager = deferredBody.getDataTypeManager();
+
+        try {
+            @SuppressWarnings("unchecked")
+            OpcUaBinaryDataTypeCodec<Object> codec =
+                (OpcUaBinaryDataTypeCodec<Object>) dataTypeManager.getBinaryCodec(encodingId);
+
+            if (codec == null) {
+                throw new UaSerializationException(
+                    StatusCodes.Bad_EncodingError,
+                    "no codec registered for encodingId=" + encodingId);
+            }
+
+            int lengthIndex = buffer.writerIndex();
+            buffer.writeIntLE(0);
+
+            codec.encode(() -> dataTypeManager, deferredBody.getObject(), this);
+
+            buffer.setIntLE(lengthIndex, buffer.writerIndex() - lengthIndex - 4);
+        } catch (ClassCastException e) {
+            throw new UaSerializationException(StatusCodes.Bad_EncodingError, e);
+        }
+    }
+
     public void writeLocalizedText(LocalizedText value) throws UaSerializationException {
         if (value == null) value = LocalizedText.NULL_VALUE;
 
@@ -597,6 +642,11 @@ public class OpcUaBinaryStreamEncoder implements UaEncoder {
     }
 
     public void writeVariant(Variant variant) throws UaSerializationException {
+        if (variant.isPrimitiveArray()) {
+            writePrimitiveArray(variant.getPrimitiveArrayType(), variant.getPrimitiveArray());
+            return;
+        }
+
         Object value = variant.getValue();
 
         if (value == null) {
@@ -663,6 +713,131 @@ public class OpcUaBinaryStreamEncoder implements UaEncoder {
 
     // endregion
 
+    /**
+     * Write the array backing a primitive array {@link Variant} straight from the primitive array, without boxing.
+     */
+    private void writePrimitiveArray(BuiltinDataType dataType, Object array) {
+        buffer.writeByte(dataType.getTypeId() | 0x80);
+
+        switch (dataType) {
+            case Boolean: {
+                boolean[] a = (boolean[]) array;
+                buffer.writeIntLE(a.length);
+                for (boolean b : a) {
+                    buffer.writeBoolean(b);
+                }
+                break;
+            }
+            case SByte:
+            case Byte: {
+                byte[] a = (byte[]) array;
+                buffer.writeIntLE(a.length);
+                buffer.writeBytes(a);
+                break;
+            }
+            case Int16:
+            case UInt16: {
+                short[] a = (short[]) array;
+                buffer.writeIntLE(a.length);
+                ByteBuffer view = littleEndianView(a.length * 2);
+                if (view != null) {
+                    view.asShortBuffer().put(a);
+                } else {
+                    for (short v : a) {
+                        buffer.writeShortLE(v);
+                    }
+                }
+                break;
+            }
+            case Int32:
+            case UInt32: {
+                int[] a = (int[]) array;
+                buffer.writeIntLE(a.length);
+                ByteBuffer view = littleEndianView(a.length * 4);
+                if (view != null) {
+                    view.asIntBuffer().put(a);
+                } else {
+                    for (int v : a) {
+                        buffer.writeIntLE(v);
+                    }
+                }
+                break;
+            }
+            case Int64:
+            case UInt64: {
+                long[] a = (long[]) array;
+                buffer.writeIntLE(a.length);
+                ByteBuffer view = littleEndianView(a.length * 8);
+                if (view != null) {
+                    view.asLongBuffer().put(a);
+                } else {
+                    for (long v : a) {
+                        buffer.writeLongLE(v);
+                    }
+                }
+                break;
+            }
+            case Float: {
+                float[] a = (float[]) array;
+                buffer.writeIntLE(a.length);
+                ByteBuffer view = littleEndianView(a.length * 4);
+                if (view != null) {
+                    view.asFloatBuffer().put(a);
+                } else {
+                    for (float v : a) {
+                        buffer.writeFloatLE(v);
+                    }
+                }
+                break;
+            }
+            case Double: {
+                double[] a = (double[]) array;
+                buffer.writeIntLE(a.length);
+                ByteBuffer view = littleEndianView(a.length * 8);
+                if (view != null) {
+                    view.asDoubleBuffer().put(a);
+                } else {
+                    for (double v : a) {
+                        buffer.writeDoubleLE(v);
+                    }
+                }
+                break;
+            }
+            default:
+                throw new UaSerializationException(
+                    StatusCodes.Bad_EncodingError,
+                    "not a primitive array type: " + dataType);
+        }
+    }
+
+    /**
+     * Reserve the next {@code byteLength} writable bytes and get a little-endian view that writes through to them.
+     * <p>
+     * Only heap buffers and direct buffers backed by a single NIO buffer are guaranteed to share memory with the view.
+     * For anything else, e.g. a {@link CompositeByteBuf}, whose NIO buffer may be a copy, this returns {@code null}
+     * and writes nothing, and the caller writes one element at a time instead.
+     */
+    @Nullable
+    private ByteBuffer littleEndianView(int byteLength) {
+        buffer.ensureWritable(byteLength);
+
+        int index = buffer.writerIndex();
+
+        ByteBuffer view;
+
+        if (buffer.hasArray()) {
+            view = ByteBuffer.wrap(buffer.array(), buffer.arrayOffset() + index, byteLength).slice();
+        } else if (buffer.isDirect() && buffer.nioBufferCount() == 1 && !(buffer instanceof CompositeByteBuf)) {
+            view = buffer.nioBuffer(index, byteLength);
+        } else {
+            return null;
+        }
+
+        buffer.writerIndex(index + byteLength);
+
+        return view.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
     private void writeValue(Object value, int typeId, boolean structure, boolean enumeration) {
         if (structure) {
             UaStructure struct = (UaStructure) value;
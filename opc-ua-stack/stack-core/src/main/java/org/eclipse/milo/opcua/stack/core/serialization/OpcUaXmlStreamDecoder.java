@@ -10,7 +10,6 @@
 
 package org.eclipse.milo.opcua.stack.core.serialization;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
@@ -32,7 +31,6 @@ import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamResult;
 
-import com.google.common.io.CharStreams;
 import org.eclipse.milo.opcua.stack.core.StatusCodes;
 import org.eclipse.milo.opcua.stack.core.UaRuntimeException;
 import org.eclipse.milo.opcua.stack.core.UaSerializationException;
@@ -63,6 +61,7 @@ import org.eclipse.milo.opcua.stack.core.util.Namespaces;
 import org.w3c.dom.Document;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
+import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 
 import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.ubyte;
@@ -74,7 +73,17 @@ public class OpcUaXmlStreamDecoder implements UaDecoder {
 
     private static final SerializationContext SERIALIZATION_CONTEXT = OpcUaDataTypeManager::getInstance;
 
-    private final DocumentBuilder builder;
+    /**
+     * Creating a {@link DocumentBuilder} is expensive compared to parsing the small documents a decoder usually sees,
+     * so each thread reuses one.
+     */
+    private static final ThreadLocal<DocumentBuilder> BUILDER = ThreadLocal.withInitial(() -> {
+        try {
+            return DocumentBuilderUtil.SHARED_FACTORY.newDocumentBuilder();
+        } catch (ParserConfigurationException e) {
+            throw new UaRuntimeException(StatusCodes.Bad_InternalError, e);
+        }
+    });
 
     private Document document;
     private Node currentNode;
@@ -83,12 +92,6 @@ public class OpcUaXmlStreamDecoder implements UaDecoder {
 
     public OpcUaXmlStreamDecoder(EncodingLimits encodingLimits) {
         this.encodingLimits = encodingLimits;
-
-        try {
-            builder = DocumentBuilderUtil.SHARED_FACTORY.newDocumentBuilder();
-        } catch (ParserConfigurationException e) {
-            throw new UaRuntimeException(StatusCodes.Bad_InternalError, e);
-        }
     }
 
     public OpcUaXmlStreamDecoder() {
@@ -121,13 +124,22 @@ public class OpcUaXmlStreamDecoder implements UaDecoder {
     }
 
     public OpcUaXmlStreamDecoder setInput(Reader reader) throws IOException, SAXException {
-        String s = CharStreams.toString(reader);
-
-        return setInput(new ByteArrayInputStream(s.getBytes()));
+        return setInput(new InputSource(reader));
     }
 
     public OpcUaXmlStreamDecoder setInput(InputStream inputStream) throws IOException, SAXException {
-        document = builder.parse(inputStream);
+        return setInput(new InputSource(inputStream));
+    }
+
+    private OpcUaXmlStreamDecoder setInput(InputSource inputSource) throws IOException, SAXException {
+        DocumentBuilder builder = BUILDER.get();
+
+        try {
+            document = builder.parse(inputSource);
+        } finally {
+            builder.reset();
+        }
+
         currentNode = document.getFirstChild();
 
         return this;
@@ -39,6 +39,12 @@ public final class ExtensionObject {
     private final Object body;
     private final NodeId encodingId;
 
+    /**
+     * Non-null if this ExtensionObject was created by {@link #encodeDeferred}; {@link #body} is null until the
+     * deferred body has been encoded.
+     */
+    private final DeferredBody deferredBody;
+
     public ExtensionObject(
         @Nonnull ByteString body,
         @Nonnull NodeId encodingId) {
@@ -59,6 +65,7 @@ public final class ExtensionObject {
 
         this.body = body;
         this.encodingId = encodingId;
+        this.deferredBody = null;
 
         if (body instanceof ByteString) {
             bodyType = BodyType.ByteString;
@@ -69,8 +76,24 @@ public final class ExtensionObject {
         }
     }
 
+    private ExtensionObject(
+        @Nonnull DeferredBody deferredBody,
+        @Nonnull NodeId encodingId) {
+
+        this.body = null;
+        this.encodingId = encodingId;
+        this.deferredBody = deferredBody;
+        this.bodyType = BodyType.ByteString;
+
+        decoded.getOrCompute(deferredBody::getObject);
+    }
+
     public Object getBody() {
-        return body;
+        if (deferredBody != null) {
+            return deferredBody.encode(encodingId);
+        } else {
+            return body;
+        }
     }
 
     public BodyType getBodyType() {
@@ -81,7 +104,27 @@ public final class ExtensionObject {
         return encodingId;
     }
 
+    /**
+     * Get the {@link DeferredBody} of an ExtensionObject created by {@link #encodeDeferred} if its body hasn't been
+     * encoded yet.
+     * <p>
+     * Binary encoders can use this to encode the object directly into their output instead of first encoding it
+     * into a {@link ByteString} body.
+     *
+     * @return the {@link DeferredBody}, or {@code null} if this ExtensionObject has an encoded body.
+     */
+    @Nullable
+    public DeferredBody getDeferredBody() {
+        if (deferredBody != null && !deferredBody.isEncoded()) {
+            return deferredBody;
+        } else {
+            return null;
+        }
+    }
+
     public boolean isNull() {
+        if (deferredBody != null) return false;
+
         switch (bodyType) {
             case ByteString:
                 return ((ByteString) body).isNull();
@@ -140,7 +183,7 @@ public final class ExtensionObject {
         EncodingLimits encodingLimits,
         DataTypeManager dataTypeManager) throws UaSerializationException {
 
-        return decoded.getOrCompute(() -> encoding.decode(body, encodingId, encodingLimits, dataTypeManager));
+        return decoded.getOrCompute(() -> encoding.decode(getBody(), encodingId, encodingLimits, dataTypeManager));
     }
 
     @Nullable
@@ -248,6 +291,35 @@ public final class ExtensionObject {
         return new ExtensionObject(body, encodingId);
     }
 
+    /**
+     * Create an ExtensionObject whose Default Binary body isn't encoded until it's needed.
+     * <p>
+     * {@link org.eclipse.milo.opcua.stack.core.serialization.OpcUaBinaryStreamEncoder} encodes {@code object}
+     * directly into its output when it writes the ExtensionObject, avoiding the intermediate {@link ByteString} that
+     * {@link #encode(Object, NodeId, DataTypeEncoding, EncodingLimits, DataTypeManager)} creates. The body is only
+     * encoded into a ByteString if {@link #getBody()} is called.
+     * <p>
+     * {@code object} must not be modified after this ExtensionObject is created.
+     *
+     * @param object          the object to encode.
+     * @param encodingId      the Default Binary encoding id of {@code object}.
+     * @param encodingLimits  the {@link EncodingLimits} to use if the body is encoded into a ByteString.
+     * @param dataTypeManager the {@link DataTypeManager} to find the codec for {@code encodingId} in.
+     * @return an ExtensionObject with a deferred Default Binary body.
+     */
+    public static ExtensionObject encodeDeferred(
+        Object object,
+        NodeId encodingId,
+        EncodingLimits encodingLimits,
+        DataTypeManager dataTypeManager) {
+
+        return new ExtensionObject(new DeferredBody(object, encodingLimits, dataTypeManager), encodingId);
+    }
+
+    /**
+     * ExtensionObjects created by {@link #encodeDeferred} are compared by the object their body is encoded from and
+     * are never equal to an ExtensionObject with an encoded body, so comparing them doesn't encode anything.
+     */
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -256,20 +328,86 @@ public final class ExtensionObject {
         ExtensionObject that = (ExtensionObject) o;
 
         return Objects.equal(body, that.body) &&
+            Objects.equal(deferredBody, that.deferredBody) &&
             Objects.equal(encodingId, that.encodingId);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hashCode(body, encodingId);
+        return Objects.hashCode(body, deferredBody, encodingId);
     }
 
     @Override
     public String toString() {
-        return MoreObjects.toStringHelper(this)
-            .add("encoded", body)
+        MoreObjects.ToStringHelper helper = MoreObjects.toStringHelper(this);
+
+        if (deferredBody != null) {
+            helper.add("deferred", deferredBody);
+        } else {
+            helper.add("encoded", body);
+        }
+
+        return helper
             .add("encodingId", encodingId)
             .toString();
     }
 
+    /**
+     * An object to be encoded as the Default Binary body of an ExtensionObject.
+     */
+    public static final class DeferredBody {
+
+        private final Lazy<ByteString> encoded = new Lazy<>();
+
+        private final Object object;
+        private final EncodingLimits encodingLimits;
+        private final DataTypeManager dataTypeManager;
+
+        private DeferredBody(Object object, EncodingLimits encodingLimits, DataTypeManager dataTypeManager) {
+            this.object = object;
+            this.encodingLimits = encodingLimits;
+            this.dataTypeManager = dataTypeManager;
+        }
+
+        public Object getObject() {
+            return object;
+        }
+
+        public DataTypeManager getDataTypeManager() {
+            return dataTypeManager;
+        }
+
+        private boolean isEncoded() {
+            return encoded.isComputed();
+        }
+
+        private ByteString encode(NodeId encodingId) {
+            return encoded.getOrCompute(() -> (ByteString) OpcUaDefaultBinaryEncoding.getInstance()
+                .encode(object, encodingId, encodingLimits, dataTypeManager));
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            DeferredBody that = (DeferredBody) o;
+
+            return Objects.equal(object, that.object);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(object);
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(this)
+                .add("object", object)
+                .toString();
+        }
+
+    }
+
 }
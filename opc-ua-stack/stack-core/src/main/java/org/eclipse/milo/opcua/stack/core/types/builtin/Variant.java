@@ -17,19 +17,34 @@ import javax.annotation.Nullable;
 
 import com.google.common.base.MoreObjects;
 import com.google.common.base.MoreObjects.ToStringHelper;
+import org.eclipse.milo.opcua.stack.core.BuiltinDataType;
 import org.eclipse.milo.opcua.stack.core.Identifiers;
 import org.eclipse.milo.opcua.stack.core.serialization.UaEnumeration;
 import org.eclipse.milo.opcua.stack.core.serialization.UaStructure;
+import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UByte;
+import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UInteger;
+import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.ULong;
+import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UShort;
 import org.eclipse.milo.opcua.stack.core.util.ArrayUtil;
 import org.eclipse.milo.opcua.stack.core.util.TypeUtil;
 
 import static com.google.common.base.Preconditions.checkArgument;
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.ubyte;
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.uint;
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.ulong;
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.ushort;
 
 public final class Variant {
 
     public static final Variant NULL_VALUE = new Variant(null);
 
-    private final Object value;
+    /**
+     * The boxed value. For a primitive array Variant this is only computed when first requested.
+     */
+    private volatile Object value;
+
+    private final Object primitiveArray;
+    private final BuiltinDataType primitiveArrayType;
 
     /**
      * Create a new Variant with a given value.
@@ -49,9 +64,80 @@ public final class Variant {
         }
 
         this.value = value;
+        this.primitiveArray = null;
+        this.primitiveArrayType = null;
+    }
+
+    private Variant(BuiltinDataType primitiveArrayType, Object primitiveArray) {
+        this.primitiveArrayType = primitiveArrayType;
+        this.primitiveArray = primitiveArray;
+    }
+
+    /**
+     * Create a Variant holding a one-dimensional array of a numeric or Boolean builtin type, backed by a primitive
+     * array rather than an array of boxed values.
+     * <p>
+     * Unsigned types are backed by the signed primitive of the same width, e.g. {@link BuiltinDataType#UInt32} by an
+     * {@code int[]}, whose elements are reinterpreted as unsigned.
+     * <p>
+     * {@link #getValue()} still returns the boxed array, e.g. {@code Double[]} or {@code UInteger[]}, but it's only
+     * created the first time it's requested. Use {@link #getPrimitiveArray()} to access the primitive array directly.
+     *
+     * @param dataType the {@link BuiltinDataType} of the array elements.
+     * @param array    the primitive array backing the Variant; must match {@code dataType}.
+     * @return a new Variant backed by {@code array}.
+     * @throws IllegalArgumentException if {@code array} is not the primitive array type backing {@code dataType}.
+     */
+    public static Variant ofPrimitiveArray(BuiltinDataType dataType, Object array) {
+        Class<?> primitiveClass = getPrimitiveArrayClass(dataType);
+
+        checkArgument(primitiveClass != null, "not a primitive array type: " + dataType);
+        checkArgument(
+            primitiveClass.isInstance(array),
+            "expected " + primitiveClass.getSimpleName() + " for " + dataType);
+
+        return new Variant(dataType, array);
+    }
+
+    /**
+     * @param dataType a {@link BuiltinDataType}.
+     * @return the primitive array class that backs arrays of {@code dataType} in
+     * {@link #ofPrimitiveArray(BuiltinDataType, Object)}, or {@code null} if arrays of {@code dataType} can't be backed
+     * by a primitive array.
+     */
+    @Nullable
+    public static Class<?> getPrimitiveArrayClass(BuiltinDataType dataType) {
+        switch (dataType) {
+            case Boolean:
+                return boolean[].class;
+            case SByte:
+            case Byte:
+                return byte[].class;
+            case Int16:
+            case UInt16:
+                return short[].class;
+            case Int32:
+            case UInt32:
+                return int[].class;
+            case Int64:
+            case UInt64:
+                return long[].class;
+            case Float:
+                return float[].class;
+            case Double:
+                return double[].class;
+            default:
+                return null;
+        }
     }
 
     public Optional<NodeId> getDataType() {
+        if (primitiveArrayType != null) {
+            return Optional.of(primitiveArrayType.getNodeId());
+        }
+
+        Object value = this.value;
+
         if (value == null) return Optional.empty();
 
         if (value instanceof UaStructure) {
@@ -70,11 +156,43 @@ public final class Variant {
     }
 
     public Object getValue() {
-        return value;
+        Object v = value;
+
+        if (v == null && primitiveArray != null) {
+            v = value = box(primitiveArrayType, primitiveArray);
+        }
+
+        return v;
+    }
+
+    /**
+     * @return {@code true} if this Variant is backed by a primitive array.
+     * @see #ofPrimitiveArray(BuiltinDataType, Object)
+     */
+    public boolean isPrimitiveArray() {
+        return primitiveArray != null;
+    }
+
+    /**
+     * @return the primitive array backing this Variant, or {@code null} if it isn't backed by a primitive array.
+     * @see #ofPrimitiveArray(BuiltinDataType, Object)
+     */
+    @Nullable
+    public Object getPrimitiveArray() {
+        return primitiveArray;
+    }
+
+    /**
+     * @return the {@link BuiltinDataType} of the elements of the primitive array backing this Variant, or
+     * {@code null} if it isn't backed by a primitive array.
+     */
+    @Nullable
+    public BuiltinDataType getPrimitiveArrayType() {
+        return primitiveArrayType;
     }
 
     public boolean isNull() {
-        return value == null;
+        return value == null && primitiveArray == null;
     }
 
     public boolean isNotNull() {
@@ -88,7 +206,12 @@ public final class Variant {
 
         Variant variant = (Variant) o;
 
-        return Objects.deepEquals(value, variant.value);
+        if (primitiveArray != null && variant.primitiveArray != null) {
+            return primitiveArrayType == variant.primitiveArrayType &&
+                Objects.deepEquals(primitiveArray, variant.primitiveArray);
+        }
+
+        return Objects.deepEquals(getValue(), variant.getValue());
     }
 
     @Override
@@ -97,6 +220,8 @@ public final class Variant {
     }
 
     private int valueHash() {
+        Object value = getValue();
+
         if (value instanceof Object[]) {
             return Arrays.deepHashCode((Object[]) value);
         } else if (value instanceof boolean[]) {
@@ -122,9 +247,82 @@ public final class Variant {
     public String toString() {
         ToStringHelper helper = MoreObjects.toStringHelper(this);
 
-        helper.add("value", value);
+        helper.add("value", primitiveArray != null ? primitiveArray : value);
 
         return helper.toString();
     }
 
+    private static Object box(BuiltinDataType dataType, Object primitiveArray) {
+        switch (dataType) {
+            case Boolean: {
+                boolean[] a = (boolean[]) primitiveArray;
+                Boolean[] boxed = new Boolean[a.length];
+                for (int i = 0; i < a.length; i++) boxed[i] = a[i];
+                return boxed;
+            }
+            case SByte: {
+                byte[] a = (byte[]) primitiveArray;
+                Byte[] boxed = new Byte[a.length];
+                for (int i = 0; i < a.length; i++) boxed[i] = a[i];
+                return boxed;
+            }
+            case Byte: {
+                byte[] a = (byte[]) primitiveArray;
+                UByte[] boxed = new UByte[a.length];
+                for (int i = 0; i < a.length; i++) boxed[i] = ubyte(a[i] & 0xFF);
+                return boxed;
+            }
+            case Int16: {
+                short[] a = (short[]) primitiveArray;
+                Short[] boxed = new Short[a.length];
+                for (int i = 0; i < a.length; i++) boxed[i] = a[i];
+                return boxed;
+            }
+            case UInt16: {
+                short[] a = (short[]) primitiveArray;
+                UShort[] boxed = new UShort[a.length];
+                for (int i = 0; i < a.length; i++) boxed[i] = ushort(a[i] & 0xFFFF);
+                return boxed;
+            }
+            case Int32: {
+                int[] a = (int[]) primitiveArray;
+                Integer[] boxed = new Integer[a.length];
+                for (int i = 0; i < a.length; i++) boxed[i] = a[i];
+                return boxed;
+            }
+            case UInt32: {
+                int[] a = (int[]) primitiveArray;
+                UInteger[] boxed = new UInteger[a.length];
+                for (int i = 0; i < a.length; i++) boxed[i] = uint(a[i] & 0xFFFFFFFFL);
+                return boxed;
+            }
+            case Int64: {
+                long[] a = (long[]) primitiveArray;
+                Long[] boxed = new Long[a.length];
+                for (int i = 0; i < a.length; i++) boxed[i] = a[i];
+                return boxed;
+            }
+            case UInt64: {
+                long[] a = (long[]) primitiveArray;
+                ULong[] boxed = new ULong[a.length];
+                for (int i = 0; i < a.length; i++) boxed[i] = ulong(a[i]);
+                return boxed;
+            }
+            case Float: {
+                float[] a = (float[]) primitiveArray;
+                Float[] boxed = new Float[a.length];
+                for (int i = 0; i < a.length; i++) boxed[i] = a[i];
+                return boxed;
+            }
+            case Double: {
+                double[] a = (double[]) primitiveArray;
+                Double[] boxed = new Double[a.length];
+                for (int i = 0; i < a.length; i++) boxed[i] = a[i];
+                return boxed;
+            }
+            default:
+                throw new IllegalArgumentException("not a primitive array type: " + dataType);
+        }
+    }
+
 }
@@ -10,8 +10,11 @@
 
 package org.eclipse.milo.opcua.stack.core.util;
 
-import java.util.ArrayDeque;
+import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 import com.google.common.base.Preconditions;
 import org.slf4j.Logger;
@@ -25,146 +28,232 @@ import org.slf4j.LoggerFactory;
  * <p>
  * When {@code concurrency > 1} there are no guarantees beyond the fact that tasks are still pulled from a queue to be
  * executed.
+ * <p>
+ * Submitting and running tasks doesn't lock: tasks are kept in a {@link ConcurrentLinkedDeque} and the number of
+ * tasks running is counted atomically. A queue may optionally be bounded, in which case {@link #offer(Runnable)}
+ * returns {@code false} and {@link #submit(Runnable)} throws when it's full.
  */
 public class ExecutionQueue {
 
+    /**
+     * The maximum number of queued tasks run one after another in a single task on the executor before the rest are
+     * resubmitted to it, so a busy queue doesn't keep an executor thread to itself.
+     */
+    private static final int MAX_TASKS_PER_EXECUTION = 16;
+
     private final Logger log = LoggerFactory.getLogger(getClass());
 
-    private final Object queueLock = new Object();
-    private final ArrayDeque<Runnable> queue = new ArrayDeque<>();
+    private final ConcurrentLinkedDeque<QueuedTask> queue = new ConcurrentLinkedDeque<>();
+
+    private final AtomicInteger depth = new AtomicInteger(0);
+    private final AtomicInteger pending = new AtomicInteger(0);
+    private final LongAdder rejectedCount = new LongAdder();
+    private final LatencyHistogram waitTime = new LatencyHistogram();
 
-    private int pending = 0;
-    private boolean paused = false;
+    private final Runnable drain = this::drain;
+
+    private volatile boolean paused = false;
 
     private final Executor executor;
     private final int concurrencyLimit;
+    private final int capacity;
 
     public ExecutionQueue(Executor executor) {
         this(executor, 1);
     }
 
     public ExecutionQueue(Executor executor, int concurrencyLimit) {
+        this(executor, concurrencyLimit, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param executor         the {@link Executor} to run tasks on.
+     * @param concurrencyLimit the maximum number of tasks to run at once.
+     * @param capacity         the maximum number of tasks to queue; tasks submitted to the head of the queue are
+     *                         always accepted.
+     */
+    public ExecutionQueue(Executor executor, int concurrencyLimit, int capacity) {
+        Preconditions.checkArgument(concurrencyLimit > 0, "concurrencyLimit: " + concurrencyLimit);
+        Preconditions.checkArgument(capacity > 0, "capacity: " + capacity);
+
         this.executor = executor;
         this.concurrencyLimit = concurrencyLimit;
+        this.capacity = capacity;
     }
 
     /**
      * Submit a {@link Runnable} to be executed.
      *
      * @param runnable the {@link Runnable} to be executed.
+     * @throws RejectedExecutionException if the queue is full.
      */
     public void submit(Runnable runnable) {
-        synchronized (queueLock) {
-            queue.add(runnable);
+        if (!offer(runnable)) {
+            throw new RejectedExecutionException("queue full, capacity=" + capacity);
+        }
+    }
+
+    /**
+     * Submit a {@link Runnable} to be executed, unless the queue is full.
+     *
+     * @param runnable the {@link Runnable} to be executed.
+     * @return {@code true} if the {@link Runnable} was queued, or {@code false} if the queue is full.
+     */
+    public boolean offer(Runnable runnable) {
+        Preconditions.checkNotNull(runnable);
+
+        if (!reserve()) {
+            rejectedCount.increment();
 
-            maybePollAndExecute();
+            return false;
         }
+
+        queue.addLast(new QueuedTask(runnable));
+
+        maybeExecute();
+
+        return true;
     }
 
     /**
      * Submit a {@link Runnable} to be executed at the head of the queue.
+     * <p>
+     * The {@link Runnable} is queued even if the queue is full.
      *
      * @param runnable the {@link Runnable} to be executed.
      */
     public void submitToHead(Runnable runnable) {
-        synchronized (queueLock) {
-            queue.addFirst(runnable);
+        Preconditions.checkNotNull(runnable);
 
-            maybePollAndExecute();
-        }
+        depth.incrementAndGet();
+        queue.addFirst(new QueuedTask(runnable));
+
+        maybeExecute();
     }
 
     /**
      * Pause execution of queued {@link java.lang.Runnable}s.
      */
     public void pause() {
-        synchronized (queueLock) {
-            paused = true;
-        }
+        paused = true;
     }
 
     /**
      * Resume execution of queued {@link java.lang.Runnable}s.
      */
     public void resume() {
-        synchronized (queueLock) {
-            paused = false;
+        paused = false;
 
-            maybePollAndExecute();
-        }
+        maybeExecute();
     }
 
-    private void maybePollAndExecute() {
-        synchronized (queueLock) {
-            if (pending < concurrencyLimit && !paused && !queue.isEmpty()) {
-                executor.execute(new Task(queue.poll()));
-                pending++;
-            }
-        }
+    /**
+     * @return the number of tasks queued and not yet started.
+     */
+    public int getQueueDepth() {
+        return depth.get();
     }
 
-    private class Task implements Runnable {
+    /**
+     * @return the maximum number of tasks that may be queued, or {@link Integer#MAX_VALUE} if unbounded.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
 
-        private final Runnable runnable;
+    /**
+     * @return the number of tasks not queued because the queue was full.
+     */
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
 
-        Task(Runnable runnable) {
-            Preconditions.checkNotNull(runnable);
+    /**
+     * @return the time tasks spent queued before they started.
+     */
+    public LatencyHistogram getWaitTime() {
+        return waitTime;
+    }
 
-            this.runnable = runnable;
+    private boolean reserve() {
+        if (capacity == Integer.MAX_VALUE) {
+            depth.incrementAndGet();
+
+            return true;
         }
 
-        @Override
-        public void run() {
-            try {
-                runnable.run();
-            } catch (Throwable throwable) {
-                log.warn("Uncaught Throwable during execution.", throwable);
+        while (true) {
+            int d = depth.get();
+
+            if (d >= capacity) {
+                return false;
+            } else if (depth.compareAndSet(d, d + 1)) {
+                return true;
             }
+        }
+    }
 
-            InlineTask inlineTask = null;
+    private void maybeExecute() {
+        while (!paused && !queue.isEmpty()) {
+            int p = pending.get();
 
-            synchronized (queueLock) {
-                if (queue.isEmpty() || paused) {
-                    pending--;
-                } else {
-                    // pending count remains the same
-                    inlineTask = new InlineTask(queue.poll());
-                }
-            }
+            if (p >= concurrencyLimit) {
+                return;
+            } else if (pending.compareAndSet(p, p + 1)) {
+                execute();
 
-            if (inlineTask != null) {
-                inlineTask.run();
+                return;
             }
         }
     }
 
-    private class InlineTask implements Runnable {
+    private void execute() {
+        try {
+            executor.execute(drain);
+        } catch (RuntimeException e) {
+            pending.decrementAndGet();
 
-        private final Runnable runnable;
+            throw e;
+        }
+    }
 
-        InlineTask(Runnable runnable) {
-            Preconditions.checkNotNull(runnable);
+    private void drain() {
+        for (int i = 0; i < MAX_TASKS_PER_EXECUTION; i++) {
+            QueuedTask task = paused ? null : queue.pollFirst();
 
-            this.runnable = runnable;
-        }
+            if (task == null) {
+                pending.decrementAndGet();
+
+                // a task submitted or a resume() since the poll above may have seen this one still pending
+                maybeExecute();
+
+                return;
+            }
+
+            depth.decrementAndGet();
+            waitTime.record(System.nanoTime() - task.queuedNanos);
 
-        @Override
-        public void run() {
             try {
-                runnable.run();
+                task.runnable.run();
             } catch (Throwable throwable) {
                 log.warn("Uncaught Throwable during execution.", throwable);
             }
+        }
 
-            synchronized (queueLock) {
-                if (queue.isEmpty() || paused) {
-                    pending--;
-                } else {
-                    // pending count remains the same
-                    executor.execute(new Task(queue.poll()));
-                }
-            }
+        // pending count remains the same
+        execute();
+    }
+
+    private static final class QueuedTask {
+
+        private final long queuedNanos = System.nanoTime();
+
+        private final Runnable runnable;
+
+        QueuedTask(Runnable runnable) {
+            this.runnable = runnable;
         }
+
     }
 
 }
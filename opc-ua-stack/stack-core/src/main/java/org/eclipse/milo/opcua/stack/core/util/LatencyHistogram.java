@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2019 the Eclipse Milo Authors
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.milo.opcua.stack.core.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of durations, in nanoseconds, that can be recorded to concurrently without locking.
+ * <p>
+ * Durations are counted in power-of-two buckets: bucket {@code i} counts durations below {@code 2^i} ns that aren't
+ * counted by a lower bucket. Percentiles are therefore reported as the upper bound of a bucket, accurate to within a
+ * factor of two; the maximum is exact.
+ */
+public class LatencyHistogram {
+
+    private static final int BUCKET_COUNT = 64;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong(0L);
+
+    /**
+     * Record a duration.
+     *
+     * @param nanos the duration, in nanoseconds. Negative durations are recorded as 0.
+     */
+    public void record(long nanos) {
+        if (nanos < 0L) nanos = 0L;
+
+        counts.incrementAndGet(bucket(nanos));
+        count.increment();
+        totalNanos.add(nanos);
+
+        long max = maxNanos.get();
+        while (nanos > max && !maxNanos.compareAndSet(max, nanos)) {
+            max = maxNanos.get();
+        }
+    }
+
+    /**
+     * @return the number of durations recorded.
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * @return the mean of the durations recorded, in nanoseconds, or 0 if none were recorded.
+     */
+    public double getMeanNanos() {
+        long n = count.sum();
+
+        return n > 0 ? (double) totalNanos.sum() / n : 0.0;
+    }
+
+    /**
+     * @return the longest duration recorded, in nanoseconds.
+     */
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    /**
+     * Get an upper bound on the durations at a percentile.
+     *
+     * @param percentile the percentile, between 0 and 100.
+     * @return the upper bound, in nanoseconds, of the bucket the percentile falls in, but no more than
+     * {@link #getMaxNanos()}, or 0 if nothing was recorded.
+     */
+    public long getPercentileNanos(double percentile) {
+        long[] snapshot = getCounts();
+
+        long n = 0L;
+        for (long c : snapshot) {
+            n += c;
+        }
+
+        if (n == 0L) return 0L;
+
+        long rank = Math.max(1L, (long) Math.ceil(n * Math.min(100.0, Math.max(0.0, percentile)) / 100.0));
+
+        long seen = 0L;
+        for (int i = 0; i < snapshot.length; i++) {
+            seen += snapshot[i];
+
+            if (seen >= rank) {
+                long upperBound = i < 63 ? (1L << i) - 1L : Long.MAX_VALUE;
+
+                return Math.min(upperBound, getMaxNanos());
+            }
+        }
+
+        return getMaxNanos();
+    }
+
+    /**
+     * @return a copy of the bucket counts; element {@code i} counts durations in {@code [2^(i-1), 2^i)} ns, and
+     * element 0 counts durations of 0.
+     */
+    public long[] getCounts() {
+        long[] snapshot = new long[BUCKET_COUNT];
+
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            snapshot[i] = counts.get(i);
+        }
+
+        return snapshot;
+    }
+
+    /**
+     * Forget everything recorded so far.
+     * <p>
+     * Durations recorded concurrently with a reset may be partially forgotten.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts.set(i, 0L);
+        }
+
+        count.reset();
+        totalNanos.reset();
+        maxNanos.set(0L);
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+            "LatencyHistogram{count=%d, mean=%.0fns, p50=%dns, p99=%dns, max=%dns}",
+            getCount(), getMeanNanos(), getPercentileNanos(50), getPercentileNanos(99), getMaxNanos()
+        );
+    }
+
+    private static int bucket(long nanos) {
+        return Math.min(BUCKET_COUNT - 1, 64 - Long.numberOfLeadingZeros(nanos));
+    }
+
+}
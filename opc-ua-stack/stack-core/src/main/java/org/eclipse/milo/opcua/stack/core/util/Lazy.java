@@ -40,6 +40,13 @@ public final class Lazy<T> {
         }
     }
 
+    /**
+     * @return {@code true} if the value has been computed.
+     */
+    public boolean isComputed() {
+        return value != null;
+    }
+
     private synchronized Object maybeCompute(Supplier<T> supplier) {
         if (value == null) {
             T supplied = supplier.get();
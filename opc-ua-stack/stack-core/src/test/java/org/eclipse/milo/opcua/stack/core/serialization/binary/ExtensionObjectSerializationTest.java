@@ -10,14 +10,26 @@
 
 package org.eclipse.milo.opcua.stack.core.serialization.binary;
 
+import org.eclipse.milo.opcua.stack.core.serialization.EncodingLimits;
+import org.eclipse.milo.opcua.stack.core.types.OpcUaDataTypeManager;
 import org.eclipse.milo.opcua.stack.core.types.builtin.ByteString;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
 import org.eclipse.milo.opcua.stack.core.types.builtin.ExtensionObject;
 import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.Variant;
 import org.eclipse.milo.opcua.stack.core.types.builtin.XmlElement;
+import org.eclipse.milo.opcua.stack.core.types.structured.DataChangeNotification;
+import org.eclipse.milo.opcua.stack.core.types.structured.MonitoredItemNotification;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.uint;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
 
 public class ExtensionObjectSerializationTest extends BinarySerializationFixture {
 
@@ -37,4 +49,70 @@ public class ExtensionObjectSerializationTest extends BinarySerializationFixture
         assertEquals(decoded, xo);
     }
 
+    @Test(description = "ExtensionObject with a deferred body is written as if its body had been encoded first.")
+    public void testDeferredExtensionObject() throws Exception {
+        DataChangeNotification notification = new DataChangeNotification(
+            new MonitoredItemNotification[]{
+                new MonitoredItemNotification(uint(1), new DataValue(new Variant(42))),
+                new MonitoredItemNotification(uint(2), new DataValue(new Variant("foo")))
+            },
+            null
+        );
+
+        ExtensionObject xo = ExtensionObject.encode(notification);
+
+        ExtensionObject deferred = ExtensionObject.encodeDeferred(
+            notification,
+            notification.getBinaryEncodingId(),
+            EncodingLimits.DEFAULT,
+            OpcUaDataTypeManager.getInstance()
+        );
+
+        assertNotNull(deferred.getDeferredBody());
+        assertSame(deferred.decode(), notification);
+
+        writer.writeExtensionObject(deferred);
+        assertEquals(reader.readExtensionObject(), xo);
+
+        // still deferred after being written; the body is only encoded when it's asked for
+        assertNotNull(deferred.getDeferredBody());
+        assertEquals(deferred.getBody(), xo.getBody());
+        assertNull(deferred.getDeferredBody());
+
+        writer.writeExtensionObject(deferred);
+        assertEquals(reader.readExtensionObject(), xo);
+    }
+
+    @Test(description = "equals, hashCode, and toString of an ExtensionObject with a deferred body don't encode it.")
+    public void testDeferredExtensionObjectIdentity() {
+        DataChangeNotification notification = new DataChangeNotification(
+            new MonitoredItemNotification[]{
+                new MonitoredItemNotification(uint(1), new DataValue(new Variant(42)))
+            },
+            null
+        );
+
+        ExtensionObject deferred = ExtensionObject.encodeDeferred(
+            notification,
+            notification.getBinaryEncodingId(),
+            EncodingLimits.DEFAULT,
+            OpcUaDataTypeManager.getInstance()
+        );
+
+        ExtensionObject sameObject = ExtensionObject.encodeDeferred(
+            notification,
+            notification.getBinaryEncodingId(),
+            EncodingLimits.DEFAULT,
+            OpcUaDataTypeManager.getInstance()
+        );
+
+        assertEquals(deferred, sameObject);
+        assertEquals(deferred.hashCode(), sameObject.hashCode());
+        assertNotEquals(deferred, ExtensionObject.encode(notification));
+        assertTrue(deferred.toString().contains("deferred"), deferred.toString());
+
+        assertNotNull(deferred.getDeferredBody());
+        assertNotNull(sameObject.getDeferredBody());
+    }
+
 }
@@ -11,9 +11,11 @@
 package org.eclipse.milo.opcua.stack.core.serialization.binary;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
 import io.netty.buffer.Unpooled;
 import org.eclipse.milo.opcua.stack.core.BuiltinDataType;
 import org.eclipse.milo.opcua.stack.core.serialization.OpcUaBinaryStreamDecoder;
+import org.eclipse.milo.opcua.stack.core.serialization.OpcUaBinaryStreamEncoder;
 import org.eclipse.milo.opcua.stack.core.types.builtin.ExtensionObject;
 import org.eclipse.milo.opcua.stack.core.types.builtin.Variant;
 import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UInteger;
@@ -26,6 +28,7 @@ import org.testng.annotations.Test;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertNotNull;
 import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
 
 public class VariantSerializationTest extends BinarySerializationFixture {
 
@@ -109,4 +112,84 @@ public class VariantSerializationTest extends BinarySerializationFixture {
         assertNull(v.getValue());
     }
 
+    @DataProvider(name = "PrimitiveBackedVariantProvider")
+    public Object[][] getPrimitiveBackedVariants() {
+        return new Object[][]{
+            {Variant.ofPrimitiveArray(BuiltinDataType.Boolean, new boolean[]{true, false, true})},
+            {Variant.ofPrimitiveArray(BuiltinDataType.SByte, new byte[]{-128, 0, 127})},
+            {Variant.ofPrimitiveArray(BuiltinDataType.Byte, new byte[]{0, 1, (byte) 0xFF})},
+            {Variant.ofPrimitiveArray(BuiltinDataType.Int16, new short[]{Short.MIN_VALUE, 0, Short.MAX_VALUE})},
+            {Variant.ofPrimitiveArray(BuiltinDataType.UInt16, new short[]{0, 1, (short) 0xFFFF})},
+            {Variant.ofPrimitiveArray(BuiltinDataType.Int32, new int[]{Integer.MIN_VALUE, 0, Integer.MAX_VALUE})},
+            {Variant.ofPrimitiveArray(BuiltinDataType.UInt32, new int[]{0, 1, 0xFFFFFFFF})},
+            {Variant.ofPrimitiveArray(BuiltinDataType.Int64, new long[]{Long.MIN_VALUE, 0L, Long.MAX_VALUE})},
+            {Variant.ofPrimitiveArray(BuiltinDataType.UInt64, new long[]{0L, 1L, -1L})},
+            {Variant.ofPrimitiveArray(BuiltinDataType.Float, new float[]{-1.5f, 0f, Float.NaN})},
+            {Variant.ofPrimitiveArray(BuiltinDataType.Double, new double[]{-1.5, 0d, Double.MAX_VALUE})},
+            {Variant.ofPrimitiveArray(BuiltinDataType.Double, new double[0])}
+        };
+    }
+
+    @Test(dataProvider = "PrimitiveBackedVariantProvider")
+    public void testPrimitiveBackedVariantRoundTrip(Variant variant) {
+        writer.writeVariant(variant);
+        Variant decoded = reader.readVariant();
+
+        assertTrue(decoded.isPrimitiveArray());
+        assertEquals(decoded, variant);
+        assertEquals(decoded.getValue(), variant.getValue());
+    }
+
+    @Test(dataProvider = "PrimitiveBackedVariantProvider")
+    public void testPrimitiveBackedVariantEncodedAsBoxed(Variant variant) {
+        writer.writeVariant(variant);
+        ByteBuf primitiveEncoding = buffer.copy();
+
+        buffer.clear();
+        writer.writeVariant(new Variant(variant.getValue()));
+
+        assertEquals(buffer, primitiveEncoding);
+    }
+
+    @Test(dataProvider = "PrimitiveBackedVariantProvider")
+    public void testPrimitiveBackedVariantEncodedIntoOtherBuffers(Variant variant) {
+        writer.writeVariant(variant);
+
+        ByteBuf direct = Unpooled.directBuffer();
+        new OpcUaBinaryStreamEncoder(direct).writeVariant(variant);
+
+        assertEquals(direct, buffer);
+
+        // the encoding spans the components, so it can't be written through a single NIO view
+        CompositeByteBuf composite = Unpooled.compositeBuffer();
+        composite.addComponent(true, Unpooled.directBuffer(1).writeByte(0));
+        composite.addComponent(true, Unpooled.directBuffer(1).writeByte(0));
+        new OpcUaBinaryStreamEncoder(composite).writeVariant(variant);
+
+        assertEquals(composite.skipBytes(2), buffer);
+    }
+
+    @Test(dataProvider = "PrimitiveBackedVariantProvider")
+    public void testPrimitiveBackedVariantDecodedFromCompositeBuffer(Variant variant) {
+        writer.writeVariant(variant);
+
+        // split the encoding so the decoder can't use a single NIO view of it
+        int split = buffer.readableBytes() / 2;
+        CompositeByteBuf composite = Unpooled.compositeBuffer();
+        composite.addComponent(true, buffer.copy(0, split));
+        composite.addComponent(true, buffer.copy(split, buffer.readableBytes() - split));
+
+        Variant decoded = new OpcUaBinaryStreamDecoder(composite).readVariant();
+
+        assertEquals(decoded, variant);
+    }
+
+    @Test
+    public void testMultiDimensionalArrayDecodedAsBoxed() {
+        writer.writeVariant(new Variant(new Double[][]{{0.0, 1.0}, {2.0, 3.0}}));
+        Variant decoded = reader.readVariant();
+
+        assertEquals(decoded.getValue(), new Double[][]{{0.0, 1.0}, {2.0, 3.0}});
+    }
+
 }
@@ -10,8 +10,21 @@
 
 package org.eclipse.milo.opcua.stack.core.types.builtin;
 
+import org.eclipse.milo.opcua.stack.core.BuiltinDataType;
+import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UByte;
+import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UInteger;
+import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.ULong;
+import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UShort;
 import org.testng.annotations.Test;
 
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.ubyte;
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.uint;
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.ulong;
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.ushort;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
 public class VariantTest {
 
     @Test
@@ -34,4 +47,53 @@ public class VariantTest {
         new Variant(DiagnosticInfo.NULL_VALUE);
     }
 
+    @Test
+    public void testPrimitiveArrayBoxedLazily() {
+        double[] array = new double[]{0.0, 1.5, -2.5};
+        Variant v = Variant.ofPrimitiveArray(BuiltinDataType.Double, array);
+
+        assertTrue(v.isPrimitiveArray());
+        assertEquals(v.getPrimitiveArray(), array);
+        assertEquals(v.getPrimitiveArrayType(), BuiltinDataType.Double);
+        assertEquals(v.getDataType().orElse(null), BuiltinDataType.Double.getNodeId());
+        assertEquals(v.getValue(), new Double[]{0.0, 1.5, -2.5});
+    }
+
+    @Test
+    public void testPrimitiveArrayUnsignedValues() {
+        Variant bytes = Variant.ofPrimitiveArray(BuiltinDataType.Byte, new byte[]{0, (byte) 0xFF});
+        Variant shorts = Variant.ofPrimitiveArray(BuiltinDataType.UInt16, new short[]{0, (short) 0xFFFF});
+        Variant ints = Variant.ofPrimitiveArray(BuiltinDataType.UInt32, new int[]{0, 0xFFFFFFFF});
+        Variant longs = Variant.ofPrimitiveArray(BuiltinDataType.UInt64, new long[]{0L, -1L});
+
+        assertEquals(bytes.getValue(), new UByte[]{ubyte(0), ubyte(255)});
+        assertEquals(shorts.getValue(), new UShort[]{ushort(0), ushort(65535)});
+        assertEquals(ints.getValue(), new UInteger[]{uint(0), uint(0xFFFFFFFFL)});
+        assertEquals(longs.getValue(), new ULong[]{ulong(0L), ULong.MAX});
+    }
+
+    @Test
+    public void testPrimitiveArrayEqualsBoxedArray() {
+        Variant primitive = Variant.ofPrimitiveArray(BuiltinDataType.Int32, new int[]{1, 2, 3});
+        Variant boxed = new Variant(new Integer[]{1, 2, 3});
+
+        assertEquals(primitive, boxed);
+        assertEquals(boxed, primitive);
+        assertEquals(primitive.hashCode(), boxed.hashCode());
+
+        Variant unsigned = Variant.ofPrimitiveArray(BuiltinDataType.UInt32, new int[]{1, 2, 3});
+
+        assertFalse(primitive.equals(unsigned));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void primitiveArrayMustMatchDataType() {
+        Variant.ofPrimitiveArray(BuiltinDataType.Double, new float[]{1.0f});
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void primitiveArrayMustBeNumericOrBoolean() {
+        Variant.ofPrimitiveArray(BuiltinDataType.String, new String[]{"foo"});
+    }
+
 }
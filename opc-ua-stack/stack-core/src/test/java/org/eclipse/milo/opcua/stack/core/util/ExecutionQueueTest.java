@@ -10,9 +10,15 @@
 
 package org.eclipse.milo.opcua.stack.core.util;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -20,6 +26,8 @@ import org.testng.annotations.Test;
 
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.expectThrows;
 
 public class ExecutionQueueTest {
 
@@ -65,4 +73,66 @@ public class ExecutionQueueTest {
         assertEquals(count.get(), 100000);
     }
 
+    @Test
+    public void testPauseAndSubmitToHead() throws InterruptedException {
+        ExecutionQueue queue = new ExecutionQueue(executor);
+
+        List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch latch = new CountDownLatch(4);
+
+        queue.pause();
+
+        queue.submit(() -> {
+            order.add(2);
+            latch.countDown();
+        });
+        queue.submit(() -> {
+            order.add(3);
+            latch.countDown();
+        });
+        queue.submitToHead(() -> {
+            order.add(1);
+            latch.countDown();
+        });
+        queue.submitToHead(() -> {
+            order.add(0);
+            latch.countDown();
+        });
+
+        Thread.sleep(100);
+        assertTrue(order.isEmpty());
+        assertEquals(queue.getQueueDepth(), 4);
+
+        queue.resume();
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(order, Arrays.asList(0, 1, 2, 3));
+        assertEquals(queue.getQueueDepth(), 0);
+        assertEquals(queue.getWaitTime().getCount(), 4L);
+    }
+
+    @Test
+    public void testCapacity() throws InterruptedException {
+        ExecutionQueue queue = new ExecutionQueue(executor, 1, 2);
+
+        CountDownLatch latch = new CountDownLatch(3);
+
+        queue.pause();
+
+        assertTrue(queue.offer(latch::countDown));
+        queue.submit(latch::countDown);
+        assertFalse(queue.offer(latch::countDown));
+        expectThrows(RejectedExecutionException.class, () -> queue.submit(latch::countDown));
+        assertEquals(queue.getRejectedCount(), 2L);
+
+        // the head of the queue is always accepted
+        queue.submitToHead(latch::countDown);
+        assertEquals(queue.getQueueDepth(), 3);
+
+        queue.resume();
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertTrue(queue.offer(() -> {}));
+    }
+
 }
@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2019 the Eclipse Milo Authors
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.milo.opcua.stack.core.util;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testEmpty() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        assertEquals(histogram.getCount(), 0L);
+        assertEquals(histogram.getMeanNanos(), 0.0);
+        assertEquals(histogram.getPercentileNanos(50), 0L);
+        assertEquals(histogram.getMaxNanos(), 0L);
+    }
+
+    @Test
+    public void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        for (int i = 0; i < 99; i++) {
+            histogram.record(1000L);
+        }
+        histogram.record(1_000_000L);
+
+        assertEquals(histogram.getCount(), 100L);
+        assertEquals(histogram.getMaxNanos(), 1_000_000L);
+        assertEquals(histogram.getMeanNanos(), (99 * 1000.0 + 1_000_000.0) / 100);
+
+        // 1000ns is counted in the bucket for [512, 1024)
+        assertEquals(histogram.getPercentileNanos(50), 1023L);
+        assertEquals(histogram.getPercentileNanos(99), 1023L);
+        assertEquals(histogram.getPercentileNanos(100), 1_000_000L);
+        assertEquals(histogram.getCounts()[10], 99L);
+    }
+
+    @Test
+    public void testNegativeAndReset() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        histogram.record(-5L);
+        histogram.record(Long.MAX_VALUE);
+
+        assertEquals(histogram.getCounts()[0], 1L);
+        assertEquals(histogram.getPercentileNanos(100), Long.MAX_VALUE);
+
+        histogram.reset();
+
+        assertEquals(histogram.getCount(), 0L);
+        assertTrue(histogram.toString().contains("count=0"));
+    }
+
+}
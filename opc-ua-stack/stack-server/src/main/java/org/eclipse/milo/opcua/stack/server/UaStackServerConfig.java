@@ -101,6 +101,12 @@ public interface UaStackServerConfig {
      */
     ExecutorService getExecutor();
 
+    /**
+     * @return {@code true} if requests received on a secure channel should be decrypted, verified, and decoded in
+     * parallel on the executor rather than one at a time. Requests are still dispatched in the order received.
+     */
+    boolean isParallelDecodingEnabled();
+
     /**
      * @return a new {@link UaStackServerConfigBuilder}.
      */
@@ -132,6 +138,7 @@ public interface UaStackServerConfig {
         builder.setHttpsKeyPair(config.getHttpsKeyPair().orElse(null));
         builder.setHttpsCertificate(config.getHttpsCertificate().orElse(null));
         builder.setExecutor(config.getExecutor());
+        builder.setParallelDecodingEnabled(config.isParallelDecodingEnabled());
 
         return builder;
     }
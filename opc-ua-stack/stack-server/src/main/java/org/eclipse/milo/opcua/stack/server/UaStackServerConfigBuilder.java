@@ -49,6 +49,8 @@ public class UaStackServerConfigBuilder {
 
     private ExecutorService executor;
 
+    private boolean parallelDecodingEnabled = false;
+
     public UaStackServerConfigBuilder setEndpoints(Set<EndpointConfiguration> endpointConfigurations) {
         this.endpoints = endpointConfigurations;
         return this;
@@ -109,6 +111,11 @@ public class UaStackServerConfigBuilder {
         return this;
     }
 
+    public UaStackServerConfigBuilder setParallelDecodingEnabled(boolean parallelDecodingEnabled) {
+        this.parallelDecodingEnabled = parallelDecodingEnabled;
+        return this;
+    }
+
     public UaStackServerConfig build() {
         if (executor == null) {
             executor = Stack.sharedExecutor();
@@ -126,7 +133,8 @@ public class UaStackServerConfigBuilder {
             certificateValidator,
             httpsKeyPair,
             httpsCertificate,
-            executor
+            executor,
+            parallelDecodingEnabled
         );
     }
 
@@ -151,6 +159,8 @@ public class UaStackServerConfigBuilder {
 
         private final ExecutorService executor;
 
+        private final boolean parallelDecodingEnabled;
+
         UaStackServerConfigImpl(
             Set<EndpointConfiguration> endpointConfigurations,
             LocalizedText applicationName,
@@ -163,7 +173,8 @@ public class UaStackServerConfigBuilder {
             CertificateValidator certificateValidator,
             @Nullable KeyPair httpsKeyPair,
             @Nullable X509Certificate httpsCertificate,
-            ExecutorService executor) {
+            ExecutorService executor,
+            boolean parallelDecodingEnabled) {
 
             this.endpointConfigurations = endpointConfigurations;
             this.applicationName = applicationName;
@@ -177,6 +188,7 @@ public class UaStackServerConfigBuilder {
             this.httpsKeyPair = httpsKeyPair;
             this.httpsCertificate = httpsCertificate;
             this.executor = executor;
+            this.parallelDecodingEnabled = parallelDecodingEnabled;
         }
 
         @Override
@@ -239,6 +251,11 @@ public class UaStackServerConfigBuilder {
             return executor;
         }
 
+        @Override
+        public boolean isParallelDecodingEnabled() {
+            return parallelDecodingEnabled;
+        }
+
     }
 
 }
@@ -183,7 +183,8 @@ public class UascServerHelloHandler extends ByteToMessageDecoder implements Head
         SerializationQueue serializationQueue = new SerializationQueue(
             stackServer.getConfig().getExecutor(),
             parameters,
-            stackServer.getConfig().getEncodingLimits()
+            stackServer.getConfig().getEncodingLimits(),
+            stackServer.getConfig().isParallelDecodingEnabled()
         );
 
         ctx.pipeline().addLast(new UascServerAsymmetricHandler(stackServer, transportProfile, serializationQueue));
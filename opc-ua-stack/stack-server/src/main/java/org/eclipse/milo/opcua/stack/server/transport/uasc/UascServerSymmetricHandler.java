@@ -18,18 +18,18 @@ import io.netty.buffer.ByteBuf;
 import io.netty.buffer.CompositeByteBuf;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.ByteToMessageDecoder;
-import io.netty.util.ReferenceCountUtil;
 import org.eclipse.milo.opcua.stack.core.StatusCodes;
 import org.eclipse.milo.opcua.stack.core.UaException;
 import org.eclipse.milo.opcua.stack.core.UaSerializationException;
 import org.eclipse.milo.opcua.stack.core.channel.ChannelSecurity;
-import org.eclipse.milo.opcua.stack.core.channel.ChunkDecoder;
 import org.eclipse.milo.opcua.stack.core.channel.ChunkEncoder;
 import org.eclipse.milo.opcua.stack.core.channel.MessageAbortedException;
 import org.eclipse.milo.opcua.stack.core.channel.SerializationQueue;
+import org.eclipse.milo.opcua.stack.core.channel.SerializationQueue.MessageCallback;
 import org.eclipse.milo.opcua.stack.core.channel.ServerSecureChannel;
 import org.eclipse.milo.opcua.stack.core.channel.headers.HeaderDecoder;
 import org.eclipse.milo.opcua.stack.core.channel.messages.MessageType;
+import org.eclipse.milo.opcua.stack.core.serialization.UaMessage;
 import org.eclipse.milo.opcua.stack.core.serialization.UaRequestMessage;
 import org.eclipse.milo.opcua.stack.core.serialization.UaResponseMessage;
 import org.eclipse.milo.opcua.stack.core.types.builtin.DateTime;
@@ -131,87 +131,90 @@ public class UascServerSymmetricHandler extends ByteToMessageDecoder implements
                 final List<ByteBuf> buffersToDecode = chunkBuffers;
                 chunkBuffers = new ArrayList<>();
 
-                serializationQueue.decode((binaryDecoder, chunkDecoder) -> {
-                    try {
-                        validateChunkHeaders(buffersToDecode);
-                    } catch (UaException e) {
-                        logger.error("Error validating chunk headers: {}", e.getMessage(), e);
-                        buffersToDecode.forEach(ReferenceCountUtil::safeRelease);
-                        ctx.fireExceptionCaught(e);
-                        return;
+                serializationQueue.decodeSymmetric(secureChannel, buffersToDecode, new MessageCallback() {
+                    @Override
+                    public void validateChunks(List<ByteBuf> chunkBuffers) throws UaException {
+                        validateChunkHeaders(chunkBuffers);
                     }
 
-                    chunkDecoder.decodeSymmetric(secureChannel, buffersToDecode, new ChunkDecoder.Callback() {
-                        @Override
-                        public void onDecodingError(UaException ex) {
-                            logger.error(
-                                "Error decoding symmetric message: {}",
-                                ex.getMessage(), ex);
+                    @Override
+                    public void onValidationError(UaException ex) {
+                        logger.error("Error validating chunk headers: {}", ex.getMessage(), ex);
 
-                            ctx.close();
-                        }
+                        ctx.fireExceptionCaught(ex);
+                    }
 
-                        @Override
-                        public void onMessageAborted(MessageAbortedException ex) {
-                            logger.warn(
-                                "Received message abort chunk; error={}, reason={}",
-                                ex.getStatusCode(), ex.getMessage());
-                        }
+                    @Override
+                    public void onDecodingError(UaException ex) {
+                        logger.error(
+                            "Error decoding symmetric message: {}",
+                            ex.getMessage(), ex);
 
-                        @Override
-                        public void onMessageDecoded(ByteBuf message, long requestId) {
-                            UaRequestMessage request = (UaRequestMessage) binaryDecoder
-                                .setBuffer(message)
-                                .readMessage(null);
-                            
-                            stackServer.getConfig().getExecutor().execute(() -> {
-                                try {
-                                    String endpointUrl = ctx
-                                        .channel()
-                                        .attr(UascServerHelloHandler.ENDPOINT_URL_KEY)
-                                        .get();
-
-                                    EndpointDescription endpoint = ctx
-                                        .channel()
-                                        .attr(UascServerAsymmetricHandler.ENDPOINT_KEY)
-                                        .get();
-
-                                    String path = EndpointUtil.getPath(endpointUrl);
-
-                                    InetSocketAddress remoteSocketAddress =
-                                        (InetSocketAddress) ctx.channel().remoteAddress();
-
-                                    ServiceRequest serviceRequest = new ServiceRequest(
-                                        stackServer,
-                                        request,
-                                        endpoint,
-                                        secureChannel.getChannelId(),
-                                        remoteSocketAddress.getAddress(),
-                                        secureChannel.getRemoteCertificateBytes()
-                                    );
-
-                                    serviceRequest.getFuture().whenComplete((response, fault) -> {
-                                        if (response != null) {
-                                            sendServiceResponse(ctx, requestId, request, response);
-                                        } else {
-                                            UInteger requestHandle = request.getRequestHeader().getRequestHandle();
-
-                                            sendServiceFault(ctx, requestId, requestHandle, fault);
-                                        }
-                                    });
-
-                                    stackServer.onServiceRequest(path, serviceRequest);
-                                } catch (Throwable t) {
-                                    logger.error("Error decoding UaRequestMessage", t);
-
-                                    sendServiceFault(ctx, requestId, uint(0), t);
-                                } finally {
-                                    message.release();
-                                    buffersToDecode.clear();
-                                }
-                            });
-                        }
-                    });
+                        ctx.close();
+                    }
+
+                    @Override
+                    public void onMessageAborted(MessageAbortedException ex) {
+                        logger.warn(
+                            "Received message abort chunk; error={}, reason={}",
+                            ex.getStatusCode(), ex.getMessage());
+                    }
+
+                    @Override
+                    public void onMessageDecoded(UaMessage message, long requestId) {
+                        UaRequestMessage request = (UaRequestMessage) message;
+
+                        stackServer.getConfig().getExecutor().execute(() -> {
+                            try {
+                                String endpointUrl = ctx
+                                    .channel()
+                                    .attr(UascServerHelloHandler.ENDPOINT_URL_KEY)
+                                    .get();
+
+                                EndpointDescription endpoint = ctx
+                                    .channel()
+                                    .attr(UascServerAsymmetricHandler.ENDPOINT_KEY)
+                                    .get();
+
+                                String path = EndpointUtil.getPath(endpointUrl);
+
+                                InetSocketAddress remoteSocketAddress =
+                                    (InetSocketAddress) ctx.channel().remoteAddress();
+
+                                ServiceRequest serviceRequest = new ServiceRequest(
+                                    stackServer,
+                                    request,
+                                    endpoint,
+                                    secureChannel.getChannelId(),
+                                    remoteSocketAddress.getAddress(),
+                                    secureChannel.getRemoteCertificateBytes()
+                                );
+
+                                serviceRequest.getFuture().whenComplete((response, fault) -> {
+                                    if (response != null) {
+                                        sendServiceResponse(ctx, requestId, request, response);
+                                    } else {
+                                        UInteger requestHandle = request.getRequestHeader().getRequestHandle();
+
+                                        sendServiceFault(ctx, requestId, requestHandle, fault);
+                                    }
+                                });
+
+                                stackServer.onServiceRequest(path, serviceRequest);
+                            } catch (Throwable t) {
+                                logger.error("Error decoding UaRequestMessage", t);
+
+                                sendServiceFault(ctx, requestId, uint(0), t);
+                            }
+                        });
+                    }
+
+                    @Override
+                    public void onMessageDecodingError(long requestId, Throwable ex) {
+                        logger.error("Error decoding UaRequestMessage", ex);
+
+                        sendServiceFault(ctx, requestId, uint(0), ex);
+                    }
                 });
             }
         }
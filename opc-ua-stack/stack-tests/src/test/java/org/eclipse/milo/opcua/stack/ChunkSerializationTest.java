@@ -21,6 +21,7 @@ import org.eclipse.milo.opcua.stack.client.transport.uasc.ClientSecureChannel;
 import org.eclipse.milo.opcua.stack.core.UaException;
 import org.eclipse.milo.opcua.stack.core.channel.MessageLimits;
 import org.eclipse.milo.opcua.stack.core.channel.ChannelParameters;
+import org.eclipse.milo.opcua.stack.core.channel.ChannelSecurity;
 import org.eclipse.milo.opcua.stack.core.channel.ChunkDecoder;
 import org.eclipse.milo.opcua.stack.core.channel.ChunkEncoder;
 import org.eclipse.milo.opcua.stack.core.channel.MessageAbortedException;
@@ -29,8 +30,10 @@ import org.eclipse.milo.opcua.stack.core.channel.ServerSecureChannel;
 import org.eclipse.milo.opcua.stack.core.channel.messages.MessageType;
 import org.eclipse.milo.opcua.stack.core.security.SecurityPolicy;
 import org.eclipse.milo.opcua.stack.core.serialization.EncodingLimits;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DateTime;
 import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UInteger;
 import org.eclipse.milo.opcua.stack.core.types.enumerated.MessageSecurityMode;
+import org.eclipse.milo.opcua.stack.core.types.structured.ChannelSecurityToken;
 import org.eclipse.milo.opcua.stack.core.util.BufferUtil;
 import org.eclipse.milo.opcua.stack.core.util.LongSequence;
 import org.slf4j.Logger;
@@ -40,6 +43,8 @@ import org.testng.annotations.Test;
 
 import static org.eclipse.milo.opcua.stack.core.channel.MessageLimits.DEFAULT_MAX_CHUNK_SIZE;
 import static org.eclipse.milo.opcua.stack.core.channel.MessageLimits.DEFAULT_MAX_MESSAGE_SIZE;
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.uint;
+import static org.eclipse.milo.opcua.stack.core.util.NonceUtil.generateNonce;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.fail;
 
@@ -323,4 +328,108 @@ public class ChunkSerializationTest extends SecureChannelFixture {
         }
     }
 
+    @Test(dataProvider = "getSymmetricSecurityParameters")
+    public void testSymmetricMessageWithPreviousToken(SecurityPolicy securityPolicy,
+                                                      MessageSecurityMode messageSecurity) throws Exception {
+
+        if (messageSecurity == MessageSecurityMode.None) return;
+
+        logger.info(
+            "Symmetric chunk serialization with previous token, " +
+                "securityPolicy={}, messageSecurityMode={}",
+            securityPolicy, messageSecurity);
+
+        ChunkEncoder encoder = new ChunkEncoder(defaultParameters);
+
+        ChunkDecoder decoder = new ChunkDecoder(
+            defaultParameters,
+            EncodingLimits.DEFAULT_MAX_ARRAY_LENGTH,
+            EncodingLimits.DEFAULT_MAX_STRING_LENGTH
+        );
+
+        SecureChannel[] channels = generateChannels(securityPolicy, messageSecurity);
+        ClientSecureChannel clientChannel = (ClientSecureChannel) channels[0];
+        ServerSecureChannel serverChannel = (ServerSecureChannel) channels[1];
+
+        // the server renews the token before the client has received the response
+        ChannelSecurity previousSecurity = serverChannel.getChannelSecurity();
+
+        serverChannel.setLocalNonce(generateNonce(securityPolicy));
+        serverChannel.setRemoteNonce(generateNonce(securityPolicy));
+
+        ChannelSecurity.SecurityKeys renewedKeys = ChannelSecurity.generateKeyPair(
+            serverChannel,
+            serverChannel.getRemoteNonce(),
+            serverChannel.getLocalNonce()
+        );
+
+        ChannelSecurityToken renewedToken = new ChannelSecurityToken(
+            uint(0), uint(2), DateTime.now(), uint(60000));
+
+        serverChannel.setChannelSecurity(new ChannelSecurity(
+            renewedKeys,
+            renewedToken,
+            previousSecurity.getCurrentKeys(),
+            previousSecurity.getCurrentToken()
+        ));
+
+        // more than one message so the cached Mac and Cipher are reused
+        for (long requestId = 1; requestId <= 3; requestId++) {
+            byte[] messageBytes = new byte[1024];
+            for (int i = 0; i < messageBytes.length; i++) {
+                messageBytes[i] = (byte) (i + requestId);
+            }
+
+            ByteBuf messageBuffer = BufferUtil.pooledBuffer().writeBytes(messageBytes);
+
+            List<ByteBuf> chunkBuffers = new ArrayList<>();
+
+            encoder.encodeSymmetric(
+                clientChannel,
+                requestId,
+                messageBuffer,
+                MessageType.SecureMessage,
+                new ChunkEncoder.Callback() {
+                    @Override
+                    public void onEncodingError(UaException ex) {
+                        fail("onEncodingError", ex);
+                    }
+
+                    @Override
+                    public void onMessageEncoded(List<ByteBuf> messageChunks, long requestId) {
+                        chunkBuffers.addAll(messageChunks);
+                    }
+                }
+            );
+
+            List<ByteBuf> decoded = new ArrayList<>();
+
+            decoder.decodeSymmetric(serverChannel, chunkBuffers, new ChunkDecoder.Callback() {
+                    @Override
+                    public void onDecodingError(UaException ex) {
+                        fail("onDecodingError", ex);
+                    }
+
+                    @Override
+                    public void onMessageAborted(MessageAbortedException ex) {
+                        fail("onMessageAborted", ex);
+                    }
+
+                    @Override
+                    public void onMessageDecoded(ByteBuf message, long requestId) {
+                        decoded.add(message);
+                    }
+                }
+            );
+
+            assertEquals(decoded.size(), 1);
+
+            messageBuffer.readerIndex(0);
+            assertEquals(decoded.get(0), messageBuffer);
+
+            ReferenceCountUtil.release(messageBuffer);
+            ReferenceCountUtil.release(decoded.get(0));
+        }
+    }
+
 }
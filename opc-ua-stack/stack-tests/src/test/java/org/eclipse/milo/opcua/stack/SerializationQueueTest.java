@@ -0,0 +1,311 @@
+/*
+ * Copyright (c) 2019 the Eclipse Milo Authors
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.milo.opcua.stack;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import io.netty.buffer.ByteBuf;
+import org.eclipse.milo.opcua.stack.client.transport.uasc.ClientSecureChannel;
+import org.eclipse.milo.opcua.stack.core.UaException;
+import org.eclipse.milo.opcua.stack.core.channel.ChannelParameters;
+import org.eclipse.milo.opcua.stack.core.channel.ChunkEncoder;
+import org.eclipse.milo.opcua.stack.core.channel.MessageAbortedException;
+import org.eclipse.milo.opcua.stack.core.channel.SecureChannel;
+import org.eclipse.milo.opcua.stack.core.channel.SerializationQueue;
+import org.eclipse.milo.opcua.stack.core.channel.ServerSecureChannel;
+import org.eclipse.milo.opcua.stack.core.channel.messages.MessageType;
+import org.eclipse.milo.opcua.stack.core.security.SecurityPolicy;
+import org.eclipse.milo.opcua.stack.core.serialization.EncodingLimits;
+import org.eclipse.milo.opcua.stack.core.serialization.OpcUaBinaryStreamEncoder;
+import org.eclipse.milo.opcua.stack.core.serialization.UaMessage;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DateTime;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.MessageSecurityMode;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.TimestampsToReturn;
+import org.eclipse.milo.opcua.stack.core.types.structured.ReadRequest;
+import org.eclipse.milo.opcua.stack.core.types.structured.ReadValueId;
+import org.eclipse.milo.opcua.stack.core.types.structured.RequestHeader;
+import org.eclipse.milo.opcua.stack.core.util.BufferUtil;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import static org.eclipse.milo.opcua.stack.core.channel.MessageLimits.DEFAULT_MAX_CHUNK_SIZE;
+import static org.eclipse.milo.opcua.stack.core.channel.MessageLimits.DEFAULT_MAX_MESSAGE_SIZE;
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.uint;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+public class SerializationQueueTest extends SecureChannelFixture {
+
+    private static final int MESSAGE_COUNT = 200;
+
+    private final ChannelParameters parameters = new ChannelParameters(
+        DEFAULT_MAX_MESSAGE_SIZE,
+        DEFAULT_MAX_CHUNK_SIZE,
+        DEFAULT_MAX_CHUNK_SIZE,
+        0,
+        DEFAULT_MAX_MESSAGE_SIZE,
+        DEFAULT_MAX_CHUNK_SIZE,
+        DEFAULT_MAX_CHUNK_SIZE,
+        0
+    );
+
+    private ExecutorService executor;
+
+    @BeforeClass
+    public void setUpExecutor() {
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterClass
+    public void tearDownExecutor() {
+        executor.shutdownNow();
+    }
+
+    @DataProvider
+    public Object[][] getSecurityParameters() {
+        return new Object[][]{
+            {SecurityPolicy.None, MessageSecurityMode.None, false},
+            {SecurityPolicy.None, MessageSecurityMode.None, true},
+            {SecurityPolicy.Basic256Sha256, MessageSecurityMode.SignAndEncrypt, false},
+            {SecurityPolicy.Basic256Sha256, MessageSecurityMode.SignAndEncrypt, true}
+        };
+    }
+
+    @Test(dataProvider = "getSecurityParameters")
+    public void testMessagesDeliveredInOrder(
+        SecurityPolicy securityPolicy,
+        MessageSecurityMode messageSecurity,
+        boolean parallelDecoding) throws Exception {
+
+        SecureChannel[] channels = generateChannels(securityPolicy, messageSecurity);
+        ClientSecureChannel clientChannel = (ClientSecureChannel) channels[0];
+        ServerSecureChannel serverChannel = (ServerSecureChannel) channels[1];
+
+        List<List<ByteBuf>> messages = encodeMessages(clientChannel, MESSAGE_COUNT);
+
+        SerializationQueue queue = new SerializationQueue(
+            executor, parameters, EncodingLimits.DEFAULT, parallelDecoding);
+
+        RecordingCallback callback = new RecordingCallback(MESSAGE_COUNT);
+
+        messages.forEach(chunks -> queue.decodeSymmetric(serverChannel, chunks, callback));
+
+        assertTrue(callback.latch.await(10, TimeUnit.SECONDS));
+        assertTrue(callback.errors.isEmpty());
+        assertEquals(callback.requestIds.size(), MESSAGE_COUNT);
+
+        for (int i = 0; i < MESSAGE_COUNT; i++) {
+            assertEquals(callback.requestIds.get(i).longValue(), i + 1);
+
+            ReadRequest request = (ReadRequest) callback.messages.get(i);
+            assertEquals(request.getRequestHeader().getRequestHandle(), uint(i));
+        }
+    }
+
+    @Test(dataProvider = "getSecurityParameters")
+    public void testSequenceNumbersChecked(
+        SecurityPolicy securityPolicy,
+        MessageSecurityMode messageSecurity,
+        boolean parallelDecoding) throws Exception {
+
+        SecureChannel[] channels = generateChannels(securityPolicy, messageSecurity);
+        ClientSecureChannel clientChannel = (ClientSecureChannel) channels[0];
+        ServerSecureChannel serverChannel = (ServerSecureChannel) channels[1];
+
+        List<List<ByteBuf>> messages = encodeMessages(clientChannel, 3);
+        Collections.swap(messages, 1, 2);
+
+        SerializationQueue queue = new SerializationQueue(
+            executor, parameters, EncodingLimits.DEFAULT, parallelDecoding);
+
+        RecordingCallback callback = new RecordingCallback(3);
+
+        messages.forEach(chunks -> queue.decodeSymmetric(serverChannel, chunks, callback));
+
+        assertTrue(callback.latch.await(10, TimeUnit.SECONDS));
+        // the out-of-order message is rejected; the one it jumped ahead of is still accepted
+        assertEquals(callback.errors.size(), 1);
+        assertEquals(callback.requestIds, Arrays.asList(1L, 2L));
+    }
+
+    @Test(dataProvider = "getSecurityParameters")
+    public void testValidationFailureDoesNotStallPipeline(
+        SecurityPolicy securityPolicy,
+        MessageSecurityMode messageSecurity,
+        boolean parallelDecoding) throws Exception {
+
+        SecureChannel[] channels = generateChannels(securityPolicy, messageSecurity);
+        ClientSecureChannel clientChannel = (ClientSecureChannel) channels[0];
+        ServerSecureChannel serverChannel = (ServerSecureChannel) channels[1];
+
+        List<List<ByteBuf>> messages = encodeMessages(clientChannel, 3);
+
+        SerializationQueue queue = new SerializationQueue(
+            executor, parameters, EncodingLimits.DEFAULT, parallelDecoding);
+
+        List<ByteBuf> malformed = messages.get(1);
+
+        RecordingCallback callback = new RecordingCallback(3) {
+            @Override
+            public void validateChunks(List<ByteBuf> chunkBuffers) {
+                if (chunkBuffers == malformed) throw new IllegalStateException("malformed");
+            }
+        };
+
+        messages.forEach(chunks -> queue.decodeSymmetric(serverChannel, chunks, callback));
+
+        // every message gets an outcome, and the malformed one's buffers are released
+        assertTrue(callback.latch.await(10, TimeUnit.SECONDS));
+        assertEquals(callback.requestIds.get(0).longValue(), 1L);
+        assertTrue(callback.errors.get(0) instanceof UaException);
+        malformed.forEach(b -> assertEquals(b.refCnt(), 0));
+    }
+
+    @Test(dataProvider = "getSecurityParameters")
+    public void testDeliveryFailureReportedAsDecodingError(
+        SecurityPolicy securityPolicy,
+        MessageSecurityMode messageSecurity,
+        boolean parallelDecoding) throws Exception {
+
+        SecureChannel[] channels = generateChannels(securityPolicy, messageSecurity);
+        ClientSecureChannel clientChannel = (ClientSecureChannel) channels[0];
+        ServerSecureChannel serverChannel = (ServerSecureChannel) channels[1];
+
+        List<List<ByteBuf>> messages = encodeMessages(clientChannel, 3);
+
+        SerializationQueue queue = new SerializationQueue(
+            executor, parameters, EncodingLimits.DEFAULT, parallelDecoding);
+
+        RecordingCallback callback = new RecordingCallback(4) {
+            @Override
+            public void onMessageDecoded(UaMessage message, long requestId) {
+                super.onMessageDecoded(message, requestId);
+
+                if (requestId == 1L) throw new IllegalStateException("callback failed");
+            }
+        };
+
+        messages.forEach(chunks -> queue.decodeSymmetric(serverChannel, chunks, callback));
+
+        assertTrue(callback.latch.await(10, TimeUnit.SECONDS));
+        assertEquals(callback.requestIds, Arrays.asList(1L, 2L, 3L));
+        assertEquals(callback.errors.size(), 1);
+    }
+
+    private List<List<ByteBuf>> encodeMessages(ClientSecureChannel channel, int count) {
+        ChunkEncoder encoder = new ChunkEncoder(parameters);
+        OpcUaBinaryStreamEncoder binaryEncoder = new OpcUaBinaryStreamEncoder(EncodingLimits.DEFAULT);
+
+        List<List<ByteBuf>> messages = new ArrayList<>();
+
+        for (int i = 0; i < count; i++) {
+            RequestHeader header = new RequestHeader(
+                NodeId.NULL_VALUE, DateTime.now(), uint(i), uint(0), null, uint(10000), null);
+
+            ReadValueId[] nodesToRead = new ReadValueId[100];
+            for (int j = 0; j < nodesToRead.length; j++) {
+                nodesToRead[j] = new ReadValueId(new NodeId(2, j), uint(13), null, null);
+            }
+
+            ReadRequest request = new ReadRequest(header, 0.0, TimestampsToReturn.Both, nodesToRead);
+
+            ByteBuf messageBuffer = BufferUtil.pooledBuffer();
+
+            try {
+                binaryEncoder.setBuffer(messageBuffer);
+                binaryEncoder.writeMessage(null, request);
+
+                encoder.encodeSymmetric(
+                    channel,
+                    i + 1,
+                    messageBuffer,
+                    MessageType.SecureMessage,
+                    new ChunkEncoder.Callback() {
+                        @Override
+                        public void onEncodingError(UaException ex) {
+                            fail("onEncodingError", ex);
+                        }
+
+                        @Override
+                        public void onMessageEncoded(List<ByteBuf> messageChunks, long requestId) {
+                            messages.add(new ArrayList<>(messageChunks));
+                        }
+                    }
+                );
+            } finally {
+                messageBuffer.release();
+            }
+        }
+
+        return messages;
+    }
+
+    private static class RecordingCallback implements SerializationQueue.MessageCallback {
+
+        final List<Long> requestIds = new CopyOnWriteArrayList<>();
+        final List<UaMessage> messages = new CopyOnWriteArrayList<>();
+        final List<Throwable> errors = new CopyOnWriteArrayList<>();
+
+        final CountDownLatch latch;
+
+        RecordingCallback(int count) {
+            latch = new CountDownLatch(count);
+        }
+
+        @Override
+        public void validateChunks(List<ByteBuf> chunkBuffers) {}
+
+        @Override
+        public void onValidationError(UaException ex) {
+            errors.add(ex);
+            latch.countDown();
+        }
+
+        @Override
+        public void onDecodingError(UaException ex) {
+            errors.add(ex);
+            latch.countDown();
+        }
+
+        @Override
+        public void onMessageAborted(MessageAbortedException ex) {
+            errors.add(ex);
+            latch.countDown();
+        }
+
+        @Override
+        public void onMessageDecoded(UaMessage message, long requestId) {
+            requestIds.add(requestId);
+            messages.add(message);
+            latch.countDown();
+        }
+
+        @Override
+        public void onMessageDecodingError(long requestId, Throwable ex) {
+            errors.add(ex);
+            latch.countDown();
+        }
+
+    }
+
+}
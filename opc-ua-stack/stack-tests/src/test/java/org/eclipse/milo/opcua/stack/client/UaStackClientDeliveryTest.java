@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2019 the Eclipse Milo Authors
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.milo.opcua.stack.client;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.milo.opcua.stack.client.transport.UaTransport;
+import org.eclipse.milo.opcua.stack.core.serialization.UaRequestMessage;
+import org.eclipse.milo.opcua.stack.core.serialization.UaResponseMessage;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DateTime;
+import org.eclipse.milo.opcua.stack.core.types.builtin.StatusCode;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.TimestampsToReturn;
+import org.eclipse.milo.opcua.stack.core.types.structured.ReadRequest;
+import org.eclipse.milo.opcua.stack.core.types.structured.ReadResponse;
+import org.eclipse.milo.opcua.stack.core.types.structured.RequestHeader;
+import org.eclipse.milo.opcua.stack.core.types.structured.ResponseHeader;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class UaStackClientDeliveryTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @AfterClass
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testOrdered() throws Exception {
+        TestTransport transport = new TestTransport();
+        UaStackClient client = client(ResponseDeliveryMode.ORDERED, transport);
+
+        List<Integer> delivered = new CopyOnWriteArrayList<>();
+        List<CompletableFuture<?>> futures = new ArrayList<>();
+
+        for (int i = 0; i < 1000; i++) {
+            final int n = i;
+            futures.add(client.sendRequest(request(client)).thenAccept(r -> delivered.add(n)));
+        }
+
+        transport.respondAll();
+
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(delivered.get(i), Integer.valueOf(i));
+        }
+
+        assertEquals(client.getDeliveryLag().getCount(), 1000L);
+        assertEquals(client.getPendingDeliveries(), 0);
+    }
+
+    @Test
+    public void testOrderedByKey() throws Exception {
+        TestTransport transport = new TestTransport();
+        UaStackClient client = client(ResponseDeliveryMode.ORDERED_BY_KEY, transport);
+
+        List<List<Integer>> delivered = new ArrayList<>();
+        for (int k = 0; k < 4; k++) {
+            delivered.add(new CopyOnWriteArrayList<>());
+        }
+
+        List<CompletableFuture<?>> futures = new ArrayList<>();
+
+        for (int i = 0; i < 1000; i++) {
+            final int n = i;
+            final int key = i % 4;
+            futures.add(
+                client.sendRequest(request(client), key)
+                    .thenAccept(r -> delivered.get(key).add(n))
+            );
+        }
+
+        transport.respondAll();
+
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+
+        for (int k = 0; k < 4; k++) {
+            List<Integer> d = delivered.get(k);
+            assertEquals(d.size(), 250);
+            for (int i = 0; i < d.size(); i++) {
+                assertEquals(d.get(i), Integer.valueOf(i * 4 + k));
+            }
+        }
+
+        // a slow callback for one key doesn't hold up delivery for another
+        assertDeliveredConcurrently(client, transport, 0, 1);
+    }
+
+    @Test
+    public void testUnordered() throws Exception {
+        TestTransport transport = new TestTransport();
+        UaStackClient client = client(ResponseDeliveryMode.UNORDERED, transport);
+
+        assertDeliveredConcurrently(client, transport, 0, 0);
+
+        assertEquals(client.getDeliveryLag().getCount(), 2L);
+    }
+
+    private void assertDeliveredConcurrently(
+        UaStackClient client,
+        TestTransport transport,
+        Object key1,
+        Object key2) throws Exception {
+
+        CountDownLatch secondDelivered = new CountDownLatch(1);
+
+        CompletableFuture<Boolean> first = client.sendRequest(request(client), key1)
+            .thenApply(r -> {
+                try {
+                    return secondDelivered.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    return false;
+                }
+            });
+
+        CompletableFuture<?> second = client.sendRequest(request(client), key2)
+            .thenAccept(r -> secondDelivered.countDown());
+
+        transport.respondAll();
+
+        second.get(5, TimeUnit.SECONDS);
+        assertTrue(first.get(5, TimeUnit.SECONDS));
+    }
+
+    private UaStackClient client(ResponseDeliveryMode mode, UaTransport transport) {
+        UaStackClientConfig config = UaStackClientConfig.builder()
+            .setExecutor(executor)
+            .setResponseDeliveryMode(mode)
+            .build();
+
+        return new UaStackClient(config, transport);
+    }
+
+    private static ReadRequest request(UaStackClient client) {
+        return new ReadRequest(client.newRequestHeader(), 0.0, TimestampsToReturn.Both, null);
+    }
+
+    /**
+     * Holds on to requests until {@link #respondAll()} responds to them, in the order they were sent.
+     */
+    private static class TestTransport implements UaTransport {
+
+        private final List<UaRequestMessage> requests = new ArrayList<>();
+        private final List<CompletableFuture<UaResponseMessage>> futures = new ArrayList<>();
+
+        @Override
+        public CompletableFuture<UaTransport> connect() {
+            return CompletableFuture.completedFuture(this);
+        }
+
+        @Override
+        public CompletableFuture<UaTransport> disconnect() {
+            return CompletableFuture.completedFuture(this);
+        }
+
+        @Override
+        public synchronized CompletableFuture<UaResponseMessage> sendRequest(UaRequestMessage request) {
+            CompletableFuture<UaResponseMessage> future = new CompletableFuture<>();
+            requests.add(request);
+            futures.add(future);
+            return future;
+        }
+
+        synchronized void respondAll() {
+            for (int i = 0; i < requests.size(); i++) {
+                RequestHeader requestHeader = requests.get(i).getRequestHeader();
+
+                ResponseHeader responseHeader = new ResponseHeader(
+                    DateTime.now(),
+                    requestHeader.getRequestHandle(),
+                    StatusCode.GOOD,
+                    null,
+                    null,
+                    null
+                );
+
+                futures.get(i).complete(new ReadResponse(responseHeader, null, null));
+            }
+
+            requests.clear();
+            futures.clear();
+        }
+
+    }
+
+}
@@ -15,6 +15,7 @@ import java.util.List;
 import java.util.Optional;
 
 import org.eclipse.milo.opcua.stack.SecurityFixture;
+import org.eclipse.milo.opcua.stack.client.ResponseDeliveryMode;
 import org.eclipse.milo.opcua.stack.client.UaStackClientConfig;
 import org.eclipse.milo.opcua.stack.core.Stack;
 import org.eclipse.milo.opcua.stack.core.UaException;
@@ -48,6 +49,7 @@ public class UaStackClientConfigTest extends SecurityFixture {
             .setEventLoop(Stack.sharedEventLoop())
             .setWheelTimer(Stack.sharedWheelTimer())
             .setAcknowledgeTimeout(uint(12345))
+            .setResponseDeliveryMode(ResponseDeliveryMode.UNORDERED)
             .build();
 
         UaStackClientConfig copy = UaStackClientConfig.copy(original).build();
@@ -62,6 +64,7 @@ public class UaStackClientConfigTest extends SecurityFixture {
         assertEquals(copy.getEventLoop(), original.getEventLoop());
         assertEquals(copy.getWheelTimer(), original.getWheelTimer());
         assertEquals(copy.getAcknowledgeTimeout(), original.getAcknowledgeTimeout());
+        assertEquals(copy.getResponseDeliveryMode(), original.getResponseDeliveryMode());
     }
 
     @Test